@@ -0,0 +1,66 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates the libraries and catalogue files the benchmarks run against.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a library holding generated books and members and nothing else.
+     *
+     * @param books   The number of books.
+     * @param members The number of members.
+     * @return The library.
+     */
+    static LibraryLendingSystem createLibrary(int books, int members) {
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        Map<String, Book> bookMap = new HashMap<>();
+        for (int i = 0; i < books; i++) {
+            Book book = new Book("Title " + i, "Author " + (i % 5000));
+            bookMap.put(book.getBookId(), book);
+        }
+        Map<String, Member> memberMap = new HashMap<>();
+        for (int i = 0; i < members; i++) {
+            Member member = new Member("Member " + i, "Address " + i);
+            memberMap.put(member.getMemberId(), member);
+        }
+        library.setBooks(bookMap);
+        library.setMembers(memberMap);
+        return library;
+    }
+
+    /**
+     * Writes a pretty-printed catalogue of generated books, in the format of the example catalogue.
+     *
+     * @param records The number of books.
+     * @return The catalogue file, which the caller deletes.
+     * @throws IOException if the file cannot be written.
+     */
+    static Path writeCatalogue(int records) throws IOException {
+        Path file = Files.createTempFile("catalogue", ".json");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < records; i++) {
+                writer.write("  {\n    \"title\": \"Title " + i + "\",\n    \"author\": \"Author " + (i % 5000) + "\"\n  }");
+                writer.write(i + 1 < records ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,71 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.util.BookParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a catalogue file of 1k, 100k and 1M books with BookParser.
+ * Runs on one thread; pass {@code -t} to JMH to load the same file on several at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookParserBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private Path catalogue;
+
+    /**
+     * Writes the catalogue file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        catalogue = BenchmarkData.writeCatalogue(records);
+    }
+
+    /**
+     * Deletes the catalogue file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(catalogue);
+    }
+
+    /**
+     * Parses the whole catalogue into a map of books.
+     *
+     * @return The books.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public Map<String, Book> parseBooks() throws IOException {
+        return new BookParser().parseBooks(catalogue.toString());
+    }
+}
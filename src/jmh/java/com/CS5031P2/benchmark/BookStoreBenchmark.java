@@ -0,0 +1,153 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.BookStore;
+import com.CS5031P2.backend.model.CompactBookStore;
+import com.CS5031P2.backend.model.OffHeapBookStore;
+import com.CS5031P2.backend.util.PersistentMap;
+import com.CS5031P2.backend.util.StringDictionary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory footprint and lookup time of four ways of holding a catalogue of 100k and 1M books:
+ * a persistent map of books that each own their author string, as loaded before authors were shared; the
+ * same map with authors shared through a {@link StringDictionary}, as the library holds them by default; a
+ * {@link CompactBookStore}; and an {@link OffHeapBookStore} in direct buffers, the other two catalogue
+ * stores. The footprint is the heap still in use after a full collection, per book, and is reported as the
+ * {@code bytesPerBook} secondary result, with the memory an off-heap store holds per book as
+ * {@code offHeapBytesPerBook}. JMH sums such counters over iterations, so the footprint is measured once per
+ * trial.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class BookStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    @Param({"objects", "dedupedAuthors", "compact", "offHeap"})
+    public String layout;
+
+    private Object store;
+    private String[] bookIds;
+
+    /**
+     * The retained heap of the last catalogue built, reported with each footprint measurement.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerBook;
+        public double offHeapBytesPerBook;
+    }
+
+    /**
+     * Builds a catalogue for the lookup benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookIds = new String[books];
+        store = build(bookIds);
+    }
+
+    /**
+     * Builds a whole catalogue and measures how much heap it retains.
+     *
+     * @param footprint Receives the retained bytes per book.
+     * @return The catalogue.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 1)
+    public Object footprint(Footprint footprint) {
+        store = null;
+        long before = usedHeap();
+        Object built = build(null);
+        long after = usedHeap();
+        footprint.bytesPerBook = (double) (after - before) / books;
+        if (built instanceof OffHeapBookStore offHeap) {
+            footprint.offHeapBytesPerBook = (double) offHeap.offHeapBytes() / books;
+        }
+        store = built;
+        return built;
+    }
+
+    /**
+     * Looks up one random book by its ID.
+     *
+     * @return The book.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @SuppressWarnings("unchecked")
+    public Book lookup() {
+        String bookId = bookIds[ThreadLocalRandom.current().nextInt(books)];
+        return store instanceof BookStore bookStore
+                ? bookStore.get(bookId) : ((PersistentMap<String, Book>) store).get(bookId);
+    }
+
+    /**
+     * Generates the catalogue in the benchmark's layout, with the same titles and authors as the other benchmarks.
+     * Each book is created with its own author string, as the parsers create them.
+     *
+     * @param ids Receives the IDs of the books, or null when they are not needed.
+     * @return The catalogue.
+     */
+    private Object build(String[] ids) {
+        StringDictionary authors = new StringDictionary();
+        BookStore bookStore = switch (layout) {
+            case "compact" -> new CompactBookStore(books);
+            case "offHeap" -> new OffHeapBookStore();
+            default -> null;
+        };
+        PersistentMap.Builder<String, Book> builder = bookStore == null ? PersistentMap.<String, Book>empty().toBuilder() : null;
+        for (int i = 0; i < books; i++) {
+            Book book = new Book("Title " + i, "Author " + (i % 5000));
+            if (ids != null) {
+                ids[i] = book.getBookId();
+            }
+            if (bookStore != null) {
+                bookStore.put(book);
+                continue;
+            }
+            if (layout.equals("dedupedAuthors")) {
+                book.setAuthor(authors.dedupe(book.getAuthor()));
+            }
+            builder.put(book.getBookId(), book);
+        }
+        return bookStore != null ? bookStore : builder.build();
+    }
+
+    /**
+     * Measures the heap in use after collecting everything unreachable.
+     *
+     * @return The bytes in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
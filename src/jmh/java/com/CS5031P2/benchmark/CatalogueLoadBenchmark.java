@@ -0,0 +1,99 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.util.BookParser;
+import com.CS5031P2.backend.util.FileUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a book catalogue into a map between the original read-whole-file-then-bind approach
+ * and the streaming BookParser. Run with {@code -prof gc} to compare the memory each load allocates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CatalogueLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int records;
+
+    private Path catalogue;
+
+    /**
+     * Writes the catalogue file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        catalogue = BenchmarkData.writeCatalogue(records);
+    }
+
+    /**
+     * Deletes the catalogue file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(catalogue);
+    }
+
+    /**
+     * Loads the catalogue the way BookParser did before it streamed: the whole file as a string,
+     * bound to a list of maps, then copied into two successive maps.
+     *
+     * @return The books.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public Map<String, Book> bindWholeFile() throws IOException {
+        String jsonContent = FileUtil.readFile(catalogue.toString());
+        List<Map<String, Object>> jsonNodes = new ObjectMapper().readValue(jsonContent, new TypeReference<>() {});
+
+        Map<String, Object> parsedObjects = new HashMap<>();
+        for (Map<String, Object> entry : jsonNodes) {
+            Book book = new Book((String) entry.get("title"), (String) entry.get("author"));
+            parsedObjects.put(book.getBookId(), book);
+        }
+        return parsedObjects.entrySet().stream()
+                .collect(HashMap::new,
+                        (result, entry) -> result.put(entry.getKey(), (Book) entry.getValue()),
+                        HashMap::putAll);
+    }
+
+    /**
+     * Loads the catalogue with the streaming BookParser.
+     *
+     * @return The books.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public Map<String, Book> streaming() throws IOException {
+        return new BookParser().parseBooks(catalogue.toString());
+    }
+}
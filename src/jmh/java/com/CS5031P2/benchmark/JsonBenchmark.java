@@ -0,0 +1,113 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting books and members to and from JSON.
+ * Runs on one thread; pass {@code -t} to JMH to run it on several.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final int BORROWED_BOOKS = 3;
+
+    private Book book;
+    private String bookJson;
+    private String memberJson;
+
+    /**
+     * Creates a checked-out book and a member borrowing a few books, and their JSON.
+     *
+     * @throws JSONException if the JSON cannot be built.
+     */
+    @Setup
+    public void setUp() throws JSONException {
+        Member member = new Member("Member Name", "1 Member Street");
+        book = new Book("Adventures of Tom Sawyer", "Mark Twain");
+        book.setCheckedOut(true);
+        book.setBorrowedId(member.getMemberId());
+        bookJson = jsonOf(book).toString();
+
+        JSONObject borrowedBooks = new JSONObject();
+        for (int i = 0; i < BORROWED_BOOKS; i++) {
+            Book borrowed = new Book("Title " + i, "Author " + i);
+            borrowed.setCheckedOut(true);
+            borrowed.setBorrowedId(member.getMemberId());
+            borrowedBooks.put(borrowed.getBookId(), jsonOf(borrowed));
+        }
+        memberJson = new JSONObject()
+                .put("memberId", member.getMemberId())
+                .put("name", member.getName())
+                .put("address", member.getAddress())
+                .put("borrowedBooks", borrowedBooks)
+                .toString();
+    }
+
+    /**
+     * Serializes a book.
+     *
+     * @return The JSON.
+     */
+    @Benchmark
+    public String bookToJson() {
+        return book.toJson();
+    }
+
+    /**
+     * Parses a book.
+     *
+     * @return The book.
+     * @throws JSONException if the JSON cannot be parsed.
+     */
+    @Benchmark
+    public Book bookFromJson() throws JSONException {
+        return Book.fromJson(bookJson);
+    }
+
+    /**
+     * Parses a member and the books it has borrowed.
+     *
+     * @return The member.
+     * @throws JSONException if the JSON cannot be parsed.
+     */
+    @Benchmark
+    public Member memberFromJson() throws JSONException {
+        return Member.fromJson(memberJson);
+    }
+
+    /**
+     * Builds the JSON that {@link Book#fromJson(String)} reads.
+     *
+     * @param book The book.
+     * @return The book's JSON.
+     * @throws JSONException if the JSON cannot be built.
+     */
+    private static JSONObject jsonOf(Book book) throws JSONException {
+        return new JSONObject()
+                .put("bookId", book.getBookId())
+                .put("title", book.getTitle())
+                .put("author", book.getAuthor())
+                .put("checkedOut", book.isCheckedOut())
+                .put("borrowedId", book.getBorrowedId());
+    }
+}
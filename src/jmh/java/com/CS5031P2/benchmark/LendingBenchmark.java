@@ -0,0 +1,118 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lending hot paths of LibraryLendingSystem over catalogues of 1k, 100k and 1M books,
+ * on one thread and on every available processor.
+ * Each checkout picks a random member and book and, if the book was lent, returns it again, so the
+ * catalogue stays in its starting state. Every member starts with a few books borrowed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LendingBenchmark {
+
+    private static final int MEMBERS = 1_000;
+    private static final int BORROWED_PER_MEMBER = 3;
+
+    @Param({"1000", "100000", "1000000"})
+    public int books;
+
+    private LibraryLendingSystem library;
+    private String[] bookIds;
+    private String[] memberIds;
+
+    /**
+     * Creates the library and lends each member its first few books.
+     */
+    @Setup
+    public void setUp() {
+        library = BenchmarkData.createLibrary(books, MEMBERS);
+        bookIds = library.getBooks().keySet().toArray(new String[0]);
+        memberIds = library.getMembers().keySet().toArray(new String[0]);
+
+        int lent = Math.min(books / 2, MEMBERS * BORROWED_PER_MEMBER);
+        for (int i = 0; i < lent; i++) {
+            library.checkOutBook(memberIds[i % MEMBERS], bookIds[i]);
+        }
+    }
+
+    /**
+     * Checks out a random book and returns it, on one thread.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean checkOutAndReturn() {
+        return lend();
+    }
+
+    /**
+     * Checks out a random book and returns it, on every available processor.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean checkOutAndReturnContended() {
+        return lend();
+    }
+
+    /**
+     * Looks up a random member's borrowed books, on one thread.
+     *
+     * @return The borrowed books.
+     */
+    @Benchmark
+    @Threads(1)
+    public Map<String, Book> getBorrowedBooks() {
+        return library.getBorrowedBooks(randomMember());
+    }
+
+    /**
+     * Looks up a random member's borrowed books, on every available processor.
+     *
+     * @return The borrowed books.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Map<String, Book> getBorrowedBooksContended() {
+        return library.getBorrowedBooks(randomMember());
+    }
+
+    private boolean lend() {
+        String memberId = randomMember();
+        String bookId = bookIds[ThreadLocalRandom.current().nextInt(bookIds.length)];
+        boolean lent = library.checkOutBook(memberId, bookId);
+        if (lent) {
+            library.returnBook(memberId, bookId);
+        }
+        return lent;
+    }
+
+    private String randomMember() {
+        return memberIds[ThreadLocalRandom.current().nextInt(memberIds.length)];
+    }
+}
@@ -0,0 +1,184 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares checkout/return throughput under contention between the compare-and-set lending core and
+ * the striped-lock implementation it replaced.
+ * Every thread repeatedly picks a random member and book, checks the book out and, if that succeeded,
+ * returns it. A small book set models the opening-hour burst where many desks scan the same popular copies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LendingContentionBenchmark {
+
+    private static final int MEMBERS = 1_000;
+    private static final int STRIPES = 256;
+
+    @Param({"16", "100000"})
+    public int books;
+
+    @Param({"compare-and-set", "striped-locks"})
+    public String lending;
+
+    private Lending implementation;
+    private String[] bookIds;
+    private String[] memberIds;
+
+    /**
+     * A way of checking out and returning books.
+     */
+    private interface Lending {
+        boolean checkOut(String memberId, String bookId);
+
+        boolean giveBack(String memberId, String bookId);
+    }
+
+    /**
+     * Creates the library and the lending being measured.
+     */
+    @Setup
+    public void setUp() {
+        LibraryLendingSystem library = BenchmarkData.createLibrary(books, MEMBERS);
+        bookIds = library.getBooks().keySet().toArray(new String[0]);
+        memberIds = library.getMembers().keySet().toArray(new String[0]);
+        implementation = "striped-locks".equals(lending) ? lockedLending(library) : new Lending() {
+            @Override
+            public boolean checkOut(String memberId, String bookId) {
+                return library.checkOutBook(memberId, bookId);
+            }
+
+            @Override
+            public boolean giveBack(String memberId, String bookId) {
+                return library.returnBook(memberId, bookId);
+            }
+        };
+    }
+
+    /**
+     * Checks out a random book and returns it, on one thread.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean uncontended() {
+        return lend();
+    }
+
+    /**
+     * Checks out a random book and returns it, on every available processor.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean contended() {
+        return lend();
+    }
+
+    /**
+     * Builds the lending the library used before checkouts were lock-free: both stripes are locked in
+     * index order, the book's status is checked and the loan is made under them.
+     *
+     * @param library The library to lend from.
+     * @return The striped-lock lending.
+     */
+    private static Lending lockedLending(LibraryLendingSystem library) {
+        ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        return new Lending() {
+            @Override
+            public boolean checkOut(String memberId, String bookId) {
+                int a = stripe(memberId);
+                int b = stripe(bookId);
+                lock(a, b);
+                try {
+                    Member member = library.getMembers().get(memberId);
+                    Book book = library.getBooks().get(bookId);
+                    if (member == null || book == null || book.isCheckedOut()) {
+                        return false;
+                    }
+                    member.borrowBook(book);
+                    return true;
+                } finally {
+                    unlock(a, b);
+                }
+            }
+
+            @Override
+            public boolean giveBack(String memberId, String bookId) {
+                int a = stripe(memberId);
+                int b = stripe(bookId);
+                lock(a, b);
+                try {
+                    Member member = library.getMembers().get(memberId);
+                    Book book = library.getBooks().get(bookId);
+                    if (member == null || book == null || !book.isCheckedOut()
+                            || !member.getBorrowedBooks().containsKey(bookId)) {
+                        return false;
+                    }
+                    member.returnBook(book);
+                    return true;
+                } finally {
+                    unlock(a, b);
+                }
+            }
+
+            private int stripe(String id) {
+                int hash = id.hashCode();
+                return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+            }
+
+            private void lock(int a, int b) {
+                stripes[Math.min(a, b)].lock();
+                if (a != b) {
+                    stripes[Math.max(a, b)].lock();
+                }
+            }
+
+            private void unlock(int a, int b) {
+                if (a != b) {
+                    stripes[Math.max(a, b)].unlock();
+                }
+                stripes[Math.min(a, b)].unlock();
+            }
+        };
+    }
+
+    private boolean lend() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String memberId = memberIds[random.nextInt(memberIds.length)];
+        String bookId = bookIds[random.nextInt(bookIds.length)];
+        boolean lent = implementation.checkOut(memberId, bookId);
+        if (lent) {
+            implementation.giveBack(memberId, bookId);
+        }
+        return lent;
+    }
+}
@@ -0,0 +1,131 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full-text book search, fuzzy search and title suggestions over catalogues of 1k, 100k and 1M books.
+ * Every generated title contains the word "title" and every author the word "author", so each query pairs
+ * a word that matches the whole catalogue with one that matches a single title or a few hundred authors.
+ * Every other book is checked out, so searches limited to available books must skip half of their matches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int LIMIT = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    public int books;
+
+    private LibraryLendingSystem library;
+
+    /**
+     * Creates the library, which indexes every book as it is loaded, and checks out every other book.
+     */
+    @Setup
+    public void setUp() {
+        library = BenchmarkData.createLibrary(books, 1);
+        String memberId = library.getMembers().keySet().iterator().next();
+        List<String> lent = new ArrayList<>();
+        int i = 0;
+        for (String bookId : library.getBooks().keySet()) {
+            if (i++ % 2 == 0) {
+                lent.add(bookId);
+            }
+        }
+        library.checkOutBooks(memberId, lent, false);
+    }
+
+    /**
+     * Searches for one random title.
+     *
+     * @return The matching books.
+     */
+    @Benchmark
+    public List<Book> searchTitle() {
+        return library.searchBooks("Title " + ThreadLocalRandom.current().nextInt(books), LIMIT);
+    }
+
+    /**
+     * Searches for the books of one random author, of which there are up to a few hundred.
+     *
+     * @return The best matching books.
+     */
+    @Benchmark
+    public List<Book> searchAuthor() {
+        return library.searchBooks("author " + ThreadLocalRandom.current().nextInt(Math.min(books, 5000)), LIMIT);
+    }
+
+    /**
+     * Searches for the books of one random author with the word "author" misspelt. Every title and author
+     * number is a distinct word, so the vocabulary the misspelling is matched against grows with the catalogue.
+     *
+     * @return The best matching books.
+     */
+    @Benchmark
+    public List<Book> fuzzySearchAuthor() {
+        return library.fuzzySearchBooks("autor " + ThreadLocalRandom.current().nextInt(Math.min(books, 5000)),
+                LibraryLendingSystem.DEFAULT_SIMILARITY, LIMIT);
+    }
+
+    /**
+     * Searches the available books of one random author, skipping those on loan before ranking.
+     *
+     * @return The best matching available books.
+     */
+    @Benchmark
+    public List<Book> searchAvailableAuthor() {
+        return library.searchAvailableBooks("author " + ThreadLocalRandom.current().nextInt(Math.min(books, 5000)), LIMIT);
+    }
+
+    /**
+     * Lists one screen of available books from the availability bitmap.
+     *
+     * @return The available books.
+     */
+    @Benchmark
+    public List<Book> listAvailable() {
+        return library.getAvailableBooks(LIMIT);
+    }
+
+    /**
+     * Counts the available books.
+     *
+     * @return The count.
+     */
+    @Benchmark
+    public int countAvailable() {
+        return library.countAvailableBooks();
+    }
+
+    /**
+     * Suggests completions of the first digits of a random title number.
+     *
+     * @return The suggestions.
+     */
+    @Benchmark
+    public List<String> suggestTitle() {
+        return library.suggestBooks("title " + ThreadLocalRandom.current().nextInt(100), LibraryLendingSystem.DEFAULT_SUGGESTIONS);
+    }
+}
@@ -0,0 +1,149 @@
+package com.CS5031P2.benchmark;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.persistence.Journal;
+import com.CS5031P2.backend.persistence.JournalStorageEngine;
+import com.CS5031P2.backend.persistence.MappedStorageEngine;
+import com.CS5031P2.backend.persistence.PersistenceManager;
+import com.CS5031P2.backend.persistence.SqlStorageEngine;
+import com.CS5031P2.backend.persistence.StorageEngine;
+import com.CS5031P2.backend.persistence.WriteBehindStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures checkouts and returns, each made durable before it returns, with each storage engine behind a
+ * library of 100k books. The in-memory engine is the baseline with nothing to store, and the database is
+ * also measured behind a write-behind journal, which acknowledges before the database is written.
+ * Each engine writes to a fresh temporary directory, which is deleted afterwards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StorageEngineBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final int MEMBERS = 1_000;
+    private static final String WRITE_BEHIND_SQL = "sql-write-behind";
+
+    @Param({PersistenceManager.MEMORY, PersistenceManager.JOURNAL, PersistenceManager.MAPPED, PersistenceManager.SQL,
+            WRITE_BEHIND_SQL})
+    public String engine;
+
+    private LibraryLendingSystem library;
+    private StorageEngine storage;
+    private Path directory;
+    private String[] bookIds;
+    private String[] memberIds;
+
+    /**
+     * Creates the library and seeds the engine with it.
+     *
+     * @throws IOException if the library or engine cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        library = BenchmarkData.createLibrary(BOOKS, MEMBERS);
+        bookIds = library.getBooks().keySet().toArray(new String[0]);
+        memberIds = library.getMembers().keySet().toArray(new String[0]);
+        directory = Files.createTempDirectory("storage");
+        storage = switch (engine) {
+            case PersistenceManager.JOURNAL -> new JournalStorageEngine(directory.resolve("journal"),
+                    Journal.DEFAULT_SEGMENT_BYTES, directory.resolve("snapshots"), 2);
+            case PersistenceManager.MAPPED -> new MappedStorageEngine(directory.resolve("store"));
+            case PersistenceManager.SQL -> new SqlStorageEngine(directory.resolve("store"),
+                    SqlStorageEngine.DEFAULT_POOL_SIZE);
+            case WRITE_BEHIND_SQL -> new WriteBehindStorageEngine(
+                    new SqlStorageEngine(directory.resolve("store"), SqlStorageEngine.DEFAULT_POOL_SIZE),
+                    directory.resolve("journal"), Journal.DEFAULT_SEGMENT_BYTES,
+                    WriteBehindStorageEngine.DEFAULT_FLUSH_MILLIS, WriteBehindStorageEngine.DEFAULT_MAX_BATCH);
+            default -> null;
+        };
+        if (storage != null) {
+            Map<String, Book> books = library.getBooks();
+            Map<String, Member> members = library.getMembers();
+            // The directory is new, so the engine loads nothing and is seeded with the generated library
+            storage.load(library);
+            library.setBooks(books);
+            library.setMembers(members);
+            storage.seed(books.values(), members.values());
+            library.setStorage(storage);
+        }
+    }
+
+    /**
+     * Closes the engine and deletes its files.
+     *
+     * @throws IOException if the files cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        library.setStorage(null);
+        if (storage != null) {
+            storage.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Checks out a random book and returns it, on one thread.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean checkOutAndReturn() {
+        return lend();
+    }
+
+    /**
+     * Checks out a random book and returns it, on four threads, whose syncs the engines may share.
+     *
+     * @return Whether the book was lent.
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean checkOutAndReturnConcurrent() {
+        return lend();
+    }
+
+    private boolean lend() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String memberId = memberIds[random.nextInt(memberIds.length)];
+        String bookId = bookIds[random.nextInt(bookIds.length)];
+        boolean lent = library.checkOutBook(memberId, bookId);
+        if (lent) {
+            library.returnBook(memberId, bookId);
+        }
+        return lent;
+    }
+}
@@ -2,13 +2,20 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.Page;
+import com.CS5031P2.backend.util.BookIngester;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class for managing Book resources.
@@ -34,16 +41,188 @@ public class BookController {
         }
     }
 
+    /**
+     * Retrieves one page of books in a stable order.
+     * @param sort The order, "id" or "title"; defaults to "id".
+     * @param cursor The nextCursor of the previous page, or absent for the first page.
+     * @param limit The number of books on the page, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the page, or bad request status if a parameter is invalid.
+     */
+    @GetMapping("/books/page")
+    public ResponseEntity<Page<Book>> getBookPage(
+            @RequestParam(defaultValue = LibraryLendingSystem.ORDER_BY_ID) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(libraryLendingSystem.getBookPage(sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            // Unknown order, or a cursor that was tampered with or issued for another order
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Searches book titles and authors for every word of a query, using the library's full-text index.
+     * @param q The words to search for.
+     * @param limit The largest number of books to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the matching books, best match first, or bad request status if the
+     *         limit is out of range.
+     */
+    @GetMapping("/books/search")
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam String q,
+                                                  @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.searchBooks(q, size));
+    }
+
+    /**
+     * Searches book titles and authors for words spelt like every word of a query, so misspellings still match.
+     * @param q The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1; defaults to
+     *                   {@link LibraryLendingSystem#DEFAULT_SIMILARITY}.
+     * @param limit The largest number of books to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the matching books, best match first, or bad request status if the
+     *         similarity or limit is out of range.
+     */
+    @GetMapping(value = "/books/search", params = "fuzzy=true")
+    public ResponseEntity<List<Book>> fuzzySearchBooks(@RequestParam String q,
+                                                       @RequestParam(required = false) Double similarity,
+                                                       @RequestParam(required = false) Integer limit) {
+        double threshold = similarity == null ? LibraryLendingSystem.DEFAULT_SIMILARITY : similarity;
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (!(threshold > 0 && threshold <= 1) || size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.fuzzySearchBooks(q, threshold, size));
+    }
+
+    /**
+     * Retrieves books that are not checked out, for checkout screens, optionally searching them.
+     * @param q The words to search for, or absent or blank to list available books.
+     * @param limit The largest number of books to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the available books, best match first when searching, or bad request
+     *         status if the limit is out of range.
+     */
+    @GetMapping("/books/available")
+    public ResponseEntity<List<Book>> getAvailableBooks(@RequestParam(required = false) String q,
+                                                        @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.ok(libraryLendingSystem.getAvailableBooks(size));
+        }
+        return ResponseEntity.ok(libraryLendingSystem.searchAvailableBooks(q, size));
+    }
+
+    /**
+     * Searches the titles and authors of books that are not checked out for words spelt like every word of a query.
+     * @param q The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1; defaults to
+     *                   {@link LibraryLendingSystem#DEFAULT_SIMILARITY}.
+     * @param limit The largest number of books to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the matching available books, best match first, or bad request status if
+     *         the similarity or limit is out of range.
+     */
+    @GetMapping(value = "/books/available", params = "fuzzy=true")
+    public ResponseEntity<List<Book>> fuzzySearchAvailableBooks(@RequestParam String q,
+                                                                @RequestParam(required = false) Double similarity,
+                                                                @RequestParam(required = false) Integer limit) {
+        double threshold = similarity == null ? LibraryLendingSystem.DEFAULT_SIMILARITY : similarity;
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (!(threshold > 0 && threshold <= 1) || size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.fuzzySearchAvailableBooks(q, threshold, size));
+    }
+
+    /**
+     * Retrieves one page of the books that are not checked out, so that checkout screens can list them all.
+     * @param cursor The nextCursor of the previous page, or absent for the first page.
+     * @param limit The number of books on the page, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the page, or bad request status if a parameter is invalid.
+     */
+    @GetMapping("/books/available/page")
+    public ResponseEntity<Page<Book>> getAvailableBookPage(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(libraryLendingSystem.getAvailableBookPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            // A cursor that was tampered with
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Counts the books that are not checked out.
+     * @return ResponseEntity containing the number of available books.
+     */
+    @GetMapping("/books/available/count")
+    public ResponseEntity<Integer> countAvailableBooks() {
+        return ResponseEntity.ok(libraryLendingSystem.countAvailableBooks());
+    }
+
+    /**
+     * Suggests titles and authors as the user types, for search boxes to offer as completions.
+     * @param q The text typed so far.
+     * @param limit The largest number of suggestions, between 1 and {@link LibraryLendingSystem#MAX_SUGGESTIONS}.
+     * @return ResponseEntity containing the titles and authors with a word starting with the text, or bad request
+     *         status if the limit is out of range.
+     */
+    @GetMapping("/books/suggest")
+    public ResponseEntity<List<String>> suggestBooks(@RequestParam String q,
+                                                     @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? LibraryLendingSystem.DEFAULT_SUGGESTIONS : limit;
+        if (size < 1 || size > LibraryLendingSystem.MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.suggestBooks(q, size));
+    }
+
+    /**
+     * Retrieves the member who has borrowed a book.
+     * @param bookId The ID of the book.
+     * @return ResponseEntity containing the borrower, or not found status if the book is not on loan.
+     */
+    @GetMapping("/books/{bookId}/borrower")
+    public ResponseEntity<Member> getBorrower(@PathVariable String bookId) {
+        Optional<Member> borrower = libraryLendingSystem.getBorrower(bookId);
+        if (borrower.isPresent()) {
+            return ResponseEntity.ok(borrower.get());
+        }
+
+        return ResponseEntity.notFound().build(); // Book not on loan
+    }
+
     /**
      * Updates information for a specific book.
      * @param bookId The ID of the book to update.
      * @param updatedBook The updated Book object.
-     * @return ResponseEntity indicating success or failure of the update operation.
+     * @return ResponseEntity indicating success or failure of the update operation; bad request status if the
+     *         updated book is too large to store.
      */
     @PutMapping("/books/{bookId}")
     public ResponseEntity<String> updateBook(@PathVariable String bookId, @RequestBody Book updatedBook) {
         if (libraryLendingSystem.getBook(bookId).isPresent()) {
-            libraryLendingSystem.updateBook(bookId, updatedBook);
+            try {
+                libraryLendingSystem.updateBook(bookId, updatedBook);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
             return ResponseEntity.ok("Book updated successfully");
         }
 
@@ -53,14 +232,35 @@ public class BookController {
     /**
      * Adds a new book to the library.
      * @param book The Book object to add.
-     * @return ResponseEntity indicating success or failure of the add operation.
+     * @return ResponseEntity indicating success or failure of the add operation; bad request status if the
+     *         book is too large to store.
      */
     @PostMapping("/books")
     public ResponseEntity<String> addBook(@RequestBody Book book){
-        libraryLendingSystem.addBook(book.getTitle(), book.getAuthor());
+        try {
+            libraryLendingSystem.addBook(book.getTitle(), book.getAuthor());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body("Book added Successfully");
     }
 
+    /**
+     * Adds many books at once from a JSON array or newline-delimited JSON body, read as it streams in.
+     * Books without a bookId are given one derived from their content, so resending a batch adds nothing new.
+     * @param body The request body.
+     * @return ResponseEntity containing a summary of the ingest, including the invalid records; bad request
+     *         status if the body stopped being valid JSON, in which case the books before that point were added.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/books/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, ExportController.NDJSON})
+    public ResponseEntity<BookIngester.IngestResult> addBooks(InputStream body) throws IOException {
+        BookIngester.IngestResult result = new BookIngester(BookIngester.DEFAULT_BATCH_SIZE)
+                .ingest(body, libraryLendingSystem);
+        return ResponseEntity.status(result.getAbortedReason() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                .body(result);
+    }
+
     /**
      * Deletes a book from the library.
      * @param bookId The ID of the book to delete.
@@ -2,20 +2,30 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.LoanResult;
 import com.CS5031P2.backend.model.Member;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Controller class responsible for handling HTTP requests related to book checkout operations.
  */
 @RestController
 public class CheckOutController {
+    /**
+     * Largest number of books a bulk checkout or return may name.
+     */
+    public static final int MAX_BULK_SIZE = 500;
 
     @Autowired
     LibraryLendingSystem libraryLendingSystem;
@@ -43,5 +53,45 @@ public class CheckOutController {
 
         return ResponseEntity.notFound().build(); // Book not found
     }
-}
 
+    /**
+     * Handles the HTTP POST request to check out several books for a member at once.
+     *
+     * @param memberId     The ID of the member who is checking out the books.
+     * @param bookIds      The IDs of the books to be checked out.
+     * @param allOrNothing Whether to check out none of the books unless all of them can be.
+     * @return A ResponseEntity containing the outcome for each book, in request order.
+     *         If all-or-nothing was requested and any book could not be checked out, returns a Conflict response.
+     *         If the member is not found, returns a Not Found response, and if too many books are named,
+     *         a Bad Request response.
+     */
+    @PostMapping("/checkouts/{memberId}")
+    public ResponseEntity<List<LoanResult>> checkOutBooks(@PathVariable String memberId,
+            @RequestBody List<String> bookIds, @RequestParam(defaultValue = "false") boolean allOrNothing) {
+        return bulkResponse(libraryLendingSystem, memberId, bookIds,
+                () -> libraryLendingSystem.checkOutBooks(memberId, bookIds, allOrNothing));
+    }
+
+    /**
+     * Validates a bulk checkout or return, runs it and builds its response.
+     *
+     * @param libraryLendingSystem The library.
+     * @param memberId             The ID of the member.
+     * @param bookIds              The IDs of the books.
+     * @param operation            Checks out or returns the books.
+     * @return The response, as described for {@link #checkOutBooks(String, List, boolean)}.
+     */
+    static ResponseEntity<List<LoanResult>> bulkResponse(LibraryLendingSystem libraryLendingSystem, String memberId,
+            List<String> bookIds, Supplier<List<LoanResult>> operation) {
+        if (bookIds == null || bookIds.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (libraryLendingSystem.getMember(memberId).isEmpty()) {
+            return ResponseEntity.notFound().build(); // Member not found
+        }
+
+        List<LoanResult> results = operation.get();
+        boolean rolledBack = results.stream().anyMatch(result -> result.getStatus() == LoanResult.Status.ROLLED_BACK);
+        return ResponseEntity.status(rolledBack ? HttpStatus.CONFLICT : HttpStatus.OK).body(results);
+    }
+}
@@ -0,0 +1,88 @@
+package com.CS5031P2.backend.controller;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Controller class for exporting the whole catalogue as newline-delimited JSON.
+ * Each export walks one immutable version of the library, so it is consistent however long it takes, and
+ * writes each record straight to the response as it goes. Nothing is collected first, so memory stays
+ * constant whatever the size of the catalogue, and a slow client simply blocks the export's writes.
+ */
+@RestController
+public class ExportController {
+    /**
+     * Media type of newline-delimited JSON.
+     */
+    public static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    LibraryLendingSystem libraryLendingSystem;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * Streams every book, one JSON object per line.
+     * @return ResponseEntity containing the stream of books.
+     */
+    @GetMapping(value = "/books/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        Collection<Book> books = libraryLendingSystem.getBooks().values();
+        return ndjson(out -> write(books, out));
+    }
+
+    /**
+     * Streams every member, with their borrowed books, one JSON object per line.
+     * @return ResponseEntity containing the stream of members.
+     */
+    @GetMapping(value = "/members/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportMembers() {
+        Collection<Member> members = libraryLendingSystem.getMembers().values();
+        return ndjson(out -> write(members, out));
+    }
+
+    /**
+     * Wraps a streaming body in an NDJSON response.
+     * @param body The body.
+     * @return The response.
+     */
+    private static ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Writes records as NDJSON, in the same form the list endpoints return them.
+     * @param records The records.
+     * @param out The response stream, which is left open for the framework to close.
+     * @throws IOException if the client goes away or a record cannot be serialized.
+     */
+    private void write(Collection<?> records, OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            for (Object record : records) {
+                writer.write(record);
+            }
+        }
+        if (!records.isEmpty()) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
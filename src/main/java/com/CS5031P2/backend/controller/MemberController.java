@@ -2,6 +2,7 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.LibraryLendingSystem;
 import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.Page;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,11 +24,16 @@ public class MemberController {
      * Adds a new member to the library system.
      *
      * @param member The Member object representing the new member.
-     * @return ResponseEntity indicating the status of the operation.
+     * @return ResponseEntity indicating the status of the operation; bad request status if the member is too
+     *         large to store.
      */
     @PostMapping("/members")
     public ResponseEntity<String> addMember(@RequestBody Member member) {
-        libraryLendingSystem.addMember(member.getName(), member.getAddress());
+        try {
+            libraryLendingSystem.addMember(member.getName(), member.getAddress());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body("Member created successfully");
     }
 
@@ -48,12 +54,17 @@ public class MemberController {
      *
      * @param memberId      The unique identifier of the member to be updated.
      * @param updatedMember The Member object containing the updated information.
-     * @return ResponseEntity indicating the status of the operation.
+     * @return ResponseEntity indicating the status of the operation; bad request status if the updated member
+     *         is too large to store.
      */
     @PutMapping("/members/{memberId}")
     public ResponseEntity<String> updateMember(@PathVariable String memberId, @RequestBody Member updatedMember) {
         if (libraryLendingSystem.getMember(memberId).isPresent()) {
-            libraryLendingSystem.updateMember(memberId, updatedMember);
+            try {
+                libraryLendingSystem.updateMember(memberId, updatedMember);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
             return ResponseEntity.ok("Member updated successfully");
         }
 
@@ -71,4 +82,83 @@ public class MemberController {
         // Returns ok status if members available, or 404 not found
         return !members.isEmpty() ? ResponseEntity.ok(members) : ResponseEntity.notFound().build();
     }
+
+    /**
+     * Retrieves one page of members in a stable order.
+     * @param sort The order, "id" or "name"; defaults to "id".
+     * @param cursor The nextCursor of the previous page, or absent for the first page.
+     * @param limit The number of members on the page, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the page, or bad request status if a parameter is invalid.
+     */
+    @GetMapping("/members/page")
+    public ResponseEntity<Page<Member>> getMemberPage(
+            @RequestParam(defaultValue = LibraryLendingSystem.ORDER_BY_ID) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(libraryLendingSystem.getMemberPage(sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            // Unknown order, or a cursor that was tampered with or issued for another order
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Searches member names for every word of a query.
+     * @param q The words to search for.
+     * @param limit The largest number of members to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the matching members, or bad request status if the limit is out of range.
+     */
+    @GetMapping("/members/search")
+    public ResponseEntity<List<Member>> searchMembers(@RequestParam String q,
+                                                      @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.searchMembers(q, size));
+    }
+
+    /**
+     * Searches member names for words spelt like every word of a query, so misspellings still match.
+     * @param q The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1; defaults to
+     *                   {@link LibraryLendingSystem#DEFAULT_SIMILARITY}.
+     * @param limit The largest number of members to return, between 1 and {@link Page#MAX_SIZE}.
+     * @return ResponseEntity containing the matching members, best match first, or bad request status if the
+     *         similarity or limit is out of range.
+     */
+    @GetMapping(value = "/members/search", params = "fuzzy=true")
+    public ResponseEntity<List<Member>> fuzzySearchMembers(@RequestParam String q,
+                                                           @RequestParam(required = false) Double similarity,
+                                                           @RequestParam(required = false) Integer limit) {
+        double threshold = similarity == null ? LibraryLendingSystem.DEFAULT_SIMILARITY : similarity;
+        int size = limit == null ? Page.DEFAULT_SIZE : limit;
+        if (!(threshold > 0 && threshold <= 1) || size < 1 || size > Page.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.fuzzySearchMembers(q, threshold, size));
+    }
+
+    /**
+     * Suggests member names as the user types, for search boxes to offer as completions.
+     * @param q The text typed so far.
+     * @param limit The largest number of suggestions, between 1 and {@link LibraryLendingSystem#MAX_SUGGESTIONS}.
+     * @return ResponseEntity containing the names with a word starting with the text, or bad request status if the
+     *         limit is out of range.
+     */
+    @GetMapping("/members/suggest")
+    public ResponseEntity<List<String>> suggestMembers(@RequestParam String q,
+                                                       @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? LibraryLendingSystem.DEFAULT_SUGGESTIONS : limit;
+        if (size < 1 || size > LibraryLendingSystem.MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(libraryLendingSystem.suggestMembers(q, size));
+    }
 }
@@ -2,6 +2,7 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.LoanResult;
 import com.CS5031P2.backend.model.Member;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -56,5 +57,22 @@ public class ReturnController {
 
         return ResponseEntity.notFound().build(); // Book not found
     }
-}
 
+    /**
+     * Handles the HTTP POST request to return several books borrowed by a member at once.
+     *
+     * @param memberId     The ID of the member who is returning the books.
+     * @param bookIds      The IDs of the books to be returned.
+     * @param allOrNothing Whether to return none of the books unless all of them can be.
+     * @return A ResponseEntity containing the outcome for each book, in request order.
+     *         If all-or-nothing was requested and any book could not be returned, returns a Conflict response.
+     *         If the member is not found, returns a Not Found response, and if too many books are named,
+     *         a Bad Request response.
+     */
+    @PostMapping("/returns/{memberId}")
+    public ResponseEntity<List<LoanResult>> returnBooks(@PathVariable String memberId,
+            @RequestBody List<String> bookIds, @RequestParam(defaultValue = "false") boolean allOrNothing) {
+        return CheckOutController.bulkResponse(libraryLendingSystem, memberId, bookIds,
+                () -> libraryLendingSystem.returnBooks(memberId, bookIds, allOrNothing));
+    }
+}
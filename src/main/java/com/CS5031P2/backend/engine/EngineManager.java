@@ -0,0 +1,55 @@
+package com.CS5031P2.backend.engine;
+
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component that switches the library to single-writer mode when {@code library.engine.single-writer}
+ * is set. It starts after the persistence manager, so the journal is already recovered and attached, and
+ * stops before it, so every queued mutation is journaled before the journal is closed.
+ */
+@Component
+@DependsOn("persistenceManager")
+public class EngineManager {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineManager.class);
+
+    @Autowired
+    LibraryLendingSystem libraryLendingSystem;
+
+    @Value("${library.engine.single-writer:false}")
+    boolean singleWriter;
+
+    @Value("${library.engine.queue-capacity:" + SingleWriterEngine.DEFAULT_CAPACITY + "}")
+    int queueCapacity;
+
+    @Value("${library.engine.max-batch:" + SingleWriterEngine.DEFAULT_MAX_BATCH + "}")
+    int maxBatch;
+
+    /**
+     * Starts the writer engine, if enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (singleWriter) {
+            libraryLendingSystem.startEngine(queueCapacity, maxBatch);
+            log.info("Applying library mutations on a single writer thread, queue capacity {}, batches of up to {}",
+                    queueCapacity, maxBatch);
+        }
+    }
+
+    /**
+     * Applies any queued mutations and stops the writer engine.
+     */
+    @PreDestroy
+    public void stop() {
+        libraryLendingSystem.stopEngine();
+    }
+}
@@ -0,0 +1,246 @@
+package com.CS5031P2.backend.engine;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs mutations one at a time on a single writer thread.
+ * Callers enqueue mutations into a bounded ring buffer (blocking while it is full, which pushes back on
+ * request threads under overload) and get a future for each. The writer drains the buffer in batches, runs
+ * every mutation in the batch, then runs the after-batch hook (e.g. one journal sync for the whole batch)
+ * before completing the batch's futures. Because only the writer mutates, mutations never contend.
+ */
+public class SingleWriterEngine implements Closeable {
+    /**
+     * Default capacity of the ring buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Default maximum number of mutations applied per batch.
+     */
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final Task<Void> STOP = new Task<>(() -> null);
+
+    private final BlockingQueue<Task<?>> ringBuffer;
+    private final int maxBatch;
+    private final Runnable afterBatch;
+    private final Thread writer;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+    private volatile long batches;
+    private volatile long mutations;
+
+    /**
+     * Constructs a new SingleWriterEngine and starts its writer thread.
+     *
+     * @param capacity   The number of mutations that can wait in the ring buffer.
+     * @param maxBatch   The largest number of mutations applied before the after-batch hook runs.
+     * @param afterBatch Run on the writer thread after each batch, before its futures complete. If it throws,
+     *                   every future in the batch completes exceptionally.
+     */
+    public SingleWriterEngine(int capacity, int maxBatch, Runnable afterBatch) {
+        this.ringBuffer = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.afterBatch = afterBatch;
+        this.writer = new Thread(this::run, "library-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enqueues a mutation, waiting for space in the ring buffer if it is full.
+     *
+     * @param mutation The mutation to run on the writer thread.
+     * @param <T>      The type of the mutation's result.
+     * @return A future completed with the mutation's result once its batch has been applied.
+     * @throws IllegalStateException if the engine has been closed.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> mutation) {
+        Task<T> task = new Task<>(mutation);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Writer engine is closed");
+            }
+            ringBuffer.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the writer engine", e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return task.future;
+    }
+
+    /**
+     * Runs a mutation on the writer thread and waits for its result.
+     * Called from the writer thread itself, the mutation simply runs in place.
+     *
+     * @param mutation The mutation to run.
+     * @param <T>      The type of the mutation's result.
+     * @return The mutation's result.
+     * @throws RuntimeException the exception the mutation or the after-batch hook threw.
+     */
+    public <T> T execute(Supplier<T> mutation) {
+        if (isWriterThread()) {
+            return mutation.get();
+        }
+        try {
+            return submit(mutation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the calling thread is the writer thread.
+     *
+     * @return True if called from a mutation or the after-batch hook.
+     */
+    public boolean isWriterThread() {
+        return Thread.currentThread() == writer;
+    }
+
+    /**
+     * Gets the number of mutations waiting in the ring buffer.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Gets the number of batches applied so far.
+     *
+     * @return The batch count.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Gets the number of mutations applied so far.
+     *
+     * @return The mutation count.
+     */
+    public long getMutations() {
+        return mutations;
+    }
+
+    /**
+     * Stops accepting mutations, applies those already enqueued, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Nothing can be enqueued after the stop marker, so the writer sees every earlier mutation
+            ringBuffer.put(STOP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        if (!isWriterThread()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The writer loop: takes a batch from the ring buffer, applies it, runs the hook and completes it.
+     */
+    private void run() {
+        List<Task<?>> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                batch.add(ringBuffer.take());
+            } catch (InterruptedException e) {
+                // The writer is only stopped through close(), which lets it finish the queued mutations
+                continue;
+            }
+            ringBuffer.drainTo(batch, maxBatch - 1);
+
+            for (Task<?> task : batch) {
+                if (task == STOP) {
+                    stopping = true;
+                } else {
+                    task.run();
+                }
+            }
+
+            RuntimeException hookFailure = null;
+            try {
+                afterBatch.run();
+            } catch (RuntimeException e) {
+                hookFailure = e;
+            }
+
+            // Count the batch first, so that whoever sees a future complete also sees it counted
+            mutations += batch.size() - (stopping ? 1 : 0);
+            batches++;
+            for (Task<?> task : batch) {
+                task.complete(hookFailure);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * A mutation waiting in the ring buffer, and its outcome once applied.
+     *
+     * @param <T> The type of the mutation's result.
+     */
+    private static final class Task<T> {
+        final Supplier<T> mutation;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException failure;
+
+        Task(Supplier<T> mutation) {
+            this.mutation = mutation;
+        }
+
+        void run() {
+            try {
+                result = mutation.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        void complete(RuntimeException hookFailure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (hookFailure != null) {
+                future.completeExceptionally(hookFailure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
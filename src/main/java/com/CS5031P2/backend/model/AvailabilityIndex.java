@@ -0,0 +1,232 @@
+package com.CS5031P2.backend.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bitmap of which books are available, i.e. not checked out.
+ * Each book is given a dense ordinal, reused once the book is deleted, and its bit is set while it is
+ * available. As in a roaring bitmap, the ordinals are split into chunks of {@value #CHUNK_SIZE} that each keep
+ * their own count, so listing available books skips chunks with none, and the total count is kept as bits
+ * change, so it is read in O(1). A book's bit is only changed while holding its entry in the ordinal map, so
+ * a checkout or return racing a deletion cannot leave a stray bit behind. Ordinals are allocated and freed
+ * under the index's own lock while holding an entry, so that lock is only ever taken after an entry, never
+ * before one.
+ */
+class AvailabilityIndex implements Index<Book> {
+    /**
+     * Number of ordinals in each chunk.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+
+    private final ConcurrentHashMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger available = new AtomicInteger();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private volatile Chunk[] chunks = new Chunk[0];
+    private int nextOrdinal;
+
+    /**
+     * Adds, replaces or removes a book, setting its bit from its loan state.
+     *
+     * @param removed The book as it was indexed, or null if it is new.
+     * @param added   The book that replaces it, or null if it was removed.
+     */
+    @Override
+    public void update(Book removed, Book added) {
+        if (added != null) {
+            boolean free = !added.isCheckedOut();
+            ordinals.compute(added.getBookId(), (bookId, ordinal) -> {
+                int assigned = ordinal == null ? allocate(bookId) : ordinal;
+                set(assigned, free);
+                return assigned;
+            });
+        }
+        if (removed != null && (added == null || !removed.getBookId().equals(added.getBookId()))) {
+            ordinals.computeIfPresent(removed.getBookId(), (bookId, ordinal) -> {
+                set(ordinal, false);
+                release(ordinal);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Replaces the whole bitmap with the loan states of the books.
+     *
+     * @param books Every book in the library.
+     */
+    @Override
+    public void reset(Collection<Book> books) {
+        // Clearing takes each entry in turn, so it must not run under the index's lock
+        ordinals.clear();
+        synchronized (this) {
+            freeOrdinals.clear();
+            chunks = new Chunk[0];
+            nextOrdinal = 0;
+            available.set(0);
+        }
+        for (Book book : books) {
+            update(null, book);
+        }
+    }
+
+    /**
+     * Sets whether a book is available, after a checkout or return has changed its loan state in place.
+     *
+     * @param bookId    The ID of the book.
+     * @param available True if the book is now available.
+     */
+    void setAvailable(String bookId, boolean available) {
+        ordinals.computeIfPresent(bookId, (key, ordinal) -> {
+            set(ordinal, available);
+            return ordinal;
+        });
+    }
+
+    /**
+     * Checks whether a book is available.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the book is in the library and not checked out.
+     */
+    boolean isAvailable(String bookId) {
+        Integer ordinal = ordinals.get(bookId);
+        Chunk[] current = chunks;
+        if (ordinal == null || ordinal >>> CHUNK_SHIFT >= current.length) {
+            // Not in the library, or the bitmap was reset since the ordinal was read
+            return false;
+        }
+        Chunk chunk = current[ordinal >>> CHUNK_SHIFT];
+        int offset = ordinal & (CHUNK_SIZE - 1);
+        return (chunk.words.get(offset >>> 6) & (1L << offset)) != 0;
+    }
+
+    /**
+     * Counts the available books.
+     *
+     * @return The number of books not checked out.
+     */
+    int count() {
+        return available.get();
+    }
+
+    /**
+     * Lists available books in ordinal order, skipping chunks with none available.
+     *
+     * @param limit The largest number of books to return.
+     * @return The IDs of the books.
+     */
+    List<String> first(int limit) {
+        List<String> bookIds = new ArrayList<>(Math.min(limit, Math.max(0, count())));
+        scan(0, limit, bookIds);
+        return bookIds;
+    }
+
+    /**
+     * Lists available books in ordinal order from an ordinal on, skipping chunks with none available.
+     * A book keeps its ordinal until it is deleted, so paging with the returned ordinal lists each book that
+     * stays available once.
+     *
+     * @param from    The first ordinal to look at.
+     * @param limit   The largest number of books to list.
+     * @param bookIds Receives the IDs of the books.
+     * @return The ordinal of the next available book after those listed, or -1 if there is none.
+     */
+    int scan(int from, int limit, List<String> bookIds) {
+        Chunk[] current = chunks;
+        long end = (long) current.length * CHUNK_SIZE;
+        int ordinal = from;
+        while (ordinal < end) {
+            Chunk chunk = current[ordinal >>> CHUNK_SHIFT];
+            if (chunk.cardinality.get() == 0) {
+                ordinal = (ordinal | (CHUNK_SIZE - 1)) + 1;
+                continue;
+            }
+            // Shifts are taken modulo 64, so this masks off the bits below the ordinal in its word
+            long bits = chunk.words.get((ordinal & (CHUNK_SIZE - 1)) >>> 6) & (-1L << ordinal);
+            if (bits == 0) {
+                ordinal = (ordinal | 63) + 1;
+                continue;
+            }
+            int found = (ordinal & ~63) + Long.numberOfTrailingZeros(bits);
+            if (bookIds.size() >= limit) {
+                return found;
+            }
+            String bookId = chunk.ids.get(found & (CHUNK_SIZE - 1));
+            if (bookId != null) {
+                bookIds.add(bookId);
+            }
+            ordinal = found + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Sets or clears the bit of an ordinal, keeping the counts in step if it changed.
+     * Called while holding the book's entry in the ordinal map.
+     *
+     * @param ordinal The ordinal.
+     * @param value   True to set the bit.
+     */
+    private void set(int ordinal, boolean value) {
+        Chunk chunk = chunks[ordinal >>> CHUNK_SHIFT];
+        int offset = ordinal & (CHUNK_SIZE - 1);
+        long bit = 1L << offset;
+        int word = offset >>> 6;
+        long previous = value
+                ? chunk.words.getAndAccumulate(word, bit, (bits, mask) -> bits | mask)
+                : chunk.words.getAndAccumulate(word, bit, (bits, mask) -> bits & ~mask);
+        if (((previous & bit) != 0) != value) {
+            int delta = value ? 1 : -1;
+            chunk.cardinality.addAndGet(delta);
+            available.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Gives a book an ordinal, reusing a deleted book's if there is one.
+     *
+     * @param bookId The ID of the book.
+     * @return The ordinal.
+     */
+    private synchronized int allocate(String bookId) {
+        Integer reused = freeOrdinals.poll();
+        int ordinal = reused != null ? reused : nextOrdinal++;
+        int index = ordinal >>> CHUNK_SHIFT;
+        if (index >= chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, index + 1);
+            grown[index] = new Chunk();
+            chunks = grown;
+        }
+        chunks[index].ids.set(ordinal & (CHUNK_SIZE - 1), bookId);
+        return ordinal;
+    }
+
+    /**
+     * Frees the ordinal of a deleted book for reuse.
+     *
+     * @param ordinal The ordinal, whose bit is already clear.
+     */
+    private synchronized void release(int ordinal) {
+        chunks[ordinal >>> CHUNK_SHIFT].ids.set(ordinal & (CHUNK_SIZE - 1), null);
+        freeOrdinals.push(ordinal);
+    }
+
+    /**
+     * The bits of {@value #CHUNK_SIZE} consecutive ordinals, the books they belong to, and how many are set.
+     */
+    private static final class Chunk {
+        final AtomicLongArray words = new AtomicLongArray(CHUNK_SIZE / 64);
+        final AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(CHUNK_SIZE);
+        final AtomicInteger cardinality = new AtomicInteger();
+    }
+}
@@ -1,32 +1,55 @@
 package com.CS5031P2.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Represents a book in the library.
+ * The checked-out status and borrower are held together in one immutable {@link Loan}, which the library
+ * replaces with compare-and-set, so a book can be checked out or returned without taking a lock.
  */
 public class Book {
+    private static final AtomicReferenceFieldUpdater<Book, Loan> LOAN =
+            AtomicReferenceFieldUpdater.newUpdater(Book.class, Loan.class, "loan");
+
     private String bookId;
     private String title;
     private String author;
-    private boolean isCheckedOut;
-    private String borrowedId;
+    private volatile Loan loan;
 
     /**
      * Constructs a new Book instance with the specified attributes.
+     * Request bodies are bound through this constructor; any ID and loan they carry are set afterwards.
      *
      * @param title       The title of the book.
      * @param author      The author of the book.
      */
-    public Book(String title, String author) {
+    @JsonCreator
+    public Book(@JsonProperty("title") String title, @JsonProperty("author") String author) {
         this.bookId = UUID.randomUUID().toString();
         this.title = title;
         this.author = author;
-        this.isCheckedOut = false;
-        this.borrowedId = "";
+        this.loan = Loan.AVAILABLE;
+    }
+
+    /**
+     * Constructs a book with a known ID, without generating one. Used when loading books, which would
+     * otherwise each pay for a random UUID only to replace it.
+     *
+     * @param bookId      The unique identifier of the book.
+     * @param title       The title of the book.
+     * @param author      The author of the book.
+     */
+    public Book(String bookId, String title, String author) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.loan = Loan.AVAILABLE;
     }
 
     /**
@@ -89,7 +112,7 @@ public class Book {
      * @return True if the book is checked out, false otherwise.
      */
     public boolean isCheckedOut() {
-        return isCheckedOut;
+        return loan.checkedOut;
     }
 
     /**
@@ -98,7 +121,7 @@ public class Book {
      * @param checkedOut True if the book is checked out, false otherwise.
      */
     public void setCheckedOut(boolean checkedOut) {
-        isCheckedOut = checkedOut;
+        LOAN.updateAndGet(this, current -> new Loan(checkedOut, current.borrowedId, current.pending, current.retired));
     }
 
     /**
@@ -116,8 +139,7 @@ public class Book {
         boolean isCheckedOut = jsonObject.getBoolean("checkedOut");
         String borrowedId = jsonObject.getString("borrowedId");
 
-        Book book = new Book(title, author);
-        book.setBookId(bookId);
+        Book book = new Book(bookId, title, author);
         book.setCheckedOut(isCheckedOut);
         book.setBorrowedId(borrowedId);
         return book;
@@ -129,12 +151,13 @@ public class Book {
      * @return A JSON string representation of the Book object.
      */
     public String toJson() {
+        Loan current = loan;
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("bookId", bookId);
         jsonObject.put("title", title);
         jsonObject.put("author", author);
-        jsonObject.put("isCheckedOut", isCheckedOut);
-        jsonObject.put("borrowedId", borrowedId);
+        jsonObject.put("isCheckedOut", current.checkedOut);
+        jsonObject.put("borrowedId", current.borrowedId);
 
         return jsonObject.toString();
     }
@@ -143,7 +166,7 @@ public class Book {
      * Gets the borrowedId of the book.
      */
     public String getBorrowedId() {
-        return borrowedId;
+        return loan.borrowedId;
     }
 
     /**
@@ -152,6 +175,111 @@ public class Book {
      * @param borrowedId The ID of the member borrowing the book.
      */
     public void setBorrowedId(String borrowedId) {
-        this.borrowedId = borrowedId;
+        LOAN.updateAndGet(this, current -> new Loan(current.checkedOut, borrowedId, current.pending, current.retired));
+    }
+
+    /**
+     * Gets the current loan state of the book.
+     *
+     * @return The loan state, read atomically.
+     */
+    Loan getLoan() {
+        return loan;
+    }
+
+    /**
+     * Replaces the loan state if it is still the expected one.
+     *
+     * @param expected The loan state the caller read.
+     * @param update   The new loan state.
+     * @return True if the state was replaced, false if another thread changed it first.
+     */
+    boolean compareAndSetLoan(Loan expected, Loan update) {
+        return LOAN.compareAndSet(this, expected, update);
+    }
+
+    /**
+     * Marks a pending loan state as complete, making the book available to the next checkout or return.
+     * Only the thread that set the pending state may call this.
+     */
+    void completeLoan() {
+        LOAN.updateAndGet(this, Loan::complete);
+    }
+
+    /**
+     * Retires this instance of the book because another is about to replace it, waiting first for any
+     * checkout or return that is pending on it. A retired book cannot be claimed, so checkouts and returns
+     * that find it retired move on to the replacement instead.
+     *
+     * @return The loan state the book held, for the replacement to carry on.
+     */
+    Loan retire() {
+        while (true) {
+            Loan current = loan;
+            if (current.pending) {
+                // The claim is only held while the checkout or return is recorded, so it ends shortly
+                Thread.onSpinWait();
+            } else if (LOAN.compareAndSet(this, current, current.retired())) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Sets the loan state of a book that has not been published yet.
+     *
+     * @param loan The loan state.
+     */
+    void setLoan(Loan loan) {
+        this.loan = loan;
+    }
+
+    /**
+     * An immutable snapshot of whether a book is checked out and by whom.
+     * A pending state has been claimed by a checkout or return that is still recording it; other checkouts
+     * and returns of the book fail until it completes, so its journal records stay in the order applied.
+     * A retired state belongs to a book that has been replaced by an update, and is never claimed again.
+     */
+    static final class Loan {
+        static final Loan AVAILABLE = new Loan(false, "", false);
+        static final Loan RETURNING = new Loan(false, "", true);
+
+        final boolean checkedOut;
+        final String borrowedId;
+        final boolean pending;
+        final boolean retired;
+
+        Loan(boolean checkedOut, String borrowedId, boolean pending) {
+            this(checkedOut, borrowedId, pending, false);
+        }
+
+        private Loan(boolean checkedOut, String borrowedId, boolean pending, boolean retired) {
+            this.checkedOut = checkedOut;
+            this.borrowedId = borrowedId;
+            this.pending = pending;
+            this.retired = retired;
+        }
+
+        /**
+         * Gets the completed form of this state.
+         *
+         * @return This state with the pending flag cleared.
+         */
+        Loan complete() {
+            if (!pending) {
+                return this;
+            }
+            return checkedOut || !borrowedId.isEmpty() ? new Loan(checkedOut, borrowedId, false) : AVAILABLE;
+        }
+
+        /**
+         * Gets the retired form of this state, which still reports the same loan to readers but is pending
+         * for good, so that it can no longer be claimed.
+         *
+         * @return This state, retired.
+         */
+        Loan retired() {
+            return new Loan(checkedOut, borrowedId, true, true);
+        }
     }
 }
@@ -0,0 +1,148 @@
+package com.CS5031P2.backend.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A store of books by ID that keeps their values in its own layout rather than as {@link Book} objects.
+ * Reads return detached book views, so changing a view does not change the store, which is changed only
+ * through its own methods. The library can keep its whole catalogue in one, see
+ * {@link LibraryLendingSystem#useBookStore(BookStore)}, so implementations are safe for concurrent use.
+ * Iteration visits books in the store's own order and sees changes made meanwhile.
+ */
+public interface BookStore extends Iterable<Book> {
+
+    /**
+     * Adds a book, or replaces the book with the same ID.
+     *
+     * @param book The book, whose values are copied into the store.
+     */
+    void put(Book book);
+
+    /**
+     * Removes a book.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the book was in the store.
+     */
+    boolean remove(String bookId);
+
+    /**
+     * Sets the loan state of a book, leaving its title and author as they are.
+     *
+     * @param bookId     The ID of the book.
+     * @param checkedOut True if the book is checked out.
+     * @param borrowedId The ID of the member borrowing it, or null or empty if there is none.
+     */
+    default void setLoan(String bookId, boolean checkedOut, String borrowedId) {
+        Book book = get(bookId);
+        if (book != null) {
+            book.setCheckedOut(checkedOut);
+            book.setBorrowedId(borrowedId == null ? "" : borrowedId);
+            put(book);
+        }
+    }
+
+    /**
+     * Checks that a book can be stored, with room for any member's ID to be its borrower later, before the
+     * library changes anything. Stores that can hold any book accept every one.
+     *
+     * @param bookId     The ID of the book.
+     * @param title      The title.
+     * @param author     The author.
+     * @param borrowedId The ID of the member borrowing it, or null or empty if there is none.
+     * @throws IllegalArgumentException if the store cannot hold the book.
+     */
+    default void check(String bookId, String title, String author, String borrowedId) {
+    }
+
+    /**
+     * Removes every book.
+     */
+    default void clear() {
+        List<String> bookIds = new ArrayList<>();
+        for (Book book : this) {
+            bookIds.add(book.getBookId());
+        }
+        bookIds.forEach(this::remove);
+    }
+
+    /**
+     * Gets a view of a book.
+     *
+     * @param bookId The ID of the book.
+     * @return A detached book with the stored values, or null if there is no such book.
+     */
+    Book get(String bookId);
+
+    /**
+     * Checks whether a book is in the store.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the store holds the book.
+     */
+    boolean containsKey(String bookId);
+
+    /**
+     * Gets the number of books in the store.
+     *
+     * @return The number of books.
+     */
+    int size();
+
+    /**
+     * Gets a read-only map view of the store, for code that expects books by ID.
+     *
+     * @return The books by ID; each read builds fresh book views.
+     */
+    default Map<String, Book> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Book get(Object key) {
+                return key instanceof String bookId ? BookStore.this.get(bookId) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String bookId && BookStore.this.containsKey(bookId);
+            }
+
+            @Override
+            public int size() {
+                return BookStore.this.size();
+            }
+
+            @Override
+            public Set<Entry<String, Book>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Book>> iterator() {
+                        Iterator<Book> books = BookStore.this.iterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return books.hasNext();
+                            }
+
+                            @Override
+                            public Entry<String, Book> next() {
+                                Book book = books.next();
+                                return new SimpleImmutableEntry<>(book.getBookId(), book);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return BookStore.this.size();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,591 @@
+package com.CS5031P2.backend.model;
+
+import com.CS5031P2.backend.util.StringDictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * A compact, columnar store of books for catalogues of millions of records.
+ * Instead of one object per book with its own ID, title and author strings, each book is a row across
+ * primitive arrays: its UUID as two longs, its title as UTF-8 bytes in one shared pool, its author and
+ * borrower as codes into {@link StringDictionary dictionaries}, and its checked-out flag as one bit.
+ * IDs that are not canonical UUIDs are kept as strings on the side. Rows are found by ID through an
+ * open-addressing table of row numbers.
+ * Reads return {@link Book} views built from the row, so callers see ordinary books.
+ * A removed book's row, author and borrower are freed for reuse. A title is rewritten in place when the new
+ * one fits, and the pool is compacted once most of it is left behind by replaced titles, so a catalogue that
+ * churns keeps about the space its current books need. All methods are synchronized.
+ */
+public class CompactBookStore implements BookStore {
+    private static final int NONE = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private StringDictionary authors;
+    private StringDictionary borrowers;
+    private Map<Integer, String> otherIds;
+    private Map<String, Integer> otherRows;
+    private ArrayDeque<Integer> freeRows;
+    private long[] idMost;
+    private long[] idLeast;
+    private int[] titleStart;
+    private int[] titleLength;
+    private int[] authorCodes;
+    private int[] borrowerCodes;
+    private long[] checkedOut;
+    private long[] live;
+    private byte[] titles;
+    private int titleBytes;
+    private int staleTitleBytes;
+    private int rows;
+    private int size;
+    private int[] table;
+    private int tableEntries;
+
+    /**
+     * Constructs an empty store.
+     */
+    public CompactBookStore() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty store with room for a number of books before it grows.
+     *
+     * @param expectedBooks The number of books expected.
+     */
+    public CompactBookStore(int expectedBooks) {
+        reset(expectedBooks);
+    }
+
+    /**
+     * Builds a store holding copies of some books.
+     *
+     * @param books The books.
+     * @return The store.
+     */
+    public static CompactBookStore copyOf(Collection<Book> books) {
+        CompactBookStore store = new CompactBookStore(books.size());
+        for (Book book : books) {
+            store.put(book);
+        }
+        return store;
+    }
+
+    /**
+     * Adds a book, or replaces the book with the same ID.
+     *
+     * @param book The book, whose values are copied into the store.
+     */
+    @Override
+    public synchronized void put(Book book) {
+        String bookId = book.getBookId();
+        int row = find(bookId);
+        boolean added = row == NONE;
+        if (added) {
+            row = append(bookId);
+        }
+        setTitle(row, added, book.getTitle());
+        int previousAuthor = added ? NONE : authorCodes[row];
+        authorCodes[row] = book.getAuthor() == null ? NONE : authors.encode(book.getAuthor());
+        release(authors, previousAuthor);
+        setLoan(row, added, book.isCheckedOut(), book.getBorrowedId());
+        if (added) {
+            setBit(live, row, true);
+            size++;
+        }
+    }
+
+    /**
+     * Removes a book, freeing its row for the next book added.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the book was in the store.
+     */
+    @Override
+    public synchronized boolean remove(String bookId) {
+        int row = find(bookId);
+        if (row == NONE) {
+            return false;
+        }
+        if (titleLength[row] != NONE) {
+            staleTitleBytes += titleLength[row];
+        }
+        release(authors, authorCodes[row]);
+        release(borrowers, borrowerCodes[row]);
+        if (otherIds.containsKey(row)) {
+            otherRows.remove(otherIds.remove(row));
+        } else {
+            unlink(row);
+        }
+        setBit(live, row, false);
+        setBit(checkedOut, row, false);
+        freeRows.push(row);
+        size--;
+        compactTitlesIfStale();
+        return true;
+    }
+
+    /**
+     * Sets the loan state of a book without touching its title or author.
+     *
+     * @param bookId     The ID of the book.
+     * @param checkedOut True if the book is checked out.
+     * @param borrowedId The ID of the member borrowing it, or null or empty if there is none.
+     */
+    @Override
+    public synchronized void setLoan(String bookId, boolean checkedOut, String borrowedId) {
+        int row = find(bookId);
+        if (row != NONE) {
+            setLoan(row, false, checkedOut, borrowedId);
+        }
+    }
+
+    /**
+     * Gets a view of a book.
+     *
+     * @param bookId The ID of the book.
+     * @return A detached book with the stored values, or null if there is no such book.
+     */
+    @Override
+    public synchronized Book get(String bookId) {
+        int row = find(bookId);
+        return row == NONE ? null : view(row, bookId);
+    }
+
+    /**
+     * Checks whether a book is in the store.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the store holds the book.
+     */
+    @Override
+    public synchronized boolean containsKey(String bookId) {
+        return find(bookId) != NONE;
+    }
+
+    /**
+     * Gets the number of books in the store.
+     *
+     * @return The number of books.
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes every book and lets go of the columns, starting again at the smallest size.
+     */
+    @Override
+    public synchronized void clear() {
+        reset(MIN_CAPACITY);
+    }
+
+    /**
+     * Iterates over views of the books in row order, seeing changes made while iterating to rows not yet
+     * reached.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Book> iterator() {
+        return new Iterator<>() {
+            private int row = advance(0);
+
+            private int advance(int from) {
+                synchronized (CompactBookStore.this) {
+                    return nextLive(from);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return row != NONE;
+            }
+
+            @Override
+            public Book next() {
+                if (row == NONE) {
+                    throw new NoSuchElementException();
+                }
+                Book book;
+                synchronized (CompactBookStore.this) {
+                    // The row may have been removed since it was reached
+                    book = getBit(live, row) ? view(row, idOf(row)) : null;
+                }
+                row = advance(row + 1);
+                return book != null ? book : next();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of distinct authors stored.
+     *
+     * @return The number of authors.
+     */
+    public synchronized int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * Gets the number of bytes the title pool holds, including those left behind by replaced titles.
+     *
+     * @return The number of bytes.
+     */
+    synchronized int titlePoolBytes() {
+        return titleBytes;
+    }
+
+    /**
+     * Empties the store, with columns sized for a number of books.
+     *
+     * @param expectedBooks The number of books expected.
+     */
+    private void reset(int expectedBooks) {
+        int capacity = Math.max(MIN_CAPACITY, expectedBooks);
+        authors = new StringDictionary();
+        borrowers = new StringDictionary();
+        otherIds = new HashMap<>();
+        otherRows = new HashMap<>();
+        freeRows = new ArrayDeque<>();
+        idMost = new long[capacity];
+        idLeast = new long[capacity];
+        titleStart = new int[capacity];
+        titleLength = new int[capacity];
+        authorCodes = new int[capacity];
+        borrowerCodes = new int[capacity];
+        checkedOut = new long[(capacity + 63) / 64];
+        live = new long[(capacity + 63) / 64];
+        titles = new byte[capacity * 16];
+        titleBytes = 0;
+        staleTitleBytes = 0;
+        rows = 0;
+        size = 0;
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        tableEntries = 0;
+    }
+
+    /**
+     * Writes a row's title, in place if it fits where the old one was.
+     *
+     * @param row   The row.
+     * @param added True if the row is new, so it has no title yet.
+     * @param title The title, or null.
+     */
+    private void setTitle(int row, boolean added, String title) {
+        int previous = added ? NONE : titleLength[row];
+        if (title == null) {
+            if (previous != NONE) {
+                staleTitleBytes += previous;
+            }
+            titleLength[row] = NONE;
+            return;
+        }
+        byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+        if (previous != NONE && bytes.length <= previous) {
+            System.arraycopy(bytes, 0, titles, titleStart[row], bytes.length);
+            staleTitleBytes += previous - bytes.length;
+        } else {
+            if (previous != NONE) {
+                staleTitleBytes += previous;
+            }
+            ensureTitleRoom(bytes.length);
+            System.arraycopy(bytes, 0, titles, titleBytes, bytes.length);
+            titleStart[row] = titleBytes;
+            titleBytes += bytes.length;
+        }
+        titleLength[row] = bytes.length;
+        compactTitlesIfStale();
+    }
+
+    /**
+     * Writes a row's loan state.
+     *
+     * @param row        The row.
+     * @param added      True if the row is new, so it has no borrower yet.
+     * @param lent       True if the book is checked out.
+     * @param borrowedId The borrower's ID, or null or empty if there is none.
+     */
+    private void setLoan(int row, boolean added, boolean lent, String borrowedId) {
+        int previous = added ? NONE : borrowerCodes[row];
+        borrowerCodes[row] = borrowedId == null || borrowedId.isEmpty() ? NONE : borrowers.encode(borrowedId);
+        release(borrowers, previous);
+        setBit(checkedOut, row, lent);
+    }
+
+    /**
+     * Builds a detached book from a row.
+     *
+     * @param row    The row.
+     * @param bookId The ID of the book in the row.
+     * @return The book.
+     */
+    private Book view(int row, String bookId) {
+        String title = titleLength[row] == NONE
+                ? null : new String(titles, titleStart[row], titleLength[row], StandardCharsets.UTF_8);
+        String author = authorCodes[row] == NONE ? null : authors.decode(authorCodes[row]);
+        Book book = new Book(bookId, title, author);
+        if (getBit(checkedOut, row)) {
+            book.setCheckedOut(true);
+        }
+        if (borrowerCodes[row] != NONE) {
+            book.setBorrowedId(borrowers.decode(borrowerCodes[row]));
+        }
+        return book;
+    }
+
+    /**
+     * Finds the first live row at or after a row.
+     *
+     * @param from The row to start from.
+     * @return The row, or NONE if there are no more.
+     */
+    private int nextLive(int from) {
+        for (int row = from; row < rows; row++) {
+            if (getBit(live, row)) {
+                return row;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Finds the row of a book in the store.
+     *
+     * @param bookId The ID.
+     * @return The row, or NONE if there is no such book.
+     */
+    private int find(String bookId) {
+        if (!isCanonicalUuid(bookId)) {
+            Integer row = otherRows.get(bookId);
+            return row == null ? NONE : row;
+        }
+        long most = mostBits(bookId);
+        long least = leastBits(bookId);
+        int mask = table.length - 1;
+        for (int slot = hash(most, least) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int row = table[slot] - 1;
+            if (idMost[row] == most && idLeast[row] == least) {
+                return row;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Takes a row for a new ID, reusing a removed book's row if there is one.
+     *
+     * @param bookId The ID.
+     * @return The row.
+     */
+    private int append(String bookId) {
+        Integer reused = freeRows.poll();
+        int row;
+        if (reused != null) {
+            row = reused;
+        } else {
+            if (rows == idMost.length) {
+                grow();
+            }
+            row = rows++;
+        }
+        if (!isCanonicalUuid(bookId)) {
+            otherIds.put(row, bookId);
+            otherRows.put(bookId, row);
+            return row;
+        }
+        idMost[row] = mostBits(bookId);
+        idLeast[row] = leastBits(bookId);
+        if ((tableEntries + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(row);
+        return row;
+    }
+
+    /**
+     * Gets the ID of a row.
+     *
+     * @param row The row.
+     * @return The ID, rebuilt from its two longs unless it is not a UUID.
+     */
+    private String idOf(int row) {
+        String other = otherIds.get(row);
+        return other != null ? other : new UUID(idMost[row], idLeast[row]).toString();
+    }
+
+    /**
+     * Grows every column to hold half as many rows again.
+     */
+    private void grow() {
+        int capacity = idMost.length + (idMost.length >> 1);
+        idMost = Arrays.copyOf(idMost, capacity);
+        idLeast = Arrays.copyOf(idLeast, capacity);
+        titleStart = Arrays.copyOf(titleStart, capacity);
+        titleLength = Arrays.copyOf(titleLength, capacity);
+        authorCodes = Arrays.copyOf(authorCodes, capacity);
+        borrowerCodes = Arrays.copyOf(borrowerCodes, capacity);
+        checkedOut = Arrays.copyOf(checkedOut, (capacity + 63) / 64);
+        live = Arrays.copyOf(live, (capacity + 63) / 64);
+    }
+
+    /**
+     * Makes room in the title pool.
+     *
+     * @param length The number of bytes about to be added.
+     */
+    private void ensureTitleRoom(int length) {
+        if (titleBytes + length > titles.length) {
+            titles = Arrays.copyOf(titles, Math.max(titles.length + (titles.length >> 1), titleBytes + length));
+        }
+    }
+
+    /**
+     * Copies the titles of live rows into a new pool once more than half of the pool is left behind by
+     * replaced and removed titles.
+     */
+    private void compactTitlesIfStale() {
+        if (staleTitleBytes <= titleBytes / 2 || titleBytes < titles.length / 4) {
+            return;
+        }
+        byte[] compacted = new byte[Math.max(MIN_CAPACITY * 16, (titleBytes - staleTitleBytes) * 3 / 2)];
+        int used = 0;
+        for (int row = 0; row < rows; row++) {
+            if (getBit(live, row) && titleLength[row] != NONE) {
+                System.arraycopy(titles, titleStart[row], compacted, used, titleLength[row]);
+                titleStart[row] = used;
+                used += titleLength[row];
+            }
+        }
+        titles = compacted;
+        titleBytes = used;
+        staleTitleBytes = 0;
+    }
+
+    /**
+     * Rebuilds the ID table at a new size.
+     *
+     * @param capacity The number of slots, a power of two.
+     */
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        tableEntries = 0;
+        for (int row = 0; row < rows; row++) {
+            if (getBit(live, row) && !otherIds.containsKey(row)) {
+                insert(row);
+            }
+        }
+    }
+
+    /**
+     * Puts a row in the first free slot for its ID.
+     *
+     * @param row The row.
+     */
+    private void insert(int row) {
+        int mask = table.length - 1;
+        int slot = hash(idMost[row], idLeast[row]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = row + 1;
+        tableEntries++;
+    }
+
+    /**
+     * Takes a row out of the ID table, moving later rows of the same probe run back into the gap so that
+     * lookups never stop short at it.
+     *
+     * @param row The row.
+     */
+    private void unlink(int row) {
+        int mask = table.length - 1;
+        int gap = hash(idMost[row], idLeast[row]) & mask;
+        while (table[gap] != row + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int slot = (gap + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int moved = table[slot] - 1;
+            int home = hash(idMost[moved], idLeast[moved]) & mask;
+            // A row can move back only if the gap is no earlier in its run than its own slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = 0;
+        tableEntries--;
+    }
+
+    /**
+     * Gives back a dictionary code held by a row.
+     *
+     * @param dictionary The dictionary.
+     * @param code       The code, or NONE.
+     */
+    private static void release(StringDictionary dictionary, int code) {
+        if (code != NONE) {
+            dictionary.release(dictionary.decode(code));
+        }
+    }
+
+    /**
+     * Checks whether an ID is a canonical UUID, i.e. one that {@link UUID#toString()} prints back exactly:
+     * 36 characters of lower-case hex with dashes in the usual places. Only these are kept as two longs.
+     *
+     * @param bookId The ID.
+     * @return True if the ID can be rebuilt from its two longs.
+     */
+    private static boolean isCanonicalUuid(String bookId) {
+        if (bookId == null || bookId.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = bookId.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mostBits(String uuid) {
+        return Long.parseUnsignedLong(uuid, 0, 8, 16) << 32
+                | Long.parseUnsignedLong(uuid, 9, 13, 16) << 16
+                | Long.parseUnsignedLong(uuid, 14, 18, 16);
+    }
+
+    private static long leastBits(String uuid) {
+        return Long.parseUnsignedLong(uuid, 19, 23, 16) << 48
+                | Long.parseUnsignedLong(uuid, 24, 36, 16);
+    }
+
+    private static int hash(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.CS5031P2.backend.model;
+
+import java.util.Collection;
+
+/**
+ * A secondary index over books or members, kept up to date by {@link LibraryLendingSystem} just after each
+ * change is published.
+ *
+ * @param <T> The type of item indexed.
+ */
+interface Index<T> {
+
+    /**
+     * Moves an item that has been replaced, added or removed.
+     *
+     * @param removed The item as it was indexed, or null if it is new. It must still have its old values.
+     * @param added   The item that replaces it, or null if it was removed.
+     */
+    void update(T removed, T added);
+
+    /**
+     * Replaces the whole contents of the index.
+     *
+     * @param items The items to index.
+     */
+    void reset(Collection<T> items);
+}
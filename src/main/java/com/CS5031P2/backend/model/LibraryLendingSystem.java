@@ -1,85 +1,557 @@
 package com.CS5031P2.backend.model;
 
+import com.CS5031P2.backend.engine.SingleWriterEngine;
+import com.CS5031P2.backend.persistence.JournalRecord;
+import com.CS5031P2.backend.persistence.StorageEngine;
 import com.CS5031P2.backend.util.BookParser;
 import com.CS5031P2.backend.util.MemberParser;
+import com.CS5031P2.backend.util.PersistentMap;
+import com.CS5031P2.backend.util.StringDictionary;
 import org.springframework.stereotype.Component;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Class representing the library lending system.
+ * The books and members are held in persistent maps, published together as one immutable {@link Version}.
+ * A reader takes the current version in O(1) and sees a consistent point-in-time catalogue however long it
+ * iterates, while writers build the next version (sharing all unchanged structure) and publish it with one
+ * compare-and-set.
+ * Requests arrive on many threads at once. Checkouts and returns
+ * are lock-free: each is a single compare-and-set on the book's loan state, so a book is never lent twice
+ * and desks never wait on each other. Other mutations lock the stripe of the record they change.
+ * A mutation is appended to the {@link StorageEngine} while it still owns the record, so the stored order
+ * matches the order the changes were made in, and waits for the engine's sync only after letting go of it.
+ * Optionally, every mutation is instead handed to a {@link SingleWriterEngine} and applied on its single
+ * writer thread, with one sync per batch.
+ * Books and members are also kept in sorted indexes, updated just after each change is published, so that
+ * clients can page through them in a stable order without the library sorting the whole catalogue. Books are
+ * likewise kept in a full-text index over their titles and authors, and members in one over their names, so
+ * searches, including typo-tolerant ones, never scan the catalogue. Titles, authors and member names are also
+ * kept in prefix indexes that suggest completions as the user types.
+ * Loans are recorded once, in a {@link LoanIndex} from book to borrower and back, which follows the loan state
+ * on the books. Each member's borrowed books are a live view of it, so replacing a member cannot lose them.
+ * Which books are available is also kept in an {@link AvailabilityIndex} bitmap, so available books can be
+ * listed, counted and searched without looking at the ones on loan.
+ * Optionally, the books are kept in a {@link BookStore}, such as a {@link CompactBookStore}, that holds them in
+ * its own layout rather than as one object each; see {@link #useBookStore(BookStore)}. Reads then return views
+ * built from the store, every version shares the store's live books, and as a store holds no pending state,
+ * checkouts and returns claim a book while holding its stripe's lock instead.
  */
 @Component
 public class LibraryLendingSystem {
-    private Map<String, Book> books;
-    private Map<String, Member> members;
+    /**
+     * Pages ordered by ID.
+     */
+    public static final String ORDER_BY_ID = "id";
+
+    /**
+     * Pages of books ordered by title, then ID.
+     */
+    public static final String ORDER_BY_TITLE = "title";
+
+    /**
+     * Pages of members ordered by name, then ID.
+     */
+    public static final String ORDER_BY_NAME = "name";
+
+    /**
+     * Number of suggestions returned when none is asked for.
+     */
+    public static final int DEFAULT_SUGGESTIONS = 10;
+
+    /**
+     * Largest number of suggestions that can be asked for.
+     */
+    public static final int MAX_SUGGESTIONS = 50;
+
+    /**
+     * Lowest similarity of a misspelt word to an indexed one, used when none is asked for.
+     */
+    public static final double DEFAULT_SIMILARITY = 0.4;
+
+    /**
+     * Classpath resource holding the example books.
+     */
+    public static final String EXAMPLE_BOOKS = "/book_examples.json";
+
+    /**
+     * Classpath resource holding the example members.
+     */
+    public static final String EXAMPLE_MEMBERS = "/member_examples.json";
+
+    private final AtomicReference<Version> current;
+    private final StripedLocks locks = new StripedLocks(StripedLocks.DEFAULT_STRIPES);
+    private volatile StorageEngine storage;
+    private volatile SingleWriterEngine engine;
+    private final Map<String, SortedIndex<Book>> bookOrders = Map.of(
+            ORDER_BY_ID, new SortedIndex<>(ORDER_BY_ID, Book::getBookId, Book::getBookId),
+            ORDER_BY_TITLE, new SortedIndex<>(ORDER_BY_TITLE, Book::getTitle, Book::getBookId));
+    private final Map<String, SortedIndex<Member>> memberOrders = Map.of(
+            ORDER_BY_ID, new SortedIndex<>(ORDER_BY_ID, Member::getMemberId, Member::getMemberId),
+            ORDER_BY_NAME, new SortedIndex<>(ORDER_BY_NAME, Member::getName, Member::getMemberId));
+    // A word in the title counts for twice as much as one in the author's name
+    private final TextIndex<Book> bookText = new TextIndex<>(Book::getBookId, List.of(
+            new TextIndex.Field<>(Book::getTitle, 2),
+            new TextIndex.Field<>(Book::getAuthor, 1)));
+    private final TextIndex<Member> memberText = new TextIndex<>(Member::getMemberId, List.of(
+            new TextIndex.Field<>(Member::getName, 1)));
+    private final PrefixIndex<Book> bookPrefixes = new PrefixIndex<>(List.of(Book::getTitle, Book::getAuthor));
+    private final PrefixIndex<Member> memberPrefixes = new PrefixIndex<>(List.of(Member::getName));
+    private final LoanIndex loans = new LoanIndex();
+    private final AvailabilityIndex availability = new AvailabilityIndex();
+    // Books by the same author share one author string, dropped with the last of their books
+    private final StringDictionary authors = new StringDictionary();
+    // Books kept in a store whose loans are claimed by a checkout or return that is still recording them
+    private final Set<String> pendingLoans = ConcurrentHashMap.newKeySet();
+    private final List<Index<Book>> bookIndexes = List.of(
+            bookOrders.get(ORDER_BY_ID), bookOrders.get(ORDER_BY_TITLE), bookText, bookPrefixes, loans, availability);
+    private final List<Index<Member>> memberIndexes = List.of(
+            memberOrders.get(ORDER_BY_ID), memberOrders.get(ORDER_BY_NAME), memberText, memberPrefixes);
 
     /**
      * Constructor for LibraryLendingSystem.
-     * Initializes the books and members maps by parsing data from external sources.
-     * @throws IOException if an I/O error occurs during parsing.
+     * The library starts with no books or members, until they are loaded from storage or from the examples.
+     */
+    public LibraryLendingSystem() {
+        current = new AtomicReference<>(new Version(0, PersistentMap.empty(), PersistentMap.empty()));
+    }
+
+    /**
+     * Creates a library holding the example books and members.
+     * @return The library.
+     * @throws IOException if the examples cannot be read.
+     */
+    public static LibraryLendingSystem withExamples() throws IOException {
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        library.loadExamples();
+        return library;
+    }
+
+    /**
+     * Replaces the books and members with the examples on the classpath, {@value #EXAMPLE_BOOKS} and
+     * {@value #EXAMPLE_MEMBERS}, so that they are found inside a packaged jar as well as in the source tree.
+     * @throws IOException if the examples are missing or cannot be parsed.
+     */
+    public void loadExamples() throws IOException {
+        try (InputStream books = openResource(EXAMPLE_BOOKS); InputStream members = openResource(EXAMPLE_MEMBERS)) {
+            setBooks(new BookParser().parseBooks(books));
+            setMembers(new MemberParser().getParsedMembers(members));
+        }
+    }
+
+    /**
+     * Opens a resource on the classpath.
+     * @param name The absolute name of the resource.
+     * @return A stream over the resource, which the caller must close.
+     * @throws FileNotFoundException if there is no such resource.
      */
-    public LibraryLendingSystem() throws IOException {
-        books = new BookParser().parseBooks("src/main/resources/book_examples.json");
-        members = new MemberParser().getParsedMembers("src/main/resources/member_examples.json");
+    private static InputStream openResource(String name) throws FileNotFoundException {
+        InputStream in = LibraryLendingSystem.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new FileNotFoundException("No resource " + name + " on the classpath");
+        }
+        return in;
     }
 
     /**
-     * Retrieves borrowed books associated with a member.
+     * Gets the current version of the library: a consistent, immutable view of all books and members, whose
+     * books are read live while they are kept in a store.
+     * @return The current version.
+     */
+    public Version getVersion() {
+        return current.get();
+    }
+
+    /**
+     * Retrieves borrowed books associated with a member, looked up in the loan index without scanning.
      * @param memberID The ID of the member.
-     * @return A map of borrowed books, or an empty map if the member doesn't exist.
+     * @return A live, read-only map of borrowed books, or an empty map if the member doesn't exist.
      */
     public Map<String, Book> getBorrowedBooks(String memberID) {
-        if (members.containsKey(memberID)) {
-            Member member = members.get(memberID);
-            return member.getBorrowedBooks();
+        if (current.get().members.containsKey(memberID)) {
+            return loans.borrowedBooks(memberID, this::currentBook);
         }
 
         // Returns an empty hashmap if no member
         return new HashMap<>();
     }
 
+    /**
+     * Retrieves the member who has borrowed a book, looked up in the loan index without scanning.
+     * @param bookId The ID of the book.
+     * @return An Optional containing the borrower, or empty if the book is not on loan.
+     */
+    public Optional<Member> getBorrower(String bookId) {
+        String memberId = loans.getBorrower(bookId);
+        return memberId == null ? Optional.empty() : getMember(memberId);
+    }
+
     /**
      * Retrieves all books in the library.
-     * @return A map of books.
+     * @return An immutable map of the books in the current version, or a read-only view of the store if the
+     * books are kept in one.
      */
     public Map<String, Book> getBooks() {
-        return books;
+        return current.get().getBooks();
     }
 
     /**
      * Sets the books in the library.
-     * @param books A map of books.
+     * @param books A map of books, copied into a new version unless it is already a persistent map, or into
+     * the store if the books are kept in one.
      */
     public void setBooks(Map<String, Book> books) {
-        this.books = books;
+        BookStore store = store();
+        if (store != null) {
+            store.clear();
+            books.values().forEach(store::put);
+            reindex(bookIndexes, getBooks().values());
+            return;
+        }
+        authors.clear();
+        books.values().forEach(this::shareAuthor);
+        PersistentMap<String, Book> newBooks = PersistentMap.copyOf(books);
+        publish(version -> version.withBooks(newBooks));
+        reindex(bookIndexes, newBooks.values());
+    }
+
+    /**
+     * Moves the books into a store that keeps them in its own layout, such as a {@link CompactBookStore},
+     * rather than as one object each. From then on books are read from the store as detached views, and
+     * every change to them is written to it. Called at startup, before any request arrives.
+     * @param store The store, which is emptied first, or null to keep the books as objects again.
+     */
+    public synchronized void useBookStore(BookStore store) {
+        Map<String, Book> books = new HashMap<>(getBooks());
+        publish(version -> version.withStore(store));
+        setBooks(books);
+    }
+
+    /**
+     * Gets one page of books in a stable order.
+     * @param order The order: {@link #ORDER_BY_ID} or {@link #ORDER_BY_TITLE}.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The largest number of books to return.
+     * @return The page.
+     * @throws IllegalArgumentException if the order is unknown or the cursor is invalid.
+     */
+    public Page<Book> getBookPage(String order, String cursor, int limit) {
+        return indexFor(bookOrders, order).page(cursor, limit, getBooks()::get);
+    }
+
+    /**
+     * Searches the titles and authors of the books for every word of a query.
+     * Words are matched whole and case-insensitively; books with the words in their title rank above
+     * books with them only in the author's name.
+     * @param query The words to search for.
+     * @param limit The largest number of books to return.
+     * @return The matching books, best match first; empty if the query has no words.
+     */
+    public List<Book> searchBooks(String query, int limit) {
+        return bookText.search(query, limit, getBooks()::get);
+    }
+
+    /**
+     * Searches the titles and authors of the books for words spelt like every word of a query, so that
+     * misspellings such as "Orwel" still find their books. Closer spellings rank higher.
+     * @param query The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1.
+     * @param limit The largest number of books to return.
+     * @return The matching books, best match first; empty if the query has no words.
+     */
+    public List<Book> fuzzySearchBooks(String query, double similarity, int limit) {
+        return bookText.fuzzySearch(query, similarity, limit, getBooks()::get);
+    }
+
+    /**
+     * Lists books that are not checked out, read from the availability bitmap.
+     * @param limit The largest number of books to return.
+     * @return Up to limit available books, in no particular order.
+     */
+    public List<Book> getAvailableBooks(int limit) {
+        List<Book> books = new ArrayList<>();
+        for (String bookId : availability.first(limit)) {
+            Book book = currentBook(bookId);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Gets one page of the books that are not checked out, read from the availability bitmap.
+     * Books stay in the same order while they are in the library, so paging lists each book that stays
+     * available throughout exactly once.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The largest number of books to return.
+     * @return The page.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public Page<Book> getAvailableBookPage(String cursor, int limit) {
+        int from = 0;
+        if (cursor != null) {
+            try {
+                from = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor for available books", e);
+            }
+            if (from < 0) {
+                throw new IllegalArgumentException("Invalid cursor for available books");
+            }
+        }
+        List<String> bookIds = new ArrayList<>();
+        int next = availability.scan(from, limit, bookIds);
+        List<Book> books = new ArrayList<>(bookIds.size());
+        for (String bookId : bookIds) {
+            Book book = currentBook(bookId);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return new Page<>(books, next < 0 ? null : Integer.toString(next));
+    }
+
+    /**
+     * Counts the books that are not checked out, in O(1).
+     * @return The number of available books.
+     */
+    public int countAvailableBooks() {
+        return availability.count();
+    }
+
+    /**
+     * Searches the titles and authors of the available books for every word of a query, ranked as by
+     * {@link #searchBooks(String, int)}. Books on loan are dropped before ranking, so they never crowd out
+     * available ones.
+     * @param query The words to search for.
+     * @param limit The largest number of books to return.
+     * @return The matching available books, best match first; empty if the query has no words.
+     */
+    public List<Book> searchAvailableBooks(String query, int limit) {
+        return bookText.search(query, limit, availability::isAvailable, getBooks()::get);
+    }
+
+    /**
+     * Searches the titles and authors of the available books for words spelt like every word of a query.
+     * @param query The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1.
+     * @param limit The largest number of books to return.
+     * @return The matching available books, best match first; empty if the query has no words.
+     */
+    public List<Book> fuzzySearchAvailableBooks(String query, double similarity, int limit) {
+        return bookText.fuzzySearch(query, similarity, limit, availability::isAvailable, getBooks()::get);
+    }
+
+    /**
+     * Suggests book titles and authors with a word starting with the text typed so far.
+     * @param prefix The text typed so far.
+     * @param limit The largest number of suggestions to return.
+     * @return The distinct titles and authors; empty if the prefix is blank.
+     */
+    public List<String> suggestBooks(String prefix, int limit) {
+        return new ArrayList<>(bookPrefixes.suggest(prefix, limit));
     }
 
     /**
      * Retrieves all members in the library.
-     * @return A map of members.
+     * @return An immutable map of the members in the current version.
      */
     public Map<String, Member> getMembers() {
-        return members;
+        return current.get().members;
     }
 
     /**
      * Sets the members in the library.
-     * @param members A map of members.
+     * @param members A map of members, copied into a new version unless it is already a persistent map.
      */
     public void setMembers(Map<String, Member> members) {
-        this.members = members;
+        PersistentMap<String, Member> newMembers = PersistentMap.copyOf(members);
+        newMembers.values().forEach(this::attachLoans);
+        publish(version -> version.withMembers(newMembers));
+        reindex(memberIndexes, newMembers.values());
+    }
+
+    /**
+     * Gets one page of members in a stable order.
+     * @param order The order: {@link #ORDER_BY_ID} or {@link #ORDER_BY_NAME}.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The largest number of members to return.
+     * @return The page.
+     * @throws IllegalArgumentException if the order is unknown or the cursor is invalid.
+     */
+    public Page<Member> getMemberPage(String order, String cursor, int limit) {
+        return indexFor(memberOrders, order).page(cursor, limit, getMembers()::get);
+    }
+
+    /**
+     * Searches member names for every word of a query, matched whole and case-insensitively.
+     * @param query The words to search for.
+     * @param limit The largest number of members to return.
+     * @return The matching members; empty if the query has no words.
+     */
+    public List<Member> searchMembers(String query, int limit) {
+        return memberText.search(query, limit, getMembers()::get);
+    }
+
+    /**
+     * Searches member names for words spelt like every word of a query. Closer spellings rank higher.
+     * @param query The words to search for.
+     * @param similarity The lowest similarity of a matching word, above 0 and at most 1.
+     * @param limit The largest number of members to return.
+     * @return The matching members, best match first; empty if the query has no words.
+     */
+    public List<Member> fuzzySearchMembers(String query, double similarity, int limit) {
+        return memberText.fuzzySearch(query, similarity, limit, getMembers()::get);
+    }
+
+    /**
+     * Suggests member names with a word starting with the text typed so far.
+     * @param prefix The text typed so far.
+     * @param limit The largest number of suggestions to return.
+     * @return The distinct names; empty if the prefix is blank.
+     */
+    public List<String> suggestMembers(String prefix, int limit) {
+        return new ArrayList<>(memberPrefixes.suggest(prefix, limit));
+    }
+
+    /**
+     * Sets the storage engine that every successful mutation is written to before it is acknowledged.
+     * @param storage The engine, or null to keep mutations in memory only.
+     */
+    public void setStorage(StorageEngine storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Starts applying every mutation on a single writer thread.
+     * @param capacity The number of mutations that can wait for the writer.
+     * @param maxBatch The largest number of mutations applied before the storage engine is synced.
+     */
+    public synchronized void startEngine(int capacity, int maxBatch) {
+        if (engine == null) {
+            engine = new SingleWriterEngine(capacity, maxBatch, this::completeBatch);
+        }
+    }
+
+    /**
+     * Applies the mutations already handed to the writer thread, then returns to applying mutations on
+     * the calling threads.
+     */
+    public synchronized void stopEngine() {
+        SingleWriterEngine current = engine;
+        if (current != null) {
+            current.close();
+            engine = null;
+        }
+    }
+
+    /**
+     * Gets the writer engine, if mutations are applied on a single writer thread.
+     * @return The engine, or null if mutations run on the calling threads.
+     */
+    public SingleWriterEngine getEngine() {
+        return engine;
     }
 
     /**
      * Adds a new book to the library.
      * @param title The title of the book.
      * @param author The author of the book.
+     * @throws IllegalArgumentException if the storage engine cannot store the book.
      */
     public void addBook(String title, String author){
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                addBook(title, author);
+                return null;
+            });
+            return;
+        }
+
         Book book = new Book(title, author);
-        books.put(book.getBookId(), book);
+        shareAuthor(book);
+        JournalRecord record = JournalRecord.addBook(book);
+        try {
+            check(record);
+        } catch (IllegalArgumentException e) {
+            releaseAuthor(book);
+            throw e;
+        }
+        putBook(book);
+        index(bookIndexes, null, book);
+        log(record);
+    }
+
+    /**
+     * Adds books that already carry their IDs, skipping any whose ID is already in the library or that the
+     * storage engine cannot store.
+     * The additions are journaled as one batch, so a large import waits for a single sync.
+     * @param newBooks The books to add.
+     * @return The number of books added.
+     */
+    public int addBooks(Collection<Book> newBooks) {
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            return writer.execute(() -> addBooks(newBooks));
+        }
+
+        newBooks.forEach(this::shareAuthor);
+        Collection<Book> storable = storable(newBooks);
+        List<Book> added = new ArrayList<>();
+        BookStore store = store();
+        if (store != null) {
+            for (Book book : storable) {
+                // Held so that a book added twice at once is only added once
+                locks.lock(book.getBookId());
+                try {
+                    if (!store.containsKey(book.getBookId())) {
+                        store.put(book);
+                        added.add(book);
+                    }
+                } finally {
+                    locks.unlock(book.getBookId());
+                }
+            }
+        } else {
+            publishBooks(books -> {
+                // Rerun from scratch if another writer publishes first
+                added.clear();
+                PersistentMap.Builder<String, Book> builder = books.toBuilder();
+                for (Book book : storable) {
+                    if (builder.get(book.getBookId()) == null) {
+                        builder.put(book.getBookId(), book);
+                        added.add(book);
+                    }
+                }
+                return added.isEmpty() ? books : builder.build();
+            });
+        }
+        Set<Book> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(added);
+        for (Book book : newBooks) {
+            if (!kept.contains(book)) {
+                releaseAuthor(book);
+            }
+        }
+
+        List<JournalRecord> records = new ArrayList<>(added.size());
+        for (Book book : added) {
+            index(bookIndexes, null, book);
+            records.add(JournalRecord.addBook(book));
+        }
+        logAll(records);
+        return records.size();
     }
 
     /**
@@ -88,19 +560,63 @@ public class LibraryLendingSystem {
      * @return An Optional containing the book if found, or empty if not found.
      */
     public Optional<Book> getBook(String bookId) {
-        return Optional.ofNullable(books.get(bookId));
+        return Optional.ofNullable(currentBook(bookId));
     }
 
     /**
      * Updates information for a specific book.
+     * The book's loan belongs to the library rather than the update, so the updated book takes over the loan
+     * of the one it replaces, whatever checked-out status and borrower it was given. The replaced book is
+     * retired first, once no checkout or return is pending on it, so none can claim it after its loan is copied.
+     * A book kept in a store is updated once no checkout or return is pending on it, while holding the lock
+     * they claim it under.
      * @param bookId The ID of the book to update.
      * @param updatedBook The updated Book object.
+     * @throws IllegalArgumentException if the storage engine cannot store the updated book.
      */
     public void updateBook(String bookId, Book updatedBook){
-        if (books.containsKey(bookId)) {
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                updateBook(bookId, updatedBook);
+                return null;
+            });
+            return;
+        }
+
+        BookStore store = store();
+        long sequence;
+        lockSettled(bookId, store);
+        try {
+            // Deletes of this book take the same lock, so it cannot disappear before the update is published
+            Book existing = currentBook(bookId);
+            if (existing == null) {
+                return;
+            }
             updatedBook.setBookId(bookId);
-            books.put(bookId, updatedBook);
+            shareAuthor(updatedBook);
+            Book.Loan loan = store != null ? existing.getLoan() : existing.retire();
+            updatedBook.setLoan(loan);
+            JournalRecord record = JournalRecord.updateBook(updatedBook);
+            try {
+                check(record);
+            } catch (IllegalArgumentException e) {
+                // Nothing was published, so the existing book goes back into service as it was
+                if (store == null) {
+                    existing.setLoan(loan);
+                }
+                releaseAuthor(updatedBook);
+                throw e;
+            }
+            // Indexed before publishing, while checkouts and returns wait, so none changes the loan meanwhile
+            index(bookIndexes, existing, updatedBook);
+            putBook(updatedBook);
+            releaseAuthor(existing);
+            sequence = append(record);
+        } finally {
+            locks.unlock(bookId);
         }
+        sync(sequence);
     }
 
     /**
@@ -108,7 +624,35 @@ public class LibraryLendingSystem {
      * @param bookId The ID of the book to delete.
      */
     public void deleteBook(String bookId){
-        books.remove(bookId);
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                deleteBook(bookId);
+                return null;
+            });
+            return;
+        }
+
+        BookStore store = store();
+        long sequence;
+        lockSettled(bookId, store);
+        try {
+            Book existing = currentBook(bookId);
+            if (existing == null) {
+                return;
+            }
+            if (store == null) {
+                // Checkouts and returns that find the book retired look it up again, and find it gone
+                existing.retire();
+            }
+            removeBook(bookId);
+            index(bookIndexes, existing, null);
+            releaseAuthor(existing);
+            sequence = append(new JournalRecord(JournalRecord.Type.DELETE_BOOK, bookId));
+        } finally {
+            locks.unlock(bookId);
+        }
+        sync(sequence);
     }
 
     /**
@@ -117,29 +661,68 @@ public class LibraryLendingSystem {
      * @return An Optional containing the member if found, or empty if not found.
      */
     public Optional<Member> getMember(String memberId) {
-        return Optional.ofNullable(members.get(memberId));
+        return Optional.ofNullable(current.get().members.get(memberId));
     }
 
     /**
      * Adds a new member to the library.
      * @param name The name of the member.
      * @param address The address of the member.
+     * @throws IllegalArgumentException if the storage engine cannot store the member.
      */
     public void addMember(String name, String address) {
-        Member member = new Member(name, address);
-        members.put(member.getMemberId(), member);
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                addMember(name, address);
+                return null;
+            });
+            return;
+        }
+
+        Member member = attachLoans(new Member(name, address));
+        JournalRecord record = JournalRecord.addMember(member);
+        check(record);
+        publishMembers(members -> members.with(member.getMemberId(), member));
+        index(memberIndexes, null, member);
+        log(record);
     }
 
     /**
      * Updates information for a specific member.
      * @param memberId The ID of the member to update.
      * @param updatedMember The updated Member object.
+     * @throws IllegalArgumentException if the storage engine cannot store the updated member.
      */
     public void updateMember(String memberId, Member updatedMember) {
-        if (members.containsKey(memberId)) {
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                updateMember(memberId, updatedMember);
+                return null;
+            });
+            return;
+        }
+
+        long sequence;
+        locks.lock(memberId);
+        try {
+            Member existing = current.get().members.get(memberId);
+            if (existing == null) {
+                return;
+            }
             updatedMember.setMemberId(memberId);
-            members.put(memberId, updatedMember);
+            JournalRecord record = JournalRecord.updateMember(updatedMember);
+            check(record);
+            // The member's loans stay in the loan index, whatever borrowed books the update carried
+            attachLoans(updatedMember);
+            publishMembers(members -> members.with(memberId, updatedMember));
+            index(memberIndexes, existing, updatedMember);
+            sequence = append(record);
+        } finally {
+            locks.unlock(memberId);
         }
+        sync(sequence);
     }
 
     /**
@@ -147,29 +730,65 @@ public class LibraryLendingSystem {
      * @param memberId The ID of the member to delete.
      */
     public void deleteMember(String memberId) {
-        members.remove(memberId);
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            writer.execute(() -> {
+                deleteMember(memberId);
+                return null;
+            });
+            return;
+        }
+
+        long sequence;
+        locks.lock(memberId);
+        try {
+            Member existing = current.get().members.get(memberId);
+            if (existing == null || !publishMembers(members -> members.without(memberId))) {
+                return;
+            }
+            index(memberIndexes, existing, null);
+            sequence = append(new JournalRecord(JournalRecord.Type.DELETE_MEMBER, memberId));
+        } finally {
+            locks.unlock(memberId);
+        }
+        sync(sequence);
     }
 
     /**
      * Checks out a book for a specific member.
+     * The book is claimed by swapping its available loan state for a pending loan to the member in one
+     * compare-and-set, so concurrent checkouts of the same book cannot both succeed.
      *
      * @param memberId The ID of the member who is borrowing the book.
      * @param bookId   The ID of the book to be borrowed.
      * @return True if the book was successfully checked out, false otherwise.
      */
     public boolean checkOutBook(String memberId, String bookId) {
-        if (isValidBorrowerAndBook(memberId, bookId)) {
-            Member member = getMember(memberId).get();
-            Book book = getBook(bookId).get();
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            return writer.execute(() -> checkOutBook(memberId, bookId));
+        }
 
-            // Check out book
-            if (!book.isCheckedOut()) {
-                member.borrowBook(book);
-                return true;
-            }
+        if (!current.get().members.containsKey(memberId)) {
+            return false;
+        }
+
+        // Check out book
+        Book book = claimLoan(bookId, loan -> !loan.checkedOut, new Book.Loan(true, memberId, true), null);
+        if (book == null) {
+            return false;
         }
 
-        return false;
+        long sequence;
+        try {
+            recordLoan(bookId, memberId);
+            sequence = append(JournalRecord.checkOut(memberId, bookId));
+        } finally {
+            completeLoan(book);
+        }
+
+        sync(sequence);
+        return true;
     }
 
     /**
@@ -180,34 +799,728 @@ public class LibraryLendingSystem {
      * @return True if the book was successfully returned, false otherwise.
      */
     public boolean returnBook(String memberId, String bookId) {
-        if (isValidBorrowerAndBook(memberId, bookId)) {
-            Member member = getMember(memberId).get();
-            Book book = getBook(bookId).get();
-
-            // Check if book is checked out
-            if (book.isCheckedOut()) {
-                Map<String, Book> borrowedBooks = getBorrowedBooks(memberId);
-
-                // If borrowed by this user then return
-                if (borrowedBooks.containsKey(bookId)) {
-                    member.returnBook(book);
-                    return true;
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            return writer.execute(() -> returnBook(memberId, bookId));
+        }
+
+        if (!current.get().members.containsKey(memberId)) {
+            return false;
+        }
+
+        // Only a checked out book borrowed by this member can be returned
+        Book book = claimLoan(bookId, loan -> loan.checkedOut && memberId.equals(loan.borrowedId),
+                Book.Loan.RETURNING, null);
+        if (book == null) {
+            return false;
+        }
+
+        long sequence;
+        try {
+            recordReturn(bookId);
+            sequence = append(JournalRecord.returnBook(memberId, bookId));
+        } finally {
+            completeLoan(book);
+        }
+
+        sync(sequence);
+        return true;
+    }
+
+    /**
+     * Checks out several books to one member in a single pass.
+     * Each book is claimed with the same compare-and-set as {@link #checkOutBook(String, String)}, and all
+     * the checkouts are stored together, so the request waits for one sync rather than one per book.
+     *
+     * @param memberId     The ID of the member checking out the books.
+     * @param bookIds      The IDs of the books, in the order they are reported.
+     * @param allOrNothing Whether to check out none of the books unless all of them can be.
+     * @return The outcome for each book, in request order.
+     */
+    public List<LoanResult> checkOutBooks(String memberId, List<String> bookIds, boolean allOrNothing) {
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            return writer.execute(() -> checkOutBooks(memberId, bookIds, allOrNothing));
+        }
+        return changeLoans(memberId, bookIds, allOrNothing, true);
+    }
+
+    /**
+     * Returns several books borrowed by one member in a single pass.
+     * Each book is claimed with the same compare-and-set as {@link #returnBook(String, String)}, and all
+     * the returns are stored together, so the request waits for one sync rather than one per book.
+     *
+     * @param memberId     The ID of the member returning the books.
+     * @param bookIds      The IDs of the books, in the order they are reported.
+     * @param allOrNothing Whether to return none of the books unless all of them can be.
+     * @return The outcome for each book, in request order.
+     */
+    public List<LoanResult> returnBooks(String memberId, List<String> bookIds, boolean allOrNothing) {
+        SingleWriterEngine writer = handOff();
+        if (writer != null) {
+            return writer.execute(() -> returnBooks(memberId, bookIds, allOrNothing));
+        }
+        return changeLoans(memberId, bookIds, allOrNothing, false);
+    }
+
+    /**
+     * Applies a journaled mutation without journaling it again. Used to replay the journal at startup.
+     * Each record sets the resulting state, so applying a record that is already reflected has no effect.
+     *
+     * @param record The mutation to apply.
+     */
+    public void apply(JournalRecord record) {
+        String id = record.getId();
+        switch (record.getType()) {
+            case ADD_BOOK -> {
+                // Replay runs alone, so nothing can add the book between the check and the put
+                if (!getBooks().containsKey(id)) {
+                    Book book = new Book(id, record.getField(0), record.getField(1));
+                    shareAuthor(book);
+                    putBook(book);
+                    index(bookIndexes, null, book);
+                }
+            }
+            case UPDATE_BOOK -> {
+                Book book = new Book(id, record.getField(0), record.getField(1));
+                shareAuthor(book);
+                book.setCheckedOut(Boolean.parseBoolean(record.getField(2)));
+                book.setBorrowedId(record.getField(3));
+                Book existing = getBooks().get(id);
+                putBook(book);
+                index(bookIndexes, existing, book);
+                releaseAuthor(existing);
+            }
+            case DELETE_BOOK -> {
+                Book existing = getBooks().get(id);
+                if (existing != null) {
+                    removeBook(id);
+                    index(bookIndexes, existing, null);
+                    releaseAuthor(existing);
+                }
+            }
+            case ADD_MEMBER -> {
+                Member member = new Member(id, record.getField(0), record.getField(1));
+                attachLoans(member);
+                if (publishMembers(members -> members.containsKey(id) ? members : members.with(id, member))) {
+                    index(memberIndexes, null, member);
+                }
+            }
+            case UPDATE_MEMBER -> {
+                Member member = new Member(id, record.getField(0), record.getField(1));
+                attachLoans(member);
+                Member existing = getMembers().get(id);
+                publishMembers(members -> members.with(id, member));
+                index(memberIndexes, existing, member);
+            }
+            case DELETE_MEMBER -> {
+                Member existing = getMembers().get(id);
+                if (publishMembers(members -> members.without(id))) {
+                    index(memberIndexes, existing, null);
+                }
+            }
+            case CHECK_OUT -> {
+                Book book = getBooks().get(id);
+                Member member = getMembers().get(record.getField(0));
+                if (book != null && member != null) {
+                    book.setCheckedOut(true);
+                    book.setBorrowedId(member.getMemberId());
+                    writeLoan(book);
+                    recordLoan(id, member.getMemberId());
+                }
+            }
+            case RETURN -> {
+                Book book = getBooks().get(id);
+                Member member = getMembers().get(record.getField(0));
+                if (book != null && member != null) {
+                    book.setCheckedOut(false);
+                    book.setBorrowedId("");
+                    writeLoan(book);
+                    recordReturn(id);
                 }
             }
         }
+    }
 
-        return false;
+    /**
+     * Gets the engine a mutation must be handed to, i.e. the writer engine when one is running and the
+     * caller is not already its writer thread.
+     *
+     * @return The engine to hand the mutation to, or null to apply it on the calling thread.
+     */
+    private SingleWriterEngine handOff() {
+        SingleWriterEngine current = engine;
+        return current != null && !current.isWriterThread() ? current : null;
     }
 
     /**
-     * Checks whether the provided member ID and book ID are valid.
+     * Runs on the writer thread after each batch: makes the batch durable with one sync.
+     *
+     * @throws UncheckedIOException if the storage engine could not make the batch durable.
+     */
+    private void completeBatch() {
+        StorageEngine attached = storage;
+        if (attached == null) {
+            return;
+        }
+        try {
+            attached.sync(attached.getLastSequence());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks out or returns several books for one member.
+     * Every book is first claimed by moving its loan into a pending state, which keeps other desks off it.
+     * If all-or-nothing was asked for and any book could not be claimed, the claimed loans are put back as
+     * they were; otherwise the loan index is updated and the changes journaled before the claims are
+     * completed, as for a single checkout or return.
+     *
+     * @param memberId     The ID of the member.
+     * @param bookIds      The IDs of the books.
+     * @param allOrNothing Whether to change none of the loans unless all of them can be.
+     * @param checkOut     True to check the books out, false to return them.
+     * @return The outcome for each book, in request order.
+     */
+    private List<LoanResult> changeLoans(String memberId, List<String> bookIds, boolean allOrNothing,
+                                         boolean checkOut) {
+        Version version = current.get();
+        Member member = version.members.get(memberId);
+        List<LoanResult> results = new ArrayList<>(bookIds.size());
+        List<Book> claimed = new ArrayList<>();
+        List<Book.Loan> previous = new ArrayList<>();
+        Book.Loan claim = checkOut ? new Book.Loan(true, memberId, true) : Book.Loan.RETURNING;
+        Predicate<Book.Loan> allowed = checkOut
+                ? loan -> !loan.checkedOut
+                : loan -> loan.checkedOut && memberId.equals(loan.borrowedId);
+
+        for (String bookId : bookIds) {
+            if (member == null || !version.getBooks().containsKey(bookId)) {
+                results.add(new LoanResult(bookId, LoanResult.Status.NOT_FOUND));
+                continue;
+            }
+            Book book = claimLoan(bookId, allowed, claim, previous);
+            if (book == null) {
+                results.add(new LoanResult(bookId, LoanResult.Status.REJECTED));
+                continue;
+            }
+            claimed.add(book);
+            results.add(new LoanResult(bookId, LoanResult.Status.DONE));
+        }
+
+        if (allOrNothing && claimed.size() < bookIds.size()) {
+            // Pending loans are never changed by anyone else, so putting them back cannot fail
+            for (int i = 0; i < claimed.size(); i++) {
+                rollBackLoan(claimed.get(i), claim, previous.get(i));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getStatus() == LoanResult.Status.DONE) {
+                    results.set(i, new LoanResult(bookIds.get(i), LoanResult.Status.ROLLED_BACK));
+                }
+            }
+            return results;
+        }
+
+        long sequence = 0;
+        try {
+            for (Book book : claimed) {
+                String bookId = book.getBookId();
+                if (checkOut) {
+                    recordLoan(bookId, memberId);
+                    sequence = append(JournalRecord.checkOut(memberId, bookId));
+                } else {
+                    recordReturn(bookId);
+                    sequence = append(JournalRecord.returnBook(memberId, bookId));
+                }
+            }
+        } finally {
+            for (Book book : claimed) {
+                completeLoan(book);
+            }
+        }
+
+        sync(sequence);
+        return results;
+    }
+
+    /**
+     * Claims a book's loan by swapping an allowed state for a pending one in one compare-and-set, so that
+     * concurrent claims of the same book cannot both succeed. A book retired by an update is followed to the
+     * book replacing it, which carries the same loan.
      *
-     * @param memberId The ID of the member.
      * @param bookId   The ID of the book.
-     * @return True if both the member and the book exist, false otherwise.
+     * @param allowed  Whether a loan state that is not pending may be claimed.
+     * @param claim    The pending state to claim the loan with.
+     * @param previous The list to add the replaced state to, or null if it is not needed.
+     * @return The claimed book, or null if it does not exist or its loan cannot be claimed.
      */
-    private boolean isValidBorrowerAndBook(String memberId, String bookId) {
-        return getMember(memberId).isPresent() && getBook(bookId).isPresent();
+    private Book claimLoan(String bookId, Predicate<Book.Loan> allowed, Book.Loan claim, List<Book.Loan> previous) {
+        BookStore store = store();
+        if (store != null) {
+            return claimStoredLoan(store, bookId, allowed, claim, previous);
+        }
+        Book book = currentBook(bookId);
+        while (book != null) {
+            Book.Loan loan = book.getLoan();
+            if (loan.retired) {
+                // The update or delete that retired it publishes the change straight after
+                Thread.onSpinWait();
+                book = currentBook(bookId);
+            } else if (loan.pending || !allowed.test(loan)) {
+                return null;
+            } else if (book.compareAndSetLoan(loan, claim)) {
+                if (previous != null) {
+                    previous.add(loan);
+                }
+                return book;
+            }
+        }
+        return null;
     }
 
+    /**
+     * Claims the loan of a book kept in a store, which holds no pending state of its own, by marking the book
+     * pending in the library while holding its stripe's lock. The claimed state is written to the store at once.
+     *
+     * @param store    The store.
+     * @param bookId   The ID of the book.
+     * @param allowed  Whether a loan state may be claimed.
+     * @param claim    The pending state to claim the loan with.
+     * @param previous The list to add the replaced state to, or null if it is not needed.
+     * @return A view of the claimed book, or null if it does not exist or its loan cannot be claimed.
+     */
+    private Book claimStoredLoan(BookStore store, String bookId, Predicate<Book.Loan> allowed, Book.Loan claim,
+                                 List<Book.Loan> previous) {
+        locks.lock(bookId);
+        try {
+            Book book = store.get(bookId);
+            if (book == null || pendingLoans.contains(bookId) || !allowed.test(book.getLoan())) {
+                return null;
+            }
+            pendingLoans.add(bookId);
+            store.setLoan(bookId, claim.checkedOut, claim.borrowedId);
+            if (previous != null) {
+                previous.add(book.getLoan());
+            }
+            book.setLoan(claim);
+            return book;
+        } finally {
+            locks.unlock(bookId);
+        }
+    }
+
+    /**
+     * Completes a claimed loan, making the book available to the next checkout or return.
+     *
+     * @param book The book returned by the claim.
+     */
+    private void completeLoan(Book book) {
+        book.completeLoan();
+        // A book kept in a store is pending only in the library's own set
+        pendingLoans.remove(book.getBookId());
+    }
+
+    /**
+     * Puts a claimed loan back as it was. Pending loans are never changed by anyone else, so this cannot fail.
+     *
+     * @param book     The book returned by the claim.
+     * @param claim    The pending state it was claimed with.
+     * @param previous The state it replaced.
+     */
+    private void rollBackLoan(Book book, Book.Loan claim, Book.Loan previous) {
+        BookStore store = store();
+        if (store != null) {
+            store.setLoan(book.getBookId(), previous.checkedOut, previous.borrowedId);
+            pendingLoans.remove(book.getBookId());
+        } else {
+            book.compareAndSetLoan(claim, previous);
+        }
+    }
+
+    /**
+     * Locks a book's stripe once no checkout or return is pending on it, if the book is kept in a store.
+     * Claims are made under the same lock, so none can start meanwhile. The lock is let go while waiting,
+     * as a batch holding the pending claim may need it for its next book.
+     *
+     * @param bookId The ID of the book.
+     * @param store  The store, or null if books are kept as objects, which wait for pending loans themselves.
+     */
+    private void lockSettled(String bookId, BookStore store) {
+        locks.lock(bookId);
+        while (store != null && pendingLoans.contains(bookId)) {
+            locks.unlock(bookId);
+            Thread.onSpinWait();
+            locks.lock(bookId);
+        }
+    }
+
+    /**
+     * Records a checkout in the loan index and the availability bitmap, once the book's loan state is set.
+     *
+     * @param bookId   The ID of the book.
+     * @param memberId The ID of the member borrowing it.
+     */
+    private void recordLoan(String bookId, String memberId) {
+        loans.lend(bookId, memberId);
+        availability.setAvailable(bookId, false);
+    }
+
+    /**
+     * Records a return in the loan index and the availability bitmap, once the book's loan state is cleared.
+     *
+     * @param bookId The ID of the book.
+     */
+    private void recordReturn(String bookId) {
+        loans.release(bookId);
+        availability.setAvailable(bookId, true);
+    }
+
+    /**
+     * Makes a member's borrowed books a live view of the loan index.
+     *
+     * @param member The member.
+     * @return The member.
+     */
+    private Member attachLoans(Member member) {
+        member.setBorrowedBooks(loans.borrowedBooks(member.getMemberId(), this::currentBook));
+        return member;
+    }
+
+    /**
+     * Replaces a book's author with the library's shared instance of the same name, unless the books are
+     * kept in a store, which shares authors itself.
+     * @param book The book, before it is published.
+     */
+    private void shareAuthor(Book book) {
+        if (store() == null) {
+            book.setAuthor(authors.dedupe(book.getAuthor()));
+        }
+    }
+
+    /**
+     * Gives back the shared author of a book that is replaced, removed or never published.
+     * @param book The book, or null.
+     */
+    private void releaseAuthor(Book book) {
+        if (book != null && store() == null) {
+            authors.release(book.getAuthor());
+        }
+    }
+
+    /**
+     * Gets the store the books are kept in.
+     *
+     * @return The store, or null if the books are kept as objects in the versions.
+     */
+    private BookStore store() {
+        return current.get().store;
+    }
+
+    /**
+     * Gets a book from the current version.
+     *
+     * @param bookId The ID of the book.
+     * @return The book, or null if it does not exist.
+     */
+    private Book currentBook(String bookId) {
+        return current.get().getBooks().get(bookId);
+    }
+
+    /**
+     * Adds or replaces a book, in the store if the books are kept in one and in a new version otherwise.
+     *
+     * @param book The book.
+     */
+    private void putBook(Book book) {
+        BookStore store = store();
+        if (store != null) {
+            store.put(book);
+        } else {
+            publishBooks(books -> books.with(book.getBookId(), book));
+        }
+    }
+
+    /**
+     * Removes a book, from the store if the books are kept in one and in a new version otherwise.
+     *
+     * @param bookId The ID of the book.
+     */
+    private void removeBook(String bookId) {
+        BookStore store = store();
+        if (store != null) {
+            store.remove(bookId);
+        } else {
+            publishBooks(books -> books.without(bookId));
+        }
+    }
+
+    /**
+     * Writes the loan state of a book back to the store, if the books are kept in one, where each read
+     * returns a detached view. Books kept as objects already carry it.
+     *
+     * @param book The book, with its loan state set.
+     */
+    private void writeLoan(Book book) {
+        BookStore store = store();
+        if (store != null) {
+            store.setLoan(book.getBookId(), book.isCheckedOut(), book.getBorrowedId());
+        }
+    }
+
+    /**
+     * Moves a replaced, added or removed item in every index over its kind.
+     *
+     * @param indexes The indexes.
+     * @param removed The item as it was indexed, or null if it is new.
+     * @param added   The item that replaces it, or null if it was removed.
+     * @param <T>     The type of item.
+     */
+    private static <T> void index(List<Index<T>> indexes, T removed, T added) {
+        for (Index<T> index : indexes) {
+            index.update(removed, added);
+        }
+    }
+
+    /**
+     * Rebuilds every index over a kind of item.
+     *
+     * @param indexes The indexes.
+     * @param items   All items of that kind.
+     * @param <T>     The type of item.
+     */
+    private static <T> void reindex(List<Index<T>> indexes, Collection<T> items) {
+        for (Index<T> index : indexes) {
+            index.reset(items);
+        }
+    }
+
+    /**
+     * Finds the sorted index for an order.
+     *
+     * @param indexes The sorted indexes over a kind of item, by order.
+     * @param order   The name of the order.
+     * @param <T>     The type of item.
+     * @return The index.
+     * @throws IllegalArgumentException if there is no index for the order.
+     */
+    private static <T> SortedIndex<T> indexFor(Map<String, SortedIndex<T>> indexes, String order) {
+        SortedIndex<T> index = order == null ? null : indexes.get(order);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown order: " + order);
+        }
+        return index;
+    }
+
+    /**
+     * Publishes a new version of the library, retrying if another writer publishes first.
+     *
+     * @param change Derives the new version from the current one; returning the same version publishes nothing.
+     * @return True if a new version was published.
+     */
+    private boolean publish(UnaryOperator<Version> change) {
+        while (true) {
+            Version version = current.get();
+            Version next = change.apply(version);
+            if (next == version) {
+                return false;
+            }
+            if (current.compareAndSet(version, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Publishes a new version with changed books.
+     *
+     * @param change Derives the new books from the current ones; returning the same map publishes nothing.
+     * @return True if a new version was published.
+     */
+    private boolean publishBooks(UnaryOperator<PersistentMap<String, Book>> change) {
+        return publish(version -> version.withBooks(change.apply(version.books)));
+    }
+
+    /**
+     * Publishes a new version with changed members.
+     *
+     * @param change Derives the new members from the current ones; returning the same map publishes nothing.
+     * @return True if a new version was published.
+     */
+    private boolean publishMembers(UnaryOperator<PersistentMap<String, Member>> change) {
+        return publish(version -> version.withMembers(change.apply(version.members)));
+    }
+
+    /**
+     * Writes a mutation to the storage engine, if one is attached, and waits until it is durable.
+     *
+     * @param record The mutation to store.
+     * @throws UncheckedIOException if the engine could not make the mutation durable.
+     */
+    private void log(JournalRecord record) {
+        sync(append(record));
+    }
+
+    /**
+     * Checks that the storage engine, if one is attached, can store a mutation, and that the store the books
+     * are kept in, if any, can hold a book it adds or updates, before it is applied.
+     *
+     * @param record The mutation.
+     * @throws IllegalArgumentException if the storage engine or the store cannot take the mutation.
+     */
+    private void check(JournalRecord record) {
+        BookStore store = store();
+        StorageEngine current = storage;
+        if (current != null) {
+            current.check(record);
+        }
+        if (store != null && record.getType() == JournalRecord.Type.ADD_BOOK) {
+            store.check(record.getId(), record.getField(0), record.getField(1), null);
+        } else if (store != null && record.getType() == JournalRecord.Type.UPDATE_BOOK) {
+            store.check(record.getId(), record.getField(0), record.getField(1), record.getField(3));
+        }
+    }
+
+    /**
+     * Gets the books the storage engine, if one is attached, and the store, if any, can take.
+     *
+     * @param books The books to add.
+     * @return The books whose additions are accepted.
+     */
+    private Collection<Book> storable(Collection<Book> books) {
+        if (storage == null && store() == null) {
+            return books;
+        }
+        List<Book> storable = new ArrayList<>(books.size());
+        for (Book book : books) {
+            try {
+                check(JournalRecord.addBook(book));
+                storable.add(book);
+            } catch (IllegalArgumentException e) {
+                // Skipped, and so not counted as added
+            }
+        }
+        return storable;
+    }
+
+    /**
+     * Appends a mutation to the storage engine, if one is attached, without waiting for it to be durable.
+     * Called while the mutation's locks are held, so that records of the same book or member are
+     * stored in the order they were applied.
+     *
+     * @param record The mutation to store.
+     * @return The sequence number of the record, or 0 if there is no storage engine.
+     * @throws UncheckedIOException if the engine has failed.
+     */
+    private long append(JournalRecord record) {
+        StorageEngine current = storage;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits until the storage engine has made every record up to a sequence number durable.
+     * Called after the mutation's locks are released, so that other requests are not held up by the sync.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}.
+     * @throws UncheckedIOException if the engine could not make the records durable.
+     */
+    private void sync(long sequence) {
+        StorageEngine current = storage;
+        SingleWriterEngine writer = engine;
+        if (current == null || sequence == 0 || (writer != null && writer.isWriterThread())) {
+            // On the writer thread, the whole batch is synced at once when it completes
+            return;
+        }
+        try {
+            current.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes several mutations to the storage engine, if one is attached, and waits once until all are durable.
+     *
+     * @param records The mutations to store, in order.
+     * @throws UncheckedIOException if the engine could not make the mutations durable.
+     */
+    private void logAll(List<JournalRecord> records) {
+        long last = 0;
+        for (JournalRecord record : records) {
+            last = append(record);
+        }
+        sync(last);
+    }
+
+    /**
+     * A point-in-time version of the library's books and members.
+     * Versions are immutable and share the structure they have in common, so taking one costs O(1) and
+     * holding it never blocks or copies anything. The loan state of each book is read live, but atomically.
+     * While the books are kept in a {@link BookStore}, every version shares the store's live books, and only
+     * changes to members publish a new version.
+     */
+    public static final class Version {
+        private final long number;
+        private final PersistentMap<String, Book> books;
+        private final PersistentMap<String, Member> members;
+        private final BookStore store;
+        private final Map<String, Book> storeView;
+
+        Version(long number, PersistentMap<String, Book> books, PersistentMap<String, Member> members) {
+            this(number, books, members, null, null);
+        }
+
+        private Version(long number, PersistentMap<String, Book> books, PersistentMap<String, Member> members,
+                        BookStore store, Map<String, Book> storeView) {
+            this.number = number;
+            this.books = books;
+            this.members = members;
+            this.store = store;
+            this.storeView = storeView;
+        }
+
+        /**
+         * Gets the version number, which increases with every published change.
+         * @return The version number.
+         */
+        public long getNumber() {
+            return number;
+        }
+
+        /**
+         * Gets the books in this version.
+         * @return An immutable map of books by ID, or a read-only view of the store the books are kept in.
+         */
+        public Map<String, Book> getBooks() {
+            return store != null ? storeView : books;
+        }
+
+        /**
+         * Gets the members in this version.
+         * @return An immutable map of members by ID.
+         */
+        public Map<String, Member> getMembers() {
+            return members;
+        }
+
+        private Version withBooks(PersistentMap<String, Book> newBooks) {
+            return newBooks == books ? this : new Version(number + 1, newBooks, members, store, storeView);
+        }
+
+        private Version withMembers(PersistentMap<String, Member> newMembers) {
+            return newMembers == members ? this : new Version(number + 1, books, newMembers, store, storeView);
+        }
+
+        private Version withStore(BookStore newStore) {
+            return new Version(number + 1, PersistentMap.empty(), members, newStore,
+                    newStore == null ? null : newStore.asMap());
+        }
+    }
 }
@@ -0,0 +1,210 @@
+package com.CS5031P2.backend.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The library's record of which member has borrowed which book, held once and indexed both ways, so the
+ * borrower of a book and the books of a member are each found in O(1).
+ * Loans follow the books: adding, replacing or removing a book moves its loan, and checkouts and returns,
+ * which change a book's loan state in place, call {@link #lend} and {@link #release} while they still own it.
+ * Each member's borrowed books are exposed as a live view of this index rather than a copy.
+ */
+class LoanIndex implements Index<Book> {
+    private final ConcurrentHashMap<String, String> borrowers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> loans = new ConcurrentHashMap<>();
+
+    /**
+     * Moves the loan of a book that has been replaced, added or removed.
+     *
+     * @param removed The book as it was indexed, or null if it is new.
+     * @param added   The book that replaces it, or null if it was removed.
+     */
+    @Override
+    public void update(Book removed, Book added) {
+        boolean lent = added != null && isLent(added);
+        if (lent) {
+            lend(added.getBookId(), added.getBorrowedId());
+        }
+        // Lending the same book again has already moved its loan
+        if (removed != null && !(lent && removed.getBookId().equals(added.getBookId()))) {
+            release(removed.getBookId());
+        }
+    }
+
+    /**
+     * Replaces all loans with those recorded on the books.
+     *
+     * @param books Every book in the library.
+     */
+    @Override
+    public void reset(Collection<Book> books) {
+        borrowers.clear();
+        loans.clear();
+        for (Book book : books) {
+            update(null, book);
+        }
+    }
+
+    /**
+     * Records that a member has borrowed a book, moving the loan if another member held it.
+     *
+     * @param bookId   The ID of the book.
+     * @param memberId The ID of the member.
+     */
+    void lend(String bookId, String memberId) {
+        String previous = borrowers.put(bookId, memberId);
+        if (previous != null && !previous.equals(memberId)) {
+            unlink(previous, bookId);
+        }
+        loans.computeIfAbsent(memberId, key -> ConcurrentHashMap.newKeySet()).add(bookId);
+    }
+
+    /**
+     * Records that a book is no longer on loan.
+     *
+     * @param bookId The ID of the book.
+     */
+    void release(String bookId) {
+        String previous = borrowers.remove(bookId);
+        if (previous != null) {
+            unlink(previous, bookId);
+        }
+    }
+
+    /**
+     * Gets the member who has borrowed a book.
+     *
+     * @param bookId The ID of the book.
+     * @return The ID of the member, or null if the book is not on loan.
+     */
+    String getBorrower(String bookId) {
+        return borrowers.get(bookId);
+    }
+
+    /**
+     * Gets the books a member has borrowed.
+     *
+     * @param memberId The ID of the member.
+     * @return A read-only set of book IDs, empty if the member has none.
+     */
+    Set<String> getLoans(String memberId) {
+        Set<String> books = loans.get(memberId);
+        return books == null ? Collections.emptySet() : Collections.unmodifiableSet(books);
+    }
+
+    /**
+     * Gets a live, read-only view of the books a member has borrowed, which follows every later checkout
+     * and return without being copied.
+     *
+     * @param memberId The ID of the member.
+     * @param lookup   Gets the current book for an ID, or null if it no longer exists.
+     * @return The borrowed books by ID.
+     */
+    Map<String, Book> borrowedBooks(String memberId, Function<String, Book> lookup) {
+        return new BorrowedBooks(memberId, lookup);
+    }
+
+    /**
+     * Removes a book from a member's loans, dropping the member's entry once it is empty.
+     *
+     * @param memberId The ID of the member.
+     * @param bookId   The ID of the book.
+     */
+    private void unlink(String memberId, String bookId) {
+        loans.computeIfPresent(memberId, (key, books) -> {
+            books.remove(bookId);
+            return books.isEmpty() ? null : books;
+        });
+    }
+
+    /**
+     * Checks whether a book records a loan.
+     *
+     * @param book The book.
+     * @return True if the book is checked out to a member.
+     */
+    private static boolean isLent(Book book) {
+        return book.isCheckedOut() && book.getBorrowedId() != null && !book.getBorrowedId().isEmpty();
+    }
+
+    /**
+     * The books a member has borrowed, read through to the index and the current catalogue.
+     */
+    private final class BorrowedBooks extends AbstractMap<String, Book> {
+        private final String memberId;
+        private final Function<String, Book> lookup;
+
+        BorrowedBooks(String memberId, Function<String, Book> lookup) {
+            this.memberId = memberId;
+            this.lookup = lookup;
+        }
+
+        @Override
+        public Book get(Object key) {
+            return key instanceof String bookId && memberId.equals(borrowers.get(bookId)) ? lookup.apply(bookId) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return getLoans(memberId).size();
+        }
+
+        @Override
+        public Set<Entry<String, Book>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Book>> iterator() {
+                    Iterator<String> ids = getLoans(memberId).iterator();
+                    return new Iterator<>() {
+                        private Entry<String, Book> next = advance();
+
+                        private Entry<String, Book> advance() {
+                            while (ids.hasNext()) {
+                                String bookId = ids.next();
+                                Book book = lookup.apply(bookId);
+                                if (book != null) {
+                                    return new SimpleImmutableEntry<>(bookId, book);
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, Book> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Book> current = next;
+                            next = advance();
+                            return current;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return BorrowedBooks.this.size();
+                }
+            };
+        }
+    }
+}
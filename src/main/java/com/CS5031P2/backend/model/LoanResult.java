@@ -0,0 +1,52 @@
+package com.CS5031P2.backend.model;
+
+/**
+ * The outcome of checking out or returning one book in a bulk request.
+ */
+public class LoanResult {
+    /**
+     * What happened to the book.
+     */
+    public enum Status {
+        /** The book was checked out or returned. */
+        DONE,
+        /** There is no book with the ID, or no member with the requested member ID. */
+        NOT_FOUND,
+        /** The book is already checked out, or for a return, is not borrowed by the member. */
+        REJECTED,
+        /** The book could have been checked out or returned, but another book in the request failed. */
+        ROLLED_BACK
+    }
+
+    private final String bookId;
+    private final Status status;
+
+    /**
+     * Constructs a new LoanResult.
+     *
+     * @param bookId The ID of the book.
+     * @param status What happened to the book.
+     */
+    public LoanResult(String bookId, Status status) {
+        this.bookId = bookId;
+        this.status = status;
+    }
+
+    /**
+     * Gets the ID of the book.
+     *
+     * @return The book ID.
+     */
+    public String getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets what happened to the book.
+     *
+     * @return The status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+}
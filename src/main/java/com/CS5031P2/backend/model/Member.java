@@ -1,10 +1,12 @@
 package com.CS5031P2.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a member entity with basic information such as ID, name, and address.
@@ -14,18 +16,33 @@ public class Member {
     private String memberId;
     private String name;
     private String address;
-    private HashMap<String, Book> borrowedBooks;
+    private Map<String, Book> borrowedBooks;
 
     /**
      * Constructs a new Member object with the specified details.
+     * Request bodies are bound through this constructor; any ID they carry is set afterwards.
      * @param name The name of the member
      * @param address The address of the member
      */
-    public Member(String name, String address) {
+    @JsonCreator
+    public Member(@JsonProperty("name") String name, @JsonProperty("address") String address) {
         this.memberId = UUID.randomUUID().toString();
         this.name = name;
         this.address = address;
-        this.borrowedBooks = new HashMap<>();
+        this.borrowedBooks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructs a member with a known ID, without generating one. Used when loading members.
+     * @param memberId The unique identifier of the member
+     * @param name The name of the member
+     * @param address The address of the member
+     */
+    public Member(String memberId, String name, String address) {
+        this.memberId = memberId;
+        this.name = name;
+        this.address = address;
+        this.borrowedBooks = new ConcurrentHashMap<>();
     }
 
     /**
@@ -39,8 +56,7 @@ public class Member {
         String name = jsonObject.getString("name");
         String address = jsonObject.getString("address");
 
-        Member member = new Member(name, address);
-        member.setMemberId(identifier);
+        Member member = new Member(identifier, name, address);
 
         // Check if borrowedBooks exists
         if (jsonObject.has("borrowedBooks") && !jsonObject.isNull("borrowedBooks")) {
@@ -138,6 +154,7 @@ public class Member {
 
     /**
      * Retrieves a map of borrowed books, where the key is the book ID and the value is the corresponding Book object.
+     * The map is concurrent, so it can be read while the library lends or returns books for this member.
      *
      * @return A map containing the borrowed books.
      */
@@ -148,9 +165,9 @@ public class Member {
     /**
      * Sets the map of borrowed books.
      *
-     * @param borrowedBooks A HashMap containing the borrowed books, where the key is the book ID and the value is the corresponding Book object.
+     * @param borrowedBooks A map containing the borrowed books, where the key is the book ID and the value is the corresponding Book object.
      */
-    public void setBorrowedBooks(HashMap<String, Book> borrowedBooks) {
+    public void setBorrowedBooks(Map<String, Book> borrowedBooks) {
         this.borrowedBooks = borrowedBooks;
     }
 
@@ -0,0 +1,219 @@
+package com.CS5031P2.backend.model;
+
+import com.CS5031P2.backend.util.OffHeapRecordStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * A store of books held outside the Java heap, for catalogues of tens of millions of books whose objects
+ * would otherwise make every full collection pause for seconds.
+ * Each book is a fixed-size record of {@value #RECORD_SIZE} bytes in an {@link OffHeapRecordStore}, held in
+ * direct buffers or in a memory-mapped file that survives restarts, with its title, author and borrower as
+ * fields and whether it is checked out as the record's flag. The heap holds only the list of buffers, however
+ * many books there are. Reads return {@link Book} views built from the record.
+ * The library serves its catalogue from a store in direct buffers when {@code library.catalogue.store} is
+ * {@code off-heap}, the default with the mapped storage engine. That engine keeps a file-backed store of its
+ * own, changed only as mutations are stored, as the durable copy it reads back at startup.
+ */
+public class OffHeapBookStore implements BookStore, Closeable {
+    /**
+     * Bytes in each record, of which the ID, title, author and borrower of a book may take all but ten.
+     */
+    public static final int RECORD_SIZE = OffHeapRecordStore.RECORD_SIZE;
+
+    /**
+     * Bytes kept free in the record of a book that is not lent, for the ID of a member who borrows it later.
+     */
+    public static final int BORROWER_BYTES = 64;
+
+    private static final int FIELDS = 3;
+
+    private final OffHeapRecordStore records;
+
+    /**
+     * Constructs an empty store in direct buffers, which is lost when the store is garbage collected.
+     */
+    public OffHeapBookStore() {
+        this.records = new OffHeapRecordStore(FIELDS);
+    }
+
+    /**
+     * Opens a store in a file, creating the file if it does not exist.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be opened or is not a book store.
+     */
+    public OffHeapBookStore(Path file) throws IOException {
+        this(file, OffHeapRecordStore.DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens a store in a file, mapping a given number of records at a time.
+     *
+     * @param file              The file.
+     * @param recordsPerSegment The number of records in each mapped segment.
+     * @throws IOException if the file cannot be opened or is not a book store.
+     */
+    OffHeapBookStore(Path file, int recordsPerSegment) throws IOException {
+        this.records = new OffHeapRecordStore(file, FIELDS, recordsPerSegment);
+    }
+
+    /**
+     * Adds a book, or replaces the book with the same ID in its record.
+     *
+     * @param book The book, whose values are copied into the store.
+     * @throws IllegalArgumentException if the book's strings do not fit in a record.
+     */
+    @Override
+    public void put(Book book) {
+        records.put(book.getBookId(), fieldsOf(book.getTitle(), book.getAuthor(), book.getBorrowedId()),
+                book.isCheckedOut());
+    }
+
+    /**
+     * Gets the number of bytes a book's record would take, without storing it.
+     *
+     * @param bookId     The ID of the book.
+     * @param title      The title of the book.
+     * @param author     The author of the book.
+     * @param borrowedId The ID of the member borrowing the book, or null or empty if it is not lent.
+     * @return The size of the record, which fits if it is at most {@value #RECORD_SIZE}.
+     */
+    public int sizeOf(String bookId, String title, String author, String borrowedId) {
+        return records.sizeOf(bookId, fieldsOf(title, author, borrowedId));
+    }
+
+    /**
+     * Checks that a book fits in a record, with {@value #BORROWER_BYTES} bytes left for a borrower if it has
+     * none yet.
+     *
+     * @param bookId     The ID of the book.
+     * @param title      The title.
+     * @param author     The author.
+     * @param borrowedId The ID of the member borrowing it, or null or empty if there is none.
+     * @throws IllegalArgumentException if the book is too large for a record.
+     */
+    @Override
+    public void check(String bookId, String title, String author, String borrowedId) {
+        int size = Math.max(sizeOf(bookId, title, author, borrowedId),
+                sizeOf(bookId, title, author, null) + BORROWER_BYTES);
+        if (size > RECORD_SIZE) {
+            throw new IllegalArgumentException("Too large to store: the " + RECORD_SIZE + "-byte record of "
+                    + bookId + " would need " + size + " bytes");
+        }
+    }
+
+    /**
+     * Removes a book.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the book was in the store.
+     */
+    @Override
+    public boolean remove(String bookId) {
+        return records.remove(bookId);
+    }
+
+    /**
+     * Gets a view of a book.
+     *
+     * @param bookId The ID of the book.
+     * @return A detached book read from its record, or null if there is no such book.
+     */
+    @Override
+    public Book get(String bookId) {
+        return records.get(bookId, OffHeapBookStore::toBook);
+    }
+
+    /**
+     * Checks whether a book is in the store.
+     *
+     * @param bookId The ID of the book.
+     * @return True if the store holds the book.
+     */
+    @Override
+    public boolean containsKey(String bookId) {
+        return records.containsKey(bookId);
+    }
+
+    /**
+     * Gets the number of books in the store.
+     *
+     * @return The number of books.
+     */
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * Iterates over views of the books, seeing changes made while iterating to records not yet reached.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Book> iterator() {
+        return records.iterator(OffHeapBookStore::toBook);
+    }
+
+    /**
+     * Gets the memory the store holds outside the heap.
+     *
+     * @return The number of bytes.
+     */
+    public long offHeapBytes() {
+        return records.offHeapBytes();
+    }
+
+    /**
+     * Writes changes to a file-backed store to disk.
+     */
+    public void force() {
+        records.force();
+    }
+
+    /**
+     * Writes changes to disk and closes the file, if the store has one.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+
+    /**
+     * Gets the fields of a book's record, leaving out the borrower of a book that is not lent.
+     *
+     * @param title      The title.
+     * @param author     The author.
+     * @param borrowedId The borrower's ID, or null or empty if there is none.
+     * @return The fields.
+     */
+    private static String[] fieldsOf(String title, String author, String borrowedId) {
+        String borrower = borrowedId == null || borrowedId.isEmpty() ? null : borrowedId;
+        return new String[]{title, author, borrower};
+    }
+
+    /**
+     * Builds a detached book from a record.
+     *
+     * @param bookId     The ID of the book.
+     * @param fields     The title, author and borrower.
+     * @param checkedOut True if the book is checked out.
+     * @return The book.
+     */
+    private static Book toBook(String bookId, String[] fields, boolean checkedOut) {
+        Book book = new Book(bookId, fields[0], fields[1]);
+        if (checkedOut) {
+            book.setCheckedOut(true);
+        }
+        if (fields[2] != null) {
+            book.setBorrowedId(fields[2]);
+        }
+        return book;
+    }
+}
@@ -0,0 +1,52 @@
+package com.CS5031P2.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of books or members, and the cursor for the page after it.
+ *
+ * @param <T> The type of item on the page.
+ */
+public class Page<T> {
+    /**
+     * Number of items on a page when the client does not ask for a size.
+     */
+    public static final int DEFAULT_SIZE = 50;
+
+    /**
+     * Largest number of items a client may ask for on one page.
+     */
+    public static final int MAX_SIZE = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Constructs a new Page.
+     *
+     * @param items      The items on the page, in order.
+     * @param nextCursor The cursor for the next page, or null if this is the last page.
+     */
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the items on the page.
+     *
+     * @return The items, in order.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the cursor to pass to fetch the next page.
+     *
+     * @return The cursor, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
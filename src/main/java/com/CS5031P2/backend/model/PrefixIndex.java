@@ -0,0 +1,185 @@
+package com.CS5031P2.backend.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * A prefix index over text fields of books or members, for suggesting completions as the user types.
+ * Every distinct field value is filed under its lower-case text from the start of each of its words, so
+ * "Animal Farm" is found by "ani" and by "far". The keys are kept sorted, so the first completions of a
+ * prefix are found in O(log n) and read off in order, without looking at any value that does not match.
+ * Values are counted, so one is suggested for as long as at least one item still has it.
+ *
+ * @param <T> The type of item indexed.
+ */
+class PrefixIndex<T> implements Index<T> {
+    private static final char LAST = Character.MAX_VALUE;
+
+    private final List<Function<T, String>> fields;
+    private final ConcurrentSkipListMap<String, Completion[]> keys = new ConcurrentSkipListMap<>();
+
+    /**
+     * Constructs a new PrefixIndex.
+     *
+     * @param fields The fields whose values are suggested.
+     */
+    PrefixIndex(List<Function<T, String>> fields) {
+        this.fields = List.copyOf(fields);
+    }
+
+    /**
+     * Moves an item that has been replaced, added or removed.
+     * The new values are counted before the old ones are discounted, so an unchanged value is never missing.
+     *
+     * @param removed The item as it was indexed, or null if it is new. It must still have its old values.
+     * @param added   The item that replaces it, or null if it was removed.
+     */
+    @Override
+    public void update(T removed, T added) {
+        if (added != null) {
+            for (Function<T, String> field : fields) {
+                count(field.apply(added), 1);
+            }
+        }
+        if (removed != null) {
+            for (Function<T, String> field : fields) {
+                count(field.apply(removed), -1);
+            }
+        }
+    }
+
+    /**
+     * Replaces the whole contents of the index.
+     *
+     * @param items The items to index.
+     */
+    @Override
+    public void reset(Collection<T> items) {
+        keys.clear();
+        for (T item : items) {
+            update(null, item);
+        }
+    }
+
+    /**
+     * Suggests values that have a word starting with a prefix, in alphabetical order of the text from that
+     * word on. Where that text is the same, values that start with it come before those where it is a later word.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The largest number of values to return.
+     * @return The distinct values, or an empty set if the prefix is blank.
+     */
+    Set<String> suggest(String prefix, int limit) {
+        Set<String> values = new LinkedHashSet<>();
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit < 1) {
+            return values;
+        }
+        for (Map.Entry<String, Completion[]> entry : keys.subMap(key, key + LAST).entrySet()) {
+            for (Completion completion : entry.getValue()) {
+                values.add(completion.value);
+                if (values.size() == limit) {
+                    return values;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of keys in the index.
+     *
+     * @return The number of keys.
+     */
+    int size() {
+        return keys.size();
+    }
+
+    /**
+     * Lower-cases text and collapses its whitespace into single spaces.
+     *
+     * @param text The text, which may be null.
+     * @return The normalized text.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Counts a value in or out under the start of each of its words.
+     *
+     * @param value The value.
+     * @param delta 1 to count it in, -1 to count it out.
+     */
+    private void count(String value, int delta) {
+        String text = normalize(value);
+        for (int start = 0; start < text.length(); start++) {
+            boolean first = start == 0;
+            if (first || (text.charAt(start - 1) == ' ' && Character.isLetterOrDigit(text.charAt(start)))) {
+                keys.compute(text.substring(start), (key, completions) ->
+                        Completion.count(completions, value, first, delta));
+            }
+        }
+    }
+
+    /**
+     * A value filed under a key, and how many items have it.
+     */
+    private static final class Completion {
+        final String value;
+        final boolean start;
+        final int count;
+
+        Completion(String value, boolean start, int count) {
+            this.value = value;
+            this.start = start;
+            this.count = count;
+        }
+
+        /**
+         * Counts a value in or out of the completions under one key. The arrays are never modified, so
+         * readers can walk them without locking.
+         *
+         * @param completions The current completions, or null if there are none.
+         * @param value       The value.
+         * @param start       Whether the key is the start of the value rather than of a later word.
+         * @param delta       The change in the number of items with the value.
+         * @return The new completions, with values starting with the key first, or null if there are none left.
+         */
+        static Completion[] count(Completion[] completions, String value, boolean start, int delta) {
+            Completion[] current = completions == null ? new Completion[0] : completions;
+            for (int i = 0; i < current.length; i++) {
+                Completion completion = current[i];
+                if (completion.start == start && completion.value.equals(value)) {
+                    int count = completion.count + delta;
+                    if (count > 0) {
+                        Completion[] next = current.clone();
+                        next[i] = new Completion(value, start, count);
+                        return next;
+                    }
+                    Completion[] next = new Completion[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, next.length - i);
+                    return next.length == 0 ? null : next;
+                }
+            }
+            if (delta < 0) {
+                return completions;
+            }
+            Completion[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = new Completion(value, start, delta);
+            Arrays.sort(next, (a, b) -> a.start != b.start ? (a.start ? -1 : 1) : a.value.compareTo(b.value));
+            return next;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.CS5031P2.backend.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * A sorted index over books or members, for paging through them in a stable order.
+ * Entries are ordered by a sort value (such as the title) and then by ID, so that every entry has a
+ * unique position even when sort values repeat. A page starts just after the position encoded in its
+ * cursor, so fetching it costs O(log n + page) however far into the index it is, and entries added or
+ * removed between pages neither repeat nor shift the rest.
+ *
+ * @param <T> The type of item indexed.
+ */
+class SortedIndex<T> implements Index<T> {
+    private static final char SEPARATOR = '\u0000';
+
+    private final String name;
+    private final Function<T, String> sortValue;
+    private final Function<T, String> id;
+    private final ConcurrentSkipListSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    /**
+     * Constructs a new SortedIndex.
+     *
+     * @param name      The name of the order, which cursors are tied to.
+     * @param sortValue Gets the value an item is sorted by.
+     * @param id        Gets the ID of an item.
+     */
+    SortedIndex(String name, Function<T, String> sortValue, Function<T, String> id) {
+        this.name = name;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Adds an item to the index.
+     *
+     * @param item The item.
+     */
+    void add(T item) {
+        keys.add(keyOf(item));
+    }
+
+    /**
+     * Moves an item that has been replaced, added or removed.
+     * The new position is added before the old one is removed, so a concurrent page never misses the item.
+     *
+     * @param removed The item as it was indexed, or null if it is new. It must still have its old sort value.
+     * @param added   The item that replaces it, or null if it was removed.
+     */
+    @Override
+    public void update(T removed, T added) {
+        Key oldKey = removed == null ? null : keyOf(removed);
+        Key newKey = added == null ? null : keyOf(added);
+        if (newKey != null) {
+            keys.add(newKey);
+        }
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            keys.remove(oldKey);
+        }
+    }
+
+    /**
+     * Replaces the whole contents of the index.
+     *
+     * @param items The items to index.
+     */
+    @Override
+    public void reset(Collection<T> items) {
+        keys.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * Gets one page of items.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The largest number of items to return.
+     * @param lookup Gets the current item for an ID, or null if it no longer exists.
+     * @return The page.
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another order.
+     */
+    Page<T> page(String cursor, int limit, Function<String, T> lookup) {
+        Iterator<Key> iterator = cursor == null
+                ? keys.iterator()
+                : keys.tailSet(decode(cursor), false).iterator();
+
+        List<T> items = new ArrayList<>(limit);
+        Key last = null;
+        while (items.size() < limit && iterator.hasNext()) {
+            Key key = iterator.next();
+            // The index is updated just after the catalogue, so it can briefly list a deleted item
+            T item = lookup.apply(key.id);
+            if (item != null) {
+                items.add(item);
+                last = key;
+            }
+        }
+        return new Page<>(items, iterator.hasNext() && last != null ? encode(last) : null);
+    }
+
+    /**
+     * Gets the number of items in the index.
+     *
+     * @return The number of items.
+     */
+    int size() {
+        return keys.size();
+    }
+
+    private Key keyOf(T item) {
+        String value = sortValue.apply(item);
+        return new Key(value == null ? "" : value, id.apply(item));
+    }
+
+    /**
+     * Encodes a position as an opaque, URL-safe cursor.
+     *
+     * @param key The position.
+     * @return The cursor.
+     */
+    private String encode(Key key) {
+        String position = name + SEPARATOR + key.value + SEPARATOR + key.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor made by {@link #encode(Key)}.
+     *
+     * @param cursor The cursor.
+     * @return The position.
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another order.
+     */
+    private Key decode(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int first = position.indexOf(SEPARATOR);
+        int second = position.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == second || !name.equals(position.substring(0, first))) {
+            throw new IllegalArgumentException("Invalid cursor for order " + name);
+        }
+        return new Key(position.substring(first + 1, second), position.substring(second + 1));
+    }
+
+    /**
+     * The position of an item in the index.
+     */
+    private static final class Key implements Comparable<Key> {
+        final String value;
+        final String id;
+
+        Key(String value, String id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int order = value.compareTo(other.value);
+            return order != 0 ? order : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && value.equals(other.value) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * value.hashCode() + id.hashCode();
+        }
+    }
+}
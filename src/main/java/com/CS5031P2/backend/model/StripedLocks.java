@@ -0,0 +1,64 @@
+package com.CS5031P2.backend.model;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks that IDs are hashed onto, so that operations on different books and members
+ * can run in parallel without keeping a lock per record.
+ */
+class StripedLocks {
+    /**
+     * Default number of stripes, enough that unrelated requests rarely share one.
+     */
+    static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Constructs a new StripedLocks.
+     *
+     * @param stripes The number of stripes, rounded up to a power of two.
+     */
+    StripedLocks(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    /**
+     * Gets the index of the stripe an ID is hashed onto.
+     *
+     * @param id The ID of a book or member.
+     * @return The stripe index.
+     */
+    int stripeOf(String id) {
+        int hash = id == null ? 0 : id.hashCode();
+        // Spread the high bits down, as HashMap does, since only the low bits pick the stripe
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Locks the stripe of one ID.
+     *
+     * @param id The ID to lock.
+     */
+    void lock(String id) {
+        stripes[stripeOf(id)].lock();
+    }
+
+    /**
+     * Unlocks the stripe of one ID.
+     *
+     * @param id The ID to unlock.
+     */
+    void unlock(String id) {
+        stripes[stripeOf(id)].unlock();
+    }
+}
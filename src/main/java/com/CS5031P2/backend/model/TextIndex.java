@@ -0,0 +1,385 @@
+package com.CS5031P2.backend.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An inverted full-text index over one or more text fields of books or members.
+ * Each field is split into lower-case words, and each word maps to the IDs of the items containing it,
+ * together with which of the fields it appears in. A search looks up the posting list of every query word
+ * and walks only the shortest, checking the others by hash lookup, so its cost depends on how many items
+ * match the rarest word rather than on the size of the catalogue. Results contain every query word and are
+ * ranked by the weight of the fields the words appear in, with ties broken by ID so results are stable.
+ * The distinct words are also kept in a {@link TrigramIndex}, so that a fuzzy search can match each query word
+ * to the indexed words spelt like it, with closer spellings ranked higher.
+ *
+ * @param <T> The type of item indexed.
+ */
+class TextIndex<T> implements Index<T> {
+    private static final Comparator<Hit> BEST_FIRST =
+            Comparator.comparingDouble((Hit hit) -> hit.score).reversed().thenComparing(hit -> hit.id);
+
+    private final Function<T, String> id;
+    private final List<Field<T>> fields;
+    private final int[] maskWeights;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> postings = new ConcurrentHashMap<>();
+    private final TrigramIndex vocabulary = new TrigramIndex();
+
+    /**
+     * Constructs a new TextIndex.
+     *
+     * @param id     Gets the ID of an item.
+     * @param fields The fields to index, at most 31.
+     */
+    TextIndex(Function<T, String> id, List<Field<T>> fields) {
+        this.id = id;
+        this.fields = List.copyOf(fields);
+        // The score of a word is the total weight of the fields it appears in, precomputed per field mask
+        maskWeights = new int[1 << this.fields.size()];
+        for (int mask = 1; mask < maskWeights.length; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            maskWeights[mask] = maskWeights[mask & (mask - 1)] + this.fields.get(lowest).weight;
+        }
+    }
+
+    /**
+     * Moves an item that has been replaced, added or removed.
+     * The new words are added before the old ones are removed, so a concurrent search never misses the item.
+     *
+     * @param removed The item as it was indexed, or null if it is new. It must still have its old values.
+     * @param added   The item that replaces it, or null if it was removed.
+     */
+    @Override
+    public void update(T removed, T added) {
+        Map<String, Integer> newWords = added == null ? Collections.emptyMap() : words(added);
+        String newId = added == null ? null : id.apply(added);
+        for (Map.Entry<String, Integer> word : newWords.entrySet()) {
+            postings.compute(word.getKey(), (key, items) -> {
+                ConcurrentHashMap<String, Integer> list = items;
+                if (list == null) {
+                    // The first item with this word; computing it keeps the vocabulary in step with the postings
+                    list = new ConcurrentHashMap<>();
+                    vocabulary.add(key);
+                }
+                list.put(newId, word.getValue());
+                return list;
+            });
+        }
+
+        if (removed != null) {
+            String oldId = id.apply(removed);
+            boolean sameId = oldId.equals(newId);
+            for (String word : words(removed).keySet()) {
+                if (!sameId || !newWords.containsKey(word)) {
+                    postings.computeIfPresent(word, (key, items) -> {
+                        items.remove(oldId);
+                        if (!items.isEmpty()) {
+                            return items;
+                        }
+                        vocabulary.remove(key);
+                        return null;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the whole contents of the index.
+     *
+     * @param items The items to index.
+     */
+    @Override
+    public void reset(Collection<T> items) {
+        postings.clear();
+        vocabulary.clear();
+        for (T item : items) {
+            update(null, item);
+        }
+    }
+
+    /**
+     * Finds the items containing every word of a query, best match first.
+     *
+     * @param query  The query text.
+     * @param limit  The largest number of items to return.
+     * @param lookup Gets the current item for an ID, or null if it no longer exists.
+     * @return The matching items, or an empty list if the query has no words.
+     */
+    List<T> search(String query, int limit, Function<String, T> lookup) {
+        return search(query, limit, id -> true, lookup);
+    }
+
+    /**
+     * Finds the items containing every word of a query that also pass a filter, best match first.
+     * The filter is applied before ranking, so filtered-out items never take the place of ones that pass.
+     *
+     * @param query  The query text.
+     * @param limit  The largest number of items to return.
+     * @param filter Tests the ID of an item; should be cheap, as it is called for every item matching a word.
+     * @param lookup Gets the current item for an ID, or null if it no longer exists.
+     * @return The matching items, or an empty list if the query has no words.
+     */
+    List<T> search(String query, int limit, Predicate<String> filter, Function<String, T> lookup) {
+        List<Map<String, Double>> expansions = new ArrayList<>();
+        for (String word : tokenize(query)) {
+            expansions.add(Map.of(word, 1.0));
+        }
+        return rank(expansions, limit, filter, lookup);
+    }
+
+    /**
+     * Finds the items containing, for every word of a query, a word spelt like it, best match first.
+     * Each query word matches the indexed words at least as similar to it as the threshold, and a match
+     * counts for its similarity times the weight of its field, so exact spellings rank above near misses.
+     *
+     * @param query     The query text.
+     * @param threshold The lowest similarity of a matching word, above 0 and at most 1.
+     * @param limit     The largest number of items to return.
+     * @param lookup    Gets the current item for an ID, or null if it no longer exists.
+     * @return The matching items, or an empty list if the query has no words.
+     */
+    List<T> fuzzySearch(String query, double threshold, int limit, Function<String, T> lookup) {
+        return fuzzySearch(query, threshold, limit, id -> true, lookup);
+    }
+
+    /**
+     * Finds the items that pass a filter and contain, for every word of a query, a word spelt like it,
+     * best match first.
+     *
+     * @param query     The query text.
+     * @param threshold The lowest similarity of a matching word, above 0 and at most 1.
+     * @param limit     The largest number of items to return.
+     * @param filter    Tests the ID of an item before it is ranked.
+     * @param lookup    Gets the current item for an ID, or null if it no longer exists.
+     * @return The matching items, or an empty list if the query has no words.
+     */
+    List<T> fuzzySearch(String query, double threshold, int limit, Predicate<String> filter,
+                        Function<String, T> lookup) {
+        List<Map<String, Double>> expansions = new ArrayList<>();
+        for (String word : tokenize(query)) {
+            expansions.add(vocabulary.similar(word, threshold));
+        }
+        return rank(expansions, limit, filter, lookup);
+    }
+
+    /**
+     * Finds and ranks the items matching every query word through at least one of its expansions.
+     * Only the postings of the query word with the fewest matching items are walked; the others are checked
+     * by hash lookup.
+     *
+     * @param expansions For each query word, the indexed words it matches and how closely.
+     * @param limit      The largest number of items to return.
+     * @param filter     Tests the ID of an item before it is scored.
+     * @param lookup     Gets the current item for an ID, or null if it no longer exists.
+     * @return The best matching items, best first.
+     */
+    private List<T> rank(List<Map<String, Double>> expansions, int limit, Predicate<String> filter,
+                         Function<String, T> lookup) {
+        if (expansions.isEmpty() || limit < 1) {
+            return new ArrayList<>();
+        }
+        List<List<Posting>> words = new ArrayList<>(expansions.size());
+        for (Map<String, Double> expansion : expansions) {
+            List<Posting> lists = new ArrayList<>(expansion.size());
+            for (Map.Entry<String, Double> match : expansion.entrySet()) {
+                ConcurrentHashMap<String, Integer> list = postings.get(match.getKey());
+                if (list != null) {
+                    lists.add(new Posting(list, match.getValue()));
+                }
+            }
+            if (lists.isEmpty()) {
+                return new ArrayList<>();
+            }
+            words.add(lists);
+        }
+        words.sort(Comparator.comparingInt(TextIndex::size));
+
+        // Score the rarest word straight from its postings, keeping each item's best match if it has several
+        List<Posting> rarest = words.get(0);
+        Map<String, Double> candidates = new HashMap<>();
+        for (Posting posting : rarest) {
+            for (Map.Entry<String, Integer> entry : posting.items.entrySet()) {
+                if (!filter.test(entry.getKey())) {
+                    continue;
+                }
+                candidates.merge(entry.getKey(), posting.similarity * maskWeights[entry.getValue()], Math::max);
+            }
+        }
+
+        // Keep the best hits in a heap whose head is the worst of them
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (Map.Entry<String, Double> candidate : candidates.entrySet()) {
+            String id = candidate.getKey();
+            double score = candidate.getValue();
+            for (int i = 1; i < words.size() && score > 0; i++) {
+                double match = score(words.get(i), id);
+                score = match == 0 ? 0 : score + match;
+            }
+            if (score > 0) {
+                best.add(new Hit(id, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        List<T> items = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            // The index is updated just after the catalogue, so it can briefly list a deleted item
+            T item = lookup.apply(hit.id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Scores how well an item matches one query word: the best of its matching words.
+     *
+     * @param lists The postings of the words the query word matches.
+     * @param id    The ID of the item.
+     * @return The score, or 0 if the item has none of the words.
+     */
+    private double score(List<Posting> lists, String id) {
+        double best = 0;
+        for (Posting posting : lists) {
+            Integer mask = posting.items.get(id);
+            if (mask != null) {
+                best = Math.max(best, posting.similarity * maskWeights[mask]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts the items a query word can match, at most, for choosing which word's postings to walk.
+     *
+     * @param lists The postings of the words the query word matches.
+     * @return The total size of the postings.
+     */
+    private static int size(List<Posting> lists) {
+        int size = 0;
+        for (Posting posting : lists) {
+            size += posting.items.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct words in the index.
+     *
+     * @return The number of words.
+     */
+    int size() {
+        return postings.size();
+    }
+
+    /**
+     * Splits text into distinct lower-case words of letters and digits. Apostrophes are dropped, so
+     * "Orwell's" is one word.
+     *
+     * @param text The text, which may be null.
+     * @return The words, in order of first appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (c != '\'' && c != '’' && word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Gets the words of an item and which fields each appears in.
+     *
+     * @param item The item.
+     * @return A bit mask of fields for each word.
+     */
+    private Map<String, Integer> words(T item) {
+        Map<String, Integer> words = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int bit = 1 << i;
+            for (String word : tokenize(fields.get(i).value.apply(item))) {
+                words.merge(word, bit, (a, b) -> a | b);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * A text field of the indexed items.
+     *
+     * @param <T> The type of item.
+     */
+    static final class Field<T> {
+        final Function<T, String> value;
+        final int weight;
+
+        /**
+         * Constructs a new Field.
+         *
+         * @param value  Gets the text of the field.
+         * @param weight How much a word found in this field counts towards a match.
+         */
+        Field(Function<T, String> value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * The posting list of an indexed word, and how closely it matches a query word.
+     */
+    private static final class Posting {
+        final ConcurrentHashMap<String, Integer> items;
+        final double similarity;
+
+        Posting(ConcurrentHashMap<String, Integer> items, double similarity) {
+            this.items = items;
+            this.similarity = similarity;
+        }
+    }
+
+    /**
+     * A matching item and its score.
+     */
+    private static final class Hit {
+        final String id;
+        final double score;
+
+        Hit(String id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
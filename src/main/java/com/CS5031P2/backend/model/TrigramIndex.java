@@ -0,0 +1,148 @@
+package com.CS5031P2.backend.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A trigram index over a vocabulary of words, for finding the words most like a misspelt one.
+ * Each word is split into the overlapping three-letter sequences of the word padded with two spaces in front
+ * and one behind, so "puzo" has "  p", " pu", "puz", "uzo" and "zo ". Two words are alike in proportion to
+ * the trigrams they share (their Jaccard similarity). A word must share a minimum number of trigrams with the
+ * query to be similar enough, so only the query's rarest trigrams need to be searched for candidates; the rest
+ * are checked by lookup, which keeps common trigrams such as "  t" from dominating the cost.
+ */
+class TrigramIndex {
+    private final ConcurrentHashMap<String, Set<String>> words = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> trigramCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a word to the vocabulary.
+     *
+     * @param word The word, in lower case.
+     */
+    void add(String word) {
+        Set<String> trigrams = trigrams(word);
+        trigramCounts.put(word, trigrams.size());
+        for (String trigram : trigrams) {
+            words.compute(trigram, (key, list) -> {
+                Set<String> next = list == null ? ConcurrentHashMap.newKeySet() : list;
+                next.add(word);
+                return next;
+            });
+        }
+    }
+
+    /**
+     * Removes a word from the vocabulary.
+     *
+     * @param word The word, in lower case.
+     */
+    void remove(String word) {
+        for (String trigram : trigrams(word)) {
+            words.computeIfPresent(trigram, (key, list) -> {
+                list.remove(word);
+                return list.isEmpty() ? null : list;
+            });
+        }
+        trigramCounts.remove(word);
+    }
+
+    /**
+     * Removes every word from the vocabulary.
+     */
+    void clear() {
+        words.clear();
+        trigramCounts.clear();
+    }
+
+    /**
+     * Finds the words in the vocabulary that are at least as similar to a word as a threshold.
+     *
+     * @param word      The word, in lower case.
+     * @param threshold The lowest similarity, above 0 and at most 1.
+     * @return The similar words and their similarity, which is 1 for the word itself.
+     */
+    Map<String, Double> similar(String word, double threshold) {
+        Set<String> trigrams = trigrams(word);
+        List<Set<String>> lists = new ArrayList<>(trigrams.size());
+        for (String trigram : trigrams) {
+            lists.add(words.getOrDefault(trigram, Set.of()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        // A similar word shares at least this many trigrams, so it must be in one of the rarest lists
+        int needed = Math.max(1, (int) Math.ceil(threshold * trigrams.size()));
+        int searched = lists.size() - needed + 1;
+        Map<String, Double> similar = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < searched; i++) {
+            for (String candidate : lists.get(i)) {
+                Integer count = trigramCounts.get(candidate);
+                if (count == null || !seen.add(candidate)) {
+                    // Removed since it was listed, or already scored from an earlier list
+                    continue;
+                }
+                // The lists before this one were searched without finding the candidate, so it shares none of
+                // their trigrams; skip it if even sharing all the rest would not make it similar enough
+                int possible = Math.min(trigrams.size() - i, count);
+                if (similarity(possible, trigrams.size(), count) < threshold) {
+                    continue;
+                }
+                int common = 1;
+                for (int j = i + 1; j < lists.size(); j++) {
+                    if (lists.get(j).contains(candidate)) {
+                        common++;
+                    }
+                }
+                double similarity = similarity(common, trigrams.size(), count);
+                if (similarity >= threshold) {
+                    similar.put(candidate, similarity);
+                }
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Computes the Jaccard similarity of two trigram sets.
+     *
+     * @param common The number of trigrams in both.
+     * @param first  The size of the first set.
+     * @param second The size of the second set.
+     * @return The similarity, from 0 to 1.
+     */
+    private static double similarity(int common, int first, int second) {
+        return (double) common / (first + second - common);
+    }
+
+    /**
+     * Gets the number of distinct trigrams in the index.
+     *
+     * @return The number of trigrams.
+     */
+    int size() {
+        return words.size();
+    }
+
+    /**
+     * Splits a word into its distinct trigrams.
+     *
+     * @param word The word.
+     * @return The trigrams of the padded word.
+     */
+    static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,463 @@
+package com.CS5031P2.backend.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of library mutations.
+ * Records are framed as {@code [length][crc32][sequence][record]} and written to numbered segment files.
+ * Appends from concurrent callers are queued and written by a single writer thread, which forces each
+ * batch to disk with one fsync (group commit), so callers waiting on durability share the sync cost.
+ */
+public class Journal implements Closeable {
+    /**
+     * Default size after which the journal rolls over to a new segment file.
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_FRAME_BYTES = 1024 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Object lock = new Object();
+
+    private List<Pending> pending = new ArrayList<>();
+    private long lastSequence;
+    private long durableSequence;
+    private IOException failure;
+    private boolean closed;
+    private volatile boolean rollRequested;
+
+    private FileChannel channel;
+    private Thread writer;
+
+    /**
+     * Constructs a new Journal stored in the specified directory.
+     *
+     * @param directory    The directory holding the segment files.
+     * @param segmentBytes The size after which a new segment file is started.
+     */
+    public Journal(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Replays the journal and opens it for appending.
+     * Records with a sequence number above {@code afterSequence} are passed to the consumer in order.
+     * A partially written record at the end of the journal (from a crash mid-write) is truncated.
+     *
+     * @param afterSequence The sequence number of the last record already reflected in memory.
+     * @param consumer      The consumer applying each replayed record.
+     * @return The number of records replayed.
+     * @throws IOException if an I/O error occurs or a sealed segment is corrupt.
+     */
+    public long recover(long afterSequence, Consumer<JournalRecord> consumer) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        long replayed = 0;
+        lastSequence = afterSequence;
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean tail = i == segments.size() - 1;
+            long validBytes = 0;
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                while (true) {
+                    Frame frame = readFrame(in);
+                    if (frame == null) {
+                        break;
+                    }
+                    validBytes += frame.size();
+                    if (frame.sequence > afterSequence) {
+                        consumer.accept(frame.record);
+                        replayed++;
+                    }
+                    lastSequence = Math.max(lastSequence, frame.sequence);
+                }
+            }
+
+            if (validBytes < Files.size(segment)) {
+                if (!tail) {
+                    throw new IOException("Corrupt journal segment " + segment);
+                }
+                try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    truncate.truncate(validBytes);
+                }
+            }
+        }
+
+        durableSequence = lastSequence;
+        channel = segments.isEmpty() ? openSegment(lastSequence + 1) : openAppend(segments.get(segments.size() - 1));
+
+        writer = new Thread(this::writeLoop, "library-journal");
+        writer.setDaemon(true);
+        writer.start();
+        return replayed;
+    }
+
+    /**
+     * Queues a record for writing without waiting for it to reach disk.
+     * Records are written in the order in which they were appended.
+     *
+     * @param record The record to append.
+     * @return The sequence number assigned to the record.
+     * @throws IOException if the journal is closed or a previous write failed.
+     */
+    public long append(JournalRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        record.writeTo(new DataOutputStream(bytes));
+
+        synchronized (lock) {
+            checkWritable();
+            long sequence = ++lastSequence;
+            pending.add(new Pending(sequence, bytes.toByteArray()));
+            lock.notifyAll();
+            return sequence;
+        }
+    }
+
+    /**
+     * Waits until every record up to and including the given sequence number has been forced to disk.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}.
+     * @throws IOException if writing the journal failed or the wait was interrupted.
+     */
+    public void sync(long sequence) throws IOException {
+        synchronized (lock) {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new IOException("Journal write failed", failure);
+                }
+                if (closed && pending.isEmpty()) {
+                    throw new IOException("Journal is closed");
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for journal sync");
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a record and waits until it is durable.
+     *
+     * @param record The record to append.
+     * @throws IOException if the record could not be made durable.
+     */
+    public void log(JournalRecord record) throws IOException {
+        sync(append(record));
+    }
+
+    /**
+     * Gets the sequence number of the most recently appended record.
+     *
+     * @return The last sequence number handed out.
+     */
+    public long getLastSequence() {
+        synchronized (lock) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Gets the sequence number up to which records have been forced to disk.
+     *
+     * @return The last durable sequence number.
+     */
+    public long getDurableSequence() {
+        synchronized (lock) {
+            return durableSequence;
+        }
+    }
+
+    /**
+     * Asks the writer to start a new segment before the next record, sealing the current one
+     * so that it can be discarded once a snapshot covers it.
+     */
+    public void requestRoll() {
+        rollRequested = true;
+    }
+
+    /**
+     * Deletes sealed segments whose records all have a sequence number at or below the given one.
+     * The segment currently being appended to is never deleted.
+     *
+     * @param sequence The sequence number up to which records are no longer needed for recovery.
+     * @return The number of segments deleted.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    public int discardThrough(long sequence) throws IOException {
+        List<Path> segments = listSegments();
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long lastInSegment = firstSequenceOf(segments.get(i + 1)) - 1;
+            if (lastInSegment > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Flushes any queued records and closes the journal.
+     *
+     * @throws IOException if an I/O error occurs while closing the segment file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Body of the writer thread: drains queued records in batches and forces each batch to disk.
+     */
+    private void writeLoop() {
+        while (true) {
+            List<Pending> batch;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            try {
+                for (Pending entry : batch) {
+                    if (channel.position() >= segmentBytes || (rollRequested && channel.position() > 0)) {
+                        rollRequested = false;
+                        channel.force(false);
+                        channel.close();
+                        channel = openSegment(entry.sequence);
+                    }
+                    ByteBuffer frame = encodeFrame(entry);
+                    while (frame.hasRemaining()) {
+                        channel.write(frame);
+                    }
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+
+            synchronized (lock) {
+                durableSequence = batch.get(batch.size() - 1).sequence;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Fails fast if the journal cannot accept further records.
+     *
+     * @throws IOException if the journal is not open or a previous write failed.
+     */
+    private void checkWritable() throws IOException {
+        if (writer == null) {
+            throw new IOException("Journal has not been recovered");
+        }
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new IOException("Journal write failed", failure);
+        }
+    }
+
+    /**
+     * Lists the segment files of the journal in sequence order.
+     *
+     * @return The segment paths, oldest first.
+     * @throws IOException if the directory cannot be listed.
+     */
+    List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the first record in a segment from its file name.
+     *
+     * @param segment The segment path.
+     * @return The sequence number of the segment's first record.
+     */
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Creates a new segment file whose first record will have the given sequence number.
+     *
+     * @param firstSequence The sequence number of the first record in the segment.
+     * @return A channel positioned for appending to the new segment.
+     * @throws IOException if the file cannot be created.
+     */
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        return openAppend(segment);
+    }
+
+    /**
+     * Opens an existing or new segment file for appending.
+     *
+     * @param segment The segment path.
+     * @return A channel positioned at the end of the segment.
+     * @throws IOException if the file cannot be opened.
+     */
+    private static FileChannel openAppend(Path segment) throws IOException {
+        FileChannel fileChannel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        fileChannel.position(fileChannel.size());
+        return fileChannel;
+    }
+
+    /**
+     * Encodes a queued record as an on-disk frame.
+     *
+     * @param entry The queued record.
+     * @return A buffer holding the framed record.
+     */
+    private static ByteBuffer encodeFrame(Pending entry) {
+        int bodyLength = Long.BYTES + entry.payload.length;
+        ByteBuffer frame = ByteBuffer.allocate(2 * Integer.BYTES + bodyLength);
+        frame.putInt(bodyLength);
+        frame.putInt(0);
+        frame.putLong(entry.sequence);
+        frame.put(entry.payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), 2 * Integer.BYTES, bodyLength);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+        return frame.flip();
+    }
+
+    /**
+     * Reads the next frame from a segment.
+     *
+     * @param in The segment stream.
+     * @return The frame, or null at the end of the segment or at a torn or corrupt frame.
+     * @throws IOException if an I/O error occurs while reading.
+     */
+    static Frame readFrame(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            int bodyLength = data.readInt();
+            if (bodyLength < Long.BYTES || bodyLength > MAX_FRAME_BYTES) {
+                return null;
+            }
+            int checksum = data.readInt();
+            byte[] body = new byte[bodyLength];
+            data.readFully(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+
+            DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+            long sequence = bodyIn.readLong();
+            return new Frame(sequence, JournalRecord.readFrom(bodyIn), bodyLength);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A record waiting to be written by the writer thread.
+     */
+    private static class Pending {
+        private final long sequence;
+        private final byte[] payload;
+
+        Pending(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * A record read back from a segment file.
+     */
+    static class Frame {
+        final long sequence;
+        final JournalRecord record;
+        private final int bodyLength;
+
+        Frame(long sequence, JournalRecord record, int bodyLength) {
+            this.sequence = sequence;
+            this.record = record;
+            this.bodyLength = bodyLength;
+        }
+
+        /**
+         * Gets the number of bytes the frame occupies on disk.
+         *
+         * @return The frame size in bytes.
+         */
+        long size() {
+            return 2L * Integer.BYTES + bodyLength;
+        }
+    }
+}
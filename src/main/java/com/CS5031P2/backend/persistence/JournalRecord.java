@@ -0,0 +1,225 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single mutation of the library lending system, as written to the journal.
+ * Each record names the entity it applies to and carries the resulting field values,
+ * so that replaying a record twice leaves the system in the same state.
+ */
+public class JournalRecord {
+
+    /**
+     * The kinds of mutation that can be journaled.
+     */
+    public enum Type {
+        ADD_BOOK,
+        UPDATE_BOOK,
+        DELETE_BOOK,
+        ADD_MEMBER,
+        UPDATE_MEMBER,
+        DELETE_MEMBER,
+        CHECK_OUT,
+        RETURN
+    }
+
+    /**
+     * Largest number of bytes the ID or a field may take in modified UTF-8, the longest string that
+     * {@link DataOutputStream#writeUTF(String)} can write.
+     */
+    public static final int MAX_FIELD_BYTES = 65535;
+
+    private final Type type;
+    private final String id;
+    private final List<String> fields;
+
+    /**
+     * Constructs a new JournalRecord.
+     *
+     * @param type   The kind of mutation.
+     * @param id     The ID of the book or member the mutation applies to.
+     * @param fields The field values of the mutation, in the order expected for the type.
+     *               Null values are journaled as empty strings.
+     */
+    public JournalRecord(Type type, String id, String... fields) {
+        this.type = type;
+        this.id = id;
+        this.fields = Arrays.stream(fields).map(field -> field == null ? "" : field).toList();
+    }
+
+    /**
+     * Creates a record for a book being added, or for a book's full state being restored.
+     *
+     * @param book The book that was added.
+     * @return The journal record.
+     */
+    public static JournalRecord addBook(Book book) {
+        return new JournalRecord(Type.ADD_BOOK, book.getBookId(), book.getTitle(), book.getAuthor());
+    }
+
+    /**
+     * Creates a record for a book being replaced by an updated version.
+     *
+     * @param book The updated book.
+     * @return The journal record.
+     */
+    public static JournalRecord updateBook(Book book) {
+        return new JournalRecord(Type.UPDATE_BOOK, book.getBookId(), book.getTitle(), book.getAuthor(),
+                String.valueOf(book.isCheckedOut()), book.getBorrowedId());
+    }
+
+    /**
+     * Creates a record for a member being added.
+     *
+     * @param member The member that was added.
+     * @return The journal record.
+     */
+    public static JournalRecord addMember(Member member) {
+        return new JournalRecord(Type.ADD_MEMBER, member.getMemberId(), member.getName(), member.getAddress());
+    }
+
+    /**
+     * Creates a record for a member being replaced by an updated version.
+     *
+     * @param member The updated member.
+     * @return The journal record.
+     */
+    public static JournalRecord updateMember(Member member) {
+        return new JournalRecord(Type.UPDATE_MEMBER, member.getMemberId(), member.getName(), member.getAddress());
+    }
+
+    /**
+     * Creates a record for a book being checked out by a member.
+     *
+     * @param memberId The ID of the borrowing member.
+     * @param bookId   The ID of the book.
+     * @return The journal record.
+     */
+    public static JournalRecord checkOut(String memberId, String bookId) {
+        return new JournalRecord(Type.CHECK_OUT, bookId, memberId);
+    }
+
+    /**
+     * Creates a record for a book being returned by a member.
+     *
+     * @param memberId The ID of the returning member.
+     * @param bookId   The ID of the book.
+     * @return The journal record.
+     */
+    public static JournalRecord returnBook(String memberId, String bookId) {
+        return new JournalRecord(Type.RETURN, bookId, memberId);
+    }
+
+    /**
+     * Gets the kind of mutation.
+     *
+     * @return The record type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ID of the book or member the mutation applies to.
+     *
+     * @return The entity ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets a field value of the mutation.
+     *
+     * @param index The position of the field.
+     * @return The field value.
+     */
+    public String getField(int index) {
+        return fields.get(index);
+    }
+
+    /**
+     * Checks that the record can be written, before the mutation it describes is applied.
+     *
+     * @throws IllegalArgumentException if the ID or a field is longer than {@value #MAX_FIELD_BYTES} bytes
+     *                                  in modified UTF-8.
+     */
+    public void checkLength() {
+        if (encodedLength(id) > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Too long to journal: the ID exceeds " + MAX_FIELD_BYTES + " bytes");
+        }
+        for (String field : fields) {
+            if (encodedLength(field) > MAX_FIELD_BYTES) {
+                throw new IllegalArgumentException("Too long to journal: a field of " + id + " exceeds "
+                        + MAX_FIELD_BYTES + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Writes the record to a binary stream.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if an I/O error occurs while writing.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeUTF(id);
+        out.writeByte(fields.size());
+        for (String field : fields) {
+            out.writeUTF(field);
+        }
+    }
+
+    /**
+     * Reads a record previously written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param in The stream to read from.
+     * @return The record read from the stream.
+     * @throws IOException if an I/O error occurs or the data is not a valid record.
+     */
+    static JournalRecord readFrom(DataInputStream in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new IOException("Unknown journal record type " + ordinal);
+        }
+        String id = in.readUTF();
+        String[] fields = new String[in.readUnsignedByte()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = in.readUTF();
+        }
+        return new JournalRecord(Type.values()[ordinal], id, fields);
+    }
+
+    /**
+     * Counts the bytes a string takes in modified UTF-8, as written by {@link DataOutputStream#writeUTF(String)}.
+     *
+     * @param value The string.
+     * @return The number of bytes, excluding the length prefix.
+     */
+    static long encodedLength(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+
+    /**
+     * Returns a string representation of the record.
+     *
+     * @return A string representation of the record.
+     */
+    @Override
+    public String toString() {
+        return "JournalRecord(" + type + ", " + id + ", " + fields + ")";
+    }
+}
@@ -0,0 +1,183 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The storage engine that writes every mutation to a write-ahead {@link Journal} and periodically writes a
+ * {@link SnapshotStore snapshot} of the whole library.
+ * At startup the library is rebuilt from the newest snapshot plus the journal records written after it.
+ * Each checkpoint writes a snapshot, after which journal segments that are covered by every retained
+ * snapshot are deleted.
+ */
+public class JournalStorageEngine implements StorageEngine {
+    private final Journal journal;
+    private final SnapshotStore snapshotStore;
+    private final int snapshotsRetained;
+
+    /**
+     * Opens the journal and snapshot directories, creating them if needed.
+     *
+     * @param journalDirectory  The directory of journal segments.
+     * @param segmentBytes      The size at which a journal segment is sealed and a new one started.
+     * @param snapshotDirectory The directory of snapshots.
+     * @param snapshotsRetained The number of snapshots kept after each checkpoint.
+     */
+    public JournalStorageEngine(Path journalDirectory, long segmentBytes, Path snapshotDirectory, int snapshotsRetained) {
+        this.journal = new Journal(journalDirectory, segmentBytes);
+        this.snapshotStore = new SnapshotStore(snapshotDirectory);
+        this.snapshotsRetained = snapshotsRetained;
+    }
+
+    /**
+     * Loads the newest snapshot, if any, and replays the journal records written after it.
+     *
+     * @param library The library.
+     * @return True if there was a snapshot or any journal record.
+     * @throws IOException if the snapshot or journal cannot be read.
+     */
+    @Override
+    public boolean load(LibraryLendingSystem library) throws IOException {
+        SnapshotStore.Snapshot snapshot = snapshotStore.loadLatest();
+        long snapshotSequence = 0;
+        if (snapshot != null) {
+            library.setBooks(snapshot.getBooks());
+            library.setMembers(snapshot.getMembers());
+            snapshotSequence = snapshot.getSequence();
+        } else {
+            library.setBooks(new ConcurrentHashMap<>());
+            library.setMembers(new ConcurrentHashMap<>());
+        }
+        journal.recover(snapshotSequence, library::apply);
+        return snapshot != null || journal.getLastSequence() > 0;
+    }
+
+    /**
+     * Writes the initial contents of the library to the empty journal, so that the journal alone is enough
+     * to rebuild the library on the next start.
+     *
+     * @param books   The books.
+     * @param members The members.
+     * @throws IOException if the records cannot be made durable.
+     */
+    @Override
+    public void seed(Collection<Book> books, Collection<Member> members) throws IOException {
+        long last = 0;
+        for (Member member : members) {
+            last = journal.append(JournalRecord.addMember(member));
+        }
+        for (Book book : books) {
+            last = journal.append(JournalRecord.addBook(book));
+            if (book.isCheckedOut()) {
+                last = journal.append(JournalRecord.checkOut(book.getBorrowedId(), book.getBookId()));
+            }
+        }
+        journal.sync(last);
+    }
+
+    /**
+     * Checks that a mutation can be journaled and snapshotted, which write each field behind a two-byte length.
+     *
+     * @param record The mutation.
+     * @throws IllegalArgumentException if a field of the mutation is too long to write.
+     */
+    @Override
+    public void check(JournalRecord record) {
+        record.checkLength();
+    }
+
+    /**
+     * Appends a mutation to the journal.
+     *
+     * @param record The mutation.
+     * @return The journal sequence number of the record.
+     * @throws IOException if the journal is closed or has failed.
+     */
+    @Override
+    public long append(JournalRecord record) throws IOException {
+        return journal.append(record);
+    }
+
+    /**
+     * Waits until the journal has forced every record up to a sequence number to disk.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}.
+     * @throws IOException if the journal could not make the records durable.
+     */
+    @Override
+    public void sync(long sequence) throws IOException {
+        journal.sync(sequence);
+    }
+
+    /**
+     * Gets the sequence number of the most recently appended journal record.
+     *
+     * @return The last sequence number.
+     */
+    @Override
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    /**
+     * Writes a snapshot and discards the journal segments it makes redundant.
+     *
+     * @param library The library.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @Override
+    public void checkpoint(LibraryLendingSystem library) throws IOException {
+        snapshot(library);
+    }
+
+    /**
+     * Writes a snapshot of the library and discards the journal segments it makes redundant.
+     * Mutations continue while the snapshot is written. The snapshot is tagged with the last journal
+     * sequence number handed out before it started; every mutation with a sequence number at or below that
+     * is already applied in memory, and any later mutation the snapshot happens to include is simply
+     * applied again on replay, which leaves it unchanged.
+     *
+     * @param library The library.
+     * @return The path of the new snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public Path snapshot(LibraryLendingSystem library) throws IOException {
+        long sequence = journal.getLastSequence();
+        journal.requestRoll();
+
+        // One version holds the books and members as they stood together at a single point in time, unless the
+        // books are kept in a store, which is read live and may include later mutations, as described above
+        LibraryLendingSystem.Version version = library.getVersion();
+        Path file = snapshotStore.write(sequence, version.getBooks().values(), version.getMembers().values());
+
+        // Keep enough journal to recover from the oldest retained snapshot, in case the newest is damaged
+        long oldestRetained = snapshotStore.prune(snapshotsRetained);
+        journal.discardThrough(oldestRetained);
+        return file;
+    }
+
+    /**
+     * Gets the journal the engine writes to.
+     *
+     * @return The journal.
+     */
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Closes the journal once every appended record is on disk.
+     *
+     * @throws IOException if the journal cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
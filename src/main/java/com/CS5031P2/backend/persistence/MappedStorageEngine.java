@@ -0,0 +1,225 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.OffHeapBookStore;
+import com.CS5031P2.backend.util.OffHeapRecordStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The storage engine that keeps books and members as fixed-size records in memory-mapped files.
+ * Books, with their loan state, are kept in an {@link OffHeapBookStore} in {@code books.dat}, and members'
+ * names and addresses in an {@link OffHeapRecordStore} in {@code members.dat}. Each mutation is applied to
+ * the records as it is appended, so startup reads the current state straight from the files with nothing to
+ * replay. Syncing forces the mapped files to disk, covering every mutation appended before it, so callers
+ * that wait while another forces the files are usually covered by that force and return without one.
+ * The files are the durable copy of the library, read back once at startup; the library serves reads from its
+ * own catalogue, by default an {@link OffHeapBookStore} in direct buffers, and its members from the heap. As
+ * records have a fixed size, mutations are checked before the library applies them, and a book or member too
+ * large for its record is rejected with the library unchanged.
+ */
+public class MappedStorageEngine implements StorageEngine {
+
+    private static final int MEMBER_FIELDS = 2;
+
+    private final OffHeapBookStore books;
+    private final OffHeapRecordStore members;
+    private final Object forceLock = new Object();
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    /**
+     * Opens the files in a directory, creating the directory and files if needed.
+     *
+     * @param directory The directory.
+     * @throws IOException if the files cannot be opened or hold something else.
+     */
+    public MappedStorageEngine(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.books = new OffHeapBookStore(directory.resolve("books.dat"));
+        try {
+            this.members = new OffHeapRecordStore(directory.resolve("members.dat"), MEMBER_FIELDS);
+        } catch (IOException e) {
+            books.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Loads every stored book and member into the library.
+     *
+     * @param library The library.
+     * @return True if the files hold any book or member.
+     */
+    @Override
+    public boolean load(LibraryLendingSystem library) {
+        if (books.size() == 0 && members.size() == 0) {
+            return false;
+        }
+        Map<String, Book> loadedBooks = new HashMap<>();
+        for (Book book : books) {
+            loadedBooks.put(book.getBookId(), book);
+        }
+        Map<String, Member> loadedMembers = new HashMap<>();
+        Iterator<Member> stored = members.iterator(MappedStorageEngine::toMember);
+        while (stored.hasNext()) {
+            Member member = stored.next();
+            loadedMembers.put(member.getMemberId(), member);
+        }
+        library.setBooks(loadedBooks);
+        library.setMembers(loadedMembers);
+        return true;
+    }
+
+    /**
+     * Writes the initial books and members and forces them to disk.
+     *
+     * @param books   The books.
+     * @param members The members.
+     */
+    @Override
+    public void seed(Collection<Book> books, Collection<Member> members) {
+        for (Member member : members) {
+            putMember(member.getMemberId(), member.getName(), member.getAddress());
+        }
+        for (Book book : books) {
+            this.books.put(book);
+        }
+        sync(0);
+    }
+
+    /**
+     * Checks that a book or member added or updated by a mutation fits in its record, leaving a book room
+     * for a borrower.
+     *
+     * @param record The mutation.
+     * @throws IllegalArgumentException if the book or member is too large for a record.
+     */
+    @Override
+    public void check(JournalRecord record) {
+        String id = record.getId();
+        switch (record.getType()) {
+            case ADD_BOOK -> books.check(id, record.getField(0), record.getField(1), null);
+            case UPDATE_BOOK -> books.check(id, record.getField(0), record.getField(1), record.getField(3));
+            case ADD_MEMBER, UPDATE_MEMBER -> {
+                int size = members.sizeOf(id, new String[]{record.getField(0), record.getField(1)});
+                if (size > OffHeapRecordStore.RECORD_SIZE) {
+                    throw new IllegalArgumentException("Too large to store: the " + OffHeapRecordStore.RECORD_SIZE
+                            + "-byte record of " + id + " would need " + size + " bytes");
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Applies a mutation to the records.
+     *
+     * @param record The mutation.
+     * @return The sequence number of the mutation.
+     */
+    @Override
+    public synchronized long append(JournalRecord record) {
+        String id = record.getId();
+        switch (record.getType()) {
+            case ADD_BOOK -> {
+                if (!books.containsKey(id)) {
+                    books.put(new Book(id, record.getField(0), record.getField(1)));
+                }
+            }
+            case UPDATE_BOOK -> {
+                Book book = new Book(id, record.getField(0), record.getField(1));
+                book.setCheckedOut(Boolean.parseBoolean(record.getField(2)));
+                book.setBorrowedId(record.getField(3));
+                books.put(book);
+            }
+            case DELETE_BOOK -> books.remove(id);
+            case ADD_MEMBER -> {
+                if (!members.containsKey(id)) {
+                    putMember(id, record.getField(0), record.getField(1));
+                }
+            }
+            case UPDATE_MEMBER -> putMember(id, record.getField(0), record.getField(1));
+            case DELETE_MEMBER -> members.remove(id);
+            case CHECK_OUT, RETURN -> {
+                Book book = books.get(id);
+                if (book != null && members.containsKey(record.getField(0))) {
+                    boolean checkOut = record.getType() == JournalRecord.Type.CHECK_OUT;
+                    book.setCheckedOut(checkOut);
+                    book.setBorrowedId(checkOut ? record.getField(0) : "");
+                    books.put(book);
+                }
+            }
+        }
+        return ++lastSequence;
+    }
+
+    /**
+     * Forces the mapped files to disk, unless another sync already has since the mutation was applied.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}, or 0 to force anyway.
+     */
+    @Override
+    public void sync(long sequence) {
+        synchronized (forceLock) {
+            if (sequence != 0 && sequence <= durableSequence) {
+                return;
+            }
+            long target = getLastSequence();
+            books.force();
+            members.force();
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the most recently applied mutation.
+     *
+     * @return The last sequence number since the files were opened.
+     */
+    @Override
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Forces the mapped files to disk.
+     *
+     * @param library The library, which is not needed as the files are always up to date.
+     */
+    @Override
+    public void checkpoint(LibraryLendingSystem library) {
+        sync(0);
+    }
+
+    /**
+     * Forces the mapped files to disk and closes them.
+     *
+     * @throws IOException if a file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            books.close();
+        } finally {
+            members.close();
+        }
+    }
+
+    private void putMember(String memberId, String name, String address) {
+        members.put(memberId, new String[]{name, address}, false);
+    }
+
+    private static Member toMember(String memberId, String[] fields, boolean flag) {
+        return new Member(memberId, fields[0], fields[1]);
+    }
+}
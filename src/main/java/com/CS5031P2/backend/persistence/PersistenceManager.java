@@ -0,0 +1,315 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.BookStore;
+import com.CS5031P2.backend.model.CompactBookStore;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.OffHeapBookStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component responsible for making the library's state durable across restarts, through the
+ * {@link StorageEngine} named by {@code library.storage.engine}:
+ * <ul>
+ *     <li>{@value #MEMORY} keeps everything in memory only, and is the default;</li>
+ *     <li>{@value #JOURNAL} writes a journal and periodic snapshots, as does {@code library.journal.enabled};</li>
+ *     <li>{@value #MAPPED} keeps books and members in memory-mapped record files;</li>
+ *     <li>{@value #SQL} keeps books, members and loans in an embedded database.</li>
+ * </ul>
+ * At startup the library is loaded from the engine and the engine is attached, so that every later mutation
+ * is stored before it is acknowledged. With {@code library.write-behind.enabled}, the mapped or sql engine is
+ * put behind a {@link WriteBehindStorageEngine}, so that mutations are acknowledged once they are in a local
+ * journal and reach the engine in batches afterwards. If the engine holds nothing yet, the example books and
+ * members are loaded from the classpath and written to it first; the in-memory library loads them on every
+ * start. Checkpoints, e.g. snapshots of the journal, are taken periodically in the background.
+ * Whatever the engine, the library keeps its catalogue in the layout named by {@code library.catalogue.store}:
+ * {@value #OBJECTS}, one object per book; {@value #COMPACT}, a {@link CompactBookStore}; or {@value #OFF_HEAP},
+ * an {@link OffHeapBookStore} in direct buffers, which is the default with the mapped engine.
+ */
+@Component
+public class PersistenceManager {
+
+    /**
+     * Engine name for keeping the library in memory only.
+     */
+    public static final String MEMORY = "memory";
+
+    /**
+     * Engine name for the write-ahead journal with snapshots.
+     */
+    public static final String JOURNAL = "journal";
+
+    /**
+     * Engine name for memory-mapped record files.
+     */
+    public static final String MAPPED = "mapped";
+
+    /**
+     * Engine name for the embedded database.
+     */
+    public static final String SQL = "sql";
+
+    /**
+     * Catalogue store name for keeping one object per book.
+     */
+    public static final String OBJECTS = "objects";
+
+    /**
+     * Catalogue store name for keeping books in a {@link CompactBookStore}.
+     */
+    public static final String COMPACT = "compact";
+
+    /**
+     * Catalogue store name for keeping books in an {@link OffHeapBookStore} outside the heap.
+     */
+    public static final String OFF_HEAP = "off-heap";
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceManager.class);
+
+    @Autowired
+    LibraryLendingSystem libraryLendingSystem;
+
+    @Value("${library.storage.engine:}")
+    String storageEngine;
+
+    @Value("${library.catalogue.store:}")
+    String catalogueStore;
+
+    @Value("${library.storage.directory:data/store}")
+    String storageDirectory;
+
+    @Value("${library.storage.pool-size:" + SqlStorageEngine.DEFAULT_POOL_SIZE + "}")
+    int storagePoolSize;
+
+    @Value("${library.write-behind.enabled:false}")
+    boolean writeBehindEnabled;
+
+    @Value("${library.write-behind.flush-millis:" + WriteBehindStorageEngine.DEFAULT_FLUSH_MILLIS + "}")
+    long writeBehindFlushMillis;
+
+    @Value("${library.write-behind.max-batch:" + WriteBehindStorageEngine.DEFAULT_MAX_BATCH + "}")
+    int writeBehindMaxBatch;
+
+    @Value("${library.journal.enabled:false}")
+    boolean journalEnabled;
+
+    @Value("${library.journal.directory:data/journal}")
+    String journalDirectory;
+
+    @Value("${library.journal.segment-bytes:" + Journal.DEFAULT_SEGMENT_BYTES + "}")
+    long segmentBytes;
+
+    @Value("${library.snapshot.directory:data/snapshots}")
+    String snapshotDirectory;
+
+    @Value("${library.snapshot.interval-seconds:0}")
+    long snapshotIntervalSeconds;
+
+    @Value("${library.snapshot.retain:2}")
+    int snapshotsRetained;
+
+    private StorageEngine engine;
+    private ScheduledExecutorService snapshotScheduler;
+
+    /**
+     * Loads the library from the configured engine, then starts storing mutations in it.
+     * If the engine holds nothing, or there is no engine, the library is given the example books and members,
+     * which are written to the engine first, so that the engine alone is enough to rebuild the library on the
+     * next start.
+     *
+     * @throws IOException if the stored state cannot be read or written.
+     * @throws IllegalArgumentException if the engine or catalogue store name is unknown.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        libraryLendingSystem.useBookStore(createBookStore());
+        engine = createEngine();
+        if (engine == null) {
+            libraryLendingSystem.loadExamples();
+            return;
+        }
+
+        if (!engine.load(libraryLendingSystem)) {
+            libraryLendingSystem.loadExamples();
+            engine.seed(libraryLendingSystem.getBooks().values(), libraryLendingSystem.getMembers().values());
+        }
+
+        libraryLendingSystem.setStorage(engine);
+        log.info("Storing library mutations with the {} engine{}", getEngineName(),
+                engine instanceof WriteBehindStorageEngine ? ", written behind a journal" : "");
+
+        if (snapshotIntervalSeconds > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "library-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::scheduledCheckpoint,
+                    snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops taking checkpoints, takes a final one if they are enabled, and closes the engine.
+     *
+     * @throws IOException if an I/O error occurs while writing the checkpoint or closing the engine.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (engine == null) {
+            return;
+        }
+
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            try {
+                snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            engine.checkpoint(libraryLendingSystem);
+            snapshotScheduler = null;
+        }
+
+        libraryLendingSystem.setStorage(null);
+        engine.close();
+        engine = null;
+    }
+
+    /**
+     * Writes a snapshot of the library and discards the journal segments it makes redundant.
+     *
+     * @return The path of the new snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws IllegalStateException if the journal engine is not in use.
+     */
+    public Path snapshot() throws IOException {
+        if (!(engine instanceof JournalStorageEngine journalEngine)) {
+            throw new IllegalStateException("Snapshots need the " + JOURNAL + " engine");
+        }
+        return journalEngine.snapshot(libraryLendingSystem);
+    }
+
+    /**
+     * Gets the storage engine in use.
+     *
+     * @return The engine, or null if the library is kept in memory only.
+     */
+    public StorageEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the journal in use.
+     *
+     * @return The journal, or null if the journal engine is not in use.
+     */
+    public Journal getJournal() {
+        return engine instanceof JournalStorageEngine journalEngine ? journalEngine.getJournal() : null;
+    }
+
+    /**
+     * Gets the name of the configured engine. An explicit {@code library.storage.engine} wins; otherwise the
+     * journal is used if {@code library.journal.enabled} is set.
+     *
+     * @return The engine name.
+     */
+    String getEngineName() {
+        if (storageEngine != null && !storageEngine.isBlank()) {
+            return storageEngine.trim();
+        }
+        return journalEnabled ? JOURNAL : MEMORY;
+    }
+
+    /**
+     * Gets the name of the configured catalogue store. An explicit {@code library.catalogue.store} wins;
+     * otherwise the catalogue is kept off the heap with the mapped engine, whose records it matches, and as
+     * objects with any other.
+     *
+     * @return The catalogue store name.
+     */
+    String getCatalogueStoreName() {
+        if (catalogueStore != null && !catalogueStore.isBlank()) {
+            return catalogueStore.trim();
+        }
+        return getEngineName().equals(MAPPED) ? OFF_HEAP : OBJECTS;
+    }
+
+    /**
+     * Creates the store the library keeps its books in.
+     *
+     * @return The store, or null to keep one object per book.
+     * @throws IllegalArgumentException if the catalogue store name is unknown.
+     */
+    private BookStore createBookStore() {
+        return switch (getCatalogueStoreName()) {
+            case OBJECTS -> null;
+            case COMPACT -> new CompactBookStore();
+            case OFF_HEAP -> new OffHeapBookStore();
+            default -> throw new IllegalArgumentException("Unknown catalogue store: " + getCatalogueStoreName());
+        };
+    }
+
+    /**
+     * Opens the configured engine, behind a journal if write-behind is enabled.
+     *
+     * @return The engine, or null to keep the library in memory only.
+     * @throws IOException if the engine's files cannot be opened.
+     * @throws IllegalArgumentException if the engine name is unknown, or write-behind is enabled for an
+     *                                  engine other than mapped or sql.
+     */
+    private StorageEngine createEngine() throws IOException {
+        StorageEngine engine = openEngine();
+        if (!writeBehindEnabled) {
+            return engine;
+        }
+        if (!(engine instanceof MappedStorageEngine || engine instanceof SqlStorageEngine)) {
+            if (engine != null) {
+                engine.close();
+            }
+            throw new IllegalArgumentException("Write-behind needs the " + MAPPED + " or " + SQL + " engine");
+        }
+        return new WriteBehindStorageEngine(engine, Path.of(journalDirectory), segmentBytes,
+                writeBehindFlushMillis, writeBehindMaxBatch);
+    }
+
+    /**
+     * Opens the engine named in the configuration.
+     *
+     * @return The engine, or null to keep the library in memory only.
+     * @throws IOException if the engine's files cannot be opened.
+     * @throws IllegalArgumentException if the engine name is unknown.
+     */
+    private StorageEngine openEngine() throws IOException {
+        return switch (getEngineName()) {
+            case MEMORY -> null;
+            case JOURNAL -> new JournalStorageEngine(Path.of(journalDirectory), segmentBytes,
+                    Path.of(snapshotDirectory), snapshotsRetained);
+            case MAPPED -> new MappedStorageEngine(Path.of(storageDirectory));
+            case SQL -> new SqlStorageEngine(Path.of(storageDirectory), storagePoolSize);
+            default -> throw new IllegalArgumentException("Unknown storage engine: " + getEngineName());
+        };
+    }
+
+    /**
+     * Takes a scheduled checkpoint, reporting rather than propagating failures so that later runs still happen.
+     */
+    private void scheduledCheckpoint() {
+        try {
+            engine.checkpoint(libraryLendingSystem);
+        } catch (IOException | RuntimeException e) {
+            log.error("Checkpoint with the {} engine failed", getEngineName(), e);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stores compact binary images of the library's books and members.
+ * Each snapshot records the journal sequence number it is consistent with, so that on startup only the
+ * journal records after that sequence number need to be replayed. Loans are stored once, as the borrowing
+ * member of each book, and the members' borrowed books are rebuilt from them when a snapshot is loaded.
+ */
+public class SnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int MAGIC = 0x4C4C5331; // "LLS1"
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_TEXT = 1;
+
+    private final Path directory;
+
+    /**
+     * Constructs a new SnapshotStore in the specified directory.
+     *
+     * @param directory The directory holding the snapshot files.
+     */
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a snapshot of the given books and members.
+     * The snapshot is written to a temporary file, forced to disk and then atomically renamed,
+     * so a crash while writing never leaves a partial snapshot in place of a complete one.
+     *
+     * @param sequence The journal sequence number the snapshot reflects.
+     * @param books    The books to store.
+     * @param members  The members to store.
+     * @return The path of the new snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public Path write(long sequence, Collection<Book> books, Collection<Member> members) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream fileOut = Channels.newOutputStream(channel);
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+
+            List<Book> bookList = new ArrayList<>(books);
+            out.writeInt(bookList.size());
+            for (Book book : bookList) {
+                writeId(out, book.getBookId());
+                out.writeUTF(nullToEmpty(book.getTitle()));
+                out.writeUTF(nullToEmpty(book.getAuthor()));
+                out.writeBoolean(book.isCheckedOut());
+                out.writeUTF(nullToEmpty(book.getBorrowedId()));
+            }
+
+            List<Member> memberList = new ArrayList<>(members);
+            out.writeInt(memberList.size());
+            for (Member member : memberList) {
+                writeId(out, member.getMemberId());
+                out.writeUTF(nullToEmpty(member.getName()));
+                out.writeUTF(nullToEmpty(member.getAddress()));
+            }
+
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(checked.getChecksum().getValue());
+            fileOut.flush();
+            channel.force(true);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    /**
+     * Loads the newest snapshot that passes its checksum, skipping over any that are damaged.
+     *
+     * @return The newest valid snapshot, or null if there is none.
+     * @throws IOException if the snapshot directory cannot be listed.
+     */
+    public Snapshot loadLatest() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return read(snapshots.get(i));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable snapshot {}", snapshots.get(i), e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deletes all but the newest snapshots.
+     *
+     * @param retain The number of snapshots to keep.
+     * @return The sequence number of the oldest retained snapshot, or 0 if there are none.
+     * @throws IOException if a snapshot cannot be deleted.
+     */
+    public long prune(int retain) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        int keepFrom = Math.max(0, snapshots.size() - retain);
+        for (int i = 0; i < keepFrom; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return keepFrom < snapshots.size() ? sequenceOf(snapshots.get(keepFrom)) : 0;
+    }
+
+    /**
+     * Lists the snapshot files in sequence order.
+     *
+     * @return The snapshot paths, oldest first.
+     * @throws IOException if the directory cannot be listed.
+     */
+    List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads and verifies a snapshot file.
+     *
+     * @param file The snapshot path.
+     * @return The snapshot.
+     * @throws IOException if the file cannot be read or fails verification.
+     */
+    static Snapshot read(Path file) throws IOException {
+        try (DataInputStream raw = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file");
+            }
+            long sequence = in.readLong();
+
+            int bookCount = in.readInt();
+            Map<String, Book> books = new ConcurrentHashMap<>(Math.max(16, bookCount * 4 / 3 + 1));
+            for (int i = 0; i < bookCount; i++) {
+                String bookId = readId(in);
+                Book book = new Book(bookId, in.readUTF(), in.readUTF());
+                book.setCheckedOut(in.readBoolean());
+                book.setBorrowedId(in.readUTF());
+                books.put(bookId, book);
+            }
+
+            int memberCount = in.readInt();
+            Map<String, Member> members = new ConcurrentHashMap<>(Math.max(16, memberCount * 4 / 3 + 1));
+            for (int i = 0; i < memberCount; i++) {
+                String memberId = readId(in);
+                Member member = new Member(memberId, in.readUTF(), in.readUTF());
+                members.put(memberId, member);
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if (raw.readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            // Rebuild each member's borrowed books from the loans recorded on the books
+            for (Book book : books.values()) {
+                Member borrower = members.get(book.getBorrowedId());
+                if (book.isCheckedOut() && borrower != null) {
+                    borrower.getBorrowedBooks().put(book.getBookId(), book);
+                }
+            }
+            return new Snapshot(sequence, books, members);
+        }
+    }
+
+    /**
+     * Gets the sequence number encoded in a snapshot file name.
+     *
+     * @param file The snapshot path.
+     * @return The sequence number.
+     */
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * Writes an ID, using 16 bytes for canonical UUIDs and a string otherwise.
+     *
+     * @param out The stream to write to.
+     * @param id  The ID to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_TEXT);
+            out.writeUTF(nullToEmpty(id));
+        }
+    }
+
+    /**
+     * Reads an ID written by {@link #writeId(DataOutputStream, String)}.
+     *
+     * @param in The stream to read from.
+     * @return The ID.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static String readId(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == ID_UUID) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        }
+        return in.readUTF();
+    }
+
+    /**
+     * Parses an ID as a UUID, if it is in canonical UUID form.
+     *
+     * @param id The ID.
+     * @return The UUID, or null if the ID would not round-trip through a UUID.
+     */
+    private static UUID parseUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces a null string with an empty string.
+     *
+     * @param value The string.
+     * @return The string, or an empty string if it was null.
+     */
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * The contents of a snapshot file.
+     */
+    public static class Snapshot {
+        private final long sequence;
+        private final Map<String, Book> books;
+        private final Map<String, Member> members;
+
+        Snapshot(long sequence, Map<String, Book> books, Map<String, Member> members) {
+            this.sequence = sequence;
+            this.books = books;
+            this.members = members;
+        }
+
+        /**
+         * Gets the journal sequence number the snapshot reflects.
+         *
+         * @return The sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the books stored in the snapshot.
+         *
+         * @return A map of books by ID.
+         */
+        public Map<String, Book> getBooks() {
+            return books;
+        }
+
+        /**
+         * Gets the members stored in the snapshot, with their borrowed books.
+         *
+         * @return A map of members by ID.
+         */
+        public Map<String, Member> getMembers() {
+            return members;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The storage engine that keeps books, members and loans in tables of an embedded H2 database in file mode,
+ * reached through a pool of connections.
+ * A loan is the borrower's ID and checked-out flag on the book's row, and books are indexed by title, author
+ * and borrower for queries run against the database directly; the library itself still serves every read
+ * from memory, loading the tables once at startup.
+ * Appended mutations are queued as statements. A sync writes everything queued so far in one transaction,
+ * sending consecutive statements of the same kind as one prepared-statement batch, so callers that wait
+ * while another syncs are usually covered by that transaction and return without one.
+ * If a transaction fails, its statements are lost and the engine turns mutations away, except those that
+ * write a book's or member's whole state. Once every book and member the lost statements touched has been
+ * written again that way, as {@link WriteBehindStorageEngine} does when it retries a flush, the next sync
+ * commits and the engine accepts everything again.
+ */
+public class SqlStorageEngine implements StorageEngine {
+
+    /**
+     * Connections in the pool, used when none is configured.
+     */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    /**
+     * Largest number of statements sent to the database in one batch.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS members (member_id VARCHAR PRIMARY KEY, name VARCHAR, address VARCHAR)",
+            "CREATE TABLE IF NOT EXISTS books (book_id VARCHAR PRIMARY KEY, title VARCHAR, author VARCHAR, "
+                    + "checked_out BOOLEAN NOT NULL, borrowed_id VARCHAR)",
+            "CREATE INDEX IF NOT EXISTS books_title ON books (title)",
+            "CREATE INDEX IF NOT EXISTS books_author ON books (author)",
+            "CREATE INDEX IF NOT EXISTS books_borrowed_id ON books (borrowed_id)"};
+    private static final String INSERT_BOOK = "INSERT INTO books (book_id, title, author, checked_out) "
+            + "SELECT ?, ?, ?, FALSE WHERE NOT EXISTS (SELECT 1 FROM books WHERE book_id = ?)";
+    private static final String MERGE_BOOK = "MERGE INTO books (book_id, title, author, checked_out, borrowed_id) "
+            + "KEY (book_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_BOOK = "DELETE FROM books WHERE book_id = ?";
+    private static final String INSERT_MEMBER = "INSERT INTO members (member_id, name, address) "
+            + "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM members WHERE member_id = ?)";
+    private static final String MERGE_MEMBER = "MERGE INTO members (member_id, name, address) "
+            + "KEY (member_id) VALUES (?, ?, ?)";
+    private static final String DELETE_MEMBER = "DELETE FROM members WHERE member_id = ?";
+    private static final String BOOK = "book:";
+    private static final String MEMBER = "member:";
+    private static final String CHECK_OUT = "UPDATE books SET checked_out = TRUE, borrowed_id = ? "
+            + "WHERE book_id = ? AND EXISTS (SELECT 1 FROM members WHERE member_id = ?)";
+    private static final String RETURN = "UPDATE books SET checked_out = FALSE, borrowed_id = '' "
+            + "WHERE book_id = ? AND EXISTS (SELECT 1 FROM members WHERE member_id = ?)";
+
+    private final HikariDataSource dataSource;
+    private final Object flushLock = new Object();
+    private final Set<String> unwritten = new HashSet<>();
+    private List<Write> pending = new ArrayList<>();
+    private long lastSequence;
+    private volatile long durableSequence;
+    private volatile SQLException failure;
+
+    /**
+     * Opens the database in a directory, creating the directory, database and tables if needed.
+     *
+     * @param directory The directory.
+     * @param poolSize  The number of connections in the pool.
+     * @throws IOException if the database cannot be opened or its tables created.
+     */
+    public SqlStorageEngine(Path directory, int poolSize) throws IOException {
+        Files.createDirectories(directory);
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(urlFor(directory));
+        config.setMaximumPoolSize(poolSize);
+        config.setPoolName("library-sql");
+        this.dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new IOException("Cannot create the library tables", e);
+        }
+    }
+
+    /**
+     * Gets the JDBC URL of the database in a directory. The database is left open until the engine closes
+     * rather than when the JVM starts exiting, so that the last mutations can still be written on shutdown,
+     * and every commit is written to the file rather than after a delay.
+     *
+     * @param directory The directory.
+     * @return The URL.
+     */
+    static String urlFor(Path directory) {
+        return "jdbc:h2:file:" + directory.resolve("library").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE;WRITE_DELAY=0";
+    }
+
+    /**
+     * Loads every stored book and member into the library.
+     *
+     * @param library The library.
+     * @return True if the tables hold any book or member.
+     * @throws IOException if the tables cannot be read.
+     */
+    @Override
+    public boolean load(LibraryLendingSystem library) throws IOException {
+        Map<String, Book> books = new HashMap<>();
+        Map<String, Member> members = new HashMap<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT member_id, name, address FROM members")) {
+                while (rows.next()) {
+                    Member member = new Member(rows.getString(1), rows.getString(2), rows.getString(3));
+                    members.put(member.getMemberId(), member);
+                }
+            }
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT book_id, title, author, checked_out, borrowed_id FROM books")) {
+                while (rows.next()) {
+                    Book book = new Book(rows.getString(1), rows.getString(2), rows.getString(3));
+                    book.setCheckedOut(rows.getBoolean(4));
+                    if (rows.getString(5) != null) {
+                        book.setBorrowedId(rows.getString(5));
+                    }
+                    books.put(book.getBookId(), book);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Cannot read the library tables", e);
+        }
+        if (books.isEmpty() && members.isEmpty()) {
+            return false;
+        }
+        library.setBooks(books);
+        library.setMembers(members);
+        return true;
+    }
+
+    /**
+     * Writes the initial books and members in batches and commits them.
+     *
+     * @param books   The books.
+     * @param members The members.
+     * @throws IOException if the rows cannot be written.
+     */
+    @Override
+    public void seed(Collection<Book> books, Collection<Member> members) throws IOException {
+        synchronized (this) {
+            for (Member member : members) {
+                pending.add(new Write(MEMBER + member.getMemberId(), MERGE_MEMBER, member.getMemberId(),
+                        member.getName(), member.getAddress()));
+            }
+            for (Book book : books) {
+                pending.add(new Write(BOOK + book.getBookId(), MERGE_BOOK, book.getBookId(), book.getTitle(),
+                        book.getAuthor(), book.isCheckedOut(), book.getBorrowedId()));
+            }
+        }
+        sync(0);
+    }
+
+    /**
+     * Queues the statement that applies a mutation.
+     *
+     * @param record The mutation.
+     * @return The sequence number of the mutation.
+     * @throws IOException if an earlier write failed and the mutation does not write a whole state.
+     */
+    @Override
+    public synchronized long append(JournalRecord record) throws IOException {
+        Write write = toWrite(record);
+        if (failure != null) {
+            boolean wholeState = switch (record.getType()) {
+                case UPDATE_BOOK, DELETE_BOOK, UPDATE_MEMBER, DELETE_MEMBER -> true;
+                default -> false;
+            };
+            if (!wholeState) {
+                throw new IOException("Database write failed", failure);
+            }
+            unwritten.remove(write.key);
+        }
+        pending.add(write);
+        return ++lastSequence;
+    }
+
+    /**
+     * Writes and commits every queued statement, unless another sync already has since the mutation was
+     * appended.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}, or 0 to write anyway.
+     * @throws IOException if the statements could not be committed, or an earlier write failed and has not
+     *                     been written again.
+     */
+    @Override
+    public void sync(long sequence) throws IOException {
+        synchronized (flushLock) {
+            SQLException failed = failure;
+            if (failed == null && sequence != 0 && sequence <= durableSequence) {
+                return;
+            }
+            List<Write> writes;
+            long target;
+            synchronized (this) {
+                if (failed != null && !unwritten.isEmpty()) {
+                    throw new IOException("Database write failed", failed);
+                }
+                writes = pending;
+                pending = new ArrayList<>();
+                target = lastSequence;
+            }
+            try {
+                write(writes);
+            } catch (SQLException e) {
+                // The transaction was rolled back, so memory and the tables no longer match for what it touched
+                synchronized (this) {
+                    for (Write write : writes) {
+                        unwritten.add(write.key);
+                    }
+                    failure = e;
+                }
+                throw new IOException("Database write failed", e);
+            }
+            durableSequence = target;
+            failure = null;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the most recently queued mutation.
+     *
+     * @return The last sequence number since the database was opened.
+     */
+    @Override
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Commits anything queued and has the database write its whole state to its file.
+     *
+     * @param library The library, which is not needed as the tables are always up to date.
+     * @throws IOException if the database cannot be written.
+     */
+    @Override
+    public void checkpoint(LibraryLendingSystem library) throws IOException {
+        sync(0);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT");
+        } catch (SQLException e) {
+            throw new IOException("Database checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Commits anything queued and closes the pool, which closes the database.
+     *
+     * @throws IOException if the queued statements could not be committed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync(0);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * Writes statements in one transaction, batching runs of the same statement.
+     *
+     * @param writes The statements, in the order they were queued.
+     * @throws SQLException if a statement fails, after rolling the transaction back.
+     */
+    private void write(List<Write> writes) throws SQLException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int start = 0;
+                while (start < writes.size()) {
+                    String sql = writes.get(start).sql;
+                    int end = start;
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        while (end < writes.size() && writes.get(end).sql.equals(sql)) {
+                            writes.get(end).bind(statement);
+                            statement.addBatch();
+                            end++;
+                            if ((end - start) % BATCH_SIZE == 0) {
+                                statement.executeBatch();
+                            }
+                        }
+                        statement.executeBatch();
+                    }
+                    start = end;
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Builds the statement that applies a mutation.
+     *
+     * @param record The mutation.
+     * @return The statement.
+     */
+    private static Write toWrite(JournalRecord record) {
+        String id = record.getId();
+        String book = BOOK + id;
+        String member = MEMBER + id;
+        return switch (record.getType()) {
+            case ADD_BOOK -> new Write(book, INSERT_BOOK, id, record.getField(0), record.getField(1), id);
+            case UPDATE_BOOK -> new Write(book, MERGE_BOOK, id, record.getField(0), record.getField(1),
+                    Boolean.parseBoolean(record.getField(2)), record.getField(3));
+            case DELETE_BOOK -> new Write(book, DELETE_BOOK, id);
+            case ADD_MEMBER -> new Write(member, INSERT_MEMBER, id, record.getField(0), record.getField(1), id);
+            case UPDATE_MEMBER -> new Write(member, MERGE_MEMBER, id, record.getField(0), record.getField(1));
+            case DELETE_MEMBER -> new Write(member, DELETE_MEMBER, id);
+            case CHECK_OUT -> new Write(book, CHECK_OUT, record.getField(0), id, record.getField(0));
+            case RETURN -> new Write(book, RETURN, id, record.getField(0));
+        };
+    }
+
+    /**
+     * A queued statement with its parameters, and the book or member whose row it changes.
+     */
+    private static final class Write {
+        private final String key;
+        private final String sql;
+        private final Object[] parameters;
+
+        private Write(String key, String sql, Object... parameters) {
+            this.key = key;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        private void bind(PreparedStatement statement) throws SQLException {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+        }
+    }
+}
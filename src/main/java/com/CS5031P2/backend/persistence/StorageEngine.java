@@ -0,0 +1,83 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Durable storage behind the library, chosen with {@code library.storage.engine}.
+ * The library keeps serving every read from memory; an engine loads the stored books and members at startup
+ * and is then handed every mutation, in the order it was applied, as a {@link JournalRecord}. Each record
+ * sets the state it describes, so an engine may apply a record more than once.
+ * An engine is loaded before anything else is called on it.
+ * Appending and syncing are split, so that a mutation can be appended while its locks are held and made
+ * durable after they are released, and so that a batch of mutations waits for one sync.
+ */
+public interface StorageEngine extends Closeable {
+
+    /**
+     * Loads the stored books and members into the library, replacing what it holds.
+     *
+     * @param library The library.
+     * @return True if anything was stored; if not, the caller restores the library's contents and seeds them.
+     * @throws IOException if the stored state cannot be read.
+     */
+    boolean load(LibraryLendingSystem library) throws IOException;
+
+    /**
+     * Writes the initial contents of an empty store and waits until they are durable.
+     *
+     * @param books   The books.
+     * @param members The members.
+     * @throws IOException if the contents cannot be made durable.
+     */
+    void seed(Collection<Book> books, Collection<Member> members) throws IOException;
+
+    /**
+     * Checks that the engine can store a mutation, before the library applies it, so that a mutation the
+     * engine would reject is turned away with memory unchanged. Engines that can store any mutation ignore it.
+     *
+     * @param record The mutation.
+     * @throws IllegalArgumentException if the engine cannot store the mutation.
+     */
+    default void check(JournalRecord record) {
+    }
+
+    /**
+     * Records a mutation without waiting for it to be durable.
+     *
+     * @param record The mutation.
+     * @return A sequence number to pass to {@link #sync(long)}; numbers increase with each record.
+     * @throws IOException if the engine has failed.
+     */
+    long append(JournalRecord record) throws IOException;
+
+    /**
+     * Waits until every mutation up to a sequence number is durable.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}.
+     * @throws IOException if the mutations could not be made durable.
+     */
+    void sync(long sequence) throws IOException;
+
+    /**
+     * Gets the sequence number of the most recently appended mutation.
+     *
+     * @return The last sequence number handed out, or 0 if there is none.
+     */
+    long getLastSequence();
+
+    /**
+     * Compacts or flushes the stored state. Called periodically and once more on shutdown, while mutations
+     * continue; engines with nothing to do ignore it.
+     *
+     * @param library The library, whose current version the engine may read.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    default void checkpoint(LibraryLendingSystem library) throws IOException {
+    }
+}
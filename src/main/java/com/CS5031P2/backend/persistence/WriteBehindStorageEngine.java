@@ -0,0 +1,383 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A storage engine that puts a local {@link Journal} in front of a slower engine, such as the embedded
+ * database, and writes to that engine behind the library's back.
+ * A mutation is acknowledged as soon as it is in the journal, so a checkout never waits for the backing
+ * engine. The IDs of changed books and members are collected meanwhile, so however often a book changes
+ * between flushes, only its latest state is written. A background thread flushes the changed books and members
+ * to the backing engine as one batch every flush interval, or sooner once a given number have changed, so the
+ * backing engine is never more than about one interval behind; the journal segments a flush covers are then
+ * discarded. At startup, whatever the journal still holds is replayed over the backing engine's contents and
+ * flushed again.
+ */
+public class WriteBehindStorageEngine implements StorageEngine {
+
+    /**
+     * Milliseconds between flushes, used when none is configured.
+     */
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    /**
+     * Number of changed books and members that triggers an early flush, used when none is configured.
+     */
+    public static final int DEFAULT_MAX_BATCH = 10_000;
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindStorageEngine.class);
+
+    private final StorageEngine backing;
+    private final Journal journal;
+    private final long flushMillis;
+    private final int maxBatch;
+    private final Set<String> dirtyBooks = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyMembers = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong oldestChangeNanos = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile boolean failing;
+    private volatile LibraryLendingSystem library;
+    private volatile ScheduledExecutorService flusher;
+
+    /**
+     * Constructs an engine that writes behind a backing engine, journaling to a directory.
+     *
+     * @param backing          The engine that is flushed to, which the new engine owns and closes.
+     * @param journalDirectory The directory of journal segments.
+     * @param segmentBytes     The size at which a journal segment is sealed and a new one started.
+     * @param flushMillis      The longest time between flushes.
+     * @param maxBatch         The number of changed books and members that triggers a flush before then.
+     */
+    public WriteBehindStorageEngine(StorageEngine backing, Path journalDirectory, long segmentBytes,
+                                    long flushMillis, int maxBatch) {
+        this.backing = backing;
+        this.journal = new Journal(journalDirectory, segmentBytes);
+        this.flushMillis = flushMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Loads the backing engine's contents, replays the journal over them, and starts flushing.
+     * Every book and member the journal touches is flushed again, as it may not have reached the backing
+     * engine before the last shutdown.
+     *
+     * @param library The library.
+     * @return True if the backing engine or the journal held anything.
+     * @throws IOException if the backing engine or the journal cannot be read.
+     */
+    @Override
+    public boolean load(LibraryLendingSystem library) throws IOException {
+        this.library = library;
+        boolean loaded = backing.load(library);
+        if (!loaded) {
+            library.setBooks(new ConcurrentHashMap<>());
+            library.setMembers(new ConcurrentHashMap<>());
+        }
+        long replayed = journal.recover(0, record -> {
+            library.apply(record);
+            markDirty(record);
+        });
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        return loaded || replayed > 0;
+    }
+
+    /**
+     * Writes the initial contents straight to the backing engine, which is empty.
+     *
+     * @param books   The books.
+     * @param members The members.
+     * @throws IOException if the backing engine cannot make them durable.
+     */
+    @Override
+    public void seed(Collection<Book> books, Collection<Member> members) throws IOException {
+        backing.seed(books, members);
+    }
+
+    /**
+     * Checks that the mutation can be written to the journal, and that the backing engine can store it, as it
+     * is only written there later.
+     *
+     * @param record The mutation.
+     * @throws IllegalArgumentException if a field is too long to journal or the backing engine cannot store
+     *                                  the mutation.
+     */
+    @Override
+    public void check(JournalRecord record) {
+        record.checkLength();
+        backing.check(record);
+    }
+
+    /**
+     * Notes the book or member a mutation changes and appends the mutation to the journal.
+     * Wakes the flusher early once enough books and members have changed.
+     *
+     * @param record The mutation.
+     * @return The journal sequence number of the record.
+     * @throws IOException if the journal is closed or has failed.
+     */
+    @Override
+    public long append(JournalRecord record) throws IOException {
+        // Marked before appending, so that a flush covering the record's sequence number also covers its change
+        markDirty(record);
+        long sequence = journal.append(record);
+        ScheduledExecutorService current = flusher;
+        if (current != null && getQueueDepth() >= maxBatch && flushRequested.compareAndSet(false, true)) {
+            current.execute(this::scheduledFlush);
+        }
+        return sequence;
+    }
+
+    /**
+     * Waits until the journal has forced every record up to a sequence number to disk, without waiting
+     * for the backing engine.
+     *
+     * @param sequence The sequence number returned by {@link #append(JournalRecord)}.
+     * @throws IOException if the journal could not make the records durable.
+     */
+    @Override
+    public void sync(long sequence) throws IOException {
+        journal.sync(sequence);
+    }
+
+    /**
+     * Gets the sequence number of the most recently appended journal record.
+     *
+     * @return The last sequence number.
+     */
+    @Override
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    /**
+     * Flushes every change so far, then checkpoints the backing engine.
+     *
+     * @param library The library.
+     * @throws IOException if the changes cannot be flushed or the checkpoint written.
+     */
+    @Override
+    public void checkpoint(LibraryLendingSystem library) throws IOException {
+        flush();
+        backing.checkpoint(library);
+    }
+
+    /**
+     * Stops the flusher, flushes every change so far, and closes the journal and the backing engine.
+     *
+     * @throws IOException if the changes cannot be flushed, in which case the journal keeps them, or if the
+     *                     journal or backing engine cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService current = flusher;
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        try {
+            if (library != null) {
+                flush();
+            }
+        } finally {
+            try {
+                journal.close();
+            } finally {
+                backing.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the latest state of every changed book and member to the backing engine as one batch, waits
+     * for it to be durable, and discards the journal segments it covers. If the backing engine fails, the
+     * books and members stay marked as changed and the journal keeps them, so a later flush tries again.
+     *
+     * @throws IOException if the backing engine fails.
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            // Every record up to here has already marked its book or member, so draining the marks covers them
+            long through = journal.getLastSequence();
+            long since = oldestChangeNanos.getAndSet(0);
+            List<String> bookIds = drain(dirtyBooks);
+            List<String> memberIds = drain(dirtyMembers);
+            if (bookIds.isEmpty() && memberIds.isEmpty()) {
+                return;
+            }
+
+            try {
+                // Members first, so that a backing engine that checks loans finds their borrowers
+                long last = 0;
+                for (String memberId : memberIds) {
+                    Member member = library.getMembers().get(memberId);
+                    last = backing.append(member == null
+                            ? new JournalRecord(JournalRecord.Type.DELETE_MEMBER, memberId)
+                            : JournalRecord.updateMember(member));
+                }
+                for (String bookId : bookIds) {
+                    Book book = library.getBooks().get(bookId);
+                    last = backing.append(book == null
+                            ? new JournalRecord(JournalRecord.Type.DELETE_BOOK, bookId)
+                            : JournalRecord.updateBook(book));
+                }
+                backing.sync(last);
+            } catch (IOException | RuntimeException e) {
+                dirtyBooks.addAll(bookIds);
+                dirtyMembers.addAll(memberIds);
+                oldestChangeNanos.compareAndSet(0, since);
+                failedFlushes.incrementAndGet();
+                failing = true;
+                throw e;
+            }
+
+            failing = false;
+            flushes.incrementAndGet();
+            flushed.addAndGet(bookIds.size() + memberIds.size());
+            journal.requestRoll();
+            journal.discardThrough(through);
+        }
+    }
+
+    /**
+     * Gets the number of changed books and members waiting to be flushed.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return dirtyBooks.size() + dirtyMembers.size();
+    }
+
+    /**
+     * Gets how far the backing engine is behind the journal.
+     *
+     * @return The milliseconds since the oldest change not yet flushed was made, or 0 if there is none.
+     */
+    public long getLagMillis() {
+        long since = oldestChangeNanos.get();
+        return since == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since);
+    }
+
+    /**
+     * Gets whether the most recent flush failed, so that the backing engine is falling behind until one succeeds.
+     *
+     * @return True if the last flush that had anything to write failed.
+     */
+    public boolean isFailing() {
+        return failing;
+    }
+
+    /**
+     * Gets the number of flushes the backing engine failed to take, whether scheduled or called directly.
+     *
+     * @return The number of failed flushes.
+     */
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    /**
+     * Gets the number of flushes that wrote anything.
+     *
+     * @return The number of flushes.
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * Gets the number of book and member states written to the backing engine.
+     *
+     * @return The number of states flushed.
+     */
+    public long getFlushed() {
+        return flushed.get();
+    }
+
+    /**
+     * Gets the number of mutations that were never written on their own, because the book or member they
+     * changed was already waiting to be flushed.
+     *
+     * @return The number of coalesced mutations.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Marks the book or member a mutation changes as waiting to be flushed.
+     *
+     * @param record The mutation.
+     */
+    private void markDirty(JournalRecord record) {
+        Set<String> dirty = switch (record.getType()) {
+            case ADD_MEMBER, UPDATE_MEMBER, DELETE_MEMBER -> dirtyMembers;
+            default -> dirtyBooks;
+        };
+        long now = System.nanoTime();
+        oldestChangeNanos.compareAndSet(0, now == 0 ? 1 : now);
+        if (!dirty.add(record.getId())) {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes and returns every ID in a set, leaving IDs added meanwhile for the next flush.
+     *
+     * @param dirty The set.
+     * @return The IDs removed.
+     */
+    private static List<String> drain(Set<String> dirty) {
+        List<String> ids = new ArrayList<>(dirty.size());
+        for (String id : dirty) {
+            if (dirty.remove(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Flushes on the flusher thread, logging rather than propagating failures so that later runs still happen.
+     */
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.error("Write-behind flush failed, {} changes pending", getQueueDepth(), e);
+        }
+    }
+}
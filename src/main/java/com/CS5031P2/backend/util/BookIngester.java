@@ -0,0 +1,284 @@
+package com.CS5031P2.backend.util;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingests a stream of books, such as the body of a bulk upload, into the library.
+ * The stream is either a JSON array of objects or newline-delimited JSON, and is parsed a token at a time,
+ * so only one batch of books is held in memory however long it is. Each record is validated, valid books
+ * are added a batch at a time (one journal sync per batch), and invalid records are reported by position
+ * without stopping the rest. Books without a {@code bookId} get the same content-derived ID as in a
+ * catalogue import, so sending the same batch twice adds nothing new.
+ */
+public class BookIngester {
+    /**
+     * Default number of books added to the library at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+
+    /**
+     * Largest number of record errors listed in a result; any more are only counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int batchSize;
+
+    /**
+     * Constructs a new BookIngester.
+     *
+     * @param batchSize The number of books added to the library at once.
+     */
+    public BookIngester(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads every book in a stream and adds the valid ones to the library.
+     * If the stream stops being valid JSON, ingestion stops there; the books before it are still added.
+     *
+     * @param in      The stream, which is not closed.
+     * @param library The library to add the books to.
+     * @return A summary of the ingest.
+     * @throws IOException if the stream cannot be read.
+     */
+    public IngestResult ingest(InputStream in, LibraryLendingSystem library) throws IOException {
+        long start = System.nanoTime();
+        IngestResult result = new IngestResult();
+        List<Book> batch = new ArrayList<>(batchSize);
+        Map<String, Object> entry = new HashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            // An array ends at its closing bracket; newline-delimited JSON ends with the stream
+            while (token != null && token != JsonToken.END_ARRAY) {
+                int index = result.records++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    result.error(index, "Expected a JSON object");
+                } else {
+                    entry.clear();
+                    DataParser.readFields(parser, entry);
+                    Book book = toBook(entry, occurrences, index, result);
+                    if (book != null) {
+                        batch.add(book);
+                        if (batch.size() >= batchSize) {
+                            flush(batch, library, result);
+                        }
+                    }
+                }
+                token = parser.nextToken();
+            }
+            if (array && token == null) {
+                result.abort("Unexpected end of input inside the JSON array");
+            }
+        } catch (JsonProcessingException e) {
+            result.abort("Invalid JSON after record " + result.records + ": " + e.getOriginalMessage());
+        }
+
+        flush(batch, library, result);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Validates one record and builds its book.
+     *
+     * @param entry       The record's fields.
+     * @param occurrences The number of books seen so far with each title and author, for deriving IDs.
+     * @param index       The position of the record in the stream.
+     * @param result      The result to report a validation error to.
+     * @return The book, or null if the record is invalid.
+     */
+    private static Book toBook(Map<String, Object> entry, Map<String, Integer> occurrences, int index,
+                               IngestResult result) {
+        Object title = entry.get("title");
+        Object author = entry.get("author");
+        Object bookId = entry.get("bookId");
+        if (!(title instanceof String) || ((String) title).isBlank()) {
+            result.error(index, "Missing title");
+            return null;
+        }
+        if (!(author instanceof String) || ((String) author).isBlank()) {
+            result.error(index, "Missing author");
+            return null;
+        }
+        if (bookId != null && (!(bookId instanceof String) || ((String) bookId).isBlank())) {
+            result.error(index, "bookId must be a non-empty string");
+            return null;
+        }
+
+        if (bookId == null) {
+            String key = title + "\u0000" + author;
+            int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+            bookId = DeterministicId.forBook((String) title, (String) author, occurrence);
+        }
+        return new Book((String) bookId, (String) title, (String) author);
+    }
+
+    /**
+     * Adds a batch of books to the library and empties it.
+     *
+     * @param batch   The books.
+     * @param library The library.
+     * @param result  The result to count the books in.
+     */
+    private static void flush(List<Book> batch, LibraryLendingSystem library, IngestResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int added = library.addBooks(batch);
+        result.added += added;
+        result.duplicates += batch.size() - added;
+        batch.clear();
+    }
+
+    /**
+     * A record that could not be ingested.
+     */
+    public static class RecordError {
+        private final int index;
+        private final String message;
+
+        RecordError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        /**
+         * Gets the position of the record in the stream, counting from 0.
+         *
+         * @return The record index.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets what was wrong with the record.
+         *
+         * @return The error message.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Summary of an ingest.
+     */
+    public static class IngestResult {
+        private int records;
+        private int added;
+        private int duplicates;
+        private int failed;
+        private final List<RecordError> errors = new ArrayList<>();
+        private String abortedReason;
+        private long elapsedNanos;
+
+        /**
+         * Gets the number of records read from the stream.
+         *
+         * @return The record count.
+         */
+        public int getRecords() {
+            return records;
+        }
+
+        /**
+         * Gets the number of books added.
+         *
+         * @return The number of books added.
+         */
+        public int getAdded() {
+            return added;
+        }
+
+        /**
+         * Gets the number of valid books skipped because their ID was already in the library.
+         *
+         * @return The number of duplicates.
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * Gets the number of invalid records.
+         *
+         * @return The number of invalid records.
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * Gets the first {@link #MAX_REPORTED_ERRORS} invalid records.
+         *
+         * @return The errors, in stream order.
+         */
+        public List<RecordError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Gets why ingestion stopped before the end of the stream.
+         *
+         * @return The reason, or null if the whole stream was read.
+         */
+        public String getAbortedReason() {
+            return abortedReason;
+        }
+
+        /**
+         * Gets the ingest throughput.
+         *
+         * @return The number of records read per second.
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        private void error(int index, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RecordError(index, message));
+            }
+        }
+
+        private void abort(String reason) {
+            abortedReason = reason;
+        }
+
+        /**
+         * Returns a one-line summary of the ingest.
+         *
+         * @return A string representation of the result.
+         */
+        @Override
+        public String toString() {
+            return String.format("Ingested %d records (%d new, %d duplicates, %d invalid) in %d ms, %.0f records/s",
+                    records, added, duplicates, failed, elapsedNanos / 1_000_000, getRecordsPerSecond());
+        }
+    }
+}
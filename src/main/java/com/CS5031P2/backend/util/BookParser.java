@@ -3,13 +3,17 @@ package com.CS5031P2.backend.util;
 import com.CS5031P2.backend.model.Book;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Utility class for parsing book data from JSON files.
+ * A book keeps the {@code bookId} given in the file; a book without one gets an ID derived from its title,
+ * author and occurrence number, so that loading the same file again gives every book the same ID.
  */
-public class BookParser extends DataParser {
+public class BookParser extends DataParser<Book> {
+    private final Map<String, Integer> occurrences = new HashMap<>();
 
     /**
      * Parses a JSON object representing a book and adds it to the map of parsed objects.
@@ -18,25 +22,38 @@ public class BookParser extends DataParser {
      * @param entry        the JSON object representing a book to parse
      */
     @Override
-    protected void parseObject(Map<String, Object> parseObjects, Map<String, Object> entry) {
+    protected void parseObject(Map<String, Book> parseObjects, Map<String, Object> entry) {
         String title = (String) entry.get("title");
         String author = (String) entry.get("author");
-        Book book = new Book(title, author);
-        parseObjects.put(book.getBookId(), book);
+        String bookId = entry.get("bookId") instanceof String id && !id.isBlank() ? id : null;
+        if (bookId == null) {
+            int occurrence = occurrences.merge(title + '\u0000' + author, 1, Integer::sum) - 1;
+            bookId = DeterministicId.forBook(title, author, occurrence);
+        }
+        parseObjects.put(bookId, new Book(bookId, title, author));
     }
 
     /**
      * Parses books from a JSON file and returns them as a map.
      *
-     * @return a map containing the parsed books
+     * @param filename the name of the JSON file to parse
+     * @return a concurrent map containing the parsed books
      * @throws IOException if an I/O error occurs while reading the file
      */
     public Map<String, Book> parseBooks(String filename) throws IOException {
-        Map<String, Object> parsedObjects = parseObjects(filename);
+        occurrences.clear();
+        return parseObjects(filename);
+    }
 
-        return parsedObjects.entrySet().stream()
-                .collect(HashMap::new,
-                        (result, entry) -> result.put(entry.getKey(), (Book) entry.getValue()),
-                        HashMap::putAll);
+    /**
+     * Parses books from a stream of JSON, such as a classpath resource, and returns them as a map.
+     *
+     * @param in the stream to parse, which the caller must close
+     * @return a concurrent map containing the parsed books
+     * @throws IOException if an I/O error occurs while reading the stream
+     */
+    public Map<String, Book> parseBooks(InputStream in) throws IOException {
+        occurrences.clear();
+        return parseObjects(in);
     }
 }
@@ -0,0 +1,59 @@
+package com.CS5031P2.backend.util;
+
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Component that imports a large catalogue file in parallel once the application has started.
+ * The import runs only when {@code library.import.file} is set.
+ */
+@Component
+public class CatalogueImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueImportRunner.class);
+
+    @Autowired
+    LibraryLendingSystem libraryLendingSystem;
+
+    @Value("${library.import.file:}")
+    String importFile;
+
+    @Value("${library.import.chunk-bytes:" + CatalogueImporter.DEFAULT_CHUNK_BYTES + "}")
+    int chunkBytes;
+
+    @Value("${library.import.parallelism:0}")
+    int parallelism;
+
+    /**
+     * Imports the configured catalogue file, if any, and reports the throughput.
+     *
+     * @param args The application arguments (unused).
+     * @throws IOException if the catalogue cannot be read.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (importFile == null || importFile.isBlank()) {
+            return;
+        }
+
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        try {
+            CatalogueImporter.ImportResult result =
+                    new CatalogueImporter(pool, chunkBytes).importBooks(importFile, libraryLendingSystem);
+            log.info("{} from {}", result, importFile);
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.CS5031P2.backend.util;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Imports large book catalogues in parallel.
+ * The file, either a JSON array of objects or newline-delimited JSON, is first scanned once to find
+ * byte ranges that each hold a run of whole top-level objects. The ranges are parsed concurrently on a
+ * ForkJoinPool, each straight from its memory-mapped region of the file, and the results are merged
+ * into the library in file order.
+ * Books without a {@code bookId} are given an ID derived from their content, so re-importing the same
+ * catalogue adds nothing new.
+ */
+public class CatalogueImporter {
+    /**
+     * Default target size of each parsed chunk.
+     */
+    public static final int DEFAULT_CHUNK_BYTES = 8 * 1024 * 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final byte[] OPEN_ARRAY = {'['};
+    private static final byte[] CLOSE_ARRAY = {']'};
+    private static final int SCAN_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    /**
+     * Constructs a new CatalogueImporter.
+     *
+     * @param pool       The pool the chunks are parsed on.
+     * @param chunkBytes The target size of each chunk; chunks end at the first object boundary past it.
+     */
+    public CatalogueImporter(ForkJoinPool pool, int chunkBytes) {
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Imports the books in a catalogue file into the library, skipping books whose ID is already present.
+     *
+     * @param file    The catalogue file.
+     * @param library The library to import into.
+     * @return A summary of the import.
+     * @throws IOException if the file cannot be read or is not valid JSON.
+     */
+    public ImportResult importBooks(String file, LibraryLendingSystem library) throws IOException {
+        long start = System.nanoTime();
+        List<Book> books = parseBooks(file);
+        int added = library.addBooks(books);
+        return new ImportResult(books.size(), added, System.nanoTime() - start);
+    }
+
+    /**
+     * Parses all books in a catalogue file, in file order.
+     *
+     * @param file The catalogue file.
+     * @return The parsed books, each with its ID set.
+     * @throws IOException if the file cannot be read or is not valid JSON.
+     */
+    public List<Book> parseBooks(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            Chunking chunking = split(channel);
+
+            List<ForkJoinTask<List<Book>>> tasks = new ArrayList<>(chunking.ranges.size());
+            for (long[] range : chunking.ranges) {
+                tasks.add(pool.submit(() -> parseChunk(channel, range[0], range[1], chunking.array)));
+            }
+
+            List<Book> books = new ArrayList<>();
+            for (ForkJoinTask<List<Book>> task : tasks) {
+                books.addAll(task.get());
+            }
+            assignIds(books);
+            return books;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to import " + file, e.getCause());
+        }
+    }
+
+    /**
+     * Scans the file for top-level objects and groups them into ranges of about {@code chunkBytes}.
+     * The scan tracks strings and nesting depth only, which is much cheaper than parsing, so that the
+     * real parsing can be spread over several threads. The file is scanned through memory-mapped windows.
+     *
+     * @param channel The file.
+     * @return The chunk ranges and the file format.
+     * @throws IOException if the file cannot be read or does not start with an array or object.
+     */
+    Chunking split(FileChannel channel) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        long size = channel.size();
+
+        int topDepth = -1;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long chunkStart = -1;
+        long lastObjectEnd = -1;
+        long position = 0;
+
+        while (position < size) {
+            int limit = (int) Math.min(SCAN_WINDOW_BYTES, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, limit);
+
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+
+                if (topDepth < 0) {
+                    // The first structural character decides the format
+                    if (b == '[') {
+                        topDepth = 1;
+                    } else if (b == '{') {
+                        topDepth = 0;
+                    } else if (!Character.isWhitespace(b)) {
+                        throw new IOException("Catalogue must be a JSON array or newline-delimited JSON");
+                    }
+                }
+
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> {
+                        if (depth == topDepth && b == '{' && chunkStart < 0) {
+                            chunkStart = position + i;
+                        }
+                        depth++;
+                    }
+                    case '}', ']' -> {
+                        depth--;
+                        if (depth == topDepth && b == '}') {
+                            lastObjectEnd = position + i + 1;
+                            if (chunkStart >= 0 && lastObjectEnd - chunkStart >= chunkBytes) {
+                                ranges.add(new long[] {chunkStart, lastObjectEnd});
+                                chunkStart = -1;
+                            }
+                        }
+                    }
+                    default -> { }
+                }
+            }
+
+            position += limit;
+        }
+
+        if (depth != 0 || inString) {
+            throw new IOException("Catalogue ends in the middle of a record");
+        }
+        if (chunkStart >= 0) {
+            ranges.add(new long[] {chunkStart, lastObjectEnd});
+        }
+        return new Chunking(ranges, topDepth == 1);
+    }
+
+    /**
+     * Parses one chunk of the file into books without IDs (unless the record carries one).
+     *
+     * @param channel The file.
+     * @param start   The offset of the chunk's first object.
+     * @param end     The offset just past the chunk's last object.
+     * @param array   Whether the file is a JSON array, in which case the objects are comma-separated.
+     * @return The books in the chunk, in file order.
+     * @throws IOException if the chunk cannot be read or parsed.
+     */
+    private static List<Book> parseChunk(FileChannel channel, long start, long end, boolean array) throws IOException {
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        InputStream in = new ByteBufferBackedInputStream(chunk);
+        if (array) {
+            // Wrap array chunks in brackets so the comma-separated objects parse as one array
+            in = new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(OPEN_ARRAY), in, new ByteArrayInputStream(CLOSE_ARRAY))));
+        }
+
+        List<Book> books = new ArrayList<>();
+        Map<String, Object> entry = new HashMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    continue;
+                }
+                entry.clear();
+                DataParser.readFields(parser, entry);
+                String bookId = entry.get("bookId") instanceof String id && !id.isBlank() ? id : null;
+                books.add(new Book(bookId, (String) entry.get("title"), (String) entry.get("author")));
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Gives every book without an ID one derived from its title, author and occurrence number.
+     *
+     * @param books The books, in file order.
+     */
+    private static void assignIds(List<Book> books) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (Book book : books) {
+            if (book.getBookId() == null) {
+                String key = book.getTitle() + '\u0000' + book.getAuthor();
+                int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+                book.setBookId(DeterministicId.forBook(book.getTitle(), book.getAuthor(), occurrence));
+            }
+        }
+    }
+
+    /**
+     * The byte ranges a catalogue file was split into.
+     */
+    static class Chunking {
+        final List<long[]> ranges;
+        final boolean array;
+
+        Chunking(List<long[]> ranges, boolean array) {
+            this.ranges = ranges;
+            this.array = array;
+        }
+    }
+
+    /**
+     * Summary of a catalogue import.
+     */
+    public static class ImportResult {
+        private final int records;
+        private final int added;
+        private final long elapsedNanos;
+
+        ImportResult(int records, int added, long elapsedNanos) {
+            this.records = records;
+            this.added = added;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the number of records read from the file.
+         *
+         * @return The record count.
+         */
+        public int getRecords() {
+            return records;
+        }
+
+        /**
+         * Gets the number of books added, excluding those already in the library.
+         *
+         * @return The number of books added.
+         */
+        public int getAdded() {
+            return added;
+        }
+
+        /**
+         * Gets the import throughput.
+         *
+         * @return The number of records read per second.
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Returns a one-line summary of the import.
+         *
+         * @return A string representation of the result.
+         */
+        @Override
+        public String toString() {
+            return String.format("Imported %d records (%d new) in %d ms, %.0f records/s",
+                    records, added, elapsedNanos / 1_000_000, getRecordsPerSecond());
+        }
+    }
+}
@@ -1,47 +1,135 @@
 package com.CS5031P2.backend.util;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for parsing data from JSON files.
+ * Files are read as a stream of tokens, one array element at a time, so only the current
+ * element is held in memory alongside the map of parsed objects.
+ * Newline-delimited JSON files ({@code .ndjson} or {@code .jsonl}) are read through a memory mapping instead.
+ *
+ * @param <T> the type of object built from each JSON element
  */
-public class DataParser {
+public class DataParser<T> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Rough size of one pretty-printed element, used to pre-size the result map from the file size.
+     */
+    private static final int ESTIMATED_BYTES_PER_OBJECT = 96;
 
     /**
      * Parses JSON objects from a file and returns them as a map.
+     * The file must contain a JSON array of objects; each object's scalar fields are passed to
+     * {@link #parseObject(Map, Map)}, and nested objects or arrays are skipped.
      *
      * @param file the name of the JSON file to parse
-     * @return a map containing the parsed JSON objects
-     * @throws IOException if an I/O error occurs while reading the file
+     * @return a concurrent map containing the parsed objects
+     * @throws IOException if an I/O error occurs while reading the file or the file is not a JSON array
+     */
+    protected Map<String, T> parseObjects(String file) throws IOException {
+        if (file.endsWith(".ndjson") || file.endsWith(".jsonl")) {
+            return parseRecords(file);
+        }
+
+        try (InputStream in = FileUtil.openStream(file)) {
+            return parseObjects(in);
+        }
+    }
+
+    /**
+     * Parses JSON objects from a stream, such as a classpath resource, and returns them as a map.
+     * The stream must contain a JSON array of objects, read as for {@link #parseObjects(String)}.
+     *
+     * @param in the stream to parse, which the caller must close
+     * @return a concurrent map containing the parsed objects
+     * @throws IOException if an I/O error occurs while reading the stream or it is not a JSON array
      */
-    protected Map<String, Object> parseObjects(String file) throws IOException {
-        Map<String, Object> parsedObjects = new HashMap<>();
+    protected Map<String, T> parseObjects(InputStream in) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            // For files, available() is the number of bytes left, which gives a good enough size hint
+            int expectedObjects = Math.max(16, in.available() / ESTIMATED_BYTES_PER_OBJECT);
+            Map<String, T> parsedObjects = new ConcurrentHashMap<>(expectedObjects);
 
-        // Read the content of the JSON file
-        String jsonContent = FileUtil.readFile(file);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of objects");
+            }
 
-        // Convert JSON content to a list of objects
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<Map<String, Object>> jsonNodes = objectMapper.readValue(jsonContent, new TypeReference<>() {});
+            Map<String, Object> entry = new HashMap<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                entry.clear();
+                readFields(parser, entry);
+                parseObject(parsedObjects, entry);
+            }
 
-        for (Map<String, Object> jsonNode : jsonNodes) {
-            parseObject(parsedObjects, jsonNode);
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected only objects in the JSON array");
+            }
+            return parsedObjects;
         }
+    }
+
+    /**
+     * Parses a newline-delimited JSON file with one object per line.
+     * Each line is parsed straight from its slice of the memory-mapped file.
+     *
+     * @param file the name of the newline-delimited JSON file to parse
+     * @return a concurrent map containing the parsed objects
+     * @throws IOException if an I/O error occurs while reading the file or a line is not a JSON object
+     */
+    private Map<String, T> parseRecords(String file) throws IOException {
+        Map<String, T> parsedObjects = new ConcurrentHashMap<>();
+        Map<String, Object> entry = new HashMap<>();
 
+        FileUtil.forEachRecord(file, record -> {
+            try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufferBackedInputStream(record))) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected a JSON object on each line");
+                }
+                entry.clear();
+                readFields(parser, entry);
+                parseObject(parsedObjects, entry);
+            }
+        });
         return parsedObjects;
     }
 
+    /**
+     * Reads the scalar fields of the current JSON object into a map, leaving the parser on its end token.
+     *
+     * @param parser the parser, positioned on the object's start token
+     * @param entry  the map to fill with field names and values
+     * @throws IOException if the JSON is malformed
+     */
+    static void readFields(JsonParser parser, Map<String, Object> entry) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (value) {
+                case VALUE_STRING -> entry.put(name, parser.getText());
+                case VALUE_TRUE, VALUE_FALSE -> entry.put(name, parser.getBooleanValue());
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> entry.put(name, parser.getNumberValue());
+                case VALUE_NULL -> entry.put(name, null);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
     /**
      * Parses a single JSON object map and adds it to the map of parsed objects.
      *
      * @param parseObjects the map of parsed objects
      * @param entry        the JSON object map to parse
      */
-    protected void parseObject(Map<String, Object> parseObjects, Map<String, Object> entry) {}
+    protected void parseObject(Map<String, T> parseObjects, Map<String, Object> entry) {}
 }
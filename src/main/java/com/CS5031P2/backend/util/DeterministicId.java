@@ -0,0 +1,51 @@
+package com.CS5031P2.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Utility class for deriving stable IDs from the content of loaded or imported records.
+ * The same record loaded twice gets the same ID, so restarts keep IDs and re-importing a catalogue does not
+ * duplicate it.
+ * Identical records (e.g. several copies of one book) are told apart by their occurrence number.
+ */
+public class DeterministicId {
+
+    /**
+     * Derives the ID of a book from its content.
+     *
+     * @param title      The title of the book.
+     * @param author     The author of the book.
+     * @param occurrence How many books with the same title and author came before this one.
+     * @return A name-based UUID string for the book.
+     */
+    public static String forBook(String title, String author, int occurrence) {
+        return derive("book", title, author, occurrence);
+    }
+
+    /**
+     * Derives the ID of a member from their details.
+     *
+     * @param name       The name of the member.
+     * @param address    The address of the member.
+     * @param occurrence How many members with the same name and address came before this one.
+     * @return A name-based UUID string for the member.
+     */
+    public static String forMember(String name, String address, int occurrence) {
+        return derive("member", name, address, occurrence);
+    }
+
+    /**
+     * Builds a name-based UUID from a record kind and its fields.
+     *
+     * @param kind       The kind of record, so that a book and a member never share an ID.
+     * @param first      The first identifying field.
+     * @param second     The second identifying field.
+     * @param occurrence The occurrence number of the record.
+     * @return The UUID string.
+     */
+    private static String derive(String kind, String first, String second, int occurrence) {
+        String name = kind + '\u0000' + first + '\u0000' + second + '\u0000' + occurrence;
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -1,31 +1,139 @@
 package com.CS5031P2.backend.util;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Utility class for reading files from the resources folder.
  */
 public class FileUtil {
+    /**
+     * Default size of the region of a file mapped into memory at a time.
+     */
+    static final int MAP_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Receives the records of a newline-delimited file.
+     */
+    public interface RecordConsumer {
+        /**
+         * Handles one record.
+         *
+         * @param record A read-only view of the record's bytes, without the line terminator.
+         * @throws IOException if the record cannot be handled.
+         */
+        void accept(ByteBuffer record) throws IOException;
+    }
 
     /**
      * Reads the content of a file from the resources folder.
      *
      * @param filename The name of the file to read.
-     * @return The content of the file as a string.
+     * @return The content of the file as a string, decoded as UTF-8 with line breaks preserved.
      * @throws IOException if an I/O error occurs while reading the file
      */
     public static String readFile(String filename) throws IOException {
-        FileReader fileReader = new FileReader(filename);
-        BufferedReader bufferedReader = new BufferedReader(fileReader);
-        StringBuilder stringBuilder = new StringBuilder();
+        return Files.readString(Path.of(filename), StandardCharsets.UTF_8);
+    }
 
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            stringBuilder.append(line);
+    /**
+     * Opens a file for streaming its raw bytes, without reading it into memory.
+     *
+     * @param filename The name of the file to open.
+     * @return An input stream over the file's content, which the caller must close.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static InputStream openStream(String filename) throws IOException {
+        return Files.newInputStream(Path.of(filename));
+    }
+
+    /**
+     * Passes each non-blank line of a newline-delimited file to the consumer, in order.
+     * The file is memory-mapped a window at a time and each record is handed over as a slice of the
+     * mapping, so no bytes are copied onto the heap and memory use does not grow with the file size.
+     *
+     * @param filename The name of the file to read.
+     * @param consumer The consumer of each record.
+     * @return The number of records read.
+     * @throws IOException if the file cannot be read or the consumer fails.
+     */
+    public static long forEachRecord(String filename, RecordConsumer consumer) throws IOException {
+        return forEachRecord(filename, MAP_WINDOW_BYTES, consumer);
+    }
+
+    /**
+     * Passes each non-blank line of a newline-delimited file to the consumer, mapping the given number of
+     * bytes at a time. A record longer than the window makes the window grow to fit it.
+     *
+     * @param filename    The name of the file to read.
+     * @param windowBytes The size of each mapped region.
+     * @param consumer    The consumer of each record.
+     * @return The number of records read.
+     * @throws IOException if the file cannot be read or the consumer fails.
+     */
+    static long forEachRecord(String filename, int windowBytes, RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long records = 0;
+            int window = windowBytes;
+
+            while (position < size) {
+                int length = (int) Math.min(window, size - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (mapped.get(i) == '\n') {
+                        records += emit(mapped, lineStart, i, consumer);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lastWindow) {
+                    records += emit(mapped, lineStart, length, consumer);
+                    break;
+                }
+                if (lineStart == 0) {
+                    // No line ends in this window, so map a larger one from the same place
+                    if (window == Integer.MAX_VALUE) {
+                        throw new IOException("Record too long in " + filename);
+                    }
+                    window = (int) Math.min(Integer.MAX_VALUE, 2L * window);
+                    continue;
+                }
+                position += lineStart;
+            }
+            return records;
         }
+    }
 
-        return stringBuilder.toString();
+    /**
+     * Passes the record between two offsets of a mapping to the consumer, unless it is blank.
+     *
+     * @param mapped   The mapped region.
+     * @param start    The offset of the record's first byte.
+     * @param end      The offset just past the record's last byte.
+     * @param consumer The consumer of the record.
+     * @return 1 if a record was passed on, 0 if the line was blank.
+     * @throws IOException if the consumer fails.
+     */
+    private static int emit(MappedByteBuffer mapped, int start, int end, RecordConsumer consumer) throws IOException {
+        for (int i = start; i < end; i++) {
+            byte b = mapped.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                consumer.accept(mapped.slice(start, end - start).asReadOnlyBuffer());
+                return 1;
+            }
+        }
+        return 0;
     }
 }
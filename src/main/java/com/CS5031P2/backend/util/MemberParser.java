@@ -3,13 +3,17 @@ package com.CS5031P2.backend.util;
 import com.CS5031P2.backend.model.Member;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Utility class for parsing member data from JSON files.
+ * A member keeps the {@code memberId} given in the file; a member without one gets an ID derived from their
+ * name, address and occurrence number, so that loading the same file again gives every member the same ID.
  */
-public class MemberParser extends DataParser {
+public class MemberParser extends DataParser<Member> {
+    private final Map<String, Integer> occurrences = new HashMap<>();
 
     /**
      * Parses a JSON object representing a member and adds it to the map of parsed objects.
@@ -18,25 +22,38 @@ public class MemberParser extends DataParser {
      * @param entry        the JSON object representing a member to parse
      */
     @Override
-    protected void parseObject(Map<String, Object> parseObjects, Map<String, Object> entry) {
+    protected void parseObject(Map<String, Member> parseObjects, Map<String, Object> entry) {
         String name = (String) entry.get("name");
         String address = (String) entry.get("address");
-        Member member = new Member(name, address);
-        parseObjects.put(member.getMemberId(), member);
+        String memberId = entry.get("memberId") instanceof String id && !id.isBlank() ? id : null;
+        if (memberId == null) {
+            int occurrence = occurrences.merge(name + '\u0000' + address, 1, Integer::sum) - 1;
+            memberId = DeterministicId.forMember(name, address, occurrence);
+        }
+        parseObjects.put(memberId, new Member(memberId, name, address));
     }
 
     /**
      * Parses members from a JSON file and returns them as a map.
      *
-     * @return a map containing the parsed members
+     * @param filename the name of the JSON file to parse
+     * @return a concurrent map containing the parsed members
      * @throws IOException if an I/O error occurs while reading the file
      */
     public Map<String, Member> getParsedMembers(String filename) throws IOException {
-        Map<String, Object> parsedObjects = parseObjects(filename);
+        occurrences.clear();
+        return parseObjects(filename);
+    }
 
-        return parsedObjects.entrySet().stream()
-                .collect(HashMap::new,
-                        (result, entry) -> result.put(entry.getKey(), (Member) entry.getValue()),
-                        HashMap::putAll);
+    /**
+     * Parses members from a stream of JSON, such as a classpath resource, and returns them as a map.
+     *
+     * @param in the stream to parse, which the caller must close
+     * @return a concurrent map containing the parsed members
+     * @throws IOException if an I/O error occurs while reading the stream
+     */
+    public Map<String, Member> getParsedMembers(InputStream in) throws IOException {
+        occurrences.clear();
+        return parseObjects(in);
     }
 }
@@ -0,0 +1,557 @@
+package com.CS5031P2.backend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A store of records held outside the Java heap, for collections of tens of millions of records whose objects
+ * would otherwise make every full collection pause for seconds.
+ * Each record is an ID, a fixed number of string fields and one flag, laid out in {@value #RECORD_SIZE} bytes
+ * of a direct buffer, or of a memory-mapped file so that the records survive restarts. Records are found by
+ * ID through an open-addressing table of record numbers, each beside the hash of its ID so that probes skip
+ * other IDs without reading their records. The table is itself in a direct buffer, and is rebuilt by scanning
+ * the records when a file is opened. The heap holds only the list of buffers, however many records there are.
+ * Records are split into segments mapped one at a time, so the store is not limited to the 2 GB of a single
+ * buffer. A replaced record is rewritten in place, and a removed record is kept for its ID and reused if the
+ * ID is added again. Each record's state is written last, so a record interrupted by a crash is either whole
+ * or ignored, but only {@link #force()} and {@link #close()} guarantee that changes are on disk.
+ * All methods are synchronized.
+ */
+public class OffHeapRecordStore implements Closeable {
+    /**
+     * Bytes in each record, including a header of two bytes plus two per string.
+     */
+    public static final int RECORD_SIZE = 512;
+
+    /**
+     * Records mapped at a time when none is given: 32 MB.
+     */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 16;
+
+    private static final long MAGIC = 0x4C4C53424F4F4B53L;
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+
+    // Record states
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte REMOVED = 2;
+
+    // Record layout: the state, the flag, the length of the ID and of each field, then the strings in that order
+    private static final int STATE = 0;
+    private static final int FLAG = 1;
+    private static final int LENGTHS = 2;
+
+    // Record 0 describes the file rather than holding a record
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 8;
+    private static final int HEADER_RECORD_SIZE = 12;
+    private static final int HEADER_FIELDS = 16;
+
+    private final FileChannel channel;
+    private final int fields;
+    private final int data;
+    private final int recordsPerSegment;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private LongBuffer table;
+    private int records;
+    private int size;
+
+    /**
+     * Builds a value from a record.
+     *
+     * @param <T> The type of value.
+     */
+    @FunctionalInterface
+    public interface RecordReader<T> {
+        /**
+         * Builds a value from a record.
+         *
+         * @param id     The record's ID.
+         * @param fields The record's fields, any of which may be null.
+         * @param flag   The record's flag.
+         * @return The value.
+         */
+        T read(String id, String[] fields, boolean flag);
+    }
+
+    /**
+     * Constructs an empty store in direct buffers, which is lost when the store is garbage collected.
+     *
+     * @param fields The number of fields in each record.
+     */
+    public OffHeapRecordStore(int fields) {
+        this.channel = null;
+        this.fields = fields;
+        this.data = LENGTHS + 2 * (fields + 1);
+        this.recordsPerSegment = DEFAULT_RECORDS_PER_SEGMENT;
+        writeHeader();
+        open();
+    }
+
+    /**
+     * Opens a store in a file, creating the file if it does not exist.
+     *
+     * @param file   The file.
+     * @param fields The number of fields in each record.
+     * @throws IOException if the file cannot be opened or is not a store of records with that many fields.
+     */
+    public OffHeapRecordStore(Path file, int fields) throws IOException {
+        this(file, fields, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens a store in a file, mapping a given number of records at a time.
+     *
+     * @param file              The file.
+     * @param fields            The number of fields in each record.
+     * @param recordsPerSegment The number of records in each mapped segment.
+     * @throws IOException if the file cannot be opened or is not a store of records with that many fields.
+     */
+    public OffHeapRecordStore(Path file, int fields, int recordsPerSegment) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fields = fields;
+        this.data = LENGTHS + 2 * (fields + 1);
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            long segmentBytes = (long) recordsPerSegment * RECORD_SIZE;
+            boolean created = channel.size() == 0;
+            long existing = Math.max(1, (channel.size() + segmentBytes - 1) / segmentBytes);
+            for (long i = 0; i < existing; i++) {
+                addSegment();
+            }
+            if (created) {
+                writeHeader();
+            } else if (!hasHeader()) {
+                throw new IOException("Not a record store of this version with " + fields + " fields: " + file);
+            }
+            open();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a record, or replaces the record with the same ID in place.
+     *
+     * @param id     The ID.
+     * @param values The fields, any of which may be null.
+     * @param flag   The flag.
+     * @throws IllegalArgumentException if the ID is null, the number of fields is wrong, or the strings do not
+     *                                  fit in a record.
+     */
+    public synchronized void put(String id, String[] values, boolean flag) {
+        checkShape(id, values);
+        byte[][] strings = new byte[fields + 1][];
+        strings[0] = encode(id);
+        int length = data + strings[0].length;
+        for (int i = 0; i < fields; i++) {
+            strings[i + 1] = encode(values[i]);
+            length += strings[i + 1] == null ? 0 : strings[i + 1].length;
+        }
+        if (length > RECORD_SIZE) {
+            throw new IllegalArgumentException("Record does not fit in " + RECORD_SIZE + " bytes: " + id);
+        }
+
+        int record = find(id, strings[0]);
+        boolean added = record == NONE;
+        if (added) {
+            record = records;
+            ensureRecord(record);
+        }
+        ByteBuffer segment = segmentOf(record);
+        int offset = offsetOf(record);
+        boolean wasLive = segment.get(offset + STATE) == LIVE;
+        if (wasLive) {
+            // Readers are locked out, but a crash mid-write must not leave a live record half rewritten
+            segment.put(offset + STATE, REMOVED);
+        }
+        int position = offset + data;
+        for (int i = 0; i <= fields; i++) {
+            byte[] string = strings[i];
+            if (string != null) {
+                segment.put(position, string);
+                position += string.length;
+            }
+            segment.putShort(offset + LENGTHS + 2 * i, (short) (string == null ? NONE : string.length));
+        }
+        segment.put(offset + FLAG, (byte) (flag ? 1 : 0));
+        segment.put(offset + STATE, LIVE);
+        if (added) {
+            records++;
+            insert(record, id.hashCode());
+        }
+        if (!wasLive) {
+            size++;
+        }
+    }
+
+    /**
+     * Gets the number of bytes a record would take, so that callers can check that it fits before
+     * committing to it elsewhere.
+     *
+     * @param id     The ID.
+     * @param values The fields, any of which may be null.
+     * @return The size of the record, which fits if it is at most {@value #RECORD_SIZE}.
+     * @throws IllegalArgumentException if the ID is null or the number of fields is wrong.
+     */
+    public int sizeOf(String id, String[] values) {
+        checkShape(id, values);
+        int length = data + encode(id).length;
+        for (String value : values) {
+            length += value == null ? 0 : encode(value).length;
+        }
+        return length;
+    }
+
+    /**
+     * Removes a record.
+     *
+     * @param id The ID of the record.
+     * @return True if the record was in the store.
+     */
+    public synchronized boolean remove(String id) {
+        int record = find(id, encode(id));
+        if (record == NONE || segmentOf(record).get(offsetOf(record) + STATE) != LIVE) {
+            return false;
+        }
+        segmentOf(record).put(offsetOf(record) + STATE, REMOVED);
+        size--;
+        return true;
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param id     The ID of the record.
+     * @param reader Builds a value from the record.
+     * @param <T>    The type of value.
+     * @return The value, or null if there is no such record.
+     */
+    public synchronized <T> T get(String id, RecordReader<T> reader) {
+        int record = find(id, encode(id));
+        return record == NONE ? null : read(record, reader);
+    }
+
+    /**
+     * Checks whether a record is in the store.
+     *
+     * @param id The ID of the record.
+     * @return True if the store holds the record.
+     */
+    public synchronized boolean containsKey(String id) {
+        int record = find(id, encode(id));
+        return record != NONE && segmentOf(record).get(offsetOf(record) + STATE) == LIVE;
+    }
+
+    /**
+     * Gets the number of records in the store.
+     *
+     * @return The number of records.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the records in the order they were first added, seeing changes made while iterating to
+     * records not yet reached.
+     *
+     * @param reader Builds a value from each record.
+     * @param <T>    The type of value.
+     * @return The iterator.
+     */
+    public <T> Iterator<T> iterator(RecordReader<T> reader) {
+        return new Iterator<>() {
+            private int record = 1;
+            private T next = advance();
+
+            private T advance() {
+                synchronized (OffHeapRecordStore.this) {
+                    while (record < records) {
+                        T value = read(record++, reader);
+                        if (value != null) {
+                            return value;
+                        }
+                    }
+                    return null;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                T value = next;
+                next = advance();
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Gets the memory the store holds outside the heap: its segments and its table.
+     *
+     * @return The number of bytes.
+     */
+    public synchronized long offHeapBytes() {
+        return (long) segments.size() * recordsPerSegment * RECORD_SIZE + (long) table.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Writes changes to a file-backed store to disk.
+     */
+    public synchronized void force() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    /**
+     * Writes changes to disk and closes the file, if the store has one.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the header record of a new store.
+     */
+    private void writeHeader() {
+        ensureRecord(0);
+        ByteBuffer first = segments.get(0);
+        first.putInt(HEADER_VERSION, VERSION);
+        first.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        first.putInt(HEADER_FIELDS, fields);
+        first.putLong(HEADER_MAGIC, MAGIC);
+    }
+
+    /**
+     * Checks that an existing file starts with the header record this store would write.
+     *
+     * @return True if the file is a record store with records of this layout.
+     */
+    private boolean hasHeader() {
+        ByteBuffer first = segments.get(0);
+        return first.getLong(HEADER_MAGIC) == MAGIC && first.getInt(HEADER_VERSION) == VERSION
+                && first.getInt(HEADER_RECORD_SIZE) == RECORD_SIZE && first.getInt(HEADER_FIELDS) == fields;
+    }
+
+    /**
+     * Finds the end of the records and indexes every record.
+     */
+    private void open() {
+        // Records are appended in order, so the first empty one marks the end
+        int capacity = segments.size() * recordsPerSegment;
+        records = 1;
+        while (records < capacity && segmentOf(records).get(offsetOf(records) + STATE) != EMPTY) {
+            records++;
+        }
+        table = allocateTable(Math.max(16, Integer.highestOneBit(Math.max(1, records) * 4 - 1)));
+        size = 0;
+        for (int record = 1; record < records; record++) {
+            insert(record, readString(record, offsetOf(record) + data, 0).hashCode());
+            if (segmentOf(record).get(offsetOf(record) + STATE) == LIVE) {
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Builds a value from a record.
+     *
+     * @param record The record.
+     * @param reader Builds the value.
+     * @return The value, or null if the record was removed.
+     */
+    private <T> T read(int record, RecordReader<T> reader) {
+        ByteBuffer segment = segmentOf(record);
+        int offset = offsetOf(record);
+        if (segment.get(offset + STATE) != LIVE) {
+            return null;
+        }
+        int position = offset + data;
+        String id = readString(record, position, 0);
+        position += segment.getShort(offset + LENGTHS);
+        String[] values = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            values[i] = readString(record, position, i + 1);
+            position += Math.max(0, segment.getShort(offset + LENGTHS + 2 * (i + 1)));
+        }
+        return reader.read(id, values, segment.get(offset + FLAG) != 0);
+    }
+
+    /**
+     * Finds the record of an ID, whether or not it was removed.
+     *
+     * @param id      The ID.
+     * @param encoded The ID as UTF-8.
+     * @return The record, or NONE if the ID was never added.
+     */
+    private int find(String id, byte[] encoded) {
+        if (encoded == null) {
+            return NONE;
+        }
+        int hash = id.hashCode();
+        int mask = table.capacity() - 1;
+        long entry;
+        for (int slot = spread(hash) & mask; (entry = table.get(slot)) != 0; slot = (slot + 1) & mask) {
+            int record = (int) entry;
+            if ((int) (entry >>> 32) == hash && idEquals(record, encoded)) {
+                return record;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Compares a record's ID with an ID.
+     *
+     * @param record  The record.
+     * @param encoded The ID as UTF-8.
+     * @return True if they are equal.
+     */
+    private boolean idEquals(int record, byte[] encoded) {
+        ByteBuffer segment = segmentOf(record);
+        int offset = offsetOf(record);
+        if (segment.getShort(offset + LENGTHS) != encoded.length) {
+            return false;
+        }
+        segment.get(offset + data, scratch, 0, encoded.length);
+        return Arrays.equals(scratch, 0, encoded.length, encoded, 0, encoded.length);
+    }
+
+    /**
+     * Puts a record in the first free slot for its ID, growing the table to keep it at most half full.
+     *
+     * @param record The record.
+     * @param hash   The hash code of the record's ID.
+     */
+    private void insert(int record, int hash) {
+        if (records * 2 > table.capacity()) {
+            LongBuffer old = table;
+            table = allocateTable(old.capacity() * 2);
+            for (int slot = 0; slot < old.capacity(); slot++) {
+                long entry = old.get(slot);
+                if (entry != 0) {
+                    place((int) entry, (int) (entry >>> 32));
+                }
+            }
+        }
+        place(record, hash);
+    }
+
+    private void place(int record, int hash) {
+        int mask = table.capacity() - 1;
+        int slot = spread(hash) & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        // Record numbers start at 1, so an entry is never 0
+        table.put(slot, (long) hash << 32 | record);
+    }
+
+    /**
+     * Reads one of a record's strings.
+     *
+     * @param record   The record.
+     * @param position The absolute position of the string in the record's segment.
+     * @param string   The string's place in the record: 0 for the ID, then 1 for each field in turn.
+     * @return The string, or null if none was stored.
+     */
+    private String readString(int record, int position, int string) {
+        ByteBuffer segment = segmentOf(record);
+        int length = segment.getShort(offsetOf(record) + LENGTHS + 2 * string);
+        if (length == NONE) {
+            return null;
+        }
+        segment.get(position, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps or allocates segments until a record exists.
+     *
+     * @param record The record.
+     */
+    private void ensureRecord(int record) {
+        while (record >= segments.size() * recordsPerSegment) {
+            try {
+                addSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Maps the next segment of the file, growing the file, or allocates it if there is no file.
+     *
+     * @throws IOException if the segment cannot be mapped.
+     */
+    private void addSegment() throws IOException {
+        int segmentBytes = recordsPerSegment * RECORD_SIZE;
+        if (channel == null) {
+            segments.add(ByteBuffer.allocateDirect(segmentBytes));
+        } else {
+            long position = (long) segments.size() * segmentBytes;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, segmentBytes));
+        }
+    }
+
+    private ByteBuffer segmentOf(int record) {
+        return segments.get(record / recordsPerSegment);
+    }
+
+    private int offsetOf(int record) {
+        return (record % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static LongBuffer allocateTable(int slots) {
+        return ByteBuffer.allocateDirect(slots * Long.BYTES).asLongBuffer();
+    }
+
+    private void checkShape(String id, String[] values) {
+        if (id == null || values.length != fields) {
+            throw new IllegalArgumentException("A record needs an ID and " + fields + " fields");
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
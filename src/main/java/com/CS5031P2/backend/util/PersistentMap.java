@@ -0,0 +1,601 @@
+package com.CS5031P2.backend.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable hash map that shares structure between versions.
+ * It is a hash array mapped trie: each level consumes five bits of the key's hash, so a lookup or update
+ * touches at most seven small nodes, and {@link #with} and {@link #without} copy only the path to the
+ * changed entry while reusing every other node. Holding on to a map is therefore an O(1), copy-free
+ * snapshot that later versions can never change.
+ * For bulk loads, a {@link Builder} edits nodes it created itself in place and only copies shared ones.
+ * Null keys and values are not supported.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty map.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Gets a persistent map with the same entries as the given map.
+     *
+     * @param map The map to copy; returned as is if it is already a persistent map.
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     * @return The persistent map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentMap<?, ?> persistent) {
+            return (PersistentMap<K, V>) persistent;
+        }
+        Builder<K, V> builder = new Builder<>(empty());
+        for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (root == null || key == null) {
+            return null;
+        }
+        return (V) root.find(0, hash(key), key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Gets a version of this map in which the key maps to the value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The new version, or this map if the key already maps to the same value instance.
+     */
+    public PersistentMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Change change = new Change();
+        Node base = root == null ? BitmapNode.EMPTY : root;
+        Node newRoot = base.assoc(null, 0, hash(key), key, value, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, change.happened ? size + 1 : size);
+    }
+
+    /**
+     * Gets a version of this map without the key.
+     *
+     * @param key The key to remove.
+     * @return The new version, or this map if it does not contain the key.
+     */
+    public PersistentMap<K, V> without(K key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = root.without(null, 0, hash(key), key, change);
+        if (!change.happened) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Gets a builder that starts from this map's entries, for making many changes at once.
+     *
+     * @return The builder.
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof Entry<?, ?> entry && entry.getValue() != null
+                            && entry.getValue().equals(get(entry.getKey()));
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Spreads a key's hash so that keys differing only in their high bits still separate near the root.
+     *
+     * @param key The key.
+     * @return The spread hash.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Gets the bit of a node's bitmap that the hash selects at the given level.
+     *
+     * @param hash  The key's hash.
+     * @param shift The number of hash bits consumed by the levels above.
+     * @return The bit.
+     */
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Builds a persistent map through many changes, editing its own nodes in place.
+     * Maps returned by {@link #build()} are never changed by later use of the builder.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    public static final class Builder<K, V> {
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+
+        private Builder(PersistentMap<K, V> map) {
+            this.root = map.root;
+            this.size = map.size;
+        }
+
+        /**
+         * Gets the value the builder currently maps a key to.
+         *
+         * @param key The key.
+         * @return The value, or null if the key is absent.
+         */
+        @SuppressWarnings("unchecked")
+        public V get(K key) {
+            return root == null || key == null ? null : (V) root.find(0, hash(key), key);
+        }
+
+        /**
+         * Maps a key to a value.
+         *
+         * @param key   The key.
+         * @param value The value.
+         * @return This builder.
+         */
+        public Builder<K, V> put(K key, V value) {
+            Objects.requireNonNull(key);
+            Objects.requireNonNull(value);
+            Change change = new Change();
+            Node base = root == null ? BitmapNode.EMPTY : root;
+            root = base.assoc(owner, 0, hash(key), key, value, change);
+            if (change.happened) {
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Removes a key.
+         *
+         * @param key The key.
+         * @return This builder.
+         */
+        public Builder<K, V> remove(K key) {
+            if (root != null && key != null) {
+                Change change = new Change();
+                root = root.without(owner, 0, hash(key), key, change);
+                if (change.happened) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Gets the number of entries in the builder.
+         *
+         * @return The size.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets a persistent map of the builder's current entries.
+         *
+         * @return The map.
+         */
+        public PersistentMap<K, V> build() {
+            // Later edits must copy the nodes the returned map now shares
+            owner = new Object();
+            return root == null || size == 0 ? empty() : new PersistentMap<>(root, size);
+        }
+    }
+
+    /**
+     * Records whether an update added or removed an entry.
+     */
+    private static final class Change {
+        boolean happened;
+    }
+
+    /**
+     * A trie node. Entries are stored as key/value pairs in one array; a pair with a null key holds a
+     * child node in its value slot.
+     */
+    private abstract static class Node {
+        final Object owner;
+        final Object[] array;
+
+        Node(Object owner, Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+
+        /**
+         * Gets the number of array slots in use.
+         *
+         * @return Twice the number of pairs.
+         */
+        abstract int length();
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+        abstract Node without(Object edit, int shift, int hash, Object key, Change change);
+
+        /**
+         * Checks whether this node may be edited in place by the given builder.
+         *
+         * @param edit The editing builder's owner token, or null for a persistent update.
+         * @return True if the node was created by that builder.
+         */
+        boolean editable(Object edit) {
+            return edit != null && edit == owner;
+        }
+    }
+
+    /**
+     * A node that holds up to 32 pairs, one per five-bit hash fragment, located through a bitmap.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        int bitmap;
+
+        BitmapNode(Object owner, int bitmap, Object[] array) {
+            super(owner, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        int length() {
+            return 2 * Integer.bitCount(bitmap);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            int bit = bitpos(hash, shift);
+            int idx = index(bit);
+
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * idx];
+                Object v = array[2 * idx + 1];
+                if (k == null) {
+                    Node child = ((Node) v).assoc(edit, shift + BITS, hash, key, value, change);
+                    return child == v ? this : set(edit, 2 * idx + 1, child);
+                }
+                if (key.equals(k)) {
+                    return v == value ? this : set(edit, 2 * idx + 1, value);
+                }
+                // Two keys share this fragment, so push both one level down
+                change.happened = true;
+                Node child = split(edit, shift + BITS, k, v, hash, key, value);
+                BitmapNode node = (BitmapNode) set(edit, 2 * idx, null);
+                node.array[2 * idx + 1] = child;
+                return node;
+            }
+
+            change.happened = true;
+            int used = length();
+            if (editable(edit) && used + 2 <= array.length) {
+                System.arraycopy(array, 2 * idx, array, 2 * idx + 2, used - 2 * idx);
+                array[2 * idx] = key;
+                array[2 * idx + 1] = value;
+                bitmap |= bit;
+                return this;
+            }
+            // Builders leave room for a few more pairs so that repeated inserts rarely reallocate
+            Object[] newArray = new Object[used + (edit != null ? 8 : 2)];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            newArray[2 * idx] = key;
+            newArray[2 * idx + 1] = value;
+            System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, used - 2 * idx);
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Change change) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+
+            if (k == null) {
+                Node child = ((Node) v).without(edit, shift + BITS, hash, key, change);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return set(edit, 2 * idx + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            } else {
+                change.happened = true;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            int used = length();
+            if (editable(edit)) {
+                System.arraycopy(array, 2 * idx + 2, array, 2 * idx, used - 2 * idx - 2);
+                array[used - 2] = null;
+                array[used - 1] = null;
+                bitmap ^= bit;
+                return this;
+            }
+            Object[] newArray = new Object[used - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            System.arraycopy(array, 2 * idx + 2, newArray, 2 * idx, used - 2 * idx - 2);
+            return new BitmapNode(edit, bitmap ^ bit, newArray);
+        }
+
+        /**
+         * Sets one array slot, in place if the builder owns this node, otherwise on a copy.
+         *
+         * @param edit  The editing builder's owner token, or null.
+         * @param i     The slot.
+         * @param value The new slot content.
+         * @return The node holding the change.
+         */
+        private Node set(Object edit, int i, Object value) {
+            if (editable(edit)) {
+                array[i] = value;
+                return this;
+            }
+            Object[] newArray = Arrays.copyOf(array, edit != null ? array.length : length());
+            newArray[i] = value;
+            return new BitmapNode(edit, bitmap, newArray);
+        }
+    }
+
+    /**
+     * A node holding keys whose full hashes are equal.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final int count;
+
+        CollisionNode(Object owner, int hash, int count, Object[] array) {
+            super(owner, array);
+            this.hash = hash;
+            this.count = count;
+        }
+
+        @Override
+        int length() {
+            return 2 * count;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < 2 * count; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            if (hash != this.hash) {
+                // A different hash reaches this level, so place this node under a bitmap node and retry
+                BitmapNode parent = new BitmapNode(edit, bitpos(this.hash, shift), new Object[] {null, this});
+                return parent.assoc(edit, shift, hash, key, value, change);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] newArray = editable(edit) ? array : Arrays.copyOf(array, array.length);
+                newArray[i + 1] = value;
+                return newArray == array ? this : new CollisionNode(edit, hash, count, newArray);
+            }
+            change.happened = true;
+            Object[] newArray = Arrays.copyOf(array, 2 * count + 2);
+            newArray[2 * count] = key;
+            newArray[2 * count + 1] = value;
+            return new CollisionNode(edit, hash, count + 1, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Change change) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            change.happened = true;
+            if (count == 1) {
+                return null;
+            }
+            Object[] newArray = new Object[2 * count - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, 2 * count - i - 2);
+            return new CollisionNode(edit, hash, count - 1, newArray);
+        }
+    }
+
+    /**
+     * Creates the node holding two keys that share a hash fragment at the level above.
+     *
+     * @param edit  The editing builder's owner token, or null.
+     * @param shift The number of hash bits consumed above the new node.
+     * @return The new node.
+     */
+    private static Node split(Object edit, int shift, Object key1, Object value1, int hash2, Object key2,
+                              Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionNode(edit, hash1, 2, new Object[] {key1, value1, key2, value2});
+        }
+        Change ignored = new Change();
+        return BitmapNode.EMPTY
+                .assoc(edit, shift, hash1, key1, value1, ignored)
+                .assoc(edit, shift, hash2, key2, value2, ignored);
+    }
+
+    /**
+     * Walks the trie depth-first, yielding each key/value pair.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        // The trie is at most seven levels deep, plus one for a collision node
+        private final Node[] nodes = new Node[8];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Entry<K, V> next;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                nodes[0] = root;
+                depth = 0;
+                advance();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                int i = positions[depth];
+                if (i >= node.length()) {
+                    positions[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                positions[depth] = i + 2;
+                Object k = node.array[i];
+                Object v = node.array[i + 1];
+                if (k == null) {
+                    depth++;
+                    nodes[depth] = (Node) v;
+                    positions[depth] = 0;
+                } else {
+                    next = new SimpleImmutableEntry<>((K) k, (V) v);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = next;
+            advance();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.CS5031P2.backend.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A dictionary that gives each distinct string a small integer code, for strings that repeat across many
+ * records, such as authors. Encoding the same text twice returns the same code, and decoding a code returns
+ * one shared instance, so a million books by five thousand authors hold five thousand author strings.
+ * Each encode counts as a reference to the string, which its holder gives back with {@link #release(String)}
+ * once no record uses it. A string is dropped when its last reference is released, and its code is reused,
+ * so a catalogue whose authors come and go does not keep every author it ever had.
+ * Lookups and releases of strings that stay referenced take no lock. New and dropped strings are handled
+ * while holding their entry, and codes are allocated and freed under the dictionary's lock inside it, so
+ * that lock is never held while waiting for an entry.
+ */
+public class StringDictionary {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Integer> freeCodes = new ArrayDeque<>();
+    private volatile String[] values = new String[16];
+    private int nextCode;
+
+    /**
+     * Gets the code of a string, adding it to the dictionary if it is new, and takes a reference to it.
+     *
+     * @param value The string, which must not be null.
+     * @return The code, which stays the string's until its last reference is released.
+     */
+    public int encode(String value) {
+        Entry entry = entries.get(value);
+        if (entry != null && entry.acquire()) {
+            return entry.code;
+        }
+        return entries.compute(value, (key, existing) -> {
+            // An entry is removed while holding it, so one still here is referenced
+            if (existing != null) {
+                existing.references.incrementAndGet();
+                return existing;
+            }
+            return new Entry(allocate(key));
+        }).code;
+    }
+
+    /**
+     * Gets the string for a code.
+     *
+     * @param code A code returned by {@link #encode(String)} whose string is still referenced.
+     * @return The shared instance of the string.
+     */
+    public String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Gets the shared instance of a string, adding it to the dictionary if it is new, and takes a reference
+     * to it.
+     *
+     * @param value The string, or null.
+     * @return An equal string held by the dictionary, or null if the string was null.
+     */
+    public String dedupe(String value) {
+        return value == null ? null : decode(encode(value));
+    }
+
+    /**
+     * Gives back a reference taken by {@link #encode(String)} or {@link #dedupe(String)}, dropping the string
+     * and freeing its code once no reference is left.
+     *
+     * @param value The string, or null, which is ignored, as is a string the dictionary does not hold.
+     */
+    public void release(String value) {
+        if (value == null) {
+            return;
+        }
+        Entry entry = entries.get(value);
+        if (entry != null && entry.releaseShared()) {
+            return;
+        }
+        entries.computeIfPresent(value, (key, existing) -> {
+            if (existing.references.decrementAndGet() > 0) {
+                return existing;
+            }
+            free(existing.code);
+            return null;
+        });
+    }
+
+    /**
+     * Drops every string. Called while nothing else uses the dictionary, e.g. when a catalogue is replaced.
+     */
+    public void clear() {
+        // Clearing takes each entry in turn, so it must not run under the dictionary's lock
+        entries.clear();
+        synchronized (this) {
+            freeCodes.clear();
+            values = new String[16];
+            nextCode = 0;
+        }
+    }
+
+    /**
+     * Gets the number of distinct strings in the dictionary.
+     *
+     * @return The number of strings.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gives a new string a code, reusing a dropped string's if there is one.
+     * Called while holding the string's entry.
+     *
+     * @param value The string.
+     * @return The code.
+     */
+    private synchronized int allocate(String value) {
+        Integer reused = freeCodes.poll();
+        int code = reused != null ? reused : nextCode++;
+        String[] current = values;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = value;
+        // Publish the array before the code, so whoever sees the code can decode it
+        values = current;
+        return code;
+    }
+
+    /**
+     * Frees the code of a dropped string for reuse.
+     * Called while holding the string's entry.
+     *
+     * @param code The code.
+     */
+    private synchronized void free(int code) {
+        values[code] = null;
+        freeCodes.push(code);
+    }
+
+    /**
+     * The code of a string and the number of references to it.
+     */
+    private static final class Entry {
+        final int code;
+        final AtomicInteger references = new AtomicInteger(1);
+
+        Entry(int code) {
+            this.code = code;
+        }
+
+        /**
+         * Takes a reference without holding the entry, unless the last one is being released.
+         *
+         * @return True if a reference was taken.
+         */
+        boolean acquire() {
+            while (true) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Gives back a reference without holding the entry, unless it is the last one.
+         *
+         * @return True if a reference was given back.
+         */
+        boolean releaseShared() {
+            while (true) {
+                int count = references.get();
+                if (count <= 1) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
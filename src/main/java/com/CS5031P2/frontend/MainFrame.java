@@ -123,7 +123,8 @@ public class MainFrame extends Application {
      */
     public void showCheckOut(String memberId, String name, String address) {
         CheckOutView checkOutView = new CheckOutView(memberId, name, address);
-        List<Book> books = BookController.getAllBooks();
+        // Only books on the shelf can be checked out, so the server leaves out the ones on loan
+        List<Book> books = BookController.getAvailableBooks();
         checkOutView.setBooks(books);
         root.setCenter(checkOutView);
     }
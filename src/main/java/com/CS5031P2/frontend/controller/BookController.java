@@ -1,9 +1,13 @@
 package com.CS5031P2.frontend.controller;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.Page;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -56,7 +60,112 @@ public class BookController extends HttpController {
      * @return A list of Book objects representing all books in the library.
      */
     public static List<Book> getAllBooks() {
-        String response = executeGetRequest(baseUrl + path);
+        return toBooks(executeGetRequest(baseUrl + path));
+    }
+
+    /**
+     * Retrieves every book that is not checked out, a page at a time.
+     *
+     * @return The available books.
+     */
+    public static List<Book> getAvailableBooks() {
+        List<Book> books = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = baseUrl + path + "/available/page?limit=" + Page.MAX_SIZE
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            String response = executeGetRequest(url);
+            if (response == null || !response.trim().startsWith("{")) {
+                break;
+            }
+            JSONObject page = new JSONObject(response);
+            books.addAll(toBooks(page.getJSONArray("items").toString()));
+            cursor = page.optString("nextCursor", null);
+        } while (cursor != null);
+        return books;
+    }
+
+    /**
+     * Searches the books on the server that are not checked out for every word of a query.
+     *
+     * @param query The words to search for.
+     * @return The matching available books, best match first.
+     */
+    public static List<Book> searchAvailableBooks(String query) {
+        return toBooks(executeGetRequest(baseUrl + path + "/available?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Searches the books on the server that are not checked out for words spelt like every word of a query.
+     *
+     * @param query The words to search for.
+     * @return The matching available books, closest spelling first.
+     */
+    public static List<Book> fuzzySearchAvailableBooks(String query) {
+        return toBooks(executeGetRequest(baseUrl + path + "/available?fuzzy=true&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Searches the whole catalogue on the server for books whose title or author contains every word of a query.
+     *
+     * @param query The words to search for.
+     * @return The matching books, best match first.
+     */
+    public static List<Book> searchBooks(String query) {
+        return toBooks(executeGetRequest(baseUrl + path + "/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Searches the whole catalogue on the server for books whose title or author has words spelt like every word
+     * of a query, allowing for typos.
+     *
+     * @param query The words to search for.
+     * @return The matching books, closest spelling first.
+     */
+    public static List<Book> fuzzySearchBooks(String query) {
+        return toBooks(executeGetRequest(baseUrl + path + "/search?fuzzy=true&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Retrieves the member who has borrowed a book, as the server records it now.
+     *
+     * @param bookId The ID of the book.
+     * @return The borrower, or null if the book is not on loan.
+     */
+    public static Member getBorrower(String bookId) {
+        String response = executeGetRequest(baseUrl + path + "/" + bookId + "/borrower");
+        if (response == null || !response.trim().startsWith("{")) {
+            return null;
+        }
+        return Member.fromJson(response);
+    }
+
+    /**
+     * Retrieves titles and authors that complete the text typed so far.
+     *
+     * @param prefix The text typed so far.
+     * @return The suggested titles and authors.
+     */
+    public static List<String> suggestBooks(String prefix) {
+        String response = executeGetRequest(baseUrl + path + "/suggest?q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8));
+        List<String> suggestions = new ArrayList<>();
+        if (response == null || !response.trim().startsWith("[")) {
+            return suggestions;
+        }
+        JSONArray suggestionsArray = new JSONArray(response);
+        for (int i = 0; i < suggestionsArray.length(); i++) {
+            suggestions.add(suggestionsArray.getString(i));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Converts a JSON array of books received from the server.
+     *
+     * @param response The response body, which may be null or not an array if the request failed.
+     * @return The books, or an empty list if there are none.
+     */
+    private static List<Book> toBooks(String response) {
         if (response == null || response.isEmpty() || !response.trim().startsWith("[")) {
             return new ArrayList<>();
         }
@@ -1,5 +1,9 @@
 package com.CS5031P2.frontend.controller;
 
+import java.util.List;
+
+import org.json.JSONArray;
+
 /**
  * Controller class responsible for handling HTTP requests related to book checkout operations.
  */
@@ -7,6 +11,8 @@ public class CheckOutController extends HttpController {
 
     protected static String path = "/checkout";
 
+    private static final String bulkPath = "/checkouts";
+
     /**
      * Initiates the process of checking out a book for a specific member.
      *
@@ -16,4 +22,14 @@ public class CheckOutController extends HttpController {
     public static void checkOutBook(String memberId, String bookId) {
         executePostRequest(baseUrl + path + "/" + memberId + "/" + bookId, "{}");
     }
+
+    /**
+     * Checks out several books for a member in one request.
+     *
+     * @param memberId The ID of the member who is checking out the books.
+     * @param bookIds  The IDs of the books to be checked out.
+     */
+    public static void checkOutBooks(String memberId, List<String> bookIds) {
+        executePostRequest(baseUrl + bulkPath + "/" + memberId, new JSONArray(bookIds).toString());
+    }
 }
@@ -4,6 +4,8 @@ import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.Member;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -92,4 +94,22 @@ public class MemberController extends HttpController {
         }
         return members;
     }
+
+    /**
+     * Retrieves member names that complete the text typed so far.
+     * @param prefix The text typed so far
+     * @return The suggested names
+     */
+    public static List<String> suggestMembers(String prefix) {
+        String response = executeGetRequest(baseUrl + path + "/suggest?q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8));
+        List<String> suggestions = new ArrayList<>();
+        if (response == null || !response.trim().startsWith("[")) {
+            return suggestions;
+        }
+        JSONArray suggestionsArray = new JSONArray(response);
+        for (int i = 0; i < suggestionsArray.length(); i++) {
+            suggestions.add(suggestionsArray.getString(i));
+        }
+        return suggestions;
+    }
 }
@@ -1,6 +1,7 @@
 package com.CS5031P2.frontend.view;
 
 import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
 import com.CS5031P2.frontend.MainFrame;
 import com.CS5031P2.frontend.controller.BookController;
 import javafx.application.Platform;
@@ -50,6 +51,9 @@ public class BookListView extends VBox {
         searchBox.setMaxWidth(Double.MAX_VALUE);
         HBox.setHgrow(searchBox, Priority.ALWAYS);
         searchBox.textProperty().addListener((observable, oldValue, newValue) -> filterBooks(newValue));
+        // Choosing a suggestion or pressing Enter searches the whole catalogue on the server
+        new SuggestionBox(searchBox, BookController::suggestBooks, this::searchCatalogue);
+        searchBox.setOnAction(event -> searchCatalogue(searchBox.getText()));
 
         table = new TableView<>();
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
@@ -99,7 +103,13 @@ public class BookListView extends VBox {
         manageMemberBtn.setOnAction(event -> {
             Book selectedBook = table.getSelectionModel().getSelectedItem();
             if (selectedBook != null) {
-                mainFrame.showMemberListWithSearch(selectedBook.getBorrowedId());
+                // Ask the server who holds the book now, as the table may be out of date
+                Member borrower = BookController.getBorrower(selectedBook.getBookId());
+                if (borrower != null) {
+                    mainFrame.showMemberListWithSearch(borrower.getMemberId());
+                } else {
+                    refreshBooks();
+                }
             }
         });
 
@@ -239,6 +249,22 @@ public class BookListView extends VBox {
         }
     }
 
+    /**
+     * Searches the whole catalogue on the server and shows the matching books. If nothing matches exactly,
+     * searches again allowing for typos.
+     *
+     * @param query The search query.
+     */
+    private void searchCatalogue(String query) {
+        if (!query.isBlank()) {
+            List<Book> books = BookController.searchBooks(query);
+            if (books.isEmpty()) {
+                books = BookController.fuzzySearchBooks(query);
+            }
+            table.setItems(FXCollections.observableArrayList(books));
+        }
+    }
+
     /**
      * Updates the state of the delete buttons based on the selection in the table.
      */
@@ -12,6 +12,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -87,6 +88,9 @@ public class CheckOutView extends VBox {
         searchBox.setMaxWidth(Double.MAX_VALUE);
         HBox.setHgrow(searchBox, Priority.ALWAYS);
         searchBox.textProperty().addListener((observable, oldValue, newValue) -> filterBooks(newValue));
+        // Choosing a suggestion or pressing Enter searches the whole catalogue on the server
+        new SuggestionBox(searchBox, BookController::suggestBooks, this::searchCatalogue);
+        searchBox.setOnAction(event -> searchCatalogue(searchBox.getText()));
     }
 
     /**
@@ -127,7 +131,8 @@ public class CheckOutView extends VBox {
 
         bookTable.refresh();
 
-        bookTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+        // Patrons often take several books at once, so they can be checked out together
+        bookTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
     }
 
     /**
@@ -152,6 +157,22 @@ public class CheckOutView extends VBox {
         }
     }
 
+    /**
+     * Searches the available books on the server and shows the matching ones. If nothing matches exactly,
+     * searches again allowing for typos.
+     *
+     * @param query The search query.
+     */
+    private void searchCatalogue(String query) {
+        if (!query.isBlank()) {
+            List<Book> books = BookController.searchAvailableBooks(query);
+            if (books.isEmpty()) {
+                books = BookController.fuzzySearchAvailableBooks(query);
+            }
+            bookTable.setItems(FXCollections.observableArrayList(books));
+        }
+    }
+
     /**
      * Updates the state of the check out button based on whether a book is selected.
      */
@@ -161,15 +182,21 @@ public class CheckOutView extends VBox {
     }
 
     /**
-     * Handles the action of checking out a book.
+     * Handles the action of checking out the selected books.
      */
     private void checkOut() {
-        Book selectedBook = bookTable.getSelectionModel().getSelectedItem();
-        if (selectedBook != null) {
-            CheckOutController.checkOutBook(memberId, selectedBook.getBookId());
+        List<Book> selectedBooks = bookTable.getSelectionModel().getSelectedItems();
+        if (selectedBooks.size() == 1) {
+            CheckOutController.checkOutBook(memberId, selectedBooks.get(0).getBookId());
+        } else if (!selectedBooks.isEmpty()) {
+            List<String> bookIds = new ArrayList<>();
+            for (Book book : selectedBooks) {
+                bookIds.add(book.getBookId());
+            }
+            CheckOutController.checkOutBooks(memberId, bookIds);
         }
         bookSearchBox.setText("");
-        var books = BookController.getAllBooks();
+        var books = BookController.getAvailableBooks();
         bookTable.getItems().setAll(books);
     }
 
@@ -52,6 +52,8 @@ public class MemberListView extends VBox {
         searchBox.setMaxWidth(Double.MAX_VALUE);
         HBox.setHgrow(searchBox, Priority.ALWAYS);
         searchBox.textProperty().addListener((observable, oldValue, newValue) -> filterMembers(newValue));
+        // Choosing a suggested name selects the first member with it
+        new SuggestionBox(searchBox, MemberController::suggestMembers, name -> table.getSelectionModel().selectFirst());
 
         table = new TableView<>();
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
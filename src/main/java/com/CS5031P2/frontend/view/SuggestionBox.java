@@ -0,0 +1,122 @@
+package com.CS5031P2.frontend.view;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Offers completions under a search box as the user types.
+ * Suggestions are only fetched once the user has stopped typing for a moment, so a burst of keystrokes costs
+ * one request rather than one each, and they are fetched off the JavaFX thread so typing never stalls.
+ * Suggestions that arrive after the text has changed again are dropped.
+ */
+public class SuggestionBox {
+    /**
+     * How long the text must stay unchanged before suggestions are fetched.
+     */
+    static final Duration DEBOUNCE = Duration.millis(250);
+
+    private final TextField field;
+    private final Function<String, List<String>> source;
+    private final Consumer<String> onChoose;
+    private final ContextMenu menu = new ContextMenu();
+    private final PauseTransition pause = new PauseTransition(DEBOUNCE);
+    private boolean choosing;
+
+    /**
+     * Attaches suggestions to a search box.
+     *
+     * @param field    The search box.
+     * @param source   Fetches the suggestions for some text; called off the JavaFX thread.
+     * @param onChoose Called with a suggestion after the user chooses it and it has been put in the search box.
+     */
+    public SuggestionBox(TextField field, Function<String, List<String>> source, Consumer<String> onChoose) {
+        this.field = field;
+        this.source = source;
+        this.onChoose = onChoose;
+        pause.setOnFinished(event -> {
+            if (isShowing()) {
+                fetch(field.getText());
+            }
+        });
+        field.textProperty().addListener((observable, oldValue, newValue) -> textChanged(newValue));
+    }
+
+    /**
+     * Restarts the wait for the user to stop typing.
+     *
+     * @param text The new text.
+     */
+    private void textChanged(String text) {
+        menu.hide();
+        if (choosing || text == null || text.isBlank()) {
+            pause.stop();
+            return;
+        }
+        pause.playFromStart();
+    }
+
+    /**
+     * Fetches suggestions in the background and shows them when they arrive.
+     *
+     * @param text The text to complete.
+     */
+    private void fetch(String text) {
+        CompletableFuture.supplyAsync(() -> source.apply(text))
+                .thenAccept(suggestions -> Platform.runLater(() -> show(text, suggestions)));
+    }
+
+    /**
+     * Shows suggestions under the search box, unless the text has changed since they were asked for.
+     *
+     * @param text        The text the suggestions complete.
+     * @param suggestions The suggestions.
+     */
+    private void show(String text, List<String> suggestions) {
+        if (!text.equals(field.getText()) || suggestions == null || suggestions.isEmpty() || !isShowing()) {
+            return;
+        }
+        menu.getItems().clear();
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            item.setOnAction(event -> choose(suggestion));
+            menu.getItems().add(item);
+        }
+        menu.show(field, Side.BOTTOM, 0, 0);
+    }
+
+    /**
+     * Checks whether the search box is on screen, since there is no point fetching suggestions for a hidden one.
+     *
+     * @return True if the search box is in a showing window.
+     */
+    private boolean isShowing() {
+        return field.getScene() != null && field.getScene().getWindow() != null
+                && field.getScene().getWindow().isShowing();
+    }
+
+    /**
+     * Puts a chosen suggestion in the search box.
+     *
+     * @param suggestion The suggestion.
+     */
+    private void choose(String suggestion) {
+        choosing = true;
+        try {
+            field.setText(suggestion);
+            field.positionCaret(suggestion.length());
+        } finally {
+            choosing = false;
+        }
+        onChoose.accept(suggestion);
+    }
+}
@@ -3,27 +3,44 @@ package com.CS5031P2.backend.controller;
 import com.CS5031P2.backend.controller.BookController;
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.Page;
+import com.CS5031P2.backend.util.BookIngester;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * This class contains test cases for the BookController class.
  */
 @SpringBootTest
+@AutoConfigureMockMvc
 class BookControllerTest {
 
     @Autowired
     private BookController bookController;
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @MockBean
     private LibraryLendingSystem libraryLendingSystem;
 
@@ -89,6 +106,27 @@ class BookControllerTest {
         assertEquals("Book updated successfully", responseEntity.getBody());
     }
 
+    /**
+     * Test case to verify that BookController.updateBook(String, Book) returns HttpStatus.BAD_REQUEST when the
+     * updated book is too large to store.
+     */
+    @Test
+    void updateBookReturnsBadRequestWhenBookCannotBeStored() {
+        // Arrange
+        String bookId = "123";
+        Book updatedBook = new Book("UpdatedBook", "UpdatedAuthor");
+
+        when(libraryLendingSystem.getBook(bookId)).thenReturn(Optional.of(BookControllerTest.createSingleBook(bookId)));
+        doThrow(new IllegalArgumentException("Too large to store")).when(libraryLendingSystem).updateBook(bookId, updatedBook);
+
+        // Act
+        ResponseEntity<String> responseEntity = bookController.updateBook(bookId, updatedBook);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Too large to store", responseEntity.getBody());
+    }
+
     /**
      * Test case to verify that BookController.updateBook(String, Book) returns HttpStatus.NOT_FOUND when the book does not exist.
      */
@@ -143,6 +181,284 @@ class BookControllerTest {
         assertEquals("Book Deleted Successfully", responseEntity.getBody());
     }
 
+    /**
+     * Test case to verify that BookController.getBookPage() passes the order, cursor and limit to the library.
+     */
+    @Test
+    void getBookPageReturnsPage() {
+        // Arrange
+        Page<Book> page = new Page<>(List.of(new Book("Book1", "Author1")), "next");
+        when(libraryLendingSystem.getBookPage("title", "cursor", 10)).thenReturn(page);
+
+        // Act
+        ResponseEntity<Page<Book>> responseEntity = bookController.getBookPage("title", "cursor", 10);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(page, responseEntity.getBody());
+    }
+
+    /**
+     * Test case to verify that BookController.getAvailableBookPage() passes the cursor and limit to the library.
+     */
+    @Test
+    void getAvailableBookPageReturnsPage() {
+        // Arrange
+        Page<Book> page = new Page<>(List.of(new Book("Book1", "Author1")), "7");
+        when(libraryLendingSystem.getAvailableBookPage("3", 10)).thenReturn(page);
+        when(libraryLendingSystem.getAvailableBookPage("bad", Page.DEFAULT_SIZE)).thenThrow(new IllegalArgumentException());
+
+        // Act
+        ResponseEntity<Page<Book>> responseEntity = bookController.getAvailableBookPage("3", 10);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(page, responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.getAvailableBookPage("bad", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.getAvailableBookPage(null, 0).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.getBookPage() uses the default page size when none is given.
+     */
+    @Test
+    void getBookPageUsesDefaultSize() {
+        // Arrange
+        Page<Book> page = new Page<>(List.of(), null);
+        when(libraryLendingSystem.getBookPage("id", null, Page.DEFAULT_SIZE)).thenReturn(page);
+
+        // Act
+        ResponseEntity<Page<Book>> responseEntity = bookController.getBookPage("id", null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(page, responseEntity.getBody());
+    }
+
+    /**
+     * Test case to verify that BookController.getBookPage() rejects page sizes outside the limits.
+     */
+    @Test
+    void getBookPageRejectsInvalidSize() {
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.getBookPage("id", null, 0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                bookController.getBookPage("id", null, Page.MAX_SIZE + 1).getStatusCode());
+        verify(libraryLendingSystem, never()).getBookPage(anyString(), any(), anyInt());
+    }
+
+    /**
+     * Test case to verify that BookController.getBookPage() returns bad request for an invalid order or cursor.
+     */
+    @Test
+    void getBookPageRejectsInvalidCursor() {
+        // Arrange
+        when(libraryLendingSystem.getBookPage("id", "bad", 10)).thenThrow(new IllegalArgumentException());
+
+        // Act
+        ResponseEntity<Page<Book>> responseEntity = bookController.getBookPage("id", "bad", 10);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.searchBooks() returns the library's matches.
+     */
+    @Test
+    void searchBooksReturnsMatches() {
+        // Arrange
+        List<Book> matches = List.of(new Book("Book1", "Author1"));
+        when(libraryLendingSystem.searchBooks("book1", Page.DEFAULT_SIZE)).thenReturn(matches);
+
+        // Act
+        ResponseEntity<List<Book>> responseEntity = bookController.searchBooks("book1", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(matches, responseEntity.getBody());
+    }
+
+    /**
+     * Test case to verify that BookController.searchBooks() rejects limits outside the page size limits.
+     */
+    @Test
+    void searchBooksRejectsInvalidLimit() {
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.searchBooks("book", 0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                bookController.searchBooks("book", Page.MAX_SIZE + 1).getStatusCode());
+        verify(libraryLendingSystem, never()).searchBooks(anyString(), anyInt());
+    }
+
+    /**
+     * Test case to verify that BookController.fuzzySearchBooks() uses the default similarity and rejects invalid ones.
+     */
+    @Test
+    void fuzzySearchBooksReturnsMatches() {
+        // Arrange
+        List<Book> matches = List.of(new Book("Book1", "Author1"));
+        when(libraryLendingSystem.fuzzySearchBooks("bok1", LibraryLendingSystem.DEFAULT_SIMILARITY, Page.DEFAULT_SIZE))
+                .thenReturn(matches);
+
+        // Act
+        ResponseEntity<List<Book>> responseEntity = bookController.fuzzySearchBooks("bok1", null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(matches, responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.fuzzySearchBooks("bok1", 0.0, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.fuzzySearchBooks("bok1", 1.5, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.fuzzySearchBooks("bok1", Double.NaN, null).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.getBorrower() returns the borrower, or not found for a book on the shelf.
+     */
+    @Test
+    void getBorrowerReturnsMemberHoldingBook() {
+        // Arrange
+        Member borrower = new Member("Member1", "Address1");
+        when(libraryLendingSystem.getBorrower("lent")).thenReturn(Optional.of(borrower));
+        when(libraryLendingSystem.getBorrower("free")).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<Member> responseEntity = bookController.getBorrower("lent");
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(borrower, responseEntity.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, bookController.getBorrower("free").getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.getAvailableBooks() lists available books, or searches them given a query.
+     */
+    @Test
+    void getAvailableBooksListsOrSearches() {
+        // Arrange
+        List<Book> available = List.of(new Book("Book1", "Author1"), new Book("Book2", "Author2"));
+        List<Book> matches = available.subList(0, 1);
+        when(libraryLendingSystem.getAvailableBooks(Page.DEFAULT_SIZE)).thenReturn(available);
+        when(libraryLendingSystem.searchAvailableBooks("book1", 10)).thenReturn(matches);
+
+        // Act
+        ResponseEntity<List<Book>> listed = bookController.getAvailableBooks(null, null);
+        ResponseEntity<List<Book>> searched = bookController.getAvailableBooks("book1", 10);
+
+        // Assert
+        assertEquals(available, listed.getBody());
+        assertEquals(matches, searched.getBody());
+        assertEquals(available, bookController.getAvailableBooks(" ", null).getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.getAvailableBooks(null, 0).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.fuzzySearchAvailableBooks() and countAvailableBooks() use the library.
+     */
+    @Test
+    void fuzzySearchAndCountAvailableBooks() {
+        // Arrange
+        List<Book> matches = List.of(new Book("Book1", "Author1"));
+        when(libraryLendingSystem.fuzzySearchAvailableBooks("bok1", LibraryLendingSystem.DEFAULT_SIMILARITY,
+                Page.DEFAULT_SIZE)).thenReturn(matches);
+        when(libraryLendingSystem.countAvailableBooks()).thenReturn(42);
+
+        // Act
+        ResponseEntity<List<Book>> responseEntity = bookController.fuzzySearchAvailableBooks("bok1", null, null);
+
+        // Assert
+        assertEquals(matches, responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, bookController.fuzzySearchAvailableBooks("bok1", 2.0, null).getStatusCode());
+        assertEquals(42, bookController.countAvailableBooks().getBody());
+    }
+
+    /**
+     * Test case to verify that BookController.suggestBooks() returns the library's suggestions.
+     */
+    @Test
+    void suggestBooksReturnsSuggestions() {
+        // Arrange
+        when(libraryLendingSystem.suggestBooks("bo", LibraryLendingSystem.DEFAULT_SUGGESTIONS))
+                .thenReturn(List.of("Book1", "Book2"));
+
+        // Act
+        ResponseEntity<List<String>> responseEntity = bookController.suggestBooks("bo", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of("Book1", "Book2"), responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                bookController.suggestBooks("bo", LibraryLendingSystem.MAX_SUGGESTIONS + 1).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that BookController.addBooks() ingests the body and summarises the result.
+     */
+    @Test
+    void addBooksReturnsSummary() throws IOException {
+        // Arrange
+        String body = "{\"title\":\"Book1\",\"author\":\"Author1\"}\n{\"title\":\"Book2\"}\n";
+        when(libraryLendingSystem.addBooks(anyCollection())).thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+
+        // Act
+        ResponseEntity<BookIngester.IngestResult> responseEntity =
+                bookController.addBooks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(2, responseEntity.getBody().getRecords());
+        assertEquals(1, responseEntity.getBody().getAdded());
+        assertEquals(1, responseEntity.getBody().getFailed());
+    }
+
+    /**
+     * Test case to verify that BookController.addBooks() returns HttpStatus.BAD_REQUEST for malformed JSON.
+     */
+    @Test
+    void addBooksReturnsBadRequestForMalformedJson() throws IOException {
+        // Act
+        ResponseEntity<BookIngester.IngestResult> responseEntity =
+                bookController.addBooks(new ByteArrayInputStream("[{\"title\":".getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Test case to verify that POST /books binds a JSON body to a book and adds it.
+     */
+    @Test
+    void addBookBindsJsonBody() throws Exception {
+        // Act
+        mockMvc.perform(post("/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Dune\",\"author\":\"Frank Herbert\"}"))
+                // Assert
+                .andExpect(status().isCreated());
+        verify(libraryLendingSystem).addBook("Dune", "Frank Herbert");
+    }
+
+    /**
+     * Test case to verify that PUT /books/{bookId} binds a JSON body, including the fields the API returns, to a book.
+     */
+    @Test
+    void updateBookBindsJsonBody() throws Exception {
+        // Arrange
+        String bookId = "123";
+        when(libraryLendingSystem.getBook(bookId)).thenReturn(Optional.of(createSingleBook(bookId)));
+
+        // Act
+        mockMvc.perform(put("/books/" + bookId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":\"123\",\"title\":\"Dune\",\"author\":\"Frank Herbert\","
+                                + "\"checkedOut\":false,\"borrowedId\":\"\"}"))
+                // Assert
+                .andExpect(status().isOk());
+        ArgumentCaptor<Book> updated = ArgumentCaptor.forClass(Book.class);
+        verify(libraryLendingSystem).updateBook(eq(bookId), updated.capture());
+        assertEquals("Dune", updated.getValue().getTitle());
+        assertEquals("Frank Herbert", updated.getValue().getAuthor());
+    }
+
     /**
      * Helper method to create a map of books.
      *
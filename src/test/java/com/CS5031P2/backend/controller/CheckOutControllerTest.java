@@ -2,6 +2,7 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.LoanResult;
 import com.CS5031P2.backend.model.Member;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -107,4 +110,60 @@ class CheckOutControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     }
 
+    /**
+     * Test case to verify that CheckOutController.checkOutBooks() returns the outcome of each book.
+     */
+    @Test
+    void checkOutBooksReturnsResults() {
+        // Arrange
+        List<String> bookIds = List.of("book1", "book2");
+        List<LoanResult> results = List.of(new LoanResult("book1", LoanResult.Status.DONE),
+                new LoanResult("book2", LoanResult.Status.REJECTED));
+        when(libraryLendingSystem.getMember("member1")).thenReturn(Optional.of(new Member("Bob", "St Andrews")));
+        when(libraryLendingSystem.checkOutBooks("member1", bookIds, false)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<LoanResult>> responseEntity = checkOutController.checkOutBooks("member1", bookIds, false);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody());
+    }
+
+    /**
+     * Test case to verify that CheckOutController.checkOutBooks() returns HttpStatus.CONFLICT when an all-or-nothing
+     * checkout was rolled back.
+     */
+    @Test
+    void checkOutBooksReturnsConflictWhenRolledBack() {
+        // Arrange
+        List<String> bookIds = List.of("book1", "book2");
+        when(libraryLendingSystem.getMember("member1")).thenReturn(Optional.of(new Member("Bob", "St Andrews")));
+        when(libraryLendingSystem.checkOutBooks("member1", bookIds, true)).thenReturn(List.of(
+                new LoanResult("book1", LoanResult.Status.ROLLED_BACK),
+                new LoanResult("book2", LoanResult.Status.NOT_FOUND)));
+
+        // Act
+        ResponseEntity<List<LoanResult>> responseEntity = checkOutController.checkOutBooks("member1", bookIds, true);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Test case to verify that CheckOutController.checkOutBooks() rejects unknown members and oversized requests.
+     */
+    @Test
+    void checkOutBooksRejectsInvalidRequests() {
+        // Arrange
+        when(libraryLendingSystem.getMember("nonMember")).thenReturn(Optional.empty());
+        List<String> tooMany = Collections.nCopies(CheckOutController.MAX_BULK_SIZE + 1, "book");
+
+        // Act and Assert
+        assertEquals(HttpStatus.NOT_FOUND,
+                checkOutController.checkOutBooks("nonMember", List.of("book1"), false).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                checkOutController.checkOutBooks("member1", tooMany, false).getStatusCode());
+        verify(libraryLendingSystem, never()).checkOutBooks(anyString(), anyList(), anyBoolean());
+    }
 }
@@ -0,0 +1,112 @@
+package com.CS5031P2.backend.controller;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class contains test cases for the ExportController class.
+ */
+@SpringBootTest
+class ExportControllerTest {
+
+    @Autowired
+    private ExportController exportController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private LibraryLendingSystem libraryLendingSystem;
+
+    /**
+     * Test case to verify that ExportController.exportBooks() writes one JSON object per book and line.
+     */
+    @Test
+    void exportBooksWritesOneLinePerBook() throws IOException {
+        // Arrange
+        Map<String, Book> books = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book("Book" + i, "Author" + i);
+            books.put(book.getBookId(), book);
+        }
+        when(libraryLendingSystem.getBooks()).thenReturn(books);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> responseEntity = exportController.exportBooks();
+        String[] lines = stream(responseEntity).split("\n");
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(ExportController.NDJSON, responseEntity.getHeaders().getContentType().toString());
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode book = objectMapper.readTree(lines[i]);
+            assertEquals("Book" + i, book.get("title").asText());
+            assertEquals("Author" + i, book.get("author").asText());
+        }
+    }
+
+    /**
+     * Test case to verify that ExportController.exportMembers() writes members with their borrowed books.
+     */
+    @Test
+    void exportMembersIncludesBorrowedBooks() throws IOException {
+        // Arrange
+        Member member = new Member("Name", "Address");
+        Book book = new Book("Book", "Author");
+        member.borrowBook(book);
+        when(libraryLendingSystem.getMembers()).thenReturn(Map.of(member.getMemberId(), member));
+
+        // Act
+        String body = stream(exportController.exportMembers());
+
+        // Assert
+        assertEquals(1, body.split("\n").length);
+        JsonNode exported = objectMapper.readTree(body);
+        assertEquals(member.getMemberId(), exported.get("memberId").asText());
+        assertEquals("Book", exported.get("borrowedBooks").get(book.getBookId()).get("title").asText());
+    }
+
+    /**
+     * Test case to verify that exporting an empty catalogue writes an empty body.
+     */
+    @Test
+    void exportBooksOfEmptyCatalogueIsEmpty() throws IOException {
+        // Arrange
+        when(libraryLendingSystem.getBooks()).thenReturn(Collections.emptyMap());
+
+        // Act and Assert
+        assertEquals("", stream(exportController.exportBooks()));
+    }
+
+    /**
+     * Helper method to write a streamed response body to a string.
+     *
+     * @param responseEntity The response.
+     * @return The body.
+     * @throws IOException if the body cannot be written.
+     */
+    private static String stream(ResponseEntity<StreamingResponseBody> responseEntity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
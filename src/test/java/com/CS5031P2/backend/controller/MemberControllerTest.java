@@ -2,27 +2,39 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.LibraryLendingSystem;
 import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.Page;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * This class contains test cases for the MemberController class.
  */
 @SpringBootTest
+@AutoConfigureMockMvc
 class MemberControllerTest {
 
     @Autowired
     private MemberController memberController;
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @MockBean
     private LibraryLendingSystem libraryLendingSystem;
 
@@ -44,6 +56,26 @@ class MemberControllerTest {
         assertEquals("Member created successfully", responseEntity.getBody());
     }
 
+    /**
+     * Test case to verify that MemberController.addMember(Member) returns HttpStatus.BAD_REQUEST when the member
+     * is too large to store.
+     */
+    @Test
+    void addMemberReturnsBadRequestWhenMemberCannotBeStored() {
+        // Arrange
+        Member newMember = new Member("John Doe", "123 Main St");
+
+        doThrow(new IllegalArgumentException("Too large to store")).when(libraryLendingSystem)
+                .addMember(newMember.getName(), newMember.getAddress());
+
+        // Act
+        ResponseEntity<String> responseEntity = memberController.addMember(newMember);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Too large to store", responseEntity.getBody());
+    }
+
     /**
      * Test case to verify that MemberController.deleteMember(String) successfully deletes a member.
      */
@@ -138,6 +170,127 @@ class MemberControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     }
 
+    /**
+     * Test case to verify that MemberController.getMemberPage() passes the order, cursor and limit to the library.
+     */
+    @Test
+    void getMemberPageReturnsPage() {
+        // Arrange
+        Page<Member> page = new Page<>(List.of(new Member("Name", "Address")), null);
+        when(libraryLendingSystem.getMemberPage("name", null, 25)).thenReturn(page);
+
+        // Act
+        ResponseEntity<Page<Member>> responseEntity = memberController.getMemberPage("name", null, 25);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(page, responseEntity.getBody());
+    }
+
+    /**
+     * Test case to verify that MemberController.getMemberPage() rejects invalid sizes, orders and cursors.
+     */
+    @Test
+    void getMemberPageRejectsInvalidRequests() {
+        // Arrange
+        when(libraryLendingSystem.getMemberPage("address", null, Page.DEFAULT_SIZE))
+                .thenThrow(new IllegalArgumentException());
+
+        // Act and Assert
+        assertEquals(HttpStatus.BAD_REQUEST, memberController.getMemberPage("id", null, -1).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, memberController.getMemberPage("address", null, null).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that MemberController.searchMembers() returns the library's matches.
+     */
+    @Test
+    void searchMembersReturnsMatches() {
+        // Arrange
+        List<Member> matches = List.of(new Member("John Doe", "Address"));
+        when(libraryLendingSystem.searchMembers("john", Page.DEFAULT_SIZE)).thenReturn(matches);
+
+        // Act
+        ResponseEntity<List<Member>> responseEntity = memberController.searchMembers("john", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(matches, responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, memberController.searchMembers("john", 0).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that MemberController.fuzzySearchMembers() passes the similarity to the library.
+     */
+    @Test
+    void fuzzySearchMembersReturnsMatches() {
+        // Arrange
+        List<Member> matches = List.of(new Member("John Doe", "Address"));
+        when(libraryLendingSystem.fuzzySearchMembers("jon", 0.3, 5)).thenReturn(matches);
+
+        // Act
+        ResponseEntity<List<Member>> responseEntity = memberController.fuzzySearchMembers("jon", 0.3, 5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(matches, responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, memberController.fuzzySearchMembers("jon", -0.1, 5).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that MemberController.suggestMembers() returns the library's suggestions.
+     */
+    @Test
+    void suggestMembersReturnsSuggestions() {
+        // Arrange
+        when(libraryLendingSystem.suggestMembers("jo", 5)).thenReturn(List.of("John Doe"));
+
+        // Act
+        ResponseEntity<List<String>> responseEntity = memberController.suggestMembers("jo", 5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of("John Doe"), responseEntity.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, memberController.suggestMembers("jo", 0).getStatusCode());
+    }
+
+    /**
+     * Test case to verify that POST /members binds a JSON body to a member.
+     */
+    @Test
+    void addMemberBindsJsonBody() throws Exception {
+        // Act
+        mockMvc.perform(post("/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"address\":\"123 Main St\"}"))
+                // Assert
+                .andExpect(status().isCreated());
+        verify(libraryLendingSystem).addMember("John Doe", "123 Main St");
+    }
+
+    /**
+     * Test case to verify that PUT /members/{memberId} binds a JSON body, including the fields the API returns,
+     * to a member.
+     */
+    @Test
+    void updateMemberBindsJsonBody() throws Exception {
+        // Arrange
+        String memberId = "2";
+        when(libraryLendingSystem.getMember(memberId)).thenReturn(Optional.of(new Member("John Doe", "123 Main St")));
+
+        // Act
+        mockMvc.perform(put("/members/" + memberId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":\"2\",\"name\":\"Jane Doe\",\"address\":\"456 Main St\","
+                                + "\"borrowedBooks\":{}}"))
+                // Assert
+                .andExpect(status().isOk());
+        ArgumentCaptor<Member> updated = ArgumentCaptor.forClass(Member.class);
+        verify(libraryLendingSystem).updateMember(eq(memberId), updated.capture());
+        assertEquals("Jane Doe", updated.getValue().getName());
+        assertEquals("456 Main St", updated.getValue().getAddress());
+    }
+
     /**
      * Helper method to create a map of members.
      *
@@ -2,6 +2,7 @@ package com.CS5031P2.backend.controller;
 
 import com.CS5031P2.backend.model.Book;
 import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.LoanResult;
 import com.CS5031P2.backend.model.Member;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -106,6 +107,26 @@ class ReturnControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     }
 
+    /**
+     * Test case to verify that ReturnController.returnBooks() returns the outcome of each book.
+     */
+    @Test
+    void returnBooksReturnsResults() {
+        // Arrange
+        List<String> bookIds = List.of("book1", "book2");
+        List<LoanResult> results = List.of(new LoanResult("book1", LoanResult.Status.DONE),
+                new LoanResult("book2", LoanResult.Status.DONE));
+        when(libraryLendingSystem.getMember("member1")).thenReturn(Optional.of(new Member("Bob", "St Andrews")));
+        when(libraryLendingSystem.returnBooks("member1", bookIds, true)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<LoanResult>> responseEntity = returnController.returnBooks("member1", bookIds, true);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody());
+    }
+
     /**
      * Helper method to create a map of books for testing.
      *
@@ -0,0 +1,76 @@
+package com.CS5031P2.backend.engine;
+
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EngineManager class.
+ */
+class EngineManagerTest {
+
+    /**
+     * Creates a manager over a fresh library.
+     *
+     * @param singleWriter Whether single-writer mode is enabled.
+     * @return The manager, not yet started.
+     * @throws IOException if the library cannot be loaded.
+     */
+    private EngineManager createManager(boolean singleWriter) throws IOException {
+        EngineManager manager = new EngineManager();
+        manager.libraryLendingSystem = LibraryLendingSystem.withExamples();
+        manager.singleWriter = singleWriter;
+        manager.queueCapacity = SingleWriterEngine.DEFAULT_CAPACITY;
+        manager.maxBatch = SingleWriterEngine.DEFAULT_MAX_BATCH;
+        return manager;
+    }
+
+    /**
+     * Test that the library only gets a writer engine when single-writer mode is enabled.
+     */
+    @Test
+    void testStartOnlyWhenEnabled() throws IOException {
+        EngineManager disabled = createManager(false);
+        disabled.start();
+        assertNull(disabled.libraryLendingSystem.getEngine());
+
+        EngineManager enabled = createManager(true);
+        enabled.start();
+        assertNotNull(enabled.libraryLendingSystem.getEngine());
+        enabled.stop();
+        assertNull(enabled.libraryLendingSystem.getEngine());
+    }
+
+    /**
+     * Test that mutations go through the writer and reads see an immutable, up-to-date view.
+     */
+    @Test
+    void testMutationsThroughEngine() throws IOException {
+        EngineManager manager = createManager(true);
+        manager.start();
+        LibraryLendingSystem library = manager.libraryLendingSystem;
+        try {
+            int books = library.getBooks().size();
+            library.addBook("Clean Code", "Robert C. Martin");
+            library.addMember("Jane Doe", "456 Elm St");
+
+            assertEquals(books + 1, library.getBooks().size(), "Reads should see completed mutations");
+            assertThrows(UnsupportedOperationException.class, () -> library.getBooks().clear());
+            assertSame(library.getBooks(), library.getBooks(), "Readers should share a view between batches");
+
+            String bookId = library.getBooks().values().stream()
+                    .filter(book -> book.getTitle().equals("Clean Code")).findFirst().get().getBookId();
+            String memberId = library.getMembers().values().stream()
+                    .filter(member -> member.getName().equals("Jane Doe")).findFirst().get().getMemberId();
+            assertTrue(library.checkOutBook(memberId, bookId));
+            assertFalse(library.checkOutBook(memberId, bookId));
+            assertTrue(library.returnBook(memberId, bookId));
+            assertTrue(library.getEngine().getMutations() >= 5);
+        } finally {
+            manager.stop();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.CS5031P2.backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SingleWriterEngine class.
+ */
+class SingleWriterEngineTest {
+
+    /**
+     * Test that mutations from many threads all run on the writer thread, one at a time.
+     */
+    @Test
+    void testMutationsRunSequentiallyOnWriter() throws Exception {
+        int[] counter = new int[1];
+        List<String> writerThreads = new ArrayList<>();
+        try (SingleWriterEngine engine = new SingleWriterEngine(64, 16, () -> { })) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            engine.execute(() -> {
+                                // Unsynchronized on purpose: only the writer thread touches the counter
+                                counter[0]++;
+                                if (counter[0] == 1) {
+                                    writerThreads.add(Thread.currentThread().getName());
+                                }
+                                return null;
+                            });
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertEquals(80_000, counter[0]);
+            assertEquals(List.of("library-writer"), writerThreads);
+            assertEquals(80_000, engine.getMutations());
+            assertTrue(engine.getBatches() <= 80_000);
+        }
+    }
+
+    /**
+     * Test that queued mutations are applied in batches, with the hook run before their futures complete.
+     */
+    @Test
+    void testBatchesCompleteAfterHook() throws Exception {
+        AtomicInteger hookRuns = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (SingleWriterEngine engine = new SingleWriterEngine(64, 8, hookRuns::incrementAndGet)) {
+            try {
+                // Hold the writer so that the next mutations queue up behind it
+                CompletableFuture<Object> blocker = engine.submit(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+                List<CompletableFuture<Integer>> queued = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    int value = i;
+                    queued.add(engine.submit(() -> value));
+                }
+                assertEquals(20, engine.getQueueDepth());
+                release.countDown();
+
+                blocker.get(10, TimeUnit.SECONDS);
+                for (int i = 0; i < 20; i++) {
+                    assertEquals(i, queued.get(i).get(10, TimeUnit.SECONDS));
+                }
+                // One batch for the blocker, then at most 8 mutations per batch
+                assertEquals(4, hookRuns.get());
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    /**
+     * Test that a failing mutation fails only its own future, and a failing hook fails the whole batch.
+     */
+    @Test
+    void testFailures() {
+        AtomicBoolean failHook = new AtomicBoolean();
+        try (SingleWriterEngine engine = new SingleWriterEngine(16, 16, () -> {
+            if (failHook.get()) {
+                throw new IllegalStateException("sync failed");
+            }
+        })) {
+            assertThrows(IllegalArgumentException.class, () -> engine.execute(() -> {
+                throw new IllegalArgumentException("bad mutation");
+            }));
+            assertEquals("ok", engine.execute(() -> "ok"));
+
+            failHook.set(true);
+            CompletableFuture<String> future = engine.submit(() -> "applied");
+            CompletionException exception = assertThrows(CompletionException.class, future::join);
+            assertEquals("sync failed", exception.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test that closing applies the queued mutations and then rejects new ones.
+     */
+    @Test
+    void testCloseDrainsQueue() {
+        AtomicInteger applied = new AtomicInteger();
+        SingleWriterEngine engine = new SingleWriterEngine(1024, 4, () -> { });
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(engine.submit(applied::incrementAndGet));
+        }
+        engine.close();
+
+        assertEquals(100, applied.get());
+        assertTrue(futures.stream().allMatch(CompletableFuture::isDone));
+        assertThrows(IllegalStateException.class, () -> engine.submit(() -> null));
+        engine.close();
+    }
+
+    /**
+     * Test that a mutation executed from the writer thread runs in place instead of deadlocking.
+     */
+    @Test
+    void testNestedExecute() {
+        try (SingleWriterEngine engine = new SingleWriterEngine(4, 4, () -> { })) {
+            assertFalse(engine.isWriterThread());
+            assertEquals(2, engine.execute(() -> engine.execute(() -> 1) + 1));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the AvailabilityIndex class.
+ */
+class AvailabilityIndexTest {
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex();
+        index.reset(List.of(book("a", false), book("b", true), book("c", false)));
+    }
+
+    @Test
+    void testResetFollowsLoanStates() {
+        assertTrue(index.isAvailable("a"));
+        assertFalse(index.isAvailable("b"));
+        assertFalse(index.isAvailable("unknown"));
+        assertEquals(2, index.count());
+        assertEquals(List.of("a", "c"), index.first(10));
+    }
+
+    @Test
+    void testSetAvailableKeepsCountInStep() {
+        index.setAvailable("a", false);
+        index.setAvailable("a", false);
+        index.setAvailable("b", true);
+        index.setAvailable("unknown", true);
+
+        assertFalse(index.isAvailable("a"));
+        assertTrue(index.isAvailable("b"));
+        assertEquals(2, index.count());
+    }
+
+    @Test
+    void testRemovedBooksFreeTheirOrdinals() {
+        Book a = book("a", false);
+        index.update(a, null);
+        assertFalse(index.isAvailable("a"));
+        assertEquals(1, index.count());
+
+        // The new book takes the deleted book's ordinal, so it is listed first
+        index.update(null, book("d", false));
+        assertEquals(List.of("d", "c"), index.first(10));
+        assertEquals(2, index.count());
+    }
+
+    @Test
+    void testReplacedBookTakesItsNewState() {
+        index.update(book("c", false), book("c", true));
+
+        assertFalse(index.isAvailable("c"));
+        assertEquals(List.of("a"), index.first(10));
+    }
+
+    @Test
+    void testListingSpansAndSkipsChunks() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < AvailabilityIndex.CHUNK_SIZE * 3; i++) {
+            // Only the first and last books of the catalogue are available, leaving the middle chunk empty
+            boolean lent = i > 0 && i < AvailabilityIndex.CHUNK_SIZE * 3 - 1;
+            books.add(book("book" + i, lent));
+        }
+        index.reset(books);
+
+        assertEquals(2, index.count());
+        assertEquals(List.of("book0", "book" + (AvailabilityIndex.CHUNK_SIZE * 3 - 1)), index.first(10));
+        assertEquals(List.of("book0"), index.first(1));
+    }
+
+    @Test
+    void testScanPagesFromAnOrdinal() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < AvailabilityIndex.CHUNK_SIZE * 2; i++) {
+            // Every 100th book is available, so pages cross words and chunks
+            books.add(book("book" + i, i % 100 != 0));
+        }
+        index.reset(books);
+
+        List<String> listed = new ArrayList<>();
+        int pages = 0;
+        int next = 0;
+        while (next >= 0) {
+            List<String> page = new ArrayList<>();
+            next = index.scan(next, 7, page);
+            assertTrue(page.size() <= 7);
+            listed.addAll(page);
+            pages++;
+        }
+        assertEquals(index.first(Integer.MAX_VALUE), listed);
+        assertEquals(index.count(), listed.size());
+        assertEquals((index.count() + 6) / 7, pages);
+
+        List<String> last = new ArrayList<>();
+        assertEquals(-1, index.scan(AvailabilityIndex.CHUNK_SIZE * 2 - 1, 7, last));
+        assertEquals(List.of(), last);
+    }
+
+    private static Book book(String bookId, boolean checkedOut) {
+        Book book = new Book("Title " + bookId, "Author");
+        book.setBookId(bookId);
+        if (checkedOut) {
+            book.setCheckedOut(true);
+            book.setBorrowedId("member");
+        }
+        return book;
+    }
+}
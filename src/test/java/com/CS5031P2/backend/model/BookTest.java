@@ -1,5 +1,6 @@
 package com.CS5031P2.backend.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -108,4 +109,37 @@ class BookTest {
         book.setBorrowedId("12345");
         assertEquals("12345", book.getBorrowedId());
     }
+
+    /**
+     * Tests that a JSON body with the fields the API returns binds to a book.
+     */
+    @Test
+    void bindFromJson() throws Exception {
+        Book bound = new ObjectMapper().readValue("{\"bookId\":\"004\",\"title\":\"Dune\","
+                + "\"author\":\"Frank Herbert\",\"checkedOut\":true,\"borrowedId\":\"12345\"}", Book.class);
+        assertEquals("004", bound.getBookId());
+        assertEquals("Dune", bound.getTitle());
+        assertEquals("Frank Herbert", bound.getAuthor());
+        assertTrue(bound.isCheckedOut());
+        assertEquals("12345", bound.getBorrowedId());
+    }
+
+    /**
+     * Tests that the loan state is only replaced when the caller saw the current one.
+     */
+    @Test
+    void compareAndSetLoan() {
+        Book.Loan available = book.getLoan();
+        assertTrue(book.compareAndSetLoan(available, new Book.Loan(true, "member", true)));
+        assertFalse(book.compareAndSetLoan(available, new Book.Loan(true, "other", true)),
+                "A stale expected state should not be replaced");
+        assertTrue(book.isCheckedOut());
+        assertEquals("member", book.getBorrowedId());
+        assertTrue(book.getLoan().pending);
+
+        book.completeLoan();
+        assertFalse(book.getLoan().pending);
+        assertTrue(book.isCheckedOut());
+        assertEquals("member", book.getBorrowedId());
+    }
 }
@@ -0,0 +1,176 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the CompactBookStore class.
+ */
+class CompactBookStoreTest {
+
+    @Test
+    void testViewsCarryEveryField() {
+        CompactBookStore store = new CompactBookStore();
+        Book book = book(UUID.randomUUID().toString(), "Título único", "Author");
+        book.setCheckedOut(true);
+        book.setBorrowedId("member");
+        store.put(book);
+
+        Book view = store.get(book.getBookId());
+
+        assertNotSame(book, view);
+        assertEquals(book.getBookId(), view.getBookId());
+        assertEquals("Título único", view.getTitle());
+        assertEquals("Author", view.getAuthor());
+        assertTrue(view.isCheckedOut());
+        assertEquals("member", view.getBorrowedId());
+        assertTrue(store.containsKey(book.getBookId()));
+        assertNull(store.get(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testNonUuidIdsAndMissingFieldsAreKept() {
+        CompactBookStore store = new CompactBookStore();
+        // Upper-case UUIDs do not print back the same, so they are kept as strings too
+        String upper = UUID.randomUUID().toString().toUpperCase();
+        store.put(book("book-1", null, null));
+        store.put(book(upper, "Title", "Author"));
+
+        Book plain = store.get("book-1");
+        assertEquals("book-1", plain.getBookId());
+        assertNull(plain.getTitle());
+        assertNull(plain.getAuthor());
+        assertFalse(plain.isCheckedOut());
+        assertEquals(upper, store.get(upper).getBookId());
+        assertNull(store.get(upper.toLowerCase()));
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        CompactBookStore store = new CompactBookStore();
+        String bookId = UUID.randomUUID().toString();
+        store.put(book(bookId, "Old", "Author"));
+        store.put(book(bookId, "New", "Author"));
+        assertEquals(1, store.size());
+        assertEquals("New", store.get(bookId).getTitle());
+
+        assertTrue(store.remove(bookId));
+        assertFalse(store.remove(bookId));
+        assertNull(store.get(bookId));
+        assertEquals(0, store.size());
+
+        // The removed book's row is reused when the ID comes back
+        store.put(book(bookId, "Again", "Author"));
+        assertEquals("Again", store.get(bookId).getTitle());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testGrowsAndMatchesTheBooksItWasBuiltFrom() {
+        Map<String, Book> books = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            Book book = book(i % 10 == 0 ? "book" + i : UUID.randomUUID().toString(), "Title " + i, "Author " + i % 50);
+            books.put(book.getBookId(), book);
+        }
+        CompactBookStore store = new CompactBookStore();
+        books.values().forEach(store::put);
+
+        assertEquals(books.size(), store.size());
+        assertEquals(50, store.authorCount());
+        Map<String, Book> view = store.asMap();
+        assertEquals(books.keySet(), view.keySet());
+        for (Book book : books.values()) {
+            assertEquals(book.getTitle(), view.get(book.getBookId()).getTitle());
+            assertEquals(book.getAuthor(), view.get(book.getBookId()).getAuthor());
+        }
+        List<String> visited = new ArrayList<>();
+        store.forEach(book -> visited.add(book.getBookId()));
+        assertEquals(books.size(), visited.size());
+    }
+
+    @Test
+    void testSetLoanKeepsTitleAndAuthor() {
+        CompactBookStore store = new CompactBookStore();
+        String bookId = UUID.randomUUID().toString();
+        store.put(book(bookId, "Title", "Author"));
+
+        store.setLoan(bookId, true, "member");
+        Book lent = store.get(bookId);
+        assertTrue(lent.isCheckedOut());
+        assertEquals("member", lent.getBorrowedId());
+        assertEquals("Title", lent.getTitle());
+        assertEquals("Author", lent.getAuthor());
+
+        store.setLoan(bookId, false, "");
+        assertFalse(store.get(bookId).isCheckedOut());
+        assertEquals("", store.get(bookId).getBorrowedId());
+    }
+
+    @Test
+    void testChurnDoesNotGrowTheStore() {
+        CompactBookStore store = new CompactBookStore();
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String bookId = UUID.randomUUID().toString();
+            store.put(book(bookId, "Kept " + i, "Kept author " + i % 5));
+            kept.add(bookId);
+        }
+        int poolBytes = store.titlePoolBytes();
+        for (int round = 0; round < 1_000; round++) {
+            String bookId = UUID.randomUUID().toString();
+            store.put(book(bookId, "Passing title " + round, "Passing author " + round));
+            store.put(book(kept.get(round % kept.size()), "Renamed " + round, "Kept author " + round % 5));
+            assertTrue(store.remove(bookId));
+        }
+
+        // Removed books leave neither their authors nor their titles behind
+        assertEquals(kept.size(), store.size());
+        assertEquals(5, store.authorCount());
+        assertTrue(store.titlePoolBytes() < poolBytes * 4, "Pool grew to " + store.titlePoolBytes());
+        for (int i = 0; i < kept.size(); i++) {
+            Book book = store.get(kept.get(i));
+            assertEquals("Renamed " + (900 + i), book.getTitle());
+            assertEquals("Kept author " + (900 + i) % 5, book.getAuthor());
+        }
+    }
+
+    @Test
+    void testRemovingKeepsOtherBooksReachable() {
+        // Enough books that probe runs in the ID table are long, so removals must move later rows back
+        CompactBookStore store = new CompactBookStore();
+        List<String> bookIds = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String bookId = UUID.randomUUID().toString();
+            store.put(book(bookId, "Title " + i, "Author"));
+            bookIds.add(bookId);
+        }
+        for (int i = 0; i < bookIds.size(); i += 2) {
+            assertTrue(store.remove(bookIds.get(i)));
+        }
+
+        assertEquals(2_500, store.size());
+        for (int i = 0; i < bookIds.size(); i++) {
+            assertEquals(i % 2 == 1, store.containsKey(bookIds.get(i)));
+        }
+        List<String> visited = new ArrayList<>();
+        store.forEach(book -> visited.add(book.getBookId()));
+        assertEquals(2_500, visited.size());
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0, store.authorCount());
+        assertNull(store.get(bookIds.get(1)));
+    }
+
+    private static Book book(String bookId, String title, String author) {
+        Book book = new Book(title, author);
+        book.setBookId(bookId);
+        return book;
+    }
+}
@@ -1,21 +1,30 @@
 package com.CS5031P2.backend.model;
 
-import com.CS5031P2.backend.util.FileUtil;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import com.CS5031P2.backend.util.BookParser;
+import com.CS5031P2.backend.util.MemberParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.mockito.Mockito.mockStatic;
-import static org.mockito.Mockito.when;
 import static org.springframework.test.util.AssertionErrors.*;
 
 /**
@@ -23,20 +32,14 @@ import static org.springframework.test.util.AssertionErrors.*;
  */
 public class LibraryLendingSystemTest {
     private LibraryLendingSystem library;
-    private static MockedStatic<FileUtil> mockedFileUtil;
 
-    @BeforeAll
-    public static void mockSetup() throws IOException {
-        mockedFileUtil = Mockito.mockStatic(FileUtil.class);
-        mockedFileUtil.when(() -> FileUtil.readFile("src/main/resources/book_examples.json"))
-                .thenReturn("[{\"title\":\"Book Title\",\"author\":\"Author Name\"}]");
-        mockedFileUtil.when(() -> FileUtil.readFile("src/main/resources/member_examples.json"))
-                .thenReturn("[{\"name\":\"Member Name\",\"Address\":\"Member Address\"}]");
-    }
-
-    @AfterAll
-    public static void tearDown() {
-        mockedFileUtil.close(); // Unregister the mock
+    /**
+     * Creates a fresh stream over the given file content.
+     * @param content The file content.
+     * @return An input stream over the content.
+     */
+    private static InputStream streamOf(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -46,6 +49,28 @@ public class LibraryLendingSystemTest {
     @BeforeEach
     public void setUp() throws IOException {
         library = new LibraryLendingSystem();
+        library.setBooks(new BookParser().parseBooks(
+                streamOf("[{\"title\":\"Book Title\",\"author\":\"Author Name\"}]")));
+        library.setMembers(new MemberParser().getParsedMembers(
+                streamOf("[{\"name\":\"Member Name\",\"Address\":\"Member Address\"}]")));
+    }
+
+    /**
+     * Test that a new library is empty, and that the examples are read from the classpath rather than from
+     * the working directory.
+     * @throws IOException if the examples cannot be read.
+     */
+    @Test
+    public void testExamplesLoadedFromClasspath() throws IOException {
+        LibraryLendingSystem empty = new LibraryLendingSystem();
+        assertTrue("A new library should have no books", empty.getBooks().isEmpty());
+        assertTrue("A new library should have no members", empty.getMembers().isEmpty());
+
+        LibraryLendingSystem examples = LibraryLendingSystem.withExamples();
+        assertFalse("The example books should be loaded", examples.getBooks().isEmpty());
+        assertFalse("The example members should be loaded", examples.getMembers().isEmpty());
+        assertNotNull("The examples should be on the classpath",
+                LibraryLendingSystem.class.getResource(LibraryLendingSystem.EXAMPLE_BOOKS));
     }
 
     /**
@@ -61,6 +86,26 @@ public class LibraryLendingSystemTest {
         assertTrue("Added book should be in the library", library.getBooks().values().stream().anyMatch(book -> book.getTitle().equals(title) && book.getAuthor().equals(author)));
     }
 
+    /**
+     * Test method to verify that adding books in bulk keeps their IDs and skips IDs already present.
+     */
+    @Test
+    public void testAddBooks() {
+        Book first = new Book("First", "Author");
+        first.setBookId("first");
+        Book second = new Book("Second", "Author");
+        second.setBookId("second");
+        library.addBooks(List.of(first));
+
+        Book duplicate = new Book("Replacement", "Author");
+        duplicate.setBookId("first");
+        int added = library.addBooks(List.of(duplicate, second));
+
+        assertEquals("Only the new book should be added", 1, added);
+        assertEquals("Existing book should be kept", "First", library.getBook("first").get().getTitle());
+        assertTrue("New book should be in the library", library.getBook("second").isPresent());
+    }
+
     /**
      * Test method to verify the retrieval of borrowed books for a member.
      */
@@ -412,6 +457,693 @@ public class LibraryLendingSystemTest {
         assertFalse("A member should not be able to return a book borrowed by another member", returnSuccess);
     }
 
+    /**
+     * Test method to verify that when many members race to check out the same book, exactly one succeeds.
+     */
+    @Test
+    public void testConcurrentCheckOutOfSameBook() throws Exception {
+        int threads = 16;
+        library.setBooks(new ConcurrentHashMap<>());
+        library.setMembers(new ConcurrentHashMap<>());
+        for (int i = 0; i < threads; i++) {
+            library.addMember("Member " + i, "Address " + i);
+        }
+        List<String> memberIDs = new ArrayList<>(library.getMembers().keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int round = 0; round < 200; round++) {
+                String title = "Book " + round;
+                library.addBook(title, "Author");
+                String bookID = library.getBooks().values().stream()
+                        .filter(book -> book.getTitle().equals(title)).findFirst().get().getBookId();
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger successes = new AtomicInteger();
+
+                List<Future<?>> futures = new ArrayList<>();
+                for (String memberID : memberIDs) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        if (library.checkOutBook(memberID, bookID)) {
+                            successes.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+
+                assertEquals("Exactly one checkout should succeed", 1, successes.get());
+                String borrower = library.getBook(bookID).get().getBorrowedId();
+                long holders = memberIDs.stream()
+                        .filter(memberID -> library.getBorrowedBooks(memberID).containsKey(bookID)).count();
+                assertEquals("Exactly one member should hold the book", 1L, holders);
+                assertTrue("The holder should be the recorded borrower",
+                        library.getBorrowedBooks(borrower).containsKey(bookID));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test method to verify that updating a book keeps its loan, whatever loan the updated book was given.
+     */
+    @Test
+    public void testUpdateBookKeepsLoan() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addBook("Old Title", "Author");
+        library.addBook("Other Title", "Author");
+        library.addMember("Member", "Address");
+        String memberID = library.getMembers().keySet().iterator().next();
+        String borrowedID = library.searchBooks("old", 1).get(0).getBookId();
+        String availableID = library.searchBooks("other", 1).get(0).getBookId();
+        assertTrue("Checkout should succeed", library.checkOutBook(memberID, borrowedID));
+
+        Book cleared = new Book("New Title", "Author");
+        library.updateBook(borrowedID, cleared);
+        Book claimed = new Book("Other Title", "Author");
+        claimed.setCheckedOut(true);
+        claimed.setBorrowedId(memberID);
+        library.updateBook(availableID, claimed);
+
+        assertTrue("Updated book should still be checked out", library.getBook(borrowedID).get().isCheckedOut());
+        assertEquals("Updated book should keep its borrower", memberID, library.getBook(borrowedID).get().getBorrowedId());
+        assertEquals("Updated book should take the new title", "New Title", library.getBook(borrowedID).get().getTitle());
+        assertFalse("Available book should stay available", library.getBook(availableID).get().isCheckedOut());
+        assertEquals("Member should hold only the borrowed book", List.of(borrowedID),
+                List.copyOf(library.getBorrowedBooks(memberID).keySet()));
+        assertTrue("Updated book should be returnable", library.returnBook(memberID, borrowedID));
+    }
+
+    /**
+     * Test method to verify that a checkout racing updates of the same book is never lost, and that the
+     * updates never set the loan themselves.
+     */
+    @Test
+    public void testConcurrentUpdateAndCheckOut() throws Exception {
+        int threads = 4;
+        library.setBooks(new ConcurrentHashMap<>());
+        library.setMembers(new ConcurrentHashMap<>());
+        for (int i = 0; i < threads; i++) {
+            library.addMember("Member " + i, "Address " + i);
+        }
+        List<String> memberIDs = new ArrayList<>(library.getMembers().keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+        try {
+            for (int round = 0; round < 500; round++) {
+                String title = "Book " + round;
+                library.addBook(title, "Author");
+                String bookID = library.getBooks().values().stream()
+                        .filter(book -> book.getTitle().equals(title)).findFirst().get().getBookId();
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger successes = new AtomicInteger();
+
+                List<Future<?>> futures = new ArrayList<>();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20; i++) {
+                        Book updated = new Book(title + " v" + i, "Author");
+                        updated.setCheckedOut(i % 2 == 0);
+                        library.updateBook(bookID, updated);
+                    }
+                    return null;
+                }));
+                for (String memberID : memberIDs) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        if (library.checkOutBook(memberID, bookID)) {
+                            successes.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+
+                Book book = library.getBook(bookID).get();
+                assertEquals("Exactly one checkout should succeed", 1, successes.get());
+                assertEquals("The last update should be kept", title + " v19", book.getTitle());
+                assertTrue("The book should still be checked out", book.isCheckedOut());
+                assertTrue("The borrower should hold the book",
+                        library.getBorrowedBooks(book.getBorrowedId()).containsKey(bookID));
+                assertEquals("No book should be available", 0, library.countAvailableBooks());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test method to verify that concurrent checkouts and returns over a shared set of books leave every
+     * book and member consistent, and never deadlock.
+     */
+    @Test
+    public void testConcurrentCheckOutAndReturnStaysConsistent() throws Exception {
+        int threads = 8;
+        library.setBooks(new ConcurrentHashMap<>());
+        library.setMembers(new ConcurrentHashMap<>());
+        for (int i = 0; i < 32; i++) {
+            library.addBook("Book " + i, "Author " + i);
+        }
+        for (int i = 0; i < 16; i++) {
+            library.addMember("Member " + i, "Address " + i);
+        }
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+        List<String> memberIDs = new ArrayList<>(library.getMembers().keySet());
+        AtomicInteger checkedOut = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        String memberID = memberIDs.get(random.nextInt(memberIDs.size()));
+                        String bookID = bookIDs.get(random.nextInt(bookIDs.size()));
+                        if (random.nextBoolean()) {
+                            if (library.checkOutBook(memberID, bookID)) {
+                                checkedOut.incrementAndGet();
+                            }
+                        } else if (library.returnBook(memberID, bookID)) {
+                            checkedOut.decrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int held = 0;
+        for (Member member : library.getMembers().values()) {
+            for (Book book : member.getBorrowedBooks().values()) {
+                held++;
+                assertTrue("Held book should be checked out", book.isCheckedOut());
+                assertEquals("Held book should name its borrower", member.getMemberId(), book.getBorrowedId());
+            }
+        }
+        long loaned = library.getBooks().values().stream().filter(Book::isCheckedOut).count();
+        assertEquals("Every checked out book should be held by one member", loaned, (long) held);
+        assertEquals("Net successful checkouts should match the books on loan", checkedOut.get(), held);
+    }
+
+    /**
+     * Test method to verify that a book whose loan is still being recorded cannot be checked out or returned.
+     */
+    @Test
+    public void testPendingLoanRejectsCheckOutAndReturn() {
+        library.addMember("Member One", "Address One");
+        library.addBook("Book One", "Author One");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        String bookID = new ArrayList<>(library.getBooks().keySet()).get(0);
+        Book book = library.getBook(bookID).get();
+
+        // Another desk has claimed the book but not yet finished recording the checkout
+        book.compareAndSetLoan(book.getLoan(), new Book.Loan(true, memberID, true));
+        assertFalse("A pending book should not be checked out", library.checkOutBook(memberID, bookID));
+        assertFalse("A pending book should not be returned", library.returnBook(memberID, bookID));
+
+        book.completeLoan();
+        assertTrue("The completed loan should be returnable", library.returnBook(memberID, bookID));
+        assertFalse("Book should be available after return", book.isCheckedOut());
+    }
+
+    /**
+     * Test method to verify that a version keeps showing the library as it was when it was taken.
+     */
+    @Test
+    public void testVersionIsUnaffectedByLaterChanges() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addBook("Book One", "Author One");
+        library.addMember("Member One", "Address One");
+        String bookID = new ArrayList<>(library.getBooks().keySet()).get(0);
+        LibraryLendingSystem.Version before = library.getVersion();
+        Map<String, Book> booksBefore = library.getBooks();
+
+        library.addBook("Book Two", "Author Two");
+        library.deleteBook(bookID);
+        library.deleteMember(new ArrayList<>(library.getMembers().keySet()).get(0));
+
+        assertEquals("Old version should keep its books", 1, before.getBooks().size());
+        assertTrue("Old version should keep the deleted book", before.getBooks().containsKey(bookID));
+        assertEquals("Old version should keep its members", 1, before.getMembers().size());
+        assertEquals("Old books map should be unchanged", before.getBooks(), booksBefore);
+        assertEquals("Current version should have the new book only", 1, library.getBooks().size());
+        assertFalse("Current version should not have the deleted book", library.getBooks().containsKey(bookID));
+        assertTrue("Version number should increase", library.getVersion().getNumber() > before.getNumber());
+    }
+
+    /**
+     * Test method to verify that the maps handed to readers cannot be modified.
+     */
+    @Test
+    public void testBooksAndMembersAreImmutable() {
+        library.addBook("Book One", "Author One");
+        Map<String, Book> books = library.getBooks();
+        Map<String, Member> members = library.getMembers();
+
+        try {
+            books.clear();
+            fail("Books should be immutable");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            members.put("id", new Member("Name", "Address"));
+            fail("Members should be immutable");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Test method to verify that paging through books follows additions, updates and deletions.
+     */
+    @Test
+    public void testBookPagesFollowChanges() {
+        library.setBooks(new HashMap<>());
+        for (String title : new String[] {"Dune", "Beloved", "Emma", "Atonement"}) {
+            library.addBook(title, "Author");
+        }
+        String emmaId = library.getBookPage(LibraryLendingSystem.ORDER_BY_TITLE, null, 10).getItems().get(3).getBookId();
+        library.updateBook(emmaId, new Book("Carrie", "Author"));
+        library.deleteBook(library.getBookPage(LibraryLendingSystem.ORDER_BY_TITLE, null, 1).getItems().get(0).getBookId());
+
+        Page<Book> first = library.getBookPage(LibraryLendingSystem.ORDER_BY_TITLE, null, 2);
+        Page<Book> second = library.getBookPage(LibraryLendingSystem.ORDER_BY_TITLE, first.getNextCursor(), 2);
+
+        assertEquals("First page should hold the first two titles", List.of("Beloved", "Carrie"),
+                List.of(first.getItems().get(0).getTitle(), first.getItems().get(1).getTitle()));
+        assertEquals("Second page should hold the last title", 1, second.getItems().size());
+        assertEquals("Second page should hold the last title", "Dune", second.getItems().get(0).getTitle());
+        assertNull("Last page should have no cursor", second.getNextCursor());
+        assertEquals("Paging by ID should see every book", 3,
+                library.getBookPage(LibraryLendingSystem.ORDER_BY_ID, null, 10).getItems().size());
+    }
+
+    /**
+     * Test method to verify that searching books follows additions, updates and deletions.
+     */
+    @Test
+    public void testSearchBooksFollowsChanges() {
+        library.setBooks(new HashMap<>());
+        library.addBook("Nineteen Eighty-Four", "George Orwell");
+        library.addBook("The Road to Wigan Pier", "George Orwell");
+        library.addBook("Down and Out in Paris and London", "George Orwell");
+        String pierId = library.searchBooks("wigan", 10).get(0).getBookId();
+        library.updateBook(pierId, new Book("Homage to Catalonia", "George Orwell"));
+        library.deleteBook(library.searchBooks("paris", 10).get(0).getBookId());
+
+        assertEquals("Renamed title should no longer match", 0, library.searchBooks("wigan", 10).size());
+        assertEquals("New title should match", pierId, library.searchBooks("Catalonia", 10).get(0).getBookId());
+        assertEquals("Deleted book should not match", 0, library.searchBooks("paris", 10).size());
+        assertEquals("Author search should see the remaining books", 2, library.searchBooks("orwell", 10).size());
+    }
+
+    /**
+     * Test method to verify that fuzzy searches find books and members despite misspellings.
+     */
+    @Test
+    public void testFuzzySearchFindsMisspellings() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addBook("The Godfather", "Mario Puzo");
+        library.addBook("Animal Farm", "George Orwell");
+        library.addMember("Jane Austen", "Address");
+
+        assertEquals("Misspelt author should match", "The Godfather",
+                library.fuzzySearchBooks("Puzzo", LibraryLendingSystem.DEFAULT_SIMILARITY, 10).get(0).getTitle());
+        assertEquals("Misspelt author should not match exactly", 0, library.searchBooks("Orwel", 10).size());
+        assertEquals("Misspelt name should match", "Jane Austen",
+                library.fuzzySearchMembers("jane austin", LibraryLendingSystem.DEFAULT_SIMILARITY, 10).get(0).getName());
+        assertEquals("Exact name should match", 1, library.searchMembers("AUSTEN", 10).size());
+    }
+
+    /**
+     * Test method to verify that updating a member keeps the books it has borrowed.
+     */
+    @Test
+    public void testUpdateMemberKeepsBorrowedBooks() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addMember("Member One", "Address One");
+        library.addBook("Book One", "Author One");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        String bookID = new ArrayList<>(library.getBooks().keySet()).get(0);
+        library.checkOutBook(memberID, bookID);
+
+        // The update carries no borrowed books, as when it is sent without them
+        library.updateMember(memberID, new Member("Member Renamed", "Address Two"));
+
+        Member updated = library.getMember(memberID).get();
+        assertEquals("Member should be renamed", "Member Renamed", updated.getName());
+        assertTrue("Updated member should still hold the book", updated.getBorrowedBooks().containsKey(bookID));
+        assertTrue("Borrowed books should still list the book", library.getBorrowedBooks(memberID).containsKey(bookID));
+        assertTrue("The member should be able to return the book", library.returnBook(memberID, bookID));
+        assertTrue("Updated member should hold no books", updated.getBorrowedBooks().isEmpty());
+    }
+
+    /**
+     * Test method to verify that the borrower of a book follows checkouts, returns and deletions.
+     */
+    @Test
+    public void testGetBorrowerFollowsLoans() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addMember("Member One", "Address One");
+        library.addBook("Book One", "Author One");
+        library.addBook("Book Two", "Author Two");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+        assertFalse("An available book should have no borrower", library.getBorrower(bookIDs.get(0)).isPresent());
+
+        library.checkOutBooks(memberID, bookIDs, true);
+        assertEquals("Borrower should be the member", memberID, library.getBorrower(bookIDs.get(0)).get().getMemberId());
+        assertEquals("Member should hold both books", 2, library.getBorrowedBooks(memberID).size());
+
+        library.returnBook(memberID, bookIDs.get(0));
+        library.deleteBook(bookIDs.get(1));
+        assertFalse("A returned book should have no borrower", library.getBorrower(bookIDs.get(0)).isPresent());
+        assertFalse("A deleted book should have no borrower", library.getBorrower(bookIDs.get(1)).isPresent());
+        assertTrue("Member should hold no books", library.getBorrowedBooks(memberID).isEmpty());
+    }
+
+    /**
+     * Test method to verify that available books are listed, counted and searched as loans change.
+     */
+    @Test
+    public void testAvailableBooksFollowLoans() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addMember("Member One", "Address One");
+        library.addBook("Animal Farm", "George Orwell");
+        library.addBook("Burmese Days", "George Orwell");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        String farmID = library.searchBooks("farm", 1).get(0).getBookId();
+        assertEquals("Both books should be available", 2, library.countAvailableBooks());
+
+        library.checkOutBook(memberID, farmID);
+        assertEquals("One book should be available", 1, library.countAvailableBooks());
+        assertEquals("Only the book on the shelf should be listed", "Burmese Days",
+                library.getAvailableBooks(10).get(0).getTitle());
+        assertEquals("Search should skip the book on loan", 1, library.searchAvailableBooks("orwell", 10).size());
+        assertEquals("Fuzzy search should skip the book on loan", 0,
+                library.fuzzySearchAvailableBooks("animl", LibraryLendingSystem.DEFAULT_SIMILARITY, 10).size());
+
+        library.returnBook(memberID, farmID);
+        library.deleteBook(farmID);
+        assertEquals("A deleted book should not be counted", 1, library.countAvailableBooks());
+        assertEquals("The remaining book should be listed", 1, library.getAvailableBooks(10).size());
+    }
+
+    /**
+     * Test method to verify that available books are paged with a cursor and that invalid cursors are rejected.
+     */
+    @Test
+    public void testAvailableBookPages() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addMember("Member One", "Address One");
+        for (int i = 0; i < 5; i++) {
+            library.addBook("Title " + i, "Author");
+        }
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        String lentID = library.getAvailableBooks(1).get(0).getBookId();
+        library.checkOutBook(memberID, lentID);
+
+        Page<Book> first = library.getAvailableBookPage(null, 3);
+        assertEquals("The first page should be full", 3, first.getItems().size());
+        assertNotNull("A cursor should be given while books remain", first.getNextCursor());
+        Page<Book> second = library.getAvailableBookPage(first.getNextCursor(), 3);
+        assertEquals("The second page should hold the last book", 1, second.getItems().size());
+        assertNull("The last page should have no cursor", second.getNextCursor());
+
+        Set<String> listed = new HashSet<>();
+        first.getItems().forEach(book -> listed.add(book.getBookId()));
+        second.getItems().forEach(book -> listed.add(book.getBookId()));
+        assertEquals("Every book on the shelf should be listed once", 4, listed.size());
+        assertFalse("The book on loan should not be listed", listed.contains(lentID));
+
+        for (String cursor : List.of("abc", "-1")) {
+            try {
+                library.getAvailableBookPage(cursor, 3);
+                fail("The cursor " + cursor + " should be rejected");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Test method to verify that suggestions follow changes to books and members.
+     */
+    @Test
+    public void testSuggestionsFollowChanges() {
+        library.setBooks(new HashMap<>());
+        library.setMembers(new HashMap<>());
+        library.addBook("Animal Farm", "George Orwell");
+        library.addMember("Georgina Smith", "Address");
+        String bookId = library.searchBooks("farm", 1).get(0).getBookId();
+        library.updateBook(bookId, new Book("Burmese Days", "George Orwell"));
+
+        assertEquals("Old title should no longer be suggested", List.of(), library.suggestBooks("anim", 10));
+        assertEquals("Authors should be suggested", List.of("George Orwell"), library.suggestBooks("geo", 10));
+        assertEquals("New title should be suggested", List.of("Burmese Days"), library.suggestBooks("days", 10));
+        assertEquals("Member names should be suggested", List.of("Georgina Smith"), library.suggestMembers("geo", 10));
+    }
+
+    /**
+     * Test method to verify that members can be paged by name and that unknown orders are rejected.
+     */
+    @Test
+    public void testMemberPages() {
+        library.setMembers(new HashMap<>());
+        library.addMember("Zoe", "Address");
+        library.addMember("Adam", "Address");
+
+        Page<Member> page = library.getMemberPage(LibraryLendingSystem.ORDER_BY_NAME, null, 1);
+
+        assertEquals("Members should be ordered by name", "Adam", page.getItems().get(0).getName());
+        assertNotNull("A further page should be available", page.getNextCursor());
+        try {
+            library.getMemberPage(LibraryLendingSystem.ORDER_BY_TITLE, null, 1);
+            fail("Members cannot be ordered by title");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Test method to verify that a bulk checkout lends every available book and reports the rest.
+     */
+    @Test
+    public void testCheckOutBooksReportsEachBook() {
+        library.addMember("Member One", "Address One");
+        library.addMember("Member Two", "Address Two");
+        library.setBooks(new HashMap<>());
+        library.addBook("Book One", "Author One");
+        library.addBook("Book Two", "Author Two");
+        List<String> memberIDs = new ArrayList<>(library.getMembers().keySet());
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+        library.checkOutBook(memberIDs.get(1), bookIDs.get(1));
+
+        List<LoanResult> results = library.checkOutBooks(memberIDs.get(0),
+                List.of(bookIDs.get(0), bookIDs.get(1), "missing"), false);
+
+        assertEquals("First book should be lent", LoanResult.Status.DONE, results.get(0).getStatus());
+        assertEquals("Lent book should be rejected", LoanResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Missing book should be reported", LoanResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertTrue("Member should hold the first book",
+                library.getBorrowedBooks(memberIDs.get(0)).containsKey(bookIDs.get(0)));
+        assertEquals("Second book should stay with the other member", memberIDs.get(1),
+                library.getBook(bookIDs.get(1)).get().getBorrowedId());
+    }
+
+    /**
+     * Test method to verify that an all-or-nothing bulk checkout lends nothing if any book is unavailable.
+     */
+    @Test
+    public void testCheckOutBooksAllOrNothingRollsBack() {
+        library.addMember("Member One", "Address One");
+        library.setBooks(new HashMap<>());
+        library.addBook("Book One", "Author One");
+        library.addBook("Book Two", "Author Two");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+
+        List<LoanResult> results = library.checkOutBooks(memberID,
+                List.of(bookIDs.get(0), bookIDs.get(1), "missing"), true);
+
+        assertEquals("Available books should be rolled back", LoanResult.Status.ROLLED_BACK, results.get(0).getStatus());
+        assertEquals("Available books should be rolled back", LoanResult.Status.ROLLED_BACK, results.get(1).getStatus());
+        assertEquals("Missing book should be reported", LoanResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertTrue("Member should hold no books", library.getBorrowedBooks(memberID).isEmpty());
+        assertFalse("Books should be available", library.getBook(bookIDs.get(0)).get().isCheckedOut());
+        assertTrue("Rolled back book can still be checked out", library.checkOutBook(memberID, bookIDs.get(0)));
+    }
+
+    /**
+     * Test method to verify that a bulk return only returns books the member has borrowed.
+     */
+    @Test
+    public void testReturnBooks() {
+        library.addMember("Member One", "Address One");
+        library.setBooks(new HashMap<>());
+        library.addBook("Book One", "Author One");
+        library.addBook("Book Two", "Author Two");
+        String memberID = new ArrayList<>(library.getMembers().keySet()).get(0);
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+        library.checkOutBooks(memberID, bookIDs, true);
+
+        List<LoanResult> rolledBack = library.returnBooks(memberID, List.of(bookIDs.get(0), "missing"), true);
+        List<LoanResult> results = library.returnBooks(memberID, bookIDs, true);
+
+        assertEquals("Return should be rolled back", LoanResult.Status.ROLLED_BACK, rolledBack.get(0).getStatus());
+        assertEquals("First book should be returned", LoanResult.Status.DONE, results.get(0).getStatus());
+        assertEquals("Second book should be returned", LoanResult.Status.DONE, results.get(1).getStatus());
+        assertTrue("Member should hold no books", library.getBorrowedBooks(memberID).isEmpty());
+        assertFalse("Book should be available", library.getBook(bookIDs.get(1)).get().isCheckedOut());
+        assertEquals("Unknown member should find no books", LoanResult.Status.NOT_FOUND,
+                library.returnBooks("nobody", bookIDs, false).get(0).getStatus());
+    }
+
+    /**
+     * Test method to verify that books by the same author share one author string, however they are added.
+     */
+    @Test
+    public void testBooksShareAuthorStrings() {
+        library.setBooks(new HashMap<>());
+        library.addBook("Book One", new String("Shared Author"));
+        Book imported = new Book("Book Two", new String("Shared Author"));
+        library.addBooks(List.of(imported));
+        String bookID = library.getBooks().values().stream()
+                .filter(book -> book.getTitle().equals("Book One")).findFirst().get().getBookId();
+        library.updateBook(bookID, new Book("Book One Revised", new String("Shared Author")));
+
+        Book updated = library.getBook(bookID).get();
+        assertEquals("Author should be unchanged", "Shared Author", updated.getAuthor());
+        assertTrue("Books should share the author string", updated.getAuthor() == imported.getAuthor());
+    }
+
+    /**
+     * Test method to verify that an author string is let go once the last book by the author is gone, so
+     * the library does not keep every author it ever had.
+     */
+    @Test
+    public void testAuthorDroppedWithTheirLastBook() {
+        library.setBooks(new HashMap<>());
+        library.addBook("Book One", new String("Passing Author"));
+        Book first = library.getBooks().values().iterator().next();
+        library.deleteBook(first.getBookId());
+
+        library.addBook("Book Two", new String("Passing Author"));
+        Book second = library.getBooks().values().iterator().next();
+        assertEquals("Author should be kept", "Passing Author", second.getAuthor());
+        assertFalse("The deleted book's author string should not be held", second.getAuthor() == first.getAuthor());
+    }
 
+    /**
+     * Test method to verify that books kept in a compact store are read, changed, lent and searched as they
+     * are when kept as objects.
+     */
+    @Test
+    public void testBooksKeptInStore() {
+        CompactBookStore store = new CompactBookStore();
+        library.useBookStore(store);
+        assertEquals("The existing book should be moved into the store", 1, store.size());
+        assertEquals("Books should be read from the store", "Book Title",
+                library.getBooks().values().iterator().next().getTitle());
+
+        library.addBook("Stored Book", "Stored Author");
+        Book stored = library.searchBooks("stored", 10).get(0);
+        String bookID = stored.getBookId();
+        String memberID = library.getMembers().keySet().iterator().next();
+        assertTrue("The store should hold the added book", store.containsKey(bookID));
+
+        assertTrue("The stored book should be checked out", library.checkOutBook(memberID, bookID));
+        assertFalse("A stored book should not be lent twice", library.checkOutBook(memberID, bookID));
+        library.updateBook(bookID, new Book("Stored Book Revised", "Stored Author"));
+        Book updated = library.getBook(bookID).get();
+        assertEquals("The update should be stored", "Stored Book Revised", updated.getTitle());
+        assertTrue("The update should keep the loan", updated.isCheckedOut());
+        assertEquals("The update should keep the borrower", memberID, updated.getBorrowedId());
+        assertTrue("The borrower should hold the book", library.getBorrowedBooks(memberID).containsKey(bookID));
+        assertEquals("Only the other book should be available", 1, library.countAvailableBooks());
+
+        List<LoanResult> rolledBack = library.returnBooks(memberID, List.of(bookID, "missing"), true);
+        assertEquals("Return should be rolled back", LoanResult.Status.ROLLED_BACK, rolledBack.get(0).getStatus());
+        assertTrue("Rolled back book should stay checked out", store.get(bookID).isCheckedOut());
+        assertTrue("The stored book should be returned", library.returnBook(memberID, bookID));
+        assertFalse("The return should be stored", store.get(bookID).isCheckedOut());
+
+        library.deleteBook(bookID);
+        assertFalse("The delete should be stored", store.containsKey(bookID));
+        assertTrue("The deleted book should not be found", library.searchBooks("stored", 10).isEmpty());
+
+        library.useBookStore(null);
+        assertEquals("Books should be moved back out of the store", 1, library.getBooks().size());
+        library.addBook("Unstored Book", "Author");
+        assertEquals("The store should no longer be changed", 1, store.size());
+    }
 
+    /**
+     * Test method to verify that bulk checkouts and returns of books kept in a store, racing updates of the
+     * same books, neither deadlock nor lose a loan.
+     */
+    @Test
+    public void testConcurrentLoansAndUpdatesInStore() throws Exception {
+        library.useBookStore(new CompactBookStore());
+        library.setBooks(new HashMap<>());
+        for (int i = 0; i < 8; i++) {
+            library.addBook("Book " + i, "Author");
+        }
+        for (int i = 0; i < 3; i++) {
+            library.addMember("Member " + i, "Address " + i);
+        }
+        List<String> bookIDs = new ArrayList<>(library.getBooks().keySet());
+        List<String> memberIDs = new ArrayList<>(library.getMembers().keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(memberIDs.size() + 1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    library.updateBook(bookIDs.get(i % bookIDs.size()), new Book("Book v" + i, "Author"));
+                }
+                return null;
+            }));
+            for (String memberID : memberIDs) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        library.checkOutBooks(memberID, bookIDs, false);
+                        library.returnBooks(memberID, bookIDs, false);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String bookID : bookIDs) {
+            assertFalse("Every book should have been returned", library.getBook(bookID).get().isCheckedOut());
+        }
+        assertEquals("Every book should be available", bookIDs.size(), library.countAvailableBooks());
+    }
 }
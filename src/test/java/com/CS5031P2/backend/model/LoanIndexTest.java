@@ -0,0 +1,84 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the LoanIndex class.
+ */
+class LoanIndexTest {
+    private Map<String, Book> books;
+    private LoanIndex index;
+
+    @BeforeEach
+    void setUp() {
+        books = new HashMap<>();
+        index = new LoanIndex();
+        index.reset(List.of(put("lent", "alice"), put("free", null)));
+    }
+
+    @Test
+    void testResetFollowsTheBooks() {
+        assertEquals("alice", index.getBorrower("lent"));
+        assertNull(index.getBorrower("free"));
+        assertEquals(Set.of("lent"), index.getLoans("alice"));
+        assertTrue(index.getLoans("bob").isEmpty());
+    }
+
+    @Test
+    void testLendMovesTheLoan() {
+        index.lend("lent", "bob");
+
+        assertEquals("bob", index.getBorrower("lent"));
+        assertTrue(index.getLoans("alice").isEmpty());
+        assertEquals(Set.of("lent"), index.getLoans("bob"));
+    }
+
+    @Test
+    void testUpdateFollowsReplacedAndRemovedBooks() {
+        Book returned = put("lent", null);
+        index.update(books.get("lent"), returned);
+        assertNull(index.getBorrower("lent"));
+
+        Book checkedOut = put("free", "bob");
+        index.update(null, checkedOut);
+        assertEquals("bob", index.getBorrower("free"));
+
+        index.update(checkedOut, null);
+        assertNull(index.getBorrower("free"));
+        assertTrue(index.getLoans("bob").isEmpty());
+    }
+
+    @Test
+    void testBorrowedBooksIsALiveView() {
+        Map<String, Book> borrowed = index.borrowedBooks("alice", books::get);
+        assertEquals(Set.of("lent"), borrowed.keySet());
+        assertSame(books.get("lent"), borrowed.get("lent"));
+        assertNull(borrowed.get("free"));
+
+        index.lend("free", "alice");
+        assertEquals(2, borrowed.size());
+        index.release("lent");
+        index.release("free");
+        assertTrue(borrowed.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> borrowed.put("free", books.get("free")));
+    }
+
+    private Book put(String bookId, String borrower) {
+        Book book = new Book("Title " + bookId, "Author");
+        book.setBookId(bookId);
+        if (borrower != null) {
+            book.setCheckedOut(true);
+            book.setBorrowedId(borrower);
+        }
+        books.put(bookId, book);
+        return book;
+    }
+}
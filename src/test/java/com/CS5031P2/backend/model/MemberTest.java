@@ -1,5 +1,6 @@
 package com.CS5031P2.backend.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
@@ -25,6 +26,25 @@ public class MemberTest {
         assertEquals("123 Main St", member.getAddress());
     }
 
+    /**
+     * Test that a member written as JSON binds back to an equal member.
+     */
+    @Test
+    public void testBindFromJson() throws Exception {
+        // Arrange
+        ObjectMapper mapper = new ObjectMapper();
+        Member member = new Member("m-1", "John Doe", "123 Main St");
+
+        // Act
+        Member bound = mapper.readValue(mapper.writeValueAsString(member), Member.class);
+
+        // Assert
+        assertEquals("m-1", bound.getMemberId());
+        assertEquals("John Doe", bound.getName());
+        assertEquals("123 Main St", bound.getAddress());
+        assertTrue(bound.getBorrowedBooks().isEmpty());
+    }
+
     /**
      * Test setters and getters.
      */
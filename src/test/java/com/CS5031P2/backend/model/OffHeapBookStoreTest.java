@@ -0,0 +1,130 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the OffHeapBookStore class.
+ */
+class OffHeapBookStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testViewsCarryEveryField() {
+        OffHeapBookStore store = new OffHeapBookStore();
+        Book book = book(UUID.randomUUID().toString(), "Título único", "Author");
+        book.setCheckedOut(true);
+        book.setBorrowedId("member");
+        store.put(book);
+        store.put(book("book-1", null, null));
+
+        Book view = store.get(book.getBookId());
+        assertNotSame(book, view);
+        assertEquals(book.getBookId(), view.getBookId());
+        assertEquals("Título único", view.getTitle());
+        assertEquals("Author", view.getAuthor());
+        assertTrue(view.isCheckedOut());
+        assertEquals("member", view.getBorrowedId());
+
+        Book plain = store.get("book-1");
+        assertNull(plain.getTitle());
+        assertNull(plain.getAuthor());
+        assertFalse(plain.isCheckedOut());
+        assertNull(store.get("unknown"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        OffHeapBookStore store = new OffHeapBookStore();
+        store.put(book("a", "Old", "Author"));
+        store.put(book("a", "A much longer new title", "Author"));
+        assertEquals(1, store.size());
+        assertEquals("A much longer new title", store.get("a").getTitle());
+
+        assertTrue(store.remove("a"));
+        assertFalse(store.remove("a"));
+        assertFalse(store.containsKey("a"));
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+
+        store.put(book("a", "Again", "Author"));
+        assertEquals("Again", store.get("a").getTitle());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testBooksTooLargeForARecordAreRejected() {
+        OffHeapBookStore store = new OffHeapBookStore();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(book("a", "x".repeat(OffHeapBookStore.RECORD_SIZE), "Author")));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testCheckLeavesRoomForABorrower() {
+        OffHeapBookStore store = new OffHeapBookStore();
+        String title = "x".repeat(OffHeapBookStore.RECORD_SIZE - OffHeapBookStore.BORROWER_BYTES);
+
+        store.check("a", "Title", "Author", null);
+        assertThrows(IllegalArgumentException.class, () -> store.check("a", title, "Author", null));
+        // A borrower longer than the room kept for one still counts in full
+        assertThrows(IllegalArgumentException.class,
+                () -> store.check("a", "Title", "Author", "x".repeat(OffHeapBookStore.RECORD_SIZE)));
+        store.put(book("a", title, "Author"));
+        assertEquals(title, store.get("a").getTitle());
+    }
+
+    @Test
+    void testFileSurvivesReopeningAcrossSegments() throws IOException {
+        Path file = directory.resolve("books.dat");
+        Map<String, Book> books = new HashMap<>();
+        try (OffHeapBookStore store = new OffHeapBookStore(file, 64)) {
+            for (int i = 0; i < 1000; i++) {
+                Book book = book(UUID.randomUUID().toString(), "Title " + i, "Author " + i % 50);
+                store.put(book);
+                books.put(book.getBookId(), book);
+            }
+            Book removed = books.values().iterator().next();
+            store.remove(removed.getBookId());
+            books.remove(removed.getBookId());
+        }
+
+        // Reopening with a different segment size reads the same records
+        try (OffHeapBookStore store = new OffHeapBookStore(file, 256)) {
+            assertEquals(books.size(), store.size());
+            Map<String, Book> view = store.asMap();
+            assertEquals(books.keySet(), view.keySet());
+            for (Book book : books.values()) {
+                assertEquals(book.getTitle(), view.get(book.getBookId()).getTitle());
+                assertEquals(book.getAuthor(), view.get(book.getBookId()).getAuthor());
+            }
+        }
+    }
+
+    @Test
+    void testOtherFilesAreNotOpened() throws IOException {
+        Path file = directory.resolve("other.dat");
+        Files.writeString(file, "not a book store");
+
+        assertThrows(IOException.class, () -> new OffHeapBookStore(file));
+    }
+
+    private static Book book(String bookId, String title, String author) {
+        Book book = new Book(title, author);
+        book.setBookId(bookId);
+        return book;
+    }
+}
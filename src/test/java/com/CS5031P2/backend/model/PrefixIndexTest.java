@@ -0,0 +1,79 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the PrefixIndex class.
+ */
+class PrefixIndexTest {
+    private PrefixIndex<Book> index;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex<>(List.of(Book::getTitle, Book::getAuthor));
+        books = new ArrayList<>(List.of(
+                new Book("Animal Farm", "George Orwell"),
+                new Book("The Lord of the Rings", "J. R. R. Tolkien"),
+                new Book("Lolita", "Vladimir Nabokov"),
+                new Book("Lord of the Flies", "William Golding")));
+        index.reset(books);
+    }
+
+    @Test
+    void testSuggestsFromTheStartOfEachWord() {
+        assertEquals(List.of("Animal Farm"), suggest("ani"));
+        assertEquals(List.of("Animal Farm"), suggest("FAR"));
+        assertEquals(List.of("George Orwell"), suggest("orw"));
+        assertEquals(List.of(), suggest("nimal"));
+    }
+
+    @Test
+    void testSuggestionsAreOrderedByMatchingText() {
+        assertEquals(List.of("Lolita", "Lord of the Flies", "The Lord of the Rings"), suggest("lo"));
+        assertEquals(List.of("Lord of the Flies", "The Lord of the Rings"), suggest("lord  of"));
+    }
+
+    @Test
+    void testSuggestReturnsAtMostLimitDistinctValues() {
+        index.update(null, new Book("Animal Farm", "George Orwell"));
+
+        assertEquals(1, index.suggest("animal", 10).size());
+        assertEquals(2, index.suggest("lo", 2).size());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testValueIsSuggestedWhileAnyItemHasIt() {
+        Book copy = new Book("Animal Farm", "George Orwell");
+        index.update(null, copy);
+        index.update(books.get(0), null);
+
+        assertEquals(List.of("Animal Farm"), suggest("animal"));
+
+        index.update(copy, null);
+
+        assertEquals(List.of(), suggest("animal"));
+        assertEquals(List.of(), suggest("george"));
+    }
+
+    @Test
+    void testUpdateReplacesValues() {
+        Book renamed = new Book("Pale Fire", "Vladimir Nabokov");
+        index.update(books.get(2), renamed);
+
+        assertEquals(List.of("Lord of the Flies", "The Lord of the Rings"), suggest("lo"));
+        assertEquals(List.of("Pale Fire"), suggest("pale"));
+        assertEquals(List.of("Vladimir Nabokov"), suggest("nabokov"));
+    }
+
+    private List<String> suggest(String prefix) {
+        return new ArrayList<>(index.suggest(prefix, 10));
+    }
+}
@@ -0,0 +1,101 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the SortedIndex class.
+ */
+class SortedIndexTest {
+    private Map<String, Book> books;
+    private SortedIndex<Book> byTitle;
+
+    @BeforeEach
+    void setUp() {
+        books = new HashMap<>();
+        byTitle = new SortedIndex<>("title", Book::getTitle, Book::getBookId);
+        for (String title : new String[] {"Emma", "Dracula", "Beloved", "Carrie", "Atonement"}) {
+            Book book = new Book(title, "Author");
+            book.setBookId("id-" + title);
+            books.put(book.getBookId(), book);
+        }
+        byTitle.reset(new ArrayList<>(books.values()));
+    }
+
+    @Test
+    void testPagesFollowSortOrder() {
+        Page<Book> first = byTitle.page(null, 2, books::get);
+        Page<Book> second = byTitle.page(first.getNextCursor(), 2, books::get);
+        Page<Book> third = byTitle.page(second.getNextCursor(), 2, books::get);
+
+        assertEquals(List.of("Atonement", "Beloved"), titles(first));
+        assertEquals(List.of("Carrie", "Dracula"), titles(second));
+        assertEquals(List.of("Emma"), titles(third));
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void testRepeatedSortValuesAreOrderedById() {
+        Book twin = new Book("Beloved", "Other Author");
+        twin.setBookId("id-Beloved-2");
+        books.put(twin.getBookId(), twin);
+        byTitle.update(null, twin);
+
+        Page<Book> first = byTitle.page(null, 2, books::get);
+        Page<Book> second = byTitle.page(first.getNextCursor(), 1, books::get);
+
+        assertEquals("id-Beloved", first.getItems().get(1).getBookId());
+        assertEquals("id-Beloved-2", second.getItems().get(0).getBookId());
+    }
+
+    @Test
+    void testChangesBetweenPagesDoNotShiftLaterPages() {
+        Page<Book> first = byTitle.page(null, 2, books::get);
+
+        // Delete a book already served, and rename one not yet served to sort before the cursor
+        Book deleted = books.remove("id-Atonement");
+        byTitle.update(deleted, null);
+        Book renamed = new Book("Aardvark", "Author");
+        renamed.setBookId("id-Carrie");
+        byTitle.update(books.put(renamed.getBookId(), renamed), renamed);
+
+        Page<Book> second = byTitle.page(first.getNextCursor(), 10, books::get);
+        assertEquals(List.of("Dracula", "Emma"), titles(second));
+        assertEquals(4, byTitle.size());
+    }
+
+    @Test
+    void testSkipsItemsNoLongerInCatalogue() {
+        books.remove("id-Beloved");
+
+        Page<Book> page = byTitle.page(null, 2, books::get);
+
+        assertEquals(List.of("Atonement", "Carrie"), titles(page));
+    }
+
+    @Test
+    void testRejectsInvalidCursors() {
+        SortedIndex<Book> byId = new SortedIndex<>("id", Book::getBookId, Book::getBookId);
+        byId.reset(new ArrayList<>(books.values()));
+        String cursor = byId.page(null, 1, books::get).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> byTitle.page(cursor, 1, books::get));
+        assertThrows(IllegalArgumentException.class, () -> byTitle.page("not a cursor!", 1, books::get));
+        assertThrows(IllegalArgumentException.class, () -> byTitle.page("dGl0bGU", 1, books::get));
+    }
+
+    private static List<String> titles(Page<Book> page) {
+        List<String> titles = new ArrayList<>();
+        for (Book book : page.getItems()) {
+            titles.add(book.getTitle());
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,53 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StripedLocks class.
+ */
+class StripedLocksTest {
+
+    /**
+     * Test that the stripe count is rounded up to a power of two and every ID maps inside it.
+     */
+    @Test
+    void testStripeOf() {
+        StripedLocks locks = new StripedLocks(100);
+        for (int i = 0; i < 1000; i++) {
+            int stripe = locks.stripeOf("id-" + i);
+            assertTrue(stripe >= 0 && stripe < 128);
+        }
+        assertEquals(locks.stripeOf("same"), locks.stripeOf("same"));
+        assertEquals(0, new StripedLocks(1).stripeOf("anything"));
+        assertEquals(0, locks.stripeOf(null) & ~127);
+    }
+
+    /**
+     * Test that a stripe released by one thread can be taken by another.
+     */
+    @Test
+    void testLockReleased() throws Exception {
+        StripedLocks locks = new StripedLocks(1);
+        locks.lock("a");
+        locks.unlock("a");
+
+        // Another ID on the same stripe must be lockable from another thread once it has been released
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(() -> {
+                locks.lock("b");
+                locks.unlock("b");
+            });
+            future.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
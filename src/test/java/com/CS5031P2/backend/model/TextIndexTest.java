@@ -0,0 +1,137 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the TextIndex class.
+ */
+class TextIndexTest {
+    private Map<String, Book> books;
+    private TextIndex<Book> index;
+
+    @BeforeEach
+    void setUp() {
+        books = new HashMap<>();
+        index = new TextIndex<>(Book::getBookId, List.of(
+                new TextIndex.Field<>(Book::getTitle, 2),
+                new TextIndex.Field<>(Book::getAuthor, 1)));
+        put("1984", "George Orwell");
+        put("Animal Farm", "George Orwell");
+        put("Orwell's Roses", "Rebecca Solnit");
+        put("The Godfather", "Mario Puzo");
+        index.reset(new ArrayList<>(books.values()));
+    }
+
+    @Test
+    void testTokenizeSplitsAndLowercases() {
+        assertEquals(List.of("orwells", "roses", "a", "life"),
+                new ArrayList<>(TextIndex.tokenize("Orwell's Roses: a LIFE, a life")));
+        assertTrue(TextIndex.tokenize("  -- ").isEmpty());
+        assertTrue(TextIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSearchMatchesEveryWordCaseInsensitively() {
+        assertEquals(List.of("Animal Farm"), titles(index.search("farm ORWELL", 10, books::get)));
+        assertEquals(List.of(), titles(index.search("farm puzo", 10, books::get)));
+        assertEquals(List.of(), titles(index.search("unknown", 10, books::get)));
+        assertEquals(List.of(), titles(index.search("   ", 10, books::get)));
+    }
+
+    @Test
+    void testTitleMatchesRankFirst() {
+        put("Orwell", "Someone Else");
+        index.update(null, books.get("Orwell"));
+
+        List<String> titles = titles(index.search("orwell", 10, books::get));
+
+        assertEquals("Orwell", titles.get(0));
+        assertEquals(List.of("1984", "Animal Farm"), titles.subList(1, 3).stream().sorted().toList());
+    }
+
+    @Test
+    void testSearchReturnsAtMostLimit() {
+        assertEquals(1, index.search("george", 1, books::get).size());
+    }
+
+    @Test
+    void testUpdateMovesWords() {
+        Book old = books.get("The Godfather");
+        Book renamed = new Book("The Sicilian", "Mario Puzo");
+        renamed.setBookId(old.getBookId());
+        books.put(renamed.getBookId(), renamed);
+        index.update(old, renamed);
+
+        assertEquals(List.of(), titles(index.search("godfather", 10, books::get)));
+        assertEquals(List.of("The Sicilian"), titles(index.search("puzo", 10, books::get)));
+    }
+
+    @Test
+    void testRemovedItemsAndEmptyWordsAreDropped() {
+        int words = index.size();
+        Book removed = books.remove("Orwell's Roses");
+        index.update(removed, null);
+
+        assertEquals(List.of(), titles(index.search("roses", 10, books::get)));
+        assertEquals(words - 4, index.size());
+    }
+
+    @Test
+    void testFilterIsAppliedBeforeTheLimit() {
+        // The best match is filtered out, so the limit is filled by the next one
+        assertEquals(List.of("Animal Farm"),
+                titles(index.search("orwell", 1, id -> !id.equals("Orwell's Roses") && !id.equals("1984"), books::get)));
+        assertEquals(List.of(), titles(index.fuzzySearch("puzzo", 0.4, 10, id -> false, books::get)));
+    }
+
+    @Test
+    void testFuzzySearchToleratesMisspellings() {
+        assertEquals(List.of("The Godfather"), titles(index.fuzzySearch("godfathr puzzo", 0.4, 10, books::get)));
+        assertEquals(List.of(), titles(index.search("godfathr puzzo", 10, books::get)));
+        assertEquals(List.of(), titles(index.fuzzySearch("godfathr dickens", 0.4, 10, books::get)));
+    }
+
+    @Test
+    void testFuzzySearchRanksCloserSpellingsFirst() {
+        put("Tales", "Orwellian Writer");
+        index.update(null, books.get("Tales"));
+
+        List<String> titles = titles(index.fuzzySearch("orwel", 0.4, 10, books::get));
+
+        // A near miss in a title still outweighs an author, but among authors "orwell" beats "orwellian"
+        assertEquals("Orwell's Roses", titles.get(0));
+        assertEquals(List.of("1984", "Animal Farm"), titles.subList(1, 3).stream().sorted().toList());
+        assertEquals("Tales", titles.get(3));
+        assertEquals(4, titles.size());
+    }
+
+    @Test
+    void testFuzzySearchForgetsRemovedWords() {
+        Book removed = books.remove("The Godfather");
+        index.update(removed, null);
+
+        assertEquals(List.of(), titles(index.fuzzySearch("puzzo", 0.4, 10, books::get)));
+    }
+
+    private void put(String title, String author) {
+        Book book = new Book(title, author);
+        book.setBookId(title);
+        books.put(title, book);
+    }
+
+    private static List<String> titles(List<Book> books) {
+        List<String> titles = new ArrayList<>();
+        for (Book book : books) {
+            titles.add(book.getTitle());
+        }
+        return titles;
+    }
+}
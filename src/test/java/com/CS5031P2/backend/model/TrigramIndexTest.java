@@ -0,0 +1,62 @@
+package com.CS5031P2.backend.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains test cases for the TrigramIndex class.
+ */
+class TrigramIndexTest {
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        for (String word : List.of("orwell", "puzo", "tolkien", "austen", "orwellian")) {
+            index.add(word);
+        }
+    }
+
+    @Test
+    void testTrigramsArePadded() {
+        assertEquals(List.of("  p", " pu", "puz", "uzo", "zo "), List.copyOf(TrigramIndex.trigrams("puzo")));
+    }
+
+    @Test
+    void testFindsMisspeltWords() {
+        Map<String, Double> orwel = index.similar("orwel", 0.4);
+        Map<String, Double> puzzo = index.similar("puzzo", 0.4);
+
+        assertEquals(0.625, orwel.get("orwell"), 1e-9);
+        assertTrue(orwel.get("orwell") > orwel.getOrDefault("orwellian", 0.0));
+        assertEquals(Map.of("puzo", 4.0 / 7), puzzo);
+    }
+
+    @Test
+    void testExactWordIsFullySimilar() {
+        assertEquals(1.0, index.similar("austen", 0.9).get("austen"), 1e-9);
+    }
+
+    @Test
+    void testThresholdExcludesDistantWords() {
+        assertTrue(index.similar("orwel", 0.7).isEmpty());
+        assertTrue(index.similar("dickens", 0.3).isEmpty());
+    }
+
+    @Test
+    void testRemovedWordsAreNotFound() {
+        index.remove("puzo");
+
+        assertTrue(index.similar("puzo", 0.1).isEmpty());
+        index.remove("orwell");
+        index.remove("orwellian");
+        index.remove("tolkien");
+        index.remove("austen");
+        assertEquals(0, index.size());
+    }
+}
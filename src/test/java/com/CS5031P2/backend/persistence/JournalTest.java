@@ -0,0 +1,163 @@
+package com.CS5031P2.backend.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Journal class.
+ */
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that appended records are replayed in order after reopening the journal.
+     */
+    @Test
+    void testRecordsReplayedAfterReopen() throws IOException {
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, record -> fail("New journal should be empty"));
+            journal.log(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b1", "Title", "Author"));
+            journal.log(new JournalRecord(JournalRecord.Type.CHECK_OUT, "b1", "m1"));
+            assertEquals(2, journal.getDurableSequence());
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            assertEquals(2, journal.recover(0, replayed::add));
+            assertEquals(2, journal.getLastSequence());
+        }
+
+        assertEquals(JournalRecord.Type.ADD_BOOK, replayed.get(0).getType());
+        assertEquals("Author", replayed.get(0).getField(1));
+        assertEquals(JournalRecord.Type.CHECK_OUT, replayed.get(1).getType());
+        assertEquals("m1", replayed.get(1).getField(0));
+    }
+
+    /**
+     * Test that only records after the given sequence number are replayed.
+     */
+    @Test
+    void testReplayAfterSequence() throws IOException {
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, record -> {});
+            for (int i = 0; i < 5; i++) {
+                journal.log(new JournalRecord(JournalRecord.Type.DELETE_BOOK, "b" + i));
+            }
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(3, replayed::add);
+        }
+
+        assertEquals(List.of("b3", "b4"), replayed.stream().map(JournalRecord::getId).toList());
+    }
+
+    /**
+     * Test that a partially written record at the end of the journal is discarded and overwritten.
+     */
+    @Test
+    void testTornTailIsTruncated() throws IOException {
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, record -> {});
+            journal.log(new JournalRecord(JournalRecord.Type.ADD_MEMBER, "m1", "Name", "Address"));
+            journal.log(new JournalRecord(JournalRecord.Type.ADD_MEMBER, "m2", "Name", "Address"));
+        }
+
+        Path segment = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES).listSegments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, replayed::add);
+            journal.log(new JournalRecord(JournalRecord.Type.ADD_MEMBER, "m3", "Name", "Address"));
+        }
+        assertEquals(List.of("m1"), replayed.stream().map(JournalRecord::getId).toList());
+
+        replayed.clear();
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, replayed::add);
+        }
+        assertEquals(List.of("m1", "m3"), replayed.stream().map(JournalRecord::getId).toList());
+    }
+
+    /**
+     * Test that the journal rolls over to new segments and replays across them.
+     */
+    @Test
+    void testSegmentRollover() throws IOException {
+        try (Journal journal = new Journal(directory, 64)) {
+            journal.recover(0, record -> {});
+            for (int i = 0; i < 10; i++) {
+                journal.log(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b" + i, "Title", "Author"));
+            }
+            assertTrue(journal.listSegments().size() > 1, "Journal should span several segments");
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 64)) {
+            journal.recover(0, replayed::add);
+        }
+        assertEquals(10, replayed.size());
+        assertEquals("b9", replayed.get(9).getId());
+    }
+
+    /**
+     * Test that concurrent appends are all made durable with unique sequence numbers.
+     */
+    @Test
+    void testConcurrentAppendsGroupCommit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            journal.recover(0, record -> {});
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String id = "b" + i;
+                futures.add(executor.submit(() -> {
+                    journal.log(new JournalRecord(JournalRecord.Type.DELETE_BOOK, id));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(200, journal.getDurableSequence());
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES)) {
+            assertEquals(200, journal.recover(0, record -> {}));
+        }
+    }
+
+    /**
+     * Test that appending before recovery or after closing is rejected.
+     */
+    @Test
+    void testAppendRequiresOpenJournal() throws IOException {
+        Journal journal = new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES);
+        JournalRecord record = new JournalRecord(JournalRecord.Type.DELETE_BOOK, "b1");
+        assertThrows(IOException.class, () -> journal.append(record));
+
+        journal.recover(0, r -> {});
+        journal.close();
+        assertThrows(IOException.class, () -> journal.append(record));
+    }
+}
@@ -0,0 +1,235 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.util.PersistentMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PersistenceManager class.
+ */
+class PersistenceManagerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a manager with journaling enabled over a fresh library.
+     *
+     * @return The started manager.
+     * @throws IOException if the library or journal cannot be loaded.
+     */
+    private PersistenceManager startManager() throws IOException {
+        PersistenceManager manager = new PersistenceManager();
+        manager.libraryLendingSystem = new LibraryLendingSystem();
+        manager.journalEnabled = true;
+        manager.journalDirectory = directory.resolve("journal").toString();
+        manager.segmentBytes = Journal.DEFAULT_SEGMENT_BYTES;
+        manager.snapshotDirectory = directory.resolve("snapshots").toString();
+        manager.snapshotsRetained = 2;
+        manager.start();
+        return manager;
+    }
+
+    /**
+     * Test that mutations made before a restart are recovered from the journal.
+     */
+    @Test
+    void testMutationsSurviveRestart() throws IOException {
+        PersistenceManager first = startManager();
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        library.addMember("Jane Doe", "456 Elm St");
+        library.addBook("Clean Code", "Robert C. Martin");
+
+        String memberId = library.getMembers().values().stream()
+                .filter(member -> member.getName().equals("Jane Doe")).findFirst().get().getMemberId();
+        String bookId = library.getBooks().values().stream()
+                .filter(book -> book.getTitle().equals("Clean Code")).findFirst().get().getBookId();
+        assertTrue(library.checkOutBook(memberId, bookId));
+        int bookCount = library.getBooks().size();
+        int memberCount = library.getMembers().size();
+        first.stop();
+
+        PersistenceManager second = startManager();
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(bookCount, recovered.getBooks().size());
+        assertEquals(memberCount, recovered.getMembers().size());
+
+        Book book = recovered.getBook(bookId).orElseThrow();
+        Member member = recovered.getMember(memberId).orElseThrow();
+        assertTrue(book.isCheckedOut());
+        assertEquals(memberId, book.getBorrowedId());
+        assertTrue(member.getBorrowedBooks().containsKey(bookId));
+        second.stop();
+    }
+
+    /**
+     * Test that deletions and returns are recovered from the journal.
+     */
+    @Test
+    void testDeletesAndReturnsSurviveRestart() throws IOException {
+        PersistenceManager first = startManager();
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+        library.checkOutBook(memberId, bookId);
+        library.returnBook(memberId, bookId);
+        library.deleteBook(bookId);
+        first.stop();
+
+        PersistenceManager second = startManager();
+        assertFalse(second.libraryLendingSystem.getBook(bookId).isPresent());
+        assertTrue(second.libraryLendingSystem.getBorrowedBooks(memberId).isEmpty());
+        second.stop();
+    }
+
+    /**
+     * Test that startup loads the newest snapshot and replays only the journal written after it.
+     */
+    @Test
+    void testRecoveryFromSnapshotAndTail() throws IOException {
+        PersistenceManager first = startManager();
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        library.addBook("Before Snapshot", "Author");
+        first.snapshot();
+        long snapshotSequence = first.getJournal().getLastSequence();
+        library.addBook("After Snapshot", "Author");
+        first.stop();
+
+        PersistenceManager second = startManager();
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(snapshotSequence + 1, second.getJournal().getLastSequence());
+        assertTrue(recovered.getBooks().values().stream().anyMatch(book -> book.getTitle().equals("Before Snapshot")));
+        assertTrue(recovered.getBooks().values().stream().anyMatch(book -> book.getTitle().equals("After Snapshot")));
+        second.stop();
+    }
+
+    /**
+     * Test that journal segments covered by the retained snapshots are deleted.
+     */
+    @Test
+    void testSnapshotsDiscardOldSegments() throws IOException {
+        PersistenceManager manager = startManager();
+        LibraryLendingSystem library = manager.libraryLendingSystem;
+        for (int i = 0; i < 3; i++) {
+            library.addBook("Title " + i, "Author");
+            manager.snapshot();
+        }
+        library.addBook("Latest", "Author");
+
+        // Two snapshots retained, so only segments before the older one can go
+        assertEquals(2, manager.getJournal().listSegments().size());
+        manager.stop();
+
+        PersistenceManager restarted = startManager();
+        assertTrue(restarted.libraryLendingSystem.getBooks().values().stream()
+                .anyMatch(book -> book.getTitle().equals("Latest")));
+        restarted.stop();
+    }
+
+    /**
+     * Test that nothing is journaled when journaling is disabled, and the library holds the examples.
+     */
+    @Test
+    void testDisabledByDefault() throws IOException {
+        PersistenceManager manager = new PersistenceManager();
+        manager.libraryLendingSystem = new LibraryLendingSystem();
+        manager.start();
+
+        assertNull(manager.getJournal());
+        assertEquals(LibraryLendingSystem.withExamples().getBooks().keySet(),
+                manager.libraryLendingSystem.getBooks().keySet());
+        manager.stop();
+    }
+
+    /**
+     * Test that the examples only seed an empty engine, so books deleted since are not brought back by a restart.
+     */
+    @Test
+    void testExamplesOnlySeedEmptyEngine() throws IOException {
+        PersistenceManager first = startManager();
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        assertEquals(LibraryLendingSystem.withExamples().getBooks().keySet(), library.getBooks().keySet());
+        for (String bookId : List.copyOf(library.getBooks().keySet())) {
+            library.deleteBook(bookId);
+        }
+        first.stop();
+
+        PersistenceManager second = startManager();
+        assertTrue(second.libraryLendingSystem.getBooks().isEmpty());
+        assertFalse(second.libraryLendingSystem.getMembers().isEmpty());
+        second.stop();
+    }
+
+    /**
+     * Test that the engine is chosen by name, falling back to the journal setting, and unknown names are rejected.
+     */
+    @Test
+    void testEngineSelection() throws IOException {
+        PersistenceManager manager = new PersistenceManager();
+        manager.libraryLendingSystem = new LibraryLendingSystem();
+        assertEquals(PersistenceManager.MEMORY, manager.getEngineName());
+        manager.journalEnabled = true;
+        assertEquals(PersistenceManager.JOURNAL, manager.getEngineName());
+        manager.storageEngine = PersistenceManager.MEMORY;
+        manager.start();
+        assertNull(manager.getEngine());
+
+        manager.storageEngine = "tape";
+        assertThrows(IllegalArgumentException.class, manager::start);
+
+        // Only the mapped and sql engines can be written behind a journal
+        manager.storageEngine = PersistenceManager.MEMORY;
+        manager.writeBehindEnabled = true;
+        assertThrows(IllegalArgumentException.class, manager::start);
+    }
+
+    /**
+     * Test that the catalogue store is chosen by name, keeping one object per book by default or off the heap
+     * with the mapped engine, and unknown names are rejected.
+     */
+    @Test
+    void testCatalogueStoreSelection() throws IOException {
+        PersistenceManager manager = new PersistenceManager();
+        manager.libraryLendingSystem = new LibraryLendingSystem();
+        assertEquals(PersistenceManager.OBJECTS, manager.getCatalogueStoreName());
+        manager.storageEngine = PersistenceManager.MAPPED;
+        assertEquals(PersistenceManager.OFF_HEAP, manager.getCatalogueStoreName());
+        manager.storageEngine = null;
+        manager.catalogueStore = PersistenceManager.COMPACT;
+        manager.start();
+        assertFalse(manager.libraryLendingSystem.getBooks().isEmpty());
+        assertFalse(manager.libraryLendingSystem.getBooks() instanceof PersistentMap);
+
+        manager.catalogueStore = "punched cards";
+        assertThrows(IllegalArgumentException.class, manager::start);
+    }
+
+    /**
+     * Test that mutations applied by the single writer, with one journal sync per batch, survive a restart.
+     */
+    @Test
+    void testSingleWriterMutationsSurviveRestart() throws IOException {
+        PersistenceManager first = startManager();
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        library.startEngine(64, 8);
+        for (int i = 0; i < 50; i++) {
+            library.addBook("Title " + i, "Author");
+        }
+        int bookCount = library.getBooks().size();
+        library.stopEngine();
+        first.stop();
+
+        PersistenceManager second = startManager();
+        assertEquals(bookCount, second.libraryLendingSystem.getBooks().size());
+        second.stop();
+    }
+}
@@ -0,0 +1,89 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SnapshotStore class.
+ */
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that books, members and loans round-trip through a snapshot.
+     */
+    @Test
+    void testWriteAndLoad() throws IOException {
+        Member member = new Member("Jane Doe", "456 Elm St");
+        Book borrowed = new Book("Clean Code", "Robert C. Martin");
+        Book available = new Book("Refactoring", "Martin Fowler");
+        available.setBookId("not-a-uuid");
+        member.borrowBook(borrowed);
+
+        SnapshotStore store = new SnapshotStore(directory);
+        store.write(42, List.of(borrowed, available), List.of(member));
+        SnapshotStore.Snapshot snapshot = store.loadLatest();
+
+        assertEquals(42, snapshot.getSequence());
+        assertEquals(2, snapshot.getBooks().size());
+        assertEquals("Refactoring", snapshot.getBooks().get("not-a-uuid").getTitle());
+
+        Book loadedBook = snapshot.getBooks().get(borrowed.getBookId());
+        Member loadedMember = snapshot.getMembers().get(member.getMemberId());
+        assertTrue(loadedBook.isCheckedOut());
+        assertEquals(member.getMemberId(), loadedBook.getBorrowedId());
+        assertSame(loadedBook, loadedMember.getBorrowedBooks().get(borrowed.getBookId()));
+        assertEquals("456 Elm St", loadedMember.getAddress());
+    }
+
+    /**
+     * Test that a damaged newest snapshot is skipped in favour of an older valid one.
+     */
+    @Test
+    void testDamagedSnapshotIsSkipped() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory);
+        store.write(1, List.of(new Book("Old", "Author")), List.of());
+        Path newest = store.write(2, List.of(new Book("New", "Author")), List.of());
+
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        SnapshotStore.Snapshot snapshot = store.loadLatest();
+        assertEquals(1, snapshot.getSequence());
+    }
+
+    /**
+     * Test that pruning keeps only the newest snapshots.
+     */
+    @Test
+    void testPrune() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory);
+        for (long sequence = 1; sequence <= 4; sequence++) {
+            store.write(sequence, List.of(), List.of());
+        }
+
+        assertEquals(3, store.prune(2));
+        assertEquals(2, store.listSnapshots().size());
+    }
+
+    /**
+     * Test that an empty store has no snapshot to load.
+     */
+    @Test
+    void testNoSnapshot() throws IOException {
+        assertNull(new SnapshotStore(directory.resolve("missing")).loadLatest());
+    }
+}
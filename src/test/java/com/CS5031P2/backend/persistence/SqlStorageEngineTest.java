@@ -0,0 +1,111 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SqlStorageEngine class.
+ */
+class SqlStorageEngineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that the books table is indexed by title, author and borrower.
+     */
+    @Test
+    void testBooksIndexed() throws IOException, SQLException {
+        new SqlStorageEngine(directory, SqlStorageEngine.DEFAULT_POOL_SIZE).close();
+
+        Set<String> indexed = new HashSet<>();
+        try (Connection connection = DriverManager.getConnection(SqlStorageEngine.urlFor(directory));
+             ResultSet rows = connection.createStatement().executeQuery(
+                     "SELECT c.COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS c "
+                             + "JOIN INFORMATION_SCHEMA.INDEXES i ON c.INDEX_NAME = i.INDEX_NAME "
+                             + "WHERE c.TABLE_NAME = 'BOOKS' AND i.INDEX_TYPE_NAME = 'INDEX'")) {
+            while (rows.next()) {
+                indexed.add(rows.getString(1));
+            }
+        }
+        assertEquals(Set.of("TITLE", "AUTHOR", "BORROWED_ID"), indexed);
+    }
+
+    /**
+     * Test that more mutations than fit in one batch, of interleaved kinds, are committed by one sync in order.
+     */
+    @Test
+    void testQueuedMutationsCommittedInOrder() throws IOException {
+        int books = SqlStorageEngine.BATCH_SIZE * 2 + 500;
+        try (SqlStorageEngine engine = new SqlStorageEngine(directory, SqlStorageEngine.DEFAULT_POOL_SIZE)) {
+            engine.load(new LibraryLendingSystem());
+            engine.append(new JournalRecord(JournalRecord.Type.ADD_MEMBER, "m1", "Jane Doe", "456 Elm St"));
+            long last = 0;
+            for (int i = 0; i < books; i++) {
+                last = engine.append(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b" + i, "Title " + i, "Author"));
+                if (i % 2 == 0) {
+                    last = engine.append(new JournalRecord(JournalRecord.Type.CHECK_OUT, "b" + i, "m1"));
+                }
+            }
+            last = engine.append(new JournalRecord(JournalRecord.Type.DELETE_BOOK, "b0"));
+            engine.sync(last);
+            assertEquals(last, engine.getLastSequence());
+        }
+
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        try (SqlStorageEngine engine = new SqlStorageEngine(directory, SqlStorageEngine.DEFAULT_POOL_SIZE)) {
+            assertTrue(engine.load(library));
+        }
+        assertEquals(books - 1, library.getBooks().size());
+        assertEquals(List.of("m1"), List.copyOf(library.getMembers().keySet()));
+        assertFalse(library.getBook("b0").isPresent());
+        assertTrue(library.getBook("b2").orElseThrow().isCheckedOut());
+        assertEquals("m1", library.getBook("b2").orElseThrow().getBorrowedId());
+        assertFalse(library.getBook("b1").orElseThrow().isCheckedOut());
+        assertEquals((books - 1) / 2, library.getBorrowedBooks("m1").size());
+    }
+
+    /**
+     * Test that after a failed transaction the engine only takes whole states, and accepts everything again
+     * once the row it lost has been written again.
+     */
+    @Test
+    void testRecoversOnceLostRowsRewritten() throws IOException, SQLException {
+        try (SqlStorageEngine engine = new SqlStorageEngine(directory, SqlStorageEngine.DEFAULT_POOL_SIZE);
+             Connection connection = DriverManager.getConnection(SqlStorageEngine.urlFor(directory))) {
+            connection.createStatement().execute("ALTER TABLE books ADD CONSTRAINT no_blocked CHECK (author <> 'Blocked')");
+            long first = engine.append(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b1", "Title", "Blocked"));
+            assertThrows(IOException.class, () -> engine.sync(first));
+
+            connection.createStatement().execute("ALTER TABLE books DROP CONSTRAINT no_blocked");
+            assertThrows(IOException.class,
+                    () -> engine.append(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b2", "Title", "Author")));
+            assertThrows(IOException.class, () -> engine.sync(0));
+
+            long rewritten = engine.append(JournalRecord.updateBook(new Book("b1", "Title", "Blocked")));
+            engine.sync(rewritten);
+            engine.sync(engine.append(new JournalRecord(JournalRecord.Type.ADD_BOOK, "b2", "Title", "Author")));
+        }
+
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        try (SqlStorageEngine engine = new SqlStorageEngine(directory, SqlStorageEngine.DEFAULT_POOL_SIZE)) {
+            assertTrue(engine.load(library));
+        }
+        assertEquals("Blocked", library.getBook("b1").orElseThrow().getAuthor());
+        assertTrue(library.getBook("b2").isPresent());
+    }
+}
@@ -0,0 +1,328 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import com.CS5031P2.backend.model.OffHeapBookStore;
+import com.CS5031P2.backend.util.OffHeapRecordStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same restart scenarios against every durable storage engine.
+ */
+class StorageEngineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a manager using an engine over a fresh library.
+     *
+     * @param engine The engine name.
+     * @return The started manager.
+     * @throws IOException if the library or engine cannot be loaded.
+     */
+    private PersistenceManager startManager(String engine) throws IOException {
+        return startManager(engine, false);
+    }
+
+    /**
+     * Creates a manager using an engine over a fresh library, optionally written behind a journal.
+     *
+     * @param engine      The engine name.
+     * @param writeBehind True to put the engine behind a write-behind journal.
+     * @return The started manager.
+     * @throws IOException if the library or engine cannot be loaded.
+     */
+    private PersistenceManager startManager(String engine, boolean writeBehind) throws IOException {
+        return startManager(engine, writeBehind, null);
+    }
+
+    /**
+     * Creates a manager using an engine over a fresh library that keeps its catalogue in a named store.
+     *
+     * @param engine         The engine name.
+     * @param writeBehind    True to put the engine behind a write-behind journal.
+     * @param catalogueStore The catalogue store name, or null for the default.
+     * @return The started manager.
+     * @throws IOException if the library or engine cannot be loaded.
+     */
+    private PersistenceManager startManager(String engine, boolean writeBehind, String catalogueStore)
+            throws IOException {
+        PersistenceManager manager = new PersistenceManager();
+        manager.libraryLendingSystem = new LibraryLendingSystem();
+        manager.storageEngine = engine;
+        manager.catalogueStore = catalogueStore;
+        manager.storageDirectory = directory.resolve("store").toString();
+        manager.storagePoolSize = SqlStorageEngine.DEFAULT_POOL_SIZE;
+        manager.journalDirectory = directory.resolve("journal").toString();
+        manager.segmentBytes = Journal.DEFAULT_SEGMENT_BYTES;
+        manager.snapshotDirectory = directory.resolve("snapshots").toString();
+        manager.snapshotsRetained = 2;
+        manager.writeBehindEnabled = writeBehind;
+        manager.writeBehindFlushMillis = WriteBehindStorageEngine.DEFAULT_FLUSH_MILLIS;
+        manager.writeBehindMaxBatch = WriteBehindStorageEngine.DEFAULT_MAX_BATCH;
+        manager.start();
+        return manager;
+    }
+
+    /**
+     * Test that the initial contents and later mutations, including loans, survive a restart.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {PersistenceManager.JOURNAL, PersistenceManager.MAPPED, PersistenceManager.SQL})
+    void testMutationsSurviveRestart(String engine) throws IOException {
+        PersistenceManager first = startManager(engine);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        library.addMember("Jane Doe", "456 Elm St");
+        library.addBook("Clean Code", "Robert C. Martin");
+        String memberId = library.getMembers().values().stream()
+                .filter(member -> member.getName().equals("Jane Doe")).findFirst().get().getMemberId();
+        String bookId = library.getBooks().values().stream()
+                .filter(book -> book.getTitle().equals("Clean Code")).findFirst().get().getBookId();
+        assertTrue(library.checkOutBook(memberId, bookId));
+        int bookCount = library.getBooks().size();
+        int memberCount = library.getMembers().size();
+        first.stop();
+
+        PersistenceManager second = startManager(engine);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(bookCount, recovered.getBooks().size());
+        assertEquals(memberCount, recovered.getMembers().size());
+        Book book = recovered.getBook(bookId).orElseThrow();
+        Member member = recovered.getMember(memberId).orElseThrow();
+        assertEquals("Robert C. Martin", book.getAuthor());
+        assertEquals("456 Elm St", member.getAddress());
+        assertTrue(book.isCheckedOut());
+        assertEquals(memberId, book.getBorrowedId());
+        assertTrue(member.getBorrowedBooks().containsKey(bookId));
+        second.stop();
+    }
+
+    /**
+     * Test that a catalogue kept in a store is loaded back into one, with its loans, and served from it.
+     */
+    @ParameterizedTest
+    @CsvSource({"journal, compact", "mapped, compact", "sql, compact", "journal, off-heap", "mapped,"})
+    void testCatalogueStoreSurvivesRestart(String engine, String catalogueStore) throws IOException {
+        PersistenceManager first = startManager(engine, false, catalogueStore);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String[] bookIds = library.getBooks().keySet().toArray(new String[0]);
+        assertTrue(library.checkOutBook(memberId, bookIds[0]));
+        library.updateBook(bookIds[0], new Book("Renamed", "Someone Else"));
+        library.deleteBook(bookIds[1]);
+        first.stop();
+
+        PersistenceManager second = startManager(engine, false, catalogueStore);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(bookIds.length - 1, recovered.getBooks().size());
+        assertFalse(recovered.getBook(bookIds[1]).isPresent());
+        Book book = recovered.getBook(bookIds[0]).orElseThrow();
+        assertEquals("Renamed", book.getTitle());
+        assertTrue(book.isCheckedOut());
+        assertEquals(memberId, book.getBorrowedId());
+        assertTrue(recovered.getBorrowedBooks(memberId).containsKey(bookIds[0]));
+        assertEquals("Renamed", recovered.searchBooks("renamed", 10).get(0).getTitle());
+        assertTrue(recovered.returnBook(memberId, bookIds[0]));
+        second.stop();
+    }
+
+    /**
+     * Test that updates, returns and deletions survive a restart.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {PersistenceManager.JOURNAL, PersistenceManager.MAPPED, PersistenceManager.SQL})
+    void testUpdatesReturnsAndDeletesSurviveRestart(String engine) throws IOException {
+        PersistenceManager first = startManager(engine);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String[] bookIds = library.getBooks().keySet().toArray(new String[0]);
+        library.checkOutBook(memberId, bookIds[0]);
+        library.returnBook(memberId, bookIds[0]);
+        library.deleteBook(bookIds[0]);
+        library.updateBook(bookIds[1], new Book("Renamed", "Someone Else"));
+        library.updateMember(memberId, new Member("Renamed Member", "New Address"));
+        first.stop();
+
+        PersistenceManager second = startManager(engine);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertFalse(recovered.getBook(bookIds[0]).isPresent());
+        assertEquals("Renamed", recovered.getBook(bookIds[1]).orElseThrow().getTitle());
+        assertEquals("Renamed Member", recovered.getMember(memberId).orElseThrow().getName());
+        assertTrue(recovered.getBorrowedBooks(memberId).isEmpty());
+        second.stop();
+    }
+
+    /**
+     * Test that mutations applied by the single writer, with one sync per batch, survive a restart.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {PersistenceManager.JOURNAL, PersistenceManager.MAPPED, PersistenceManager.SQL})
+    void testSingleWriterMutationsSurviveRestart(String engine) throws IOException {
+        PersistenceManager first = startManager(engine);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        library.startEngine(64, 8);
+        for (int i = 0; i < 50; i++) {
+            library.addBook("Title " + i, "Author");
+        }
+        int bookCount = library.getBooks().size();
+        library.stopEngine();
+        first.stop();
+
+        PersistenceManager second = startManager(engine);
+        assertEquals(bookCount, second.libraryLendingSystem.getBooks().size());
+        second.stop();
+    }
+
+    /**
+     * Test that the mapped engine's files mirror the library, which keeps serving reads from its own books
+     * once the engine is closed.
+     */
+    @Test
+    void testMappedEngineMirrorsLibrary() throws IOException {
+        PersistenceManager manager = startManager(PersistenceManager.MAPPED);
+        LibraryLendingSystem library = manager.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+        assertTrue(library.checkOutBook(memberId, bookId));
+        library.addBook("Clean Code", "Robert C. Martin");
+        manager.stop();
+
+        assertTrue(library.getBook(bookId).orElseThrow().isCheckedOut());
+        LibraryLendingSystem mirror = new LibraryLendingSystem();
+        try (MappedStorageEngine engine = new MappedStorageEngine(directory.resolve("store"))) {
+            assertTrue(engine.load(mirror));
+        }
+        assertEquals(library.getBooks().keySet(), mirror.getBooks().keySet());
+        for (Book book : library.getBooks().values()) {
+            Book stored = mirror.getBook(book.getBookId()).orElseThrow();
+            assertEquals(book.getTitle(), stored.getTitle());
+            assertEquals(book.getAuthor(), stored.getAuthor());
+            assertEquals(book.isCheckedOut(), stored.isCheckedOut());
+            assertEquals(book.getBorrowedId(), stored.getBorrowedId());
+        }
+        assertEquals(library.getMembers().keySet(), mirror.getMembers().keySet());
+    }
+
+    /**
+     * Test that the mapped engine turns away books and members too large for its records before the library
+     * applies them, so memory and the files still agree after a restart.
+     */
+    @Test
+    void testMappedEngineRejectsOversizedRecordsBeforePublishing() throws IOException {
+        PersistenceManager first = startManager(PersistenceManager.MAPPED);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+        String title = library.getBook(bookId).orElseThrow().getTitle();
+        // Fits in a record on its own, but not with room left for a borrower
+        String longTitle = "x".repeat(OffHeapRecordStore.RECORD_SIZE - OffHeapBookStore.BORROWER_BYTES);
+        String longName = "x".repeat(OffHeapRecordStore.RECORD_SIZE);
+        int bookCount = library.getBooks().size();
+        int memberCount = library.getMembers().size();
+
+        assertThrows(IllegalArgumentException.class, () -> library.addBook(longTitle, "Author"));
+        assertThrows(IllegalArgumentException.class, () -> library.updateBook(bookId, new Book(longTitle, "Author")));
+        assertThrows(IllegalArgumentException.class, () -> library.addMember(longName, "Address"));
+        assertThrows(IllegalArgumentException.class,
+                () -> library.updateMember(memberId, new Member(longName, "Address")));
+        Book storable = new Book("Short", "Author");
+        assertEquals(1, library.addBooks(List.of(new Book(longTitle, "Author"), storable)));
+
+        assertEquals(bookCount + 1, library.getBooks().size());
+        assertEquals(memberCount, library.getMembers().size());
+        assertEquals(title, library.getBook(bookId).orElseThrow().getTitle());
+        assertTrue(library.searchBooks("x".repeat(10), 10).isEmpty());
+        assertTrue(library.checkOutBook(memberId, bookId));
+        first.stop();
+
+        PersistenceManager second = startManager(PersistenceManager.MAPPED);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(library.getBooks().keySet(), recovered.getBooks().keySet());
+        assertEquals(title, recovered.getBook(bookId).orElseThrow().getTitle());
+        assertEquals(memberId, recovered.getBook(bookId).orElseThrow().getBorrowedId());
+        assertTrue(recovered.getBook(storable.getBookId()).isPresent());
+        second.stop();
+    }
+
+    /**
+     * Test that books and members with a field too long for the journal are turned away before the library
+     * applies them, whether the journal is the engine or sits in front of one, and that later mutations are
+     * still journaled.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {PersistenceManager.JOURNAL, PersistenceManager.SQL})
+    void testFieldsTooLongToJournalRejectedBeforePublishing(String engine) throws IOException {
+        boolean writeBehind = !engine.equals(PersistenceManager.JOURNAL);
+        PersistenceManager first = startManager(engine, writeBehind);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+        String title = library.getBook(bookId).orElseThrow().getTitle();
+        // Three bytes each in modified UTF-8, so short enough in characters but not in bytes
+        String longText = "\u20ac".repeat(JournalRecord.MAX_FIELD_BYTES / 3 + 1);
+        int bookCount = library.getBooks().size();
+        int memberCount = library.getMembers().size();
+
+        assertThrows(IllegalArgumentException.class, () -> library.addBook(longText, "Author"));
+        assertThrows(IllegalArgumentException.class, () -> library.updateBook(bookId, new Book("Title", longText)));
+        assertThrows(IllegalArgumentException.class, () -> library.addMember("Name", longText));
+        assertThrows(IllegalArgumentException.class,
+                () -> library.updateMember(memberId, new Member(longText, "Address")));
+        assertEquals(0, library.addBooks(List.of(new Book(longText, "Author"))));
+
+        assertEquals(bookCount, library.getBooks().size());
+        assertEquals(memberCount, library.getMembers().size());
+        assertEquals(title, library.getBook(bookId).orElseThrow().getTitle());
+        assertTrue(library.checkOutBook(memberId, bookId));
+        first.stop();
+
+        PersistenceManager second = startManager(engine, writeBehind);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(library.getBooks().keySet(), recovered.getBooks().keySet());
+        assertEquals(title, recovered.getBook(bookId).orElseThrow().getTitle());
+        assertEquals(memberId, recovered.getBook(bookId).orElseThrow().getBorrowedId());
+        second.stop();
+    }
+
+    /**
+     * Test that mutations written behind a journal survive a restart, including those still in the journal.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {PersistenceManager.MAPPED, PersistenceManager.SQL})
+    void testWriteBehindMutationsSurviveRestart(String engine) throws IOException {
+        PersistenceManager first = startManager(engine, true);
+        LibraryLendingSystem library = first.libraryLendingSystem;
+        String memberId = library.getMembers().keySet().iterator().next();
+        String[] bookIds = library.getBooks().keySet().toArray(new String[0]);
+        assertTrue(library.checkOutBook(memberId, bookIds[0]));
+        library.deleteBook(bookIds[1]);
+        library.addBook("Clean Code", "Robert C. Martin");
+        int bookCount = library.getBooks().size();
+        first.stop();
+
+        PersistenceManager second = startManager(engine, true);
+        LibraryLendingSystem recovered = second.libraryLendingSystem;
+        assertEquals(bookCount, recovered.getBooks().size());
+        assertEquals(memberId, recovered.getBook(bookIds[0]).orElseThrow().getBorrowedId());
+        assertFalse(recovered.getBook(bookIds[1]).isPresent());
+        second.stop();
+
+        // The backing engine alone holds everything once the journal has been flushed
+        PersistenceManager third = startManager(engine, false);
+        assertEquals(bookCount, third.libraryLendingSystem.getBooks().size());
+        assertTrue(third.libraryLendingSystem.getBook(bookIds[0]).orElseThrow().isCheckedOut());
+        third.stop();
+    }
+}
@@ -0,0 +1,274 @@
+package com.CS5031P2.backend.persistence;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import com.CS5031P2.backend.model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WriteBehindStorageEngine class.
+ */
+class WriteBehindStorageEngineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Opens a write-behind engine over a backing engine and attaches it to a new library, seeding the
+     * backing engine with the library's initial contents if it is empty.
+     *
+     * @param backing     The backing engine.
+     * @param flushMillis The flush interval.
+     * @param maxBatch    The number of changes that triggers an early flush.
+     * @param library     The library.
+     * @return The engine.
+     * @throws IOException if the engine cannot be loaded.
+     */
+    private WriteBehindStorageEngine open(StorageEngine backing, long flushMillis, int maxBatch,
+                                          LibraryLendingSystem library) throws IOException {
+        WriteBehindStorageEngine engine = new WriteBehindStorageEngine(backing, directory.resolve("journal"),
+                Journal.DEFAULT_SEGMENT_BYTES, flushMillis, maxBatch);
+        Map<String, Book> books = library.getBooks();
+        Map<String, Member> members = library.getMembers();
+        if (!engine.load(library)) {
+            library.setBooks(books);
+            library.setMembers(members);
+            engine.seed(books.values(), members.values());
+        }
+        library.setStorage(engine);
+        return engine;
+    }
+
+    /**
+     * Test that mutations are acknowledged before they reach the backing engine, and that repeated changes
+     * to one book are flushed as its latest state only.
+     */
+    @Test
+    void testRepeatedChangesCoalesced() throws IOException {
+        RecordingEngine backing = new RecordingEngine();
+        LibraryLendingSystem library = LibraryLendingSystem.withExamples();
+        WriteBehindStorageEngine engine = open(backing, TimeUnit.HOURS.toMillis(1), 1000, library);
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(library.checkOutBook(memberId, bookId));
+            assertTrue(library.returnBook(memberId, bookId));
+        }
+        assertTrue(library.checkOutBook(memberId, bookId));
+        assertTrue(backing.appended.isEmpty());
+        assertEquals(1, engine.getQueueDepth());
+        assertEquals(20, engine.getCoalesced());
+
+        engine.flush();
+        assertEquals(1, backing.appended.size());
+        JournalRecord record = backing.appended.get(0);
+        assertEquals(JournalRecord.Type.UPDATE_BOOK, record.getType());
+        assertEquals("true", record.getField(2));
+        assertEquals(memberId, record.getField(3));
+        assertEquals(0, engine.getQueueDepth());
+        assertEquals(0, engine.getLagMillis());
+        assertEquals(1, engine.getFlushes());
+        assertEquals(1, engine.getFlushed());
+        engine.close();
+    }
+
+    /**
+     * Test that the flusher writes changes in the background, early once enough books have changed.
+     */
+    @Test
+    void testFlushedInBackgroundOnceBatchFills() throws IOException {
+        RecordingEngine backing = new RecordingEngine();
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        WriteBehindStorageEngine engine = open(backing, TimeUnit.HOURS.toMillis(1), 5, library);
+        for (int i = 0; i < 5; i++) {
+            library.addBook("Title " + i, "Author");
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> backing.appended.size() == 5);
+        assertEquals(0, engine.getQueueDepth());
+        engine.close();
+    }
+
+    /**
+     * Test that the flusher counts the flushes the backing engine fails to take and keeps trying, so that the
+     * engine stops failing once the backing engine takes the changes.
+     */
+    @Test
+    void testScheduledFlushFailuresCounted() throws IOException {
+        RecordingEngine backing = new RecordingEngine();
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        WriteBehindStorageEngine engine = open(backing, 20, 1000, library);
+        backing.failing = true;
+        library.addBook("Clean Code", "Robert C. Martin");
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> engine.getFailedFlushes() >= 2);
+        assertTrue(engine.isFailing());
+        assertEquals(1, engine.getQueueDepth());
+
+        backing.failing = false;
+        await().atMost(10, TimeUnit.SECONDS).until(() -> engine.getQueueDepth() == 0);
+        assertFalse(engine.isFailing());
+        assertEquals(1, backing.appended.size());
+        engine.close();
+    }
+
+    /**
+     * Test that a database behind the journal recovers from a failed transaction: the next flush writes the
+     * books it lost again, after which the engine stops failing and takes later changes.
+     */
+    @Test
+    void testSqlBackingRecoversFromFailedFlush() throws IOException, SQLException {
+        Path database = directory.resolve("database");
+        LibraryLendingSystem library = LibraryLendingSystem.withExamples();
+        WriteBehindStorageEngine engine = open(new SqlStorageEngine(database, SqlStorageEngine.DEFAULT_POOL_SIZE),
+                TimeUnit.HOURS.toMillis(1), 1000, library);
+        String memberId = library.getMembers().keySet().iterator().next();
+        String bookId = library.getBooks().keySet().iterator().next();
+        try (Connection connection = DriverManager.getConnection(SqlStorageEngine.urlFor(database))) {
+            connection.createStatement().execute("ALTER TABLE books ADD CONSTRAINT no_blocked CHECK (author <> 'Blocked')");
+            library.updateBook(bookId, new Book("Title", "Blocked"));
+            assertThrows(IOException.class, engine::flush);
+            assertTrue(engine.isFailing());
+
+            connection.createStatement().execute("ALTER TABLE books DROP CONSTRAINT no_blocked");
+            engine.flush();
+            assertFalse(engine.isFailing());
+            assertEquals(0, engine.getQueueDepth());
+        }
+
+        assertTrue(library.checkOutBook(memberId, bookId));
+        engine.flush();
+        assertFalse(engine.isFailing());
+        engine.close();
+
+        LibraryLendingSystem recovered = new LibraryLendingSystem();
+        try (SqlStorageEngine backing = new SqlStorageEngine(database, SqlStorageEngine.DEFAULT_POOL_SIZE)) {
+            assertTrue(backing.load(recovered));
+        }
+        assertEquals("Blocked", recovered.getBook(bookId).orElseThrow().getAuthor());
+        assertEquals(memberId, recovered.getBook(bookId).orElseThrow().getBorrowedId());
+    }
+
+    /**
+     * Test that changes the backing engine failed to take are kept in the journal and flushed after a restart,
+     * including deletions.
+     */
+    @Test
+    void testUnflushedChangesRecoveredFromJournal() throws IOException {
+        RecordingEngine backing = new RecordingEngine();
+        LibraryLendingSystem library = LibraryLendingSystem.withExamples();
+        WriteBehindStorageEngine engine = open(backing, TimeUnit.HOURS.toMillis(1), 1000, library);
+        String memberId = library.getMembers().keySet().iterator().next();
+        String[] bookIds = library.getBooks().keySet().toArray(new String[0]);
+        backing.failing = true;
+        assertTrue(library.checkOutBook(memberId, bookIds[0]));
+        library.deleteBook(bookIds[1]);
+        assertThrows(IOException.class, engine::flush);
+        assertEquals(2, engine.getQueueDepth());
+        assertTrue(engine.isFailing());
+        assertEquals(1, engine.getFailedFlushes());
+        assertThrows(IOException.class, engine::close);
+
+        backing.failing = false;
+        LibraryLendingSystem recovered = new LibraryLendingSystem();
+        engine = open(backing, TimeUnit.HOURS.toMillis(1), 1000, recovered);
+        assertTrue(recovered.getBook(bookIds[0]).orElseThrow().isCheckedOut());
+        assertFalse(recovered.getBook(bookIds[1]).isPresent());
+        assertEquals(2, engine.getQueueDepth());
+        engine.close();
+
+        assertTrue(backing.books.get(bookIds[0]).isCheckedOut());
+        assertEquals(memberId, backing.books.get(bookIds[0]).getBorrowedId());
+        assertFalse(backing.books.containsKey(bookIds[1]));
+    }
+
+    /**
+     * A backing engine that keeps books and members in maps and records every mutation it is given,
+     * optionally failing instead.
+     */
+    private static class RecordingEngine implements StorageEngine {
+        private final Map<String, Book> books = new HashMap<>();
+        private final Map<String, Member> members = new HashMap<>();
+        private final List<JournalRecord> appended = new ArrayList<>();
+        private volatile boolean failing;
+        private long sequence;
+
+        @Override
+        public boolean load(LibraryLendingSystem library) {
+            if (books.isEmpty() && members.isEmpty()) {
+                return false;
+            }
+            Map<String, Book> loadedBooks = new HashMap<>();
+            books.values().forEach(book -> loadedBooks.put(book.getBookId(), copy(book)));
+            library.setBooks(loadedBooks);
+            library.setMembers(new HashMap<>(members));
+            return true;
+        }
+
+        @Override
+        public void seed(Collection<Book> books, Collection<Member> members) {
+            books.forEach(book -> this.books.put(book.getBookId(), copy(book)));
+            members.forEach(member -> this.members.put(member.getMemberId(), member));
+        }
+
+        @Override
+        public synchronized long append(JournalRecord record) throws IOException {
+            if (failing) {
+                throw new IOException("Backing engine unavailable");
+            }
+            appended.add(record);
+            switch (record.getType()) {
+                case UPDATE_BOOK -> {
+                    Book book = new Book(record.getField(0), record.getField(1));
+                    book.setBookId(record.getId());
+                    book.setCheckedOut(Boolean.parseBoolean(record.getField(2)));
+                    book.setBorrowedId(record.getField(3));
+                    books.put(record.getId(), book);
+                }
+                case DELETE_BOOK -> books.remove(record.getId());
+                case DELETE_MEMBER -> members.remove(record.getId());
+                default -> {
+                }
+            }
+            return ++sequence;
+        }
+
+        @Override
+        public void sync(long sequence) {
+        }
+
+        @Override
+        public synchronized long getLastSequence() {
+            return sequence;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static Book copy(Book book) {
+            Book copy = new Book(book.getTitle(), book.getAuthor());
+            copy.setBookId(book.getBookId());
+            copy.setCheckedOut(book.isCheckedOut());
+            copy.setBorrowedId(book.getBorrowedId());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.CS5031P2.backend.util;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BookIngester class.
+ */
+class BookIngesterTest {
+
+    private LibraryLendingSystem library;
+
+    @BeforeEach
+    void setUp() {
+        library = new LibraryLendingSystem();
+    }
+
+    /**
+     * Tests ingesting a JSON array in several batches.
+     */
+    @Test
+    void testIngestsJsonArrayInBatches() throws IOException {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 25; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"title\":\"Title ").append(i).append("\",\"author\":\"Author\"}");
+        }
+        body.append("]");
+
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body.toString()), library);
+
+        assertEquals(25, result.getRecords());
+        assertEquals(25, result.getAdded());
+        assertEquals(0, result.getFailed());
+        assertNull(result.getAbortedReason());
+        assertEquals(25, library.getBooks().size());
+    }
+
+    /**
+     * Tests ingesting newline-delimited JSON, keeping given IDs.
+     */
+    @Test
+    void testIngestsNdjson() throws IOException {
+        String body = "{\"bookId\":\"b1\",\"title\":\"Emma\",\"author\":\"Jane Austen\"}\n"
+                + "\n"
+                + "{\"title\":\"Persuasion\",\"author\":\"Jane Austen\"}\n";
+
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body), library);
+
+        assertEquals(2, result.getRecords());
+        assertEquals(2, result.getAdded());
+        Book emma = library.getBook("b1").orElseThrow();
+        assertEquals("Emma", emma.getTitle());
+    }
+
+    /**
+     * Tests that invalid records are reported by position without stopping the rest.
+     */
+    @Test
+    void testReportsInvalidRecords() throws IOException {
+        String body = "[{\"title\":\"Emma\",\"author\":\"Jane Austen\"},"
+                + "{\"title\":\"\",\"author\":\"Nobody\"},"
+                + "42,"
+                + "{\"title\":\"Dune\"},"
+                + "{\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"bookId\":7},"
+                + "{\"title\":\"Dune\",\"author\":\"Frank Herbert\"}]";
+
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body), library);
+
+        assertEquals(6, result.getRecords());
+        assertEquals(2, result.getAdded());
+        assertEquals(4, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("Missing title", result.getErrors().get(0).getMessage());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        assertEquals("Missing author", result.getErrors().get(2).getMessage());
+        assertEquals(4, result.getErrors().get(3).getIndex());
+    }
+
+    /**
+     * Tests that sending the same books again adds nothing new.
+     */
+    @Test
+    void testResendingAddsNothing() throws IOException {
+        String body = "[{\"title\":\"Emma\",\"author\":\"Jane Austen\"},{\"title\":\"Emma\",\"author\":\"Jane Austen\"}]";
+
+        new BookIngester(10).ingest(streamOf(body), library);
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body), library);
+
+        assertEquals(0, result.getAdded());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(2, library.getBooks().size());
+    }
+
+    /**
+     * Tests that malformed JSON stops the ingest but keeps the books before it.
+     */
+    @Test
+    void testMalformedJsonAbortsAfterEarlierBooks() throws IOException {
+        String body = "[{\"title\":\"Emma\",\"author\":\"Jane Austen\"},{\"title\":\"Du";
+
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body), library);
+
+        assertNotNull(result.getAbortedReason());
+        assertEquals(1, result.getAdded());
+        assertEquals(1, library.getBooks().size());
+    }
+
+    /**
+     * Tests that an unterminated array is reported.
+     */
+    @Test
+    void testUnterminatedArrayAborts() throws IOException {
+        String body = "[{\"title\":\"Emma\",\"author\":\"Jane Austen\"}";
+
+        BookIngester.IngestResult result = new BookIngester(10).ingest(streamOf(body), library);
+
+        assertNotNull(result.getAbortedReason());
+        assertEquals(1, result.getAdded());
+    }
+
+    private static InputStream streamOf(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -12,7 +12,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -30,11 +32,18 @@ public class BookParserTest {
     @BeforeAll
     public static void mockSetup() throws IOException {
         mockedFileUtil = Mockito.mockStatic(FileUtil.class);
-        when(FileUtil.readFile("src/test/resources/test_data.json"))
-                .thenReturn("[{\"title\":\"Book Title\",\"author\":\"Author Name\"}]");
+        when(FileUtil.openStream("src/test/resources/test_data.json"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(
+                        "[{\"title\":\"Book Title\",\"author\":\"Author Name\"}]".getBytes(StandardCharsets.UTF_8)));
+
+        when(FileUtil.openStream("src/test/resources/test_ids.json"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(("[{\"title\":\"Copy\",\"author\":\"A\"},"
+                        + "{\"title\":\"Copy\",\"author\":\"A\"},"
+                        + "{\"bookId\":\"b-42\",\"title\":\"Kept\",\"author\":\"B\"}]")
+                        .getBytes(StandardCharsets.UTF_8)));
 
         // Throw IOException for a specific test file to simulate read error
-        when(FileUtil.readFile("src/test/resources/invalid_data.json")).thenThrow(IOException.class);
+        when(FileUtil.openStream("src/test/resources/invalid_data.json")).thenThrow(IOException.class);
     }
 
     /**
@@ -69,6 +78,41 @@ public class BookParserTest {
                 books.values().stream().anyMatch(book -> "Author Name".equals(book.getAuthor())));
     }
 
+    /**
+     * Test that IDs in the file are kept, and that the other books get the same derived IDs on every load,
+     * with copies of one book told apart.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testStableIds() throws IOException {
+        Map<String, Book> first = bookParser.parseBooks("src/test/resources/test_ids.json");
+        Map<String, Book> second = new BookParser().parseBooks("src/test/resources/test_ids.json");
+
+        assertEquals("Every book should be parsed", 3, first.size());
+        assertEquals("The ID in the file should be kept", "Kept", first.get("b-42").getTitle());
+        assertTrue("The first copy should have its derived ID",
+                first.containsKey(DeterministicId.forBook("Copy", "A", 0)));
+        assertTrue("The second copy should have its own derived ID",
+                first.containsKey(DeterministicId.forBook("Copy", "A", 1)));
+        assertEquals("Loading again should give the same IDs", first.keySet(), second.keySet());
+        assertEquals("Parsing again with the same parser should give the same IDs",
+                first.keySet(), bookParser.parseBooks("src/test/resources/test_ids.json").keySet());
+    }
+
+    /**
+     * Test parsing books from a stream, as the examples are read from the classpath.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testParsingStream() throws IOException {
+        Map<String, Book> books = bookParser.parseBooks(new ByteArrayInputStream(
+                "[{\"bookId\":\"b-1\",\"title\":\"Streamed\",\"author\":\"Author Name\"}]"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Every book should be parsed", 1, books.size());
+        assertEquals("The book should keep its ID", "Streamed", books.get("b-1").getTitle());
+    }
+
     /**
      * Test that an IOException is thrown when parsing invalid data.
      */
@@ -0,0 +1,142 @@
+package com.CS5031P2.backend.util;
+
+import com.CS5031P2.backend.model.Book;
+import com.CS5031P2.backend.model.LibraryLendingSystem;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CatalogueImporter class.
+ */
+class CatalogueImporterTest {
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * Writes a pretty-printed JSON array of books whose strings contain structural characters.
+     *
+     * @param count The number of books.
+     * @return The file path.
+     * @throws IOException if the file cannot be written.
+     */
+    private Path writeArray(int count) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < count; i++) {
+            json.append("  {\n    \"title\": \"Title {").append(i).append("} \\\"quoted\\\" ]\",\n")
+                    .append("    \"author\": \"Author ").append(i % 7).append("\",\n")
+                    .append("    \"tags\": [{\"name\": \"}\"}]\n  }")
+                    .append(i + 1 < count ? ",\n" : "\n");
+        }
+        Path file = directory.resolve("books.json");
+        Files.writeString(file, json.append("]\n"));
+        return file;
+    }
+
+    /**
+     * Test that a JSON array split into many chunks is parsed completely and in order.
+     */
+    @Test
+    void testParseArrayInManyChunks() throws IOException {
+        Path file = writeArray(500);
+        CatalogueImporter importer = new CatalogueImporter(pool, 256);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertTrue(importer.split(channel).ranges.size() > 10, "File should be split into many chunks");
+        }
+
+        List<Book> books = importer.parseBooks(file.toString());
+        assertEquals(500, books.size());
+        for (int i = 0; i < books.size(); i++) {
+            assertEquals("Title {" + i + "} \"quoted\" ]", books.get(i).getTitle());
+        }
+    }
+
+    /**
+     * Test that newline-delimited JSON is parsed, keeping IDs present in the file and deriving blank ones.
+     */
+    @Test
+    void testParseNdjson() throws IOException {
+        Path file = directory.resolve("books.ndjson");
+        Files.writeString(file, "{\"bookId\":\"b1\",\"title\":\"One\",\"author\":\"A\"}\n"
+                + "{\"bookId\":\" \",\"title\":\"Two\",\"author\":\"B\"}\n"
+                + "{\"title\":\"Three\",\"author\":\"C\"}\n");
+
+        List<Book> books = new CatalogueImporter(pool, 16).parseBooks(file.toString());
+        assertEquals(List.of("One", "Two", "Three"), books.stream().map(Book::getTitle).toList());
+        assertEquals("b1", books.get(0).getBookId());
+        assertEquals(DeterministicId.forBook("Two", "B", 0), books.get(1).getBookId());
+    }
+
+    /**
+     * Test that IDs are deterministic, and that identical books still get distinct IDs.
+     */
+    @Test
+    void testDeterministicIds() throws IOException {
+        Path file = directory.resolve("copies.json");
+        Files.writeString(file, "[{\"title\":\"Same\",\"author\":\"Author\"},{\"title\":\"Same\",\"author\":\"Author\"}]");
+
+        List<Book> first = new CatalogueImporter(pool, 1).parseBooks(file.toString());
+        List<Book> second = new CatalogueImporter(pool, 1024).parseBooks(file.toString());
+
+        assertNotEquals(first.get(0).getBookId(), first.get(1).getBookId());
+        assertEquals(first.stream().map(Book::getBookId).toList(), second.stream().map(Book::getBookId).toList());
+    }
+
+    /**
+     * Test that re-importing a catalogue does not duplicate its books.
+     */
+    @Test
+    void testReimportDoesNotDuplicate() throws IOException {
+        Path file = writeArray(50);
+        LibraryLendingSystem library = new LibraryLendingSystem();
+        CatalogueImporter importer = new CatalogueImporter(pool, 512);
+
+        CatalogueImporter.ImportResult first = importer.importBooks(file.toString(), library);
+        CatalogueImporter.ImportResult second = importer.importBooks(file.toString(), library);
+
+        assertEquals(50, first.getAdded());
+        assertEquals(50, second.getRecords());
+        assertEquals(0, second.getAdded());
+        assertEquals(50, library.getBooks().size());
+        assertTrue(first.getRecordsPerSecond() > 0);
+    }
+
+    /**
+     * Test that a truncated or non-JSON file is rejected.
+     */
+    @Test
+    void testInvalidCatalogue() throws IOException {
+        Path truncated = directory.resolve("truncated.json");
+        Files.writeString(truncated, "[{\"title\":\"One\",\"author\":");
+        Path text = directory.resolve("text.json");
+        Files.writeString(text, "title,author");
+
+        CatalogueImporter importer = new CatalogueImporter(pool, 1024);
+        assertThrows(IOException.class, () -> importer.parseBooks(truncated.toString()));
+        assertThrows(IOException.class, () -> importer.parseBooks(text.toString()));
+    }
+}
@@ -1,7 +1,12 @@
 package com.CS5031P2.backend.util;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,4 +38,74 @@ class DataParserTest {
         assertThrows(IOException.class, () -> dataParser.parseObjects("non_existing_file.json"),
                 "IOException should be thrown for non-existing file");
     }
+
+    /**
+     * Test that scalar fields are streamed to parseObject and nested values are skipped.
+     */
+    @Test
+    void testParseObjects_StreamsScalarFields(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("data.json");
+        Files.writeString(file, "[{\"id\":\"a\",\"count\":3,\"flag\":true,\"nested\":{\"id\":\"x\"},\"list\":[1,2]},"
+                + "{\"id\":\"b\",\"missing\":null}]");
+
+        DataParser<Map<String, Object>> dataParser = new DataParser<>() {
+            @Override
+            protected void parseObject(Map<String, Map<String, Object>> parseObjects, Map<String, Object> entry) {
+                parseObjects.put((String) entry.get("id"), new HashMap<>(entry));
+            }
+        };
+        Map<String, Map<String, Object>> parsedObjects = dataParser.parseObjects(file.toString());
+
+        assertEquals(2, parsedObjects.size());
+        assertEquals(3, parsedObjects.get("a").get("count"));
+        assertEquals(true, parsedObjects.get("a").get("flag"));
+        assertFalse(parsedObjects.get("a").containsKey("nested"), "Nested objects should be skipped");
+        assertFalse(parsedObjects.get("b").containsKey("count"), "Fields should not leak between objects");
+    }
+
+    /**
+     * Test that a file that is not a JSON array of objects is rejected.
+     */
+    @Test
+    void testParseObjects_RejectsNonArray(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("object.json");
+        Files.writeString(file, "{\"title\":\"Book Title\"}");
+
+        DataParser<Object> dataParser = new DataParser<>();
+        assertThrows(IOException.class, () -> dataParser.parseObjects(file.toString()),
+                "IOException should be thrown for a file that is not an array");
+    }
+
+    /**
+     * Test that newline-delimited JSON files are parsed record by record.
+     */
+    @Test
+    void testParseObjects_Ndjson(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("data.ndjson");
+        Files.writeString(file, "{\"id\":\"a\",\"count\":1}\n\n{\"id\":\"b\",\"count\":2}\r\n{\"id\":\"c\"}");
+
+        DataParser<Map<String, Object>> dataParser = new DataParser<>() {
+            @Override
+            protected void parseObject(Map<String, Map<String, Object>> parseObjects, Map<String, Object> entry) {
+                parseObjects.put((String) entry.get("id"), new HashMap<>(entry));
+            }
+        };
+        Map<String, Map<String, Object>> parsedObjects = dataParser.parseObjects(file.toString());
+
+        assertEquals(3, parsedObjects.size());
+        assertEquals(2, parsedObjects.get("b").get("count"));
+        assertFalse(parsedObjects.get("c").containsKey("count"), "Fields should not leak between records");
+    }
+
+    /**
+     * Test that a newline-delimited file with a line that is not an object is rejected.
+     */
+    @Test
+    void testParseObjects_NdjsonRejectsNonObject(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("data.ndjson");
+        Files.writeString(file, "{\"id\":\"a\"}\n[1,2]\n");
+
+        DataParser<Object> dataParser = new DataParser<>();
+        assertThrows(IOException.class, () -> dataParser.parseObjects(file.toString()));
+    }
 }
@@ -1,7 +1,14 @@
 package com.CS5031P2.backend.util;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class FileUtilTest {
@@ -23,4 +30,60 @@ class FileUtilTest {
         assertThrows(IOException.class, () -> FileUtil.readFile("non_existent.txt"),
                 "Attempting to read a non-existent file should throw an IOException.");
     }
+
+    @Test
+    void testReadFile_PreservesLinesAndUtf8(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("lines.json");
+        Files.writeString(file, "[\n  \"Café\",\n  \"Zürich\"\n]\n", StandardCharsets.UTF_8);
+
+        assertEquals("[\n  \"Café\",\n  \"Zürich\"\n]\n", FileUtil.readFile(file.toString()));
+    }
+
+    @Test
+    void testForEachRecord_SkipsBlankLines(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("records.ndjson");
+        Files.writeString(file, "{\"a\":1}\r\n\n   \n{\"b\":\"é\"}\n{\"c\":3}", StandardCharsets.UTF_8);
+
+        List<String> records = new ArrayList<>();
+        long count = FileUtil.forEachRecord(file.toString(), record -> records.add(decode(record)));
+
+        assertEquals(3, count);
+        assertEquals(List.of("{\"a\":1}\r", "{\"b\":\"é\"}", "{\"c\":3}"), records);
+    }
+
+    @Test
+    void testForEachRecord_RecordsSpanningWindows(@TempDir Path directory) throws IOException {
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String record = "{\"id\":" + i + ",\"pad\":\"" + "x".repeat(i * 3) + "\"}";
+            expected.add(record);
+            content.append(record).append('\n');
+        }
+        Path file = directory.resolve("records.ndjson");
+        Files.writeString(file, content);
+
+        // A window smaller than most records forces both window sliding and growing
+        List<String> records = new ArrayList<>();
+        FileUtil.forEachRecord(file.toString(), 16, record -> records.add(decode(record)));
+
+        assertEquals(expected, records);
+    }
+
+    @Test
+    void testForEachRecord_EmptyFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("empty.ndjson");
+        Files.writeString(file, "");
+
+        assertEquals(0, FileUtil.forEachRecord(file.toString(), record -> fail("No records expected")));
+    }
+
+    @Test
+    void testForEachRecord_FileDoesNotExist() {
+        assertThrows(IOException.class, () -> FileUtil.forEachRecord("non_existent.ndjson", record -> { }));
+    }
+
+    private static String decode(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record).toString();
+    }
 }
\ No newline at end of file
@@ -10,7 +10,9 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import com.CS5031P2.backend.model.Member;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -28,11 +30,18 @@ public class MemberParserTest {
     @BeforeAll
     public static void mockSetup() throws IOException {
         mockedFileUtil = Mockito.mockStatic(FileUtil.class);
-        when(FileUtil.readFile("src/test/resources/member_test_data.json"))
-                .thenReturn("[{\"name\":\"Member Name\",\"address\":\"Member Address\"}]");
+        when(FileUtil.openStream("src/test/resources/member_test_data.json"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(
+                        "[{\"name\":\"Member Name\",\"address\":\"Member Address\"}]".getBytes(StandardCharsets.UTF_8)));
+
+        when(FileUtil.openStream("src/test/resources/member_test_ids.json"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(("[{\"name\":\"Twin\",\"address\":\"Home\"},"
+                        + "{\"name\":\"Twin\",\"address\":\"Home\"},"
+                        + "{\"memberId\":\"m-7\",\"name\":\"Kept\",\"address\":\"Away\"}]")
+                        .getBytes(StandardCharsets.UTF_8)));
 
         // Throw IOException for a specific test file to simulate read error
-        when(FileUtil.readFile("src/test/resources/invalid_member_data.json")).thenThrow(IOException.class);
+        when(FileUtil.openStream("src/test/resources/invalid_member_data.json")).thenThrow(IOException.class);
     }
 
     /**
@@ -67,6 +76,39 @@ public class MemberParserTest {
                 "The map should contain a member with the specified address");
     }
 
+    /**
+     * Test that IDs in the file are kept, and that the other members get the same derived IDs on every load,
+     * with members of the same name and address told apart.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testStableIds() throws IOException {
+        Map<String, Member> first = memberParser.getParsedMembers("src/test/resources/member_test_ids.json");
+        Map<String, Member> second = new MemberParser().getParsedMembers("src/test/resources/member_test_ids.json");
+
+        assertEquals(3, first.size(), "Every member should be parsed");
+        assertEquals("Kept", first.get("m-7").getName(), "The ID in the file should be kept");
+        assertTrue(first.containsKey(DeterministicId.forMember("Twin", "Home", 0)),
+                "The first member should have their derived ID");
+        assertTrue(first.containsKey(DeterministicId.forMember("Twin", "Home", 1)),
+                "The second member should have their own derived ID");
+        assertEquals(first.keySet(), second.keySet(), "Loading again should give the same IDs");
+    }
+
+    /**
+     * Test parsing members from a stream, as the examples are read from the classpath.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testParsingStream() throws IOException {
+        Map<String, Member> members = memberParser.getParsedMembers(new ByteArrayInputStream(
+                "[{\"memberId\":\"m-1\",\"name\":\"Streamed\",\"address\":\"Member Address\"}]"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, members.size(), "Every member should be parsed");
+        assertEquals("Streamed", members.get("m-1").getName(), "The member should keep their ID");
+    }
+
     /**
      * Test that an IOException is thrown when parsing invalid member data.
      */
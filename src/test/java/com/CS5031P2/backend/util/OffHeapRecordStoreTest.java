@@ -0,0 +1,76 @@
+package com.CS5031P2.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRecordStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsKeepFieldsAndFlag() {
+        OffHeapRecordStore store = new OffHeapRecordStore(2);
+        store.put("a", new String[]{"Name", null}, true);
+        store.put("b", new String[]{"", "Address"}, false);
+
+        assertEquals("a:[Name, null]:true", store.get("a", OffHeapRecordStoreTest::describe));
+        assertEquals("b:[, Address]:false", store.get("b", OffHeapRecordStoreTest::describe));
+        assertNull(store.get("c", OffHeapRecordStoreTest::describe));
+        assertThrows(IllegalArgumentException.class, () -> store.put("c", new String[]{"Only one"}, false));
+        assertThrows(IllegalArgumentException.class, () -> store.put(null, new String[]{"a", "b"}, false));
+    }
+
+    @Test
+    void testSizeOfTellsWhatFits() {
+        OffHeapRecordStore store = new OffHeapRecordStore(2);
+        String[] largest = {"x".repeat(OffHeapRecordStore.RECORD_SIZE - store.sizeOf("a", new String[]{"", null})), null};
+
+        assertEquals(OffHeapRecordStore.RECORD_SIZE, store.sizeOf("a", largest));
+        store.put("a", largest, false);
+        String[] tooLarge = {largest[0], "y"};
+        assertEquals(OffHeapRecordStore.RECORD_SIZE + 1, store.sizeOf("b", tooLarge));
+        assertThrows(IllegalArgumentException.class, () -> store.put("b", tooLarge, false));
+        assertThrows(IllegalArgumentException.class, () -> store.sizeOf("b", new String[]{"Only one"}));
+    }
+
+    @Test
+    void testIterationSkipsRemovedRecords() {
+        OffHeapRecordStore store = new OffHeapRecordStore(1);
+        for (int i = 0; i < 5; i++) {
+            store.put("id" + i, new String[]{"value" + i}, false);
+        }
+        store.remove("id1");
+        store.remove("id4");
+
+        List<String> ids = new ArrayList<>();
+        store.iterator((id, fields, flag) -> id).forEachRemaining(ids::add);
+        assertEquals(List.of("id0", "id2", "id3"), ids);
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void testFilesOpenOnlyWithTheSameNumberOfFields() throws IOException {
+        Path file = directory.resolve("records.dat");
+        try (OffHeapRecordStore store = new OffHeapRecordStore(file, 2)) {
+            store.put("a", new String[]{"one", "two"}, false);
+        }
+
+        assertThrows(IOException.class, () -> new OffHeapRecordStore(file, 3));
+        try (OffHeapRecordStore store = new OffHeapRecordStore(file, 2)) {
+            assertEquals("a:[one, two]:false", store.get("a", OffHeapRecordStoreTest::describe));
+        }
+    }
+
+    private static String describe(String id, String[] fields, boolean flag) {
+        return id + ":" + Arrays.toString(fields) + ":" + flag;
+    }
+}
@@ -0,0 +1,125 @@
+package com.CS5031P2.backend.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMapTest {
+
+    @Test
+    void testWithAndWithoutLeaveOlderVersionsUnchanged() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> one = empty.with("a", 1);
+        PersistentMap<String, Integer> two = one.with("b", 2);
+        PersistentMap<String, Integer> replaced = two.with("a", 10);
+        PersistentMap<String, Integer> removed = replaced.without("b");
+
+        assertTrue(empty.isEmpty());
+        assertEquals(Map.of("a", 1), one);
+        assertEquals(Map.of("a", 1, "b", 2), two);
+        assertEquals(Map.of("a", 10, "b", 2), replaced);
+        assertEquals(Map.of("a", 10), removed);
+    }
+
+    @Test
+    void testNoOpChangesReturnSameMap() {
+        Integer value = 1;
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().with("a", value);
+
+        assertSame(map, map.with("a", value));
+        assertSame(map, map.without("missing"));
+    }
+
+    @Test
+    void testCollidingKeys() {
+        // "Aa" and "BB" share a hash code
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().with("Aa", 1).with("BB", 2);
+
+        assertEquals(2, map.size());
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        assertEquals(Map.of("BB", 2), map.without("Aa"));
+        assertEquals(Map.of("Aa", 1), map.without("BB"));
+    }
+
+    @Test
+    void testMatchesHashMapOverRandomChanges() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "key" + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+        }
+
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    void testBuilderMatchesHashMap() {
+        Random random = new Random(7);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap.Builder<String, Integer> builder = PersistentMap.<String, Integer>empty().toBuilder();
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = random.nextBoolean() ? "Aa" + random.nextInt(500) : "BB" + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                builder.remove(key);
+            } else {
+                expected.put(key, i);
+                builder.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), builder.size());
+        assertEquals(expected, builder.build());
+    }
+
+    @Test
+    void testBuilderDoesNotChangeBuiltMaps() {
+        PersistentMap<String, Integer> original = PersistentMap.<String, Integer>empty().with("a", 1);
+        PersistentMap.Builder<String, Integer> builder = original.toBuilder();
+        builder.put("b", 2);
+        PersistentMap<String, Integer> built = builder.build();
+        builder.put("c", 3).remove("a");
+
+        assertEquals(Map.of("a", 1), original);
+        assertEquals(Map.of("a", 1, "b", 2), built);
+        assertEquals(Map.of("b", 2, "c", 3), builder.build());
+    }
+
+    @Test
+    void testCopyOf() {
+        Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            source.put("key" + i, i);
+        }
+        PersistentMap<String, Integer> copy = PersistentMap.copyOf(source);
+        source.clear();
+
+        assertEquals(1_000, copy.size());
+        assertEquals(500, copy.get("key500"));
+        assertSame(copy, PersistentMap.copyOf(copy));
+    }
+
+    @Test
+    void testIsUnmodifiable() {
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().with("a", 1);
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+        assertThrows(NullPointerException.class, () -> map.with(null, 1));
+    }
+}
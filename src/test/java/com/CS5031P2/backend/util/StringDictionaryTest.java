@@ -0,0 +1,133 @@
+package com.CS5031P2.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void testEqualStringsShareOneCodeAndInstance() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = new String("Author");
+        String second = new String("Author");
+
+        int code = dictionary.encode(first);
+
+        assertEquals(code, dictionary.encode(second));
+        assertEquals(1, dictionary.size());
+        assertSame(first, dictionary.decode(code));
+        assertSame(first, dictionary.dedupe(second));
+        assertNull(dictionary.dedupe(null));
+    }
+
+    @Test
+    void testCodesAreDenseAndSurviveGrowth() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dictionary.encode("Author " + i));
+        }
+
+        assertEquals(100, dictionary.size());
+        assertEquals("Author 42", dictionary.decode(42));
+    }
+
+    @Test
+    void testStringsDroppedWithTheirLastReference() {
+        StringDictionary dictionary = new StringDictionary();
+        int first = dictionary.encode("Author A");
+        dictionary.encode("Author A");
+        dictionary.encode("Author B");
+
+        dictionary.release("Author A");
+        assertEquals(2, dictionary.size());
+        assertEquals("Author A", dictionary.decode(first));
+
+        dictionary.release("Author A");
+        dictionary.release("Author A");
+        dictionary.release(null);
+        assertEquals(1, dictionary.size());
+
+        // The dropped string's code goes to the next new string
+        assertEquals(first, dictionary.encode("Author C"));
+        assertEquals("Author C", dictionary.decode(first));
+        assertNotEquals(first, dictionary.encode("Author A"));
+    }
+
+    @Test
+    void testClearDropsEverything() {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("Author A");
+        dictionary.encode("Author B");
+
+        dictionary.clear();
+
+        assertEquals(0, dictionary.size());
+        assertEquals(0, dictionary.encode("Author B"));
+    }
+
+    @Test
+    void testConcurrentEncodeAndReleaseBalance() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("Kept");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String value = "Author " + (i % 8);
+                        int code = dictionary.encode(value);
+                        assertEquals(value, dictionary.decode(code));
+                        dictionary.encode("Kept");
+                        dictionary.release(value);
+                        dictionary.release("Kept");
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, dictionary.size());
+        assertEquals(0, dictionary.encode("Kept"));
+    }
+
+    @Test
+    void testConcurrentEncodersAgreeOnCodes() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] codes = new int[1000];
+                    for (int i = 0; i < codes.length; i++) {
+                        codes[i] = dictionary.encode("Author " + i);
+                    }
+                    return codes;
+                }));
+            }
+            int[] expected = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1000, dictionary.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Author " + i, dictionary.decode(dictionary.encode("Author " + i)));
+        }
+    }
+}
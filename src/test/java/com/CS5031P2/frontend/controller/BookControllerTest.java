@@ -159,4 +159,90 @@ public class BookControllerTest {
         List<Book> books = BookController.getAllBooks();
         assertTrue(books.isEmpty(), "The list should be empty for a response that does not start with '['");
     }
+
+    /**
+     * Tests the BookController.searchBooks() method.
+     */
+    @Test
+    public void testSearchBooks() {
+        List<Book> books = BookController.searchBooks("book title");
+        assertEquals(2, books.size());
+        assertEquals("Sending GET request to http://localhost:8080/books/search?q=book+title",
+                outputStreamCaptor.toString().trim());
+    }
+
+    /**
+     * Tests the BookController.fuzzySearchBooks() method.
+     */
+    @Test
+    public void testFuzzySearchBooks() {
+        List<Book> books = BookController.fuzzySearchBooks("bok titel");
+        assertEquals(2, books.size());
+        assertEquals("Sending GET request to http://localhost:8080/books/search?fuzzy=true&q=bok+titel",
+                outputStreamCaptor.toString().trim());
+    }
+
+    /**
+     * Tests the BookController.getAvailableBooks() and searchAvailableBooks() methods.
+     */
+    @Test
+    public void testAvailableBooks() {
+        BookController.getAvailableBooks();
+        BookController.searchAvailableBooks("book one");
+        BookController.fuzzySearchAvailableBooks("bok");
+        assertEquals("Sending GET request to http://localhost:8080/books/available/page?limit=500\n"
+                        + "Sending GET request to http://localhost:8080/books/available?q=book+one\n"
+                        + "Sending GET request to http://localhost:8080/books/available?fuzzy=true&q=bok",
+                outputStreamCaptor.toString().trim());
+    }
+
+    /**
+     * Tests that BookController.getAvailableBooks() follows the cursor until the last page.
+     */
+    @Test
+    public void testGetAvailableBooksFollowsPages() {
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/books/available/page?limit=500"))
+                .thenReturn("{\"items\":[{\"bookId\":\"1\",\"borrowedId\":\"\",\"title\":\"Book Title One\",\"author\":\"Author One\",\"checkedOut\":false}],\"nextCursor\":\"9\"}");
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/books/available/page?limit=500&cursor=9"))
+                .thenReturn("{\"items\":[{\"bookId\":\"3\",\"borrowedId\":\"\",\"title\":\"Book Title Three\",\"author\":\"Author Three\",\"checkedOut\":false}],\"nextCursor\":null}");
+
+        List<Book> books = BookController.getAvailableBooks();
+
+        assertEquals(2, books.size());
+        assertEquals("1", books.get(0).getBookId());
+        assertEquals("3", books.get(1).getBookId());
+    }
+
+    /**
+     * Tests the BookController.getBorrower() method, for a book on loan and one on the shelf.
+     */
+    @Test
+    public void testGetBorrower() {
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/books/1/borrower"))
+                .thenReturn("{\"memberId\":\"m1\",\"name\":\"John Doe\",\"address\":\"123 Main St\",\"borrowedBooks\":{}}");
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/books/2/borrower"))
+                .thenReturn("");
+
+        assertEquals("m1", BookController.getBorrower("1").getMemberId());
+        assertNull(BookController.getBorrower("2"));
+    }
+
+    /**
+     * Tests the BookController.suggestBooks() method.
+     */
+    @Test
+    public void testSuggestBooks() {
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/books/suggest?q=bo"))
+                .thenReturn("[\"Book Title One\",\"Book Title Two\"]");
+        assertEquals(List.of("Book Title One", "Book Title Two"), BookController.suggestBooks("bo"));
+    }
+
+    /**
+     * Tests the BookController.suggestBooks() method when the request fails.
+     */
+    @Test
+    public void testSuggestBooksReturnsEmptyListForNullResponse() {
+        mockedHttpController.when(() -> HttpController.executeGetRequest(anyString())).thenReturn(null);
+        assertTrue(BookController.suggestBooks("bo").isEmpty(), "The list should be empty for a null response");
+    }
 }
@@ -8,6 +8,7 @@ import org.mockito.Mockito;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -61,4 +62,15 @@ public class CheckOutControllerTest {
         String actualOutput = outputStreamCaptor.toString().trim();
         assertEquals(expectedOutput, actualOutput);
     }
+
+    /**
+     * Tests the CheckOutController checkOutBooks method.
+     */
+    @Test
+    public void testCheckOutBooks() {
+        CheckOutController.checkOutBooks("1", List.of("1", "2"));
+        String expectedOutput = "Sending POST request to http://localhost:8080/checkouts/1 with body [\"1\",\"2\"]";
+        String actualOutput = outputStreamCaptor.toString().trim();
+        assertEquals(expectedOutput, actualOutput);
+    }
 }
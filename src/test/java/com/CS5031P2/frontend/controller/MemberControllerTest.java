@@ -201,4 +201,16 @@ public class MemberControllerTest {
         List<Member> members = MemberController.getAllMembers();
         assertTrue(members.isEmpty(), "The list should be empty for a response that does not start with '['");
     }
+
+    /**
+     * Tests the MemberController.suggestMembers() method.
+     */
+    @Test
+    public void testSuggestMembers() {
+        mockedHttpController.when(() -> HttpController.executeGetRequest("http://localhost:8080/members/suggest?q=jo"))
+                .thenReturn("[\"John Doe\"]");
+        assertEquals(List.of("John Doe"), MemberController.suggestMembers("jo"));
+        mockedHttpController.when(() -> HttpController.executeGetRequest(anyString())).thenReturn("Invalid response");
+        assertTrue(MemberController.suggestMembers("jo").isEmpty(), "The list should be empty for an invalid response");
+    }
 }